@@ -0,0 +1,208 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import com.github.jknack.handlebars.*;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import com.github.jknack.handlebars.io.URLTemplateSource;
+import com.google.auto.service.AutoService;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates, for each interface with {@code @RequestLine} methods, a class named after the
+ * interface with a {@code Client} suffix. The generated class implements the interface by calling
+ * the method handlers Feign binds to it, so invocations skip {@link java.lang.reflect.Proxy} and
+ * {@link java.lang.reflect.InvocationHandler}.
+ */
+@SupportedAnnotationTypes({
+    "feign.RequestLine"
+})
+@AutoService(Processor.class)
+public class GenerateClientAPT extends AbstractProcessor {
+
+  private final Set<String> generated = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    final Set<TypeElement> clientsToGenerate = annotations.stream()
+        .map(roundEnv::getElementsAnnotatedWith)
+        .flatMap(Set::stream)
+        .map(Element::getEnclosingElement)
+        .filter(type -> type.getKind() == ElementKind.INTERFACE)
+        .map(TypeElement.class::cast)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    if (clientsToGenerate.isEmpty()) {
+      return false;
+    }
+
+    final Handlebars handlebars = new Handlebars().prettyPrint(true);
+    final URLTemplateSource source =
+        new URLTemplateSource("client.mustache", getClass().getResource("/client.mustache"));
+    final Template template;
+    try {
+      template = handlebars.with(EscapingStrategy.NOOP).compile(source);
+    } catch (final IOException e) {
+      throw new IOError(e);
+    }
+
+    for (TypeElement type : clientsToGenerate) {
+      if (!generated.add(type.getQualifiedName().toString())) {
+        continue;
+      }
+      if (!type.getTypeParameters().isEmpty()) {
+        processingEnv.getMessager().printMessage(Kind.NOTE,
+            "Skipping generic interface " + type + ", targets must be concrete types", type);
+        continue;
+      }
+      try {
+        final ClientDefinition client = new ClientDefinition(
+            readPackage(type),
+            type.getSimpleName() + "Client",
+            type.getQualifiedName().toString());
+
+        final Context context = Context.newBuilder(template)
+            .combine("client", client)
+            .combine("methods", readMethods(type))
+            .resolver(JavaBeanValueResolver.INSTANCE, MapValueResolver.INSTANCE,
+                FieldValueResolver.INSTANCE)
+            .build();
+
+        final JavaFileObject clientFile = processingEnv.getFiler()
+            .createSourceFile(client.fullQualifiedName, type);
+        try (Writer writer = clientFile.openWriter()) {
+          writer.append(template.apply(context));
+        }
+      } catch (final Exception e) {
+        processingEnv.getMessager().printMessage(Kind.ERROR,
+            "Unable to generate client for " + type + ": " + e, type);
+      }
+    }
+
+    return false;
+  }
+
+  private List<MethodDefinition> readMethods(TypeElement type) {
+    final Types types = processingEnv.getTypeUtils();
+    final DeclaredType declaredType = (DeclaredType) type.asType();
+    final List<MethodDefinition> result = new ArrayList<>();
+
+    for (ExecutableElement method : ElementFilter
+        .methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if (!method.getModifiers().contains(Modifier.ABSTRACT)
+          || method.getEnclosingElement().getKind() != ElementKind.INTERFACE) {
+        continue;
+      }
+      // parameter and return types as seen from the targeted interface
+      final ExecutableType resolved = (ExecutableType) types.asMemberOf(declaredType, method);
+
+      final List<ArgumentDefinition> args = new ArrayList<>();
+      for (int i = 0; i < method.getParameters().size(); i++) {
+        final VariableElement parameter = method.getParameters().get(i);
+        args.add(new ArgumentDefinition(
+            parameter.getSimpleName().toString(),
+            resolved.getParameterTypes().get(i).toString(),
+            // Class#getMethod matches the erasure of the declared parameter type
+            types.erasure(parameter.asType()).toString()));
+      }
+
+      result.add(new MethodDefinition(
+          method.getSimpleName().toString(),
+          result.size(),
+          typeParameters(method),
+          resolved.getReturnType().toString(),
+          resolved.getReturnType().getKind() == TypeKind.VOID,
+          args,
+          thrownTypes(resolved.getThrownTypes())));
+    }
+    return result;
+  }
+
+  private String typeParameters(ExecutableElement method) {
+    if (method.getTypeParameters().isEmpty()) {
+      return "";
+    }
+    return method.getTypeParameters().stream()
+        .map(parameter -> {
+          final List<String> bounds = parameter.getBounds().stream()
+              .map(TypeMirror::toString)
+              .filter(bound -> !"java.lang.Object".equals(bound))
+              .collect(Collectors.toList());
+          return bounds.isEmpty()
+              ? parameter.toString()
+              : parameter + " extends " + String.join(" & ", bounds);
+        })
+        .collect(Collectors.joining(", ", "<", "> "));
+  }
+
+  /**
+   * Sorts the declared exceptions into what the generated method rethrows as-is. Unchecked
+   * exceptions are always rethrown, so only checked exceptions that are not subtypes of another
+   * declared exception are kept, which makes them valid alternatives of a single multi-catch.
+   */
+  private ThrownDefinition thrownTypes(List<? extends TypeMirror> thrown) {
+    final Types types = processingEnv.getTypeUtils();
+    final TypeMirror throwable = type(Throwable.class);
+    final TypeMirror runtimeException = type(RuntimeException.class);
+    final TypeMirror error = type(Error.class);
+
+    final List<String> declared = thrown.stream()
+        .map(TypeMirror::toString)
+        .collect(Collectors.toList());
+    boolean rethrowsAll = false;
+    final List<String> checked = new ArrayList<>();
+    for (TypeMirror candidate : thrown) {
+      if (types.isSameType(candidate, throwable)) {
+        rethrowsAll = true;
+      } else if (!types.isSubtype(candidate, runtimeException)
+          && !types.isSubtype(candidate, error)
+          && thrown.stream().noneMatch(other -> other != candidate
+              && !types.isSameType(other, candidate) && types.isSubtype(candidate, other))) {
+        checked.add(candidate.toString());
+      }
+    }
+    return new ThrownDefinition(declared, rethrowsAll, checked);
+  }
+
+  private TypeMirror type(Class<?> type) {
+    return processingEnv.getElementUtils().getTypeElement(type.getCanonicalName()).asType();
+  }
+
+  private String readPackage(Element type) {
+    if (type.getKind() == ElementKind.PACKAGE) {
+      return ((PackageElement) type).getQualifiedName().toString();
+    }
+    return readPackage(type.getEnclosingElement());
+  }
+
+}
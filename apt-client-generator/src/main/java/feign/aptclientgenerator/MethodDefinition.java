@@ -0,0 +1,39 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import java.util.List;
+
+public class MethodDefinition {
+
+  public final String name;
+  public final String handler;
+  public final String typeParameters;
+  public final String returnType;
+  public final boolean isVoid;
+  public final List<ArgumentDefinition> args;
+  public final ThrownDefinition thrown;
+
+  public MethodDefinition(String name, int index, String typeParameters, String returnType,
+      boolean isVoid, List<ArgumentDefinition> args, ThrownDefinition thrown) {
+    this.name = name;
+    this.handler = name + "Handler" + index;
+    this.typeParameters = typeParameters;
+    this.returnType = returnType;
+    this.isVoid = isVoid;
+    this.args = args;
+    this.thrown = thrown;
+  }
+
+}
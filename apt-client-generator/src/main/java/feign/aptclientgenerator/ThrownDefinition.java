@@ -0,0 +1,41 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import java.util.List;
+
+public class ThrownDefinition {
+
+  /**
+   * Exceptions in the throws clause of the method.
+   */
+  public final List<String> declared;
+
+  /**
+   * True when the method declares {@code Throwable}, so any exception can be rethrown as-is.
+   */
+  public final boolean rethrowsAll;
+
+  /**
+   * Checked exceptions rethrown as-is, all others are wrapped like a proxy would do.
+   */
+  public final List<String> checked;
+
+  public ThrownDefinition(List<String> declared, boolean rethrowsAll, List<String> checked) {
+    this.declared = declared;
+    this.rethrowsAll = rethrowsAll;
+    this.checked = checked;
+  }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.github;
+
+import feign.Experimental;
+import feign.Feign;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+import feign.Target.HardCodedTarget;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+
+@Experimental
+@SuppressWarnings("unchecked")
+public final class GitHubClient implements example.github.GitHubExample.GitHub {
+
+  public static example.github.GitHubExample.GitHub create(Feign.Builder builder, String url) {
+    return create(builder, new HardCodedTarget<example.github.GitHubExample.GitHub>(
+        example.github.GitHubExample.GitHub.class, url));
+  }
+
+  public static example.github.GitHubExample.GitHub create(Feign.Builder builder,
+                                                           Target<example.github.GitHubExample.GitHub> target) {
+    return builder.target(target, GitHubClient::new);
+  }
+
+  private final Target<example.github.GitHubExample.GitHub> target;
+  private final MethodHandler reposHandler0;
+  private final MethodHandler contributorsHandler1;
+  private final MethodHandler createIssueHandler2;
+
+  public GitHubClient(Target<example.github.GitHubExample.GitHub> target,
+      Map<Method, MethodHandler> dispatch) {
+    this.target = target;
+    this.reposHandler0 = handler(dispatch, "repos", java.lang.String.class);
+    this.contributorsHandler1 =
+        handler(dispatch, "contributors", java.lang.String.class, java.lang.String.class);
+    this.createIssueHandler2 = handler(dispatch, "createIssue",
+        example.github.GitHubExample.GitHub.Issue.class, java.lang.String.class,
+        java.lang.String.class);
+  }
+
+  private static MethodHandler handler(Map<Method, MethodHandler> dispatch,
+                                       String name,
+                                       Class<?>... parameterTypes) {
+    final MethodHandler handler;
+    try {
+      handler =
+          dispatch.get(example.github.GitHubExample.GitHub.class.getMethod(name, parameterTypes));
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+    if (handler == null) {
+      throw new IllegalStateException(name + " is not a method handled by feign");
+    }
+    return handler;
+  }
+
+  @Override
+  public java.util.List<example.github.GitHubExample.GitHub.Repository> repos(java.lang.String owner) {
+    try {
+      return (java.util.List<example.github.GitHubExample.GitHub.Repository>) this.reposHandler0
+          .invoke(new Object[] {owner});
+    } catch (RuntimeException | Error $e) {
+      throw $e;
+    } catch (Throwable $e) {
+      throw new UndeclaredThrowableException($e);
+    }
+  }
+
+  @Override
+  public java.util.List<example.github.GitHubExample.GitHub.Contributor> contributors(java.lang.String owner,
+                                                                                      java.lang.String repo) {
+    try {
+      return (java.util.List<example.github.GitHubExample.GitHub.Contributor>) this.contributorsHandler1
+          .invoke(new Object[] {owner, repo});
+    } catch (RuntimeException | Error $e) {
+      throw $e;
+    } catch (Throwable $e) {
+      throw new UndeclaredThrowableException($e);
+    }
+  }
+
+  @Override
+  public void createIssue(example.github.GitHubExample.GitHub.Issue issue,
+                          java.lang.String owner,
+                          java.lang.String repo) {
+    try {
+      this.createIssueHandler2.invoke(new Object[] {issue, owner, repo});
+    } catch (RuntimeException | Error $e) {
+      throw $e;
+    } catch (Throwable $e) {
+      throw new UndeclaredThrowableException($e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof GitHubClient) {
+      return target.equals(((GitHubClient) obj).target);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return target.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return target.toString();
+  }
+
+}
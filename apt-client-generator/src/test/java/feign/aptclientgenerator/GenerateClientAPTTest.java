@@ -0,0 +1,81 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.Test;
+import java.io.File;
+
+/**
+ * Test for {@link GenerateClientAPT}
+ */
+public class GenerateClientAPTTest {
+
+  private final File main = new File("../example-github/src/main/java/").getAbsoluteFile();
+
+  @Test
+  public void test() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(JavaFileObjects.forResource(
+                new File(main, "example/github/GitHubExample.java")
+                    .toURI()
+                    .toURL()));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("example.github.GitHubClient")
+        .hasSourceEquivalentTo(JavaFileObjects.forResource(
+            new File("src/test/java/example/github/GitHubClient.java")
+                .toURI()
+                .toURL()));
+  }
+
+  @Test
+  public void exceptionsAndGenerics() {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(JavaFileObjects.forSourceLines("test.Api",
+                "package test;",
+                "",
+                "import feign.Param;",
+                "import feign.RequestLine;",
+                "import java.io.FileNotFoundException;",
+                "import java.io.IOException;",
+                "import java.util.List;",
+                "",
+                "interface Base<K> {",
+                "  @RequestLine(\"GET /{key}\")",
+                "  String get(@Param(\"key\") K key) throws IOException, FileNotFoundException;",
+                "}",
+                "",
+                "public interface Api extends Base<Long> {",
+                "  @RequestLine(\"GET /\")",
+                "  List<String> list() throws Throwable;",
+                "",
+                "  @RequestLine(\"GET /{id}\")",
+                "  int count(@Param(\"id\") int id) throws IllegalStateException;",
+                "",
+                "  @RequestLine(\"POST /\")",
+                "  void post(String e);",
+                "}"));
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test.ApiClient");
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import example.github.GitHubClient;
+import example.github.GitHubExample.GitHub;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import feign.gson.GsonDecoder;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Binds the client {@link GenerateClientAPT} generates for {@link GitHub} to a real Feign instance.
+ */
+public class GeneratedClientTest {
+
+  private final List<String> requests = new ArrayList<>();
+
+  private final Feign.Builder builder = Feign.builder()
+      .decoder(new GsonDecoder())
+      .client((request, options) -> {
+        requests.add(request.httpMethod() + " " + request.url());
+        final String body = request.url().endsWith("/repos?sort=full_name")
+            ? "[{\"name\":\"feign\"}]"
+            : "[{\"login\":\"velo\"},{\"login\":\"adriancole\"}]";
+        return Response.builder()
+            .status(200)
+            .reason("OK")
+            .request(request)
+            .headers(Collections.emptyMap())
+            .body(body, Util.UTF_8)
+            .build();
+      });
+
+  @Test
+  public void invokesBoundHandlers() {
+    final GitHub github = GitHubClient.create(builder, "https://api.github.com");
+
+    assertThat(github).isInstanceOf(GitHubClient.class);
+    assertThat(github.repos("openfeign")).hasSize(1);
+    assertThat(requests)
+        .containsExactly("GET https://api.github.com/users/openfeign/repos?sort=full_name");
+  }
+
+  @Test
+  public void inheritsDefaultMethods() {
+    final GitHub github = GitHubClient.create(builder, "https://api.github.com");
+
+    assertThat(github.contributors("openfeign")).containsExactly("velo", "adriancole");
+    assertThat(requests).containsExactly(
+        "GET https://api.github.com/users/openfeign/repos?sort=full_name",
+        "GET https://api.github.com/repos/openfeign/feign/contributors");
+  }
+
+  @Test
+  public void equalsAndHashCodeFollowTarget() {
+    final GitHub github = GitHubClient.create(builder, "https://api.github.com");
+    final GitHub same = GitHubClient.create(builder, "https://api.github.com");
+    final GitHub other = GitHubClient.create(builder, "https://example.com");
+
+    assertThat(github).isEqualTo(same).hasSameHashCodeAs(same).isNotEqualTo(other);
+    assertThat(github.toString()).contains("https://api.github.com");
+  }
+
+  @Test
+  public void fallsBackToProxyWithCustomInvocationHandlerFactory() {
+    final InvocationHandlerFactory delegate = new InvocationHandlerFactory.Default();
+    final GitHub github = GitHubClient.create(
+        builder.invocationHandlerFactory(delegate::create), "https://api.github.com");
+
+    assertThat(Proxy.isProxyClass(github.getClass())).isTrue();
+    assertThat(github.repos("openfeign")).hasSize(1);
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import feign.Client;
+import feign.Feign;
+import feign.Response;
+import feign.circuitbreaker.BulkheadFactory;
+import feign.circuitbreaker.CircuitBreakerFeign;
+import feign.hystrix.HystrixFeign;
+import feign.hystrix.SetterFactory;
+
+/**
+ * Overhead of guarding a call with a circuit breaker, without considering network.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CircuitBreakerBenchmarks {
+
+  private FeignTestInterface feignApi;
+  private FeignTestInterface circuitBreakerApi;
+  private FeignTestInterface bulkheadApi;
+  private FeignTestInterface hystrixApi;
+  private FeignTestInterface hystrixSemaphoreApi;
+
+  @Setup
+  public void setup() {
+    Client fakeClient = (request, options) -> Response.builder()
+        .body((byte[]) null)
+        .status(200)
+        .headers(Collections.emptyMap())
+        .reason("ok")
+        .request(request)
+        .build();
+    feignApi = Feign.builder()
+        .client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+    circuitBreakerApi = CircuitBreakerFeign.builder()
+        .client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+    bulkheadApi = CircuitBreakerFeign.builder()
+        .bulkheadFactory(BulkheadFactory.perMethod(100))
+        .client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+    hystrixApi = HystrixFeign.builder()
+        .setterFactory(hystrixSetterFactory(ExecutionIsolationStrategy.THREAD))
+        .client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+    hystrixSemaphoreApi = HystrixFeign.builder()
+        .setterFactory(hystrixSetterFactory(ExecutionIsolationStrategy.SEMAPHORE))
+        .client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+  }
+
+  /**
+   * Timeouts are disabled, and the thread pool has a queue, so that scheduling delays on a loaded
+   * machine don't make Hystrix reject calls.
+   */
+  private static SetterFactory hystrixSetterFactory(ExecutionIsolationStrategy strategy) {
+    return (target, method) -> HystrixCommand.Setter
+        .withGroupKey(HystrixCommandGroupKey.Factory.asKey(strategy.name()))
+        .andCommandKey(HystrixCommandKey.Factory.asKey(Feign.configKey(target.type(), method)))
+        .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+            .withExecutionIsolationStrategy(strategy)
+            .withExecutionIsolationSemaphoreMaxConcurrentRequests(100)
+            .withExecutionTimeoutEnabled(false))
+        .andThreadPoolPropertiesDefaults(HystrixThreadPoolProperties.Setter()
+            .withMaxQueueSize(100)
+            .withQueueSizeRejectionThreshold(100));
+  }
+
+  /**
+   * Baseline, without a circuit breaker.
+   */
+  @Benchmark
+  public Response query_feign() {
+    return feignApi.query();
+  }
+
+  @Benchmark
+  public Response query_circuitBreakerFeign() {
+    return circuitBreakerApi.query();
+  }
+
+  @Benchmark
+  public Response query_circuitBreakerFeignWithBulkhead() {
+    return bulkheadApi.query();
+  }
+
+  /**
+   * Hystrix runs each call on a thread pool by default.
+   */
+  @Benchmark
+  public Response query_hystrixFeign() {
+    return hystrixApi.query();
+  }
+
+  @Benchmark
+  public Response query_hystrixFeignWithSemaphore() {
+    return hystrixSemaphoreApi.query();
+  }
+}
@@ -20,6 +20,7 @@ import feign.Logger;
 import feign.Logger.Level;
 import feign.Response;
 import feign.Retryer;
+import feign.netty.NettyClient;
 import io.reactivex.netty.protocol.http.server.HttpServer;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
@@ -50,6 +51,8 @@ public class RealRequestBenchmarks {
   private HttpServer<ByteBuf, ByteBuf> server;
   private OkHttpClient client;
   private FeignTestInterface okFeign;
+  private NettyClient nettyClient;
+  private FeignTestInterface nettyFeign;
   private Request queryRequest;
 
   @Setup
@@ -65,6 +68,13 @@ public class RealRequestBenchmarks {
         .logger(new Logger.ErrorLogger())
         .retryer(new Retryer.Default())
         .target(FeignTestInterface.class, "http://localhost:" + SERVER_PORT);
+    nettyClient = new NettyClient();
+    nettyFeign = Feign.builder()
+        .client(nettyClient)
+        .logLevel(Level.NONE)
+        .logger(new Logger.ErrorLogger())
+        .retryer(new Retryer.Default())
+        .target(FeignTestInterface.class, "http://localhost:" + SERVER_PORT);
     queryRequest = new Request.Builder()
         .url("http://localhost:" + SERVER_PORT + "/?Action=GetUser&Version=2010-05-08&limit=1")
         .build();
@@ -72,6 +82,7 @@ public class RealRequestBenchmarks {
 
   @TearDown
   public void tearDown() throws InterruptedException {
+    nettyClient.close();
     server.shutdown();
   }
 
@@ -95,4 +106,15 @@ public class RealRequestBenchmarks {
       return true;
     }
   }
+
+  /**
+   * How fast can we execute get commands synchronously using Feign over Netty?
+   */
+  @Benchmark
+  public boolean query_feignUsingNetty() {
+    /* auto close the response */
+    try (Response ignored = nettyFeign.query()) {
+      return true;
+    }
+  }
 }
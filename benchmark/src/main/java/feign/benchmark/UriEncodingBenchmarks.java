@@ -0,0 +1,98 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import feign.Util;
+import feign.template.HeaderTemplate;
+import feign.template.QueryTemplate;
+import feign.template.UriTemplate;
+import feign.template.UriUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How fast are path, query and header values pct-encoded while expanding templates?
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UriEncodingBenchmarks {
+
+  /**
+   * A uuid, which needs no escaping, an already encoded value, a free text search with reserved
+   * characters, and a non-ascii utf-8 value.
+   */
+  @Param({
+      "3f2a9c1e-7b4d-4e8a-9f6b-2d1c0e5a7b3c",
+      "orders%2F2021%2F0042",
+      "name=Bond, James & co?",
+      "Zürich Straße 東京 😀"
+  })
+  private String value;
+
+  private UriTemplate path;
+  private QueryTemplate query;
+  private HeaderTemplate header;
+  private Map<String, Object> variables;
+
+  @Setup
+  public void setup() {
+    path = UriTemplate.create("/api/v1/accounts/{id}/orders", Util.UTF_8);
+    query = QueryTemplate.create("q", Collections.singletonList("{id}"), Util.UTF_8);
+    header = HeaderTemplate.create("X-Request-Id", Collections.singletonList("{id}"));
+    variables = new HashMap<>();
+    variables.put("id", value);
+  }
+
+  @Benchmark
+  public String encode() {
+    return UriUtils.encode(value, Util.UTF_8);
+  }
+
+  @Benchmark
+  public String encodeAllowReserved() {
+    return UriUtils.encode(value, Util.UTF_8, true);
+  }
+
+  @Benchmark
+  public String expandPath() {
+    return path.expand(variables);
+  }
+
+  @Benchmark
+  public String expandQuery() {
+    return query.expand(variables);
+  }
+
+  @Benchmark
+  public String expandHeader() {
+    return header.expand(variables);
+  }
+}
@@ -28,12 +28,17 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import feign.AsyncClient;
+import feign.AsyncFeign;
 import feign.Client;
 import feign.Contract;
 import feign.Feign;
+import feign.MetadataCache;
 import feign.MethodMetadata;
 import feign.Request;
+import feign.RequestLine;
 import feign.Response;
 import feign.Target.HardCodedTarget;
 
@@ -47,9 +52,17 @@ public class WhatShouldWeCacheBenchmarks {
 
   private Contract feignContract;
   private Contract cachedContact;
+  private MetadataCache metadataCache;
   private Client fakeClient;
   private Feign cachedFakeFeign;
   private FeignTestInterface cachedFakeApi;
+  private AsyncTestInterface cachedFakeAsyncApi;
+
+  interface AsyncTestInterface {
+
+    @RequestLine("GET /?Action=GetUser&Version=2010-05-08&limit=1")
+    CompletableFuture<Response> query();
+  }
 
   @Setup
   public void setup() {
@@ -62,6 +75,7 @@ public class WhatShouldWeCacheBenchmarks {
         return cached;
       }
     };
+    metadataCache = new MetadataCache();
     fakeClient = new Client() {
       public Response execute(Request request, Request.Options options) throws IOException {
         Map<String, Collection<String>> headers = new LinkedHashMap<String, Collection<String>>();
@@ -77,6 +91,9 @@ public class WhatShouldWeCacheBenchmarks {
     cachedFakeFeign = Feign.builder().client(fakeClient).build();
     cachedFakeApi = cachedFakeFeign.newInstance(
         new HardCodedTarget<FeignTestInterface>(FeignTestInterface.class, "http://localhost"));
+    cachedFakeAsyncApi = AsyncFeign.<Void>asyncBuilder()
+        .client(new AsyncClient.Pseudo<>(fakeClient))
+        .target(AsyncTestInterface.class, "http://localhost");
   }
 
   /**
@@ -106,6 +123,16 @@ public class WhatShouldWeCacheBenchmarks {
         .target(FeignTestInterface.class, "http://localhost").query();
   }
 
+  /**
+   * How fast is creating a feign instance for each http request, without considering network, when
+   * parsed metadata is shared through a {@link MetadataCache}?
+   */
+  @Benchmark
+  public Response buildAndQuery_fake_metadataCache() {
+    return Feign.builder().metadataCache(metadataCache).client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost").query();
+  }
+
   /**
    * How fast re-parsing the annotated http api for each http request, without considering network?
    */
@@ -123,4 +150,22 @@ public class WhatShouldWeCacheBenchmarks {
   public Response buildAndQuery_fake_cachedApi() {
     return cachedFakeApi.query();
   }
+
+  /**
+   * How fast are arguments bound and expanded into the url, with a cached api and without
+   * considering network?
+   */
+  @Benchmark
+  public Response buildAndQuery_fake_cachedApi_mixedParams() {
+    return cachedFakeApi.mixedParams(1, "www", "A");
+  }
+
+  /**
+   * How does an async api compare to {@link #buildAndQuery_fake_cachedApi()}, when the client
+   * completes the response right away?
+   */
+  @Benchmark
+  public Response buildAndQuery_fake_cachedAsyncApi() {
+    return cachedFakeAsyncApi.query().join();
+  }
 }
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkArgument;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import feign.Experimental;
+
+/**
+ * Limits the calls to a method in flight at once, so that a slow server ties up a bounded number
+ * of the caller's threads. The caller's thread makes the call, as opposed to a thread pool, so a
+ * permitted call costs no hand-off.
+ */
+@Experimental
+public final class Bulkhead {
+
+  private final int maxConcurrentCalls;
+  private final long maxWaitNanos;
+  private final Semaphore permits;
+
+  private Bulkhead(int maxConcurrentCalls, long maxWaitNanos) {
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxWaitNanos = maxWaitNanos;
+    this.permits = new Semaphore(maxConcurrentCalls);
+  }
+
+  /**
+   * Rejects calls beyond {@code maxConcurrentCalls} right away.
+   */
+  public static Bulkhead of(int maxConcurrentCalls) {
+    return of(maxConcurrentCalls, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Waits up to {@code maxWait} for a call in flight to complete before rejecting a call beyond
+   * {@code maxConcurrentCalls}.
+   */
+  public static Bulkhead of(int maxConcurrentCalls, long maxWait, TimeUnit unit) {
+    checkArgument(maxConcurrentCalls > 0, "maxConcurrentCalls must be positive, was %s",
+        maxConcurrentCalls);
+    checkArgument(maxWait >= 0, "maxWait must not be negative, was %s", maxWait);
+    return new Bulkhead(maxConcurrentCalls, unit.toNanos(maxWait));
+  }
+
+  /**
+   * If a call may be made now. When true, the caller must {@link #release()} once it completes.
+   */
+  public boolean tryAcquire() {
+    if (permits.tryAcquire()) {
+      return true;
+    }
+    if (maxWaitNanos == 0) {
+      return false;
+    }
+    try {
+      return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  public int maxConcurrentCalls() {
+    return maxConcurrentCalls;
+  }
+
+  /**
+   * Count of calls that may be made before the bulkhead is full.
+   */
+  public int availableCalls() {
+    return permits.availablePermits();
+  }
+
+  @Override
+  public String toString() {
+    return "Bulkhead(" + availableCalls() + "/" + maxConcurrentCalls + ")";
+  }
+}
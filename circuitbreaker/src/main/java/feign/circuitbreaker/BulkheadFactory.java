@@ -0,0 +1,44 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkArgument;
+import java.lang.reflect.Method;
+import feign.Target;
+
+/**
+ * Creates the {@link Bulkhead} of each method of a target.
+ */
+public interface BulkheadFactory {
+
+  /**
+   * Returns the bulkhead of {@code method}, which may be shared with other methods, or null to not
+   * limit its concurrent calls.
+   */
+  Bulkhead create(Target<?> target, Method method);
+
+  /**
+   * Doesn't limit concurrent calls.
+   */
+  BulkheadFactory NONE = (target, method) -> null;
+
+  /**
+   * Limits each method to {@code maxConcurrentCalls}, rejecting the calls beyond right away.
+   */
+  static BulkheadFactory perMethod(int maxConcurrentCalls) {
+    checkArgument(maxConcurrentCalls > 0, "maxConcurrentCalls must be positive, was %s",
+        maxConcurrentCalls);
+    return (target, method) -> Bulkhead.of(maxConcurrentCalls);
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+/**
+ * This exception is raised, or passed to the {@link FallbackFactory}, when a method is called while
+ * its {@link Bulkhead} is full, without sending a request.
+ */
+public class BulkheadFullException extends CallNotPermittedException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int maxConcurrentCalls;
+
+  public BulkheadFullException(String configKey, int maxConcurrentCalls) {
+    super(String.format("Bulkhead of %s concurrent calls is full for %s", maxConcurrentCalls,
+        configKey));
+    this.maxConcurrentCalls = maxConcurrentCalls;
+  }
+
+  public int maxConcurrentCalls() {
+    return maxConcurrentCalls;
+  }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import feign.FeignException;
+
+/**
+ * This exception is raised, or passed to the {@link FallbackFactory}, when a method is called while
+ * its {@link CircuitBreaker} is open, without sending a request. It is not retryable, so that
+ * retries don't add to the load of a failing server.
+ */
+public class CallNotPermittedException extends FeignException {
+
+  private static final long serialVersionUID = 1L;
+
+  public CallNotPermittedException(String message) {
+    super(-1, message);
+  }
+}
@@ -0,0 +1,346 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import feign.Experimental;
+
+/**
+ * Stops calling a method once too many of its recent calls failed, so that callers fail fast, or
+ * fall back, while a struggling server recovers.
+ *
+ * <p>
+ * The breaker is {@link State#CLOSED closed} while the failure rate of the last
+ * {@link Builder#slidingWindowSize(int) calls} stays below the
+ * {@link Builder#failureRateThreshold(double) threshold}. Once reached, it {@link State#OPEN opens}
+ * and rejects calls until the {@link Builder#waitDurationInOpenState(long, TimeUnit) wait duration}
+ * elapsed. It then lets a few calls through {@link State#HALF_OPEN half open}, and closes again
+ * when their failure rate is below the threshold, or opens again otherwise.
+ *
+ * <p>
+ * Outcomes are recorded in a ring buffer and transitions are made by swapping an immutable state,
+ * so neither permitting nor recording a call takes a lock or allocates. Each {@link Permit} belongs
+ * to the state it was acquired in, and the outcome of a call that outlives that state is ignored,
+ * so that calls made before the breaker opened don't decide whether it closes.
+ */
+@Experimental
+public final class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  /**
+   * Permission to make a call, whose outcome must be reported exactly once.
+   */
+  public interface Permit {
+
+    void onSuccess();
+
+    /**
+     * Records a failed call, unless {@link Builder#recordFailure(Predicate)} says that
+     * {@code error} is not a failure of the server, in which case it counts as a success.
+     */
+    void onError(Throwable error);
+
+    /**
+     * Gives the permit back without recording an outcome, for example when the caller cancelled
+     * the call.
+     */
+    void release();
+  }
+
+  private final double failureRateThreshold;
+  private final int slidingWindowSize;
+  private final int minimumNumberOfCalls;
+  private final long waitNanos;
+  private final int permittedCallsInHalfOpenState;
+  private final Predicate<Throwable> recordFailure;
+  private final LongSupplier nanoClock;
+  private final AtomicReference<Phase> phase;
+
+  private CircuitBreaker(Builder builder) {
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slidingWindowSize = builder.slidingWindowSize;
+    this.minimumNumberOfCalls = Math.min(builder.minimumNumberOfCalls, builder.slidingWindowSize);
+    this.waitNanos = builder.waitNanos;
+    this.permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+    this.recordFailure = builder.recordFailure;
+    this.nanoClock = builder.nanoClock;
+    this.phase = new AtomicReference<>(closed());
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns a permit if a call may be made now, otherwise null. The permits of a state are the same
+   * instance, so acquiring one doesn't allocate.
+   */
+  public Permit tryAcquirePermission() {
+    for (;;) {
+      Phase current = phase.get();
+      switch (current.state) {
+        case CLOSED:
+          return current;
+        case OPEN:
+          if (nanoClock.getAsLong() - current.openedNanos < waitNanos) {
+            return null;
+          }
+          phase.compareAndSet(current, halfOpen());
+          break;
+        default:
+          return current.tryTakePermit() ? current : null;
+      }
+    }
+  }
+
+  public State state() {
+    return phase.get().state;
+  }
+
+  /**
+   * Failure rate of the calls recorded since the last transition, between 0 and 1.
+   */
+  public double failureRate() {
+    Ring ring = phase.get().ring;
+    return ring != null ? ring.failureRate() : 1;
+  }
+
+  private void record(Phase current, boolean failure) {
+    if (phase.get() != current) {
+      // a call permitted before the last transition
+      return;
+    }
+    long counts = current.ring.record(failure);
+    int calls = Ring.calls(counts);
+    boolean failing = Ring.failures(counts) >= failureRateThreshold * calls;
+    if (current.state == State.CLOSED) {
+      if (calls >= minimumNumberOfCalls && failing) {
+        phase.compareAndSet(current, open());
+      }
+    } else if (calls >= permittedCallsInHalfOpenState) {
+      phase.compareAndSet(current, failing ? open() : closed());
+    }
+  }
+
+  private Phase closed() {
+    return new Phase(State.CLOSED, 0, new Ring(slidingWindowSize), 0);
+  }
+
+  private Phase open() {
+    return new Phase(State.OPEN, nanoClock.getAsLong(), null, 0);
+  }
+
+  private Phase halfOpen() {
+    return new Phase(State.HALF_OPEN, 0, new Ring(permittedCallsInHalfOpenState),
+        permittedCallsInHalfOpenState);
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreaker(" + state() + ")";
+  }
+
+  private final class Phase implements Permit {
+
+    final State state;
+    final long openedNanos;
+    /* null when open */
+    final Ring ring;
+    /* calls still permitted when half open */
+    final AtomicInteger permits;
+
+    Phase(State state, long openedNanos, Ring ring, int permits) {
+      this.state = state;
+      this.openedNanos = openedNanos;
+      this.ring = ring;
+      this.permits = new AtomicInteger(permits);
+    }
+
+    boolean tryTakePermit() {
+      int remaining;
+      do {
+        remaining = permits.get();
+        if (remaining == 0) {
+          return false;
+        }
+      } while (!permits.compareAndSet(remaining, remaining - 1));
+      return true;
+    }
+
+    @Override
+    public void onSuccess() {
+      record(this, false);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      record(this, recordFailure.test(error));
+    }
+
+    @Override
+    public void release() {
+      if (state == State.HALF_OPEN && phase.get() == this) {
+        permits.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Outcomes of the last calls, with running counts of calls and failures packed in one long, so
+   * that they are read and updated together.
+   */
+  static final class Ring {
+
+    private static final int EMPTY = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong next = new AtomicLong();
+    /* calls in the high 32 bits, failures in the low ones */
+    private final AtomicLong counts = new AtomicLong();
+
+    Ring(int size) {
+      this.outcomes = new AtomicIntegerArray(size);
+    }
+
+    /**
+     * @return the counts, including this outcome.
+     */
+    long record(boolean failure) {
+      int index = (int) (next.getAndIncrement() % outcomes.length());
+      int previous = outcomes.getAndSet(index, failure ? FAILURE : SUCCESS);
+      long delta = (previous == EMPTY ? 1L << 32 : 0)
+          + (failure ? 1 : 0)
+          - (previous == FAILURE ? 1 : 0);
+      return delta == 0 ? counts.get() : counts.addAndGet(delta);
+    }
+
+    double failureRate() {
+      long current = counts.get();
+      int calls = calls(current);
+      return calls == 0 ? 0 : (double) Math.max(failures(current), 0) / calls;
+    }
+
+    /*
+     * When the ring wraps while another thread records, the outcome it overwrites may be subtracted
+     * before it was added, so failures can briefly be negative. The low half is then a borrow from
+     * the calls, which is why they are decoded after subtracting it.
+     */
+    static int calls(long counts) {
+      return (int) ((counts - failures(counts)) >> 32);
+    }
+
+    static int failures(long counts) {
+      return (int) counts;
+    }
+  }
+
+  public static final class Builder {
+
+    private double failureRateThreshold = 0.5;
+    private int slidingWindowSize = 100;
+    private int minimumNumberOfCalls = 20;
+    private long waitNanos = TimeUnit.SECONDS.toNanos(5);
+    private int permittedCallsInHalfOpenState = 10;
+    private Predicate<Throwable> recordFailure = error -> true;
+    private LongSupplier nanoClock = System::nanoTime;
+
+    private Builder() {}
+
+    /**
+     * Failure rate, between 0 and 1, at which the breaker opens, 0.5 by default.
+     */
+    public Builder failureRateThreshold(double failureRateThreshold) {
+      checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1,
+          "failureRateThreshold must be between 0 and 1, was %s", failureRateThreshold);
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /**
+     * Count of recent calls the failure rate is computed from, 100 by default.
+     */
+    public Builder slidingWindowSize(int slidingWindowSize) {
+      checkArgument(slidingWindowSize > 0, "slidingWindowSize must be positive, was %s",
+          slidingWindowSize);
+      this.slidingWindowSize = slidingWindowSize;
+      return this;
+    }
+
+    /**
+     * Count of calls recorded before the breaker may open, 20 by default, so that a few early
+     * failures don't open it.
+     */
+    public Builder minimumNumberOfCalls(int minimumNumberOfCalls) {
+      checkArgument(minimumNumberOfCalls > 0, "minimumNumberOfCalls must be positive, was %s",
+          minimumNumberOfCalls);
+      this.minimumNumberOfCalls = minimumNumberOfCalls;
+      return this;
+    }
+
+    /**
+     * How long the breaker rejects calls once open, 5 seconds by default.
+     */
+    public Builder waitDurationInOpenState(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "duration must not be negative, was %s", duration);
+      this.waitNanos = unit.toNanos(duration);
+      return this;
+    }
+
+    /**
+     * Count of calls let through half open, which decide whether the breaker closes, 10 by
+     * default.
+     */
+    public Builder permittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+      checkArgument(permittedCallsInHalfOpenState > 0,
+          "permittedCallsInHalfOpenState must be positive, was %s",
+          permittedCallsInHalfOpenState);
+      this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+      return this;
+    }
+
+    /**
+     * Errors that count as failures, all by default. Others count as successes, for example client
+     * errors that say nothing about the health of the server.
+     */
+    public Builder recordFailure(Predicate<Throwable> recordFailure) {
+      this.recordFailure = checkNotNull(recordFailure, "recordFailure");
+      return this;
+    }
+
+    Builder clock(LongSupplier nanoClock) {
+      this.nanoClock = checkNotNull(nanoClock, "nanoClock");
+      return this;
+    }
+
+    /**
+     * Creates a new breaker each time, so a builder can create one for each method.
+     */
+    public CircuitBreaker build() {
+      return new CircuitBreaker(this);
+    }
+  }
+}
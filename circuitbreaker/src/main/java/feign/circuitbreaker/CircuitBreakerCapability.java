@@ -0,0 +1,63 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkNotNull;
+import java.util.HashMap;
+import java.util.Map;
+import feign.Capability;
+import feign.InvocationHandlerFactory;
+
+/**
+ * Decorates Feign methods with circuit breakers and bulkheads, like {@link CircuitBreakerFeign}. To
+ * use it with {@link feign.AsyncFeign}, pass the enriched {@link InvocationHandlerFactory} to
+ * {@link feign.AsyncFeign.AsyncBuilder#invocationHandlerFactory(InvocationHandlerFactory)}.
+ */
+public final class CircuitBreakerCapability implements Capability {
+
+  private CircuitBreakerFactory circuitBreakerFactory = new CircuitBreakerFactory.Default();
+  private BulkheadFactory bulkheadFactory = BulkheadFactory.NONE;
+  private final Map<Class, Object> fallbacks = new HashMap<>();
+
+  /**
+   * Allows you to override the settings of the breakers, or share them between methods.
+   */
+  public CircuitBreakerCapability circuitBreakerFactory(
+      CircuitBreakerFactory circuitBreakerFactory) {
+    this.circuitBreakerFactory = checkNotNull(circuitBreakerFactory, "circuitBreakerFactory");
+    return this;
+  }
+
+  /**
+   * Limits the concurrent calls to methods, which are not limited by default.
+   */
+  public CircuitBreakerCapability bulkheadFactory(BulkheadFactory bulkheadFactory) {
+    this.bulkheadFactory = checkNotNull(bulkheadFactory, "bulkheadFactory");
+    return this;
+  }
+
+  @Override
+  public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+    return (target, dispatch) -> new CircuitBreakerInvocationHandler(target, dispatch,
+        circuitBreakerFactory, bulkheadFactory,
+        fallbacks.containsKey(target.type())
+            ? new FallbackFactory.Default<>(fallbacks.get(target.type()))
+            : null);
+  }
+
+  public <E> CircuitBreakerCapability fallback(Class<E> api, E fallback) {
+    fallbacks.put(api, fallback);
+    return this;
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkNotNull;
+import java.lang.reflect.Method;
+import feign.Target;
+
+/**
+ * Creates the {@link CircuitBreaker} of each method of a target, so that a failing method doesn't
+ * open the breaker of the others.
+ */
+public interface CircuitBreakerFactory {
+
+  /**
+   * Returns the breaker of {@code method}, which may be shared with other methods.
+   */
+  CircuitBreaker create(Target<?> target, Method method);
+
+  /**
+   * Creates a breaker with the same settings for each method.
+   */
+  final class Default implements CircuitBreakerFactory {
+
+    private final CircuitBreaker.Builder builder;
+
+    public Default() {
+      this(CircuitBreaker.builder());
+    }
+
+    public Default(CircuitBreaker.Builder builder) {
+      this.builder = checkNotNull(builder, "builder");
+    }
+
+    @Override
+    public CircuitBreaker create(Target<?> target, Method method) {
+      return builder.build();
+    }
+  }
+}
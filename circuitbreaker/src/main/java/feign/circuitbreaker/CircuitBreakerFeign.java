@@ -0,0 +1,186 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkNotNull;
+import feign.Client;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.Logger;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.ResponseMapper;
+import feign.Retryer;
+import feign.Target;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+
+/**
+ * Decorates Feign methods with a {@link CircuitBreaker}, and optionally a {@link Bulkhead}, each,
+ * without the command objects and thread pools of {@code HystrixFeign}: permitted calls run on the
+ * caller's thread, and fallbacks are the same as Hystrix's.
+ */
+public final class CircuitBreakerFeign {
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static final class Builder extends Feign.Builder {
+
+    private CircuitBreakerFactory circuitBreakerFactory = new CircuitBreakerFactory.Default();
+    private BulkheadFactory bulkheadFactory = BulkheadFactory.NONE;
+
+    /**
+     * Allows you to override the settings of the breakers, or share them between methods.
+     */
+    public Builder circuitBreakerFactory(CircuitBreakerFactory circuitBreakerFactory) {
+      this.circuitBreakerFactory = checkNotNull(circuitBreakerFactory, "circuitBreakerFactory");
+      return this;
+    }
+
+    /**
+     * Limits the concurrent calls to methods, which are not limited by default.
+     *
+     * @see BulkheadFactory#perMethod(int)
+     */
+    public Builder bulkheadFactory(BulkheadFactory bulkheadFactory) {
+      this.bulkheadFactory = checkNotNull(bulkheadFactory, "bulkheadFactory");
+      return this;
+    }
+
+    /**
+     * @see #target(Class, String, Object)
+     */
+    public <T> T target(Target<T> target, T fallback) {
+      return build(fallback != null ? new FallbackFactory.Default<T>(fallback) : null)
+          .newInstance(target);
+    }
+
+    /**
+     * @see #target(Class, String, FallbackFactory)
+     */
+    public <T> T target(Target<T> target, FallbackFactory<? extends T> fallbackFactory) {
+      return build(fallbackFactory).newInstance(target);
+    }
+
+    /**
+     * Like {@link Feign#newInstance(Target)}, except that {@code fallback} is called when a method
+     * fails, or isn't called because its breaker is open or its bulkhead is full.
+     *
+     * <pre>
+     * {@code
+     * GitHub github = CircuitBreakerFeign.builder()
+     *                                    ...
+     *                                    .target(GitHub.class, "https://api.github.com", fallback);
+     * }
+     * </pre>
+     *
+     * @see #target(Target, Object)
+     */
+    public <T> T target(Class<T> apiType, String url, T fallback) {
+      return target(new Target.HardCodedTarget<T>(apiType, url), fallback);
+    }
+
+    /**
+     * Same as {@link #target(Class, String, Object)}, except you can inspect a source exception
+     * before creating a fallback object.
+     */
+    public <T> T target(Class<T> apiType,
+                        String url,
+                        FallbackFactory<? extends T> fallbackFactory) {
+      return target(new Target.HardCodedTarget<T>(apiType, url), fallbackFactory);
+    }
+
+    @Override
+    public Feign.Builder invocationHandlerFactory(InvocationHandlerFactory invocationHandlerFactory) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Feign build() {
+      return build(null);
+    }
+
+    /** Configures components needed for circuit breaking. */
+    Feign build(final FallbackFactory<?> nullableFallbackFactory) {
+      super.invocationHandlerFactory(
+          (target, dispatch) -> new CircuitBreakerInvocationHandler(target, dispatch,
+              circuitBreakerFactory, bulkheadFactory, nullableFallbackFactory));
+      return super.build();
+    }
+
+    // Covariant overrides to support chaining to new fallback method.
+    @Override
+    public Builder logLevel(Logger.Level logLevel) {
+      return (Builder) super.logLevel(logLevel);
+    }
+
+    @Override
+    public Builder client(Client client) {
+      return (Builder) super.client(client);
+    }
+
+    @Override
+    public Builder retryer(Retryer retryer) {
+      return (Builder) super.retryer(retryer);
+    }
+
+    @Override
+    public Builder logger(Logger logger) {
+      return (Builder) super.logger(logger);
+    }
+
+    @Override
+    public Builder encoder(Encoder encoder) {
+      return (Builder) super.encoder(encoder);
+    }
+
+    @Override
+    public Builder decoder(Decoder decoder) {
+      return (Builder) super.decoder(decoder);
+    }
+
+    @Override
+    public Builder mapAndDecode(ResponseMapper mapper, Decoder decoder) {
+      return (Builder) super.mapAndDecode(mapper, decoder);
+    }
+
+    @Override
+    public Builder decode404() {
+      return (Builder) super.decode404();
+    }
+
+    @Override
+    public Builder errorDecoder(ErrorDecoder errorDecoder) {
+      return (Builder) super.errorDecoder(errorDecoder);
+    }
+
+    @Override
+    public Builder options(Request.Options options) {
+      return (Builder) super.options(options);
+    }
+
+    @Override
+    public Builder requestInterceptor(RequestInterceptor requestInterceptor) {
+      return (Builder) super.requestInterceptor(requestInterceptor);
+    }
+
+    @Override
+    public Builder requestInterceptors(Iterable<RequestInterceptor> requestInterceptors) {
+      return (Builder) super.requestInterceptors(requestInterceptors);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static feign.Util.checkNotNull;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import feign.DispatchTable;
+import feign.Feign;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+import feign.Util;
+
+/**
+ * Calls each method through its {@link Bulkhead} and {@link CircuitBreaker} on the caller's thread.
+ * Methods returning a {@link CompletableFuture}, as with {@link feign.AsyncFeign}, hold their
+ * permits until it completes, and fall back asynchronously.
+ */
+final class CircuitBreakerInvocationHandler implements InvocationHandler {
+
+  private final Target<?> target;
+  private final DispatchTable dispatch;
+  private final FallbackFactory<?> fallbackFactory; // Nullable
+  private final Method[] fallbackMethods;
+  private final String[] configKeys;
+  /* null for default methods, which call other methods of the proxy */
+  private final CircuitBreaker[] breakers;
+  /* null when concurrent calls are not limited */
+  private final Bulkhead[] bulkheads;
+
+  CircuitBreakerInvocationHandler(Target<?> target, Map<Method, MethodHandler> dispatch,
+      CircuitBreakerFactory circuitBreakerFactory, BulkheadFactory bulkheadFactory,
+      FallbackFactory<?> fallbackFactory) {
+    this.target = checkNotNull(target, "target");
+    this.dispatch = DispatchTable.create(checkNotNull(dispatch, "dispatch"));
+    this.fallbackFactory = fallbackFactory;
+    int size = this.dispatch.size();
+    this.fallbackMethods = new Method[size];
+    this.configKeys = new String[size];
+    this.breakers = new CircuitBreaker[size];
+    this.bulkheads = new Bulkhead[size];
+    for (int slot = 0; slot < size; slot++) {
+      Method method = this.dispatch.method(slot);
+      // fallbacks are invoked with these, as the copies passed to invoke are not accessible
+      method.setAccessible(true);
+      fallbackMethods[slot] = method;
+      configKeys[slot] = Feign.configKey(target.type(), method);
+      if (!Util.isDefault(method)) {
+        breakers[slot] = checkNotNull(circuitBreakerFactory.create(target, method),
+            "circuit breaker of %s", configKeys[slot]);
+        bulkheads[slot] = bulkheadFactory.create(target, method);
+      }
+    }
+  }
+
+  @Override
+  public Object invoke(final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+    // early exit if the invoked method is from java.lang.Object
+    // code is the same as ReflectiveFeign.FeignInvocationHandler
+    final int slot = dispatch.slot(method);
+    switch (slot) {
+      case DispatchTable.EQUALS:
+        try {
+          Object otherHandler =
+              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+          return equals(otherHandler);
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      case DispatchTable.HASH_CODE:
+        return hashCode();
+      case DispatchTable.TO_STRING:
+        return toString();
+      case DispatchTable.NOT_FOUND:
+        throw new IllegalStateException(method + " is not a method handled by feign");
+      default:
+        break;
+    }
+
+    CircuitBreaker breaker = breakers[slot];
+    if (breaker == null) {
+      return dispatch.handler(slot).invoke(args);
+    }
+    Bulkhead bulkhead = bulkheads[slot];
+    if (bulkhead != null && !bulkhead.tryAcquire()) {
+      return fallback(slot, args,
+          new BulkheadFullException(configKeys[slot], bulkhead.maxConcurrentCalls()));
+    }
+    CircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+    if (permit == null) {
+      release(bulkhead);
+      return fallback(slot, args,
+          new CallNotPermittedException("Circuit breaker is open for " + configKeys[slot]));
+    }
+
+    Object result;
+    try {
+      result = dispatch.handler(slot).invoke(args);
+    } catch (Throwable t) {
+      release(bulkhead);
+      permit.onError(t);
+      return fallback(slot, args, t);
+    }
+    if (result instanceof CompletableFuture) {
+      return whenComplete(slot, args, (CompletableFuture<?>) result, permit, bulkhead);
+    }
+    release(bulkhead);
+    permit.onSuccess();
+    return result;
+  }
+
+  private CompletableFuture<Object> whenComplete(int slot,
+                                                 Object[] args,
+                                                 CompletableFuture<?> call,
+                                                 CircuitBreaker.Permit permit,
+                                                 Bulkhead bulkhead) {
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    call.whenComplete((value, error) -> {
+      release(bulkhead);
+      if (error == null) {
+        permit.onSuccess();
+        result.complete(value);
+        return;
+      }
+      Throwable cause =
+          error instanceof CompletionException && error.getCause() != null ? error.getCause()
+              : error;
+      if (cause instanceof CancellationException) {
+        // cancelled by the caller, which says nothing about the server
+        permit.release();
+        result.completeExceptionally(cause);
+        return;
+      }
+      permit.onError(cause);
+      try {
+        Object fallback = fallback(slot, args, cause);
+        if (fallback instanceof CompletableFuture) {
+          ((CompletableFuture<?>) fallback).whenComplete((v, t) -> {
+            if (t != null) {
+              result.completeExceptionally(t);
+            } else {
+              result.complete(v);
+            }
+          });
+        } else {
+          result.complete(fallback);
+        }
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    });
+    result.whenComplete((value, error) -> {
+      if (result.isCancelled()) {
+        call.cancel(true);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Returns the result of the fallback for {@code cause}, or raises it when there's no fallback.
+   */
+  private Object fallback(int slot, Object[] args, Throwable cause) throws Throwable {
+    if (fallbackFactory == null) {
+      if (CompletableFuture.class.isAssignableFrom(fallbackMethods[slot].getReturnType())) {
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(cause);
+        return failed;
+      }
+      throw cause;
+    }
+    Object fallback = fallbackFactory.create(cause);
+    try {
+      return fallbackMethods[slot].invoke(fallback, args);
+    } catch (IllegalAccessException e) {
+      // shouldn't happen as method is public due to being an interface
+      throw new AssertionError(e);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static void release(Bulkhead bulkhead) {
+    if (bulkhead != null) {
+      bulkhead.release();
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof CircuitBreakerInvocationHandler) {
+      CircuitBreakerInvocationHandler other = (CircuitBreakerInvocationHandler) obj;
+      return target.equals(other.target);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return target.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return target.toString();
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
+import org.junit.Test;
+import feign.AsyncFeign;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class CircuitBreakerFeignTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  private final CircuitBreakerFactory openOnFirstFailure =
+      new CircuitBreakerFactory.Default(CircuitBreaker.builder()
+          .slidingWindowSize(1)
+          .waitDurationInOpenState(1, MINUTES));
+
+  interface TestInterface {
+
+    @RequestLine("GET /")
+    String get();
+
+    @RequestLine("GET /other")
+    String other();
+
+    default String defaultMethod() {
+      return get();
+    }
+  }
+
+  interface AsyncTestInterface {
+
+    @RequestLine("GET /")
+    CompletableFuture<String> get();
+  }
+
+  @Test
+  public void fallsBackOnError() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+
+    TestInterface api = CircuitBreakerFeign.builder()
+        .target(TestInterface.class, url(), fallback("fallback"));
+
+    assertThat(api.get()).isEqualTo("fallback");
+  }
+
+  @Test
+  public void rethrowsWithoutFallback() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+
+    TestInterface api = CircuitBreakerFeign.builder()
+        .target(TestInterface.class, url());
+
+    assertThatThrownBy(api::get).isInstanceOf(FeignException.InternalServerError.class);
+  }
+
+  @Test
+  public void failsFastOnceOpen() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+    AtomicReference<Throwable> cause = new AtomicReference<>();
+
+    TestInterface api = CircuitBreakerFeign.builder()
+        .circuitBreakerFactory(openOnFirstFailure)
+        .target(TestInterface.class, url(), (FallbackFactory<TestInterface>) error -> {
+          cause.set(error);
+          return fallback("fallback");
+        });
+
+    api.get();
+    assertThat(cause.get()).isInstanceOf(FeignException.InternalServerError.class);
+    assertThat(api.get()).isEqualTo("fallback");
+
+    assertThat(cause.get())
+        .isInstanceOf(CallNotPermittedException.class)
+        .hasMessage("Circuit breaker is open for TestInterface#get()");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void methodsHaveTheirOwnBreaker() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+    server.enqueue(new MockResponse().setBody("other"));
+    server.enqueue(new MockResponse().setBody("default"));
+
+    TestInterface api = CircuitBreakerFeign.builder()
+        .circuitBreakerFactory(openOnFirstFailure)
+        .target(TestInterface.class, url());
+
+    assertThatThrownBy(api::get).isInstanceOf(FeignException.class);
+    assertThatThrownBy(api::get).isInstanceOf(CallNotPermittedException.class);
+    assertThat(api.other()).isEqualTo("other");
+    // default methods only pass through the breaker of the methods they call
+    assertThatThrownBy(api::defaultMethod).isInstanceOf(CallNotPermittedException.class);
+  }
+
+  @Test
+  public void bulkheadRejectsCallsBeyondLimit() throws Exception {
+    CountDownLatch sent = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    TestInterface api = CircuitBreakerFeign.builder()
+        .bulkheadFactory(BulkheadFactory.perMethod(1))
+        .client((request, options) -> {
+          sent.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return Response.builder()
+              .status(200)
+              .request(request)
+              .headers(Collections.emptyMap())
+              .body("ok", Util.UTF_8)
+              .build();
+        })
+        .target(TestInterface.class, url());
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(api::get);
+    sent.await();
+
+    assertThatThrownBy(api::get)
+        .isInstanceOf(BulkheadFullException.class)
+        .hasMessage("Bulkhead of 1 concurrent calls is full for TestInterface#get()");
+    release.countDown();
+    assertThat(first.get()).isEqualTo("ok");
+    assertThat(api.get()).isEqualTo("ok");
+  }
+
+  @Test
+  public void asyncMethodsFallBackOnCompletion() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(500));
+    CircuitBreakerCapability capability = new CircuitBreakerCapability()
+        .circuitBreakerFactory(openOnFirstFailure)
+        .fallback(AsyncTestInterface.class,
+            () -> CompletableFuture.completedFuture("fallback"));
+
+    AsyncTestInterface api = AsyncFeign.asyncBuilder()
+        .invocationHandlerFactory(capability.enrich(new InvocationHandlerFactory.Default()))
+        .target(AsyncTestInterface.class, url());
+
+    assertThat(api.get().get()).isEqualTo("fallback");
+    assertThat(api.get().get()).isEqualTo("fallback");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void cancellationReleasesPermitsWithoutRecordingFailure() {
+    AtomicInteger calls = new AtomicInteger();
+    CircuitBreakerCapability capability = new CircuitBreakerCapability()
+        .circuitBreakerFactory(openOnFirstFailure)
+        .bulkheadFactory(BulkheadFactory.perMethod(1));
+
+    AsyncTestInterface api = AsyncFeign.<Void>asyncBuilder()
+        .client((request, options, context) -> {
+          calls.incrementAndGet();
+          return new CompletableFuture<>();
+        })
+        .invocationHandlerFactory(capability.enrich(new InvocationHandlerFactory.Default()))
+        .target(AsyncTestInterface.class, url());
+
+    api.get().cancel(true);
+    api.get().cancel(true);
+
+    assertThat(calls).hasValue(2);
+  }
+
+  private String url() {
+    return "http://localhost:" + server.getPort();
+  }
+
+  private static TestInterface fallback(String value) {
+    return new TestInterface() {
+      @Override
+      public String get() {
+        return value;
+      }
+
+      @Override
+      public String other() {
+        return value;
+      }
+    };
+  }
+}
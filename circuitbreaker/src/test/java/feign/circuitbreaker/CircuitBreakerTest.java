@@ -0,0 +1,154 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.circuitbreaker;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import feign.circuitbreaker.CircuitBreaker.Permit;
+import feign.circuitbreaker.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final CircuitBreaker breaker = CircuitBreaker.builder()
+      .failureRateThreshold(0.5)
+      .slidingWindowSize(10)
+      .minimumNumberOfCalls(4)
+      .waitDurationInOpenState(1, SECONDS)
+      .permittedCallsInHalfOpenState(2)
+      .recordFailure(error -> !(error instanceof IllegalArgumentException))
+      .clock(nanos::get)
+      .build();
+
+  @Test
+  public void staysClosedUntilMinimumNumberOfCalls() {
+    fail(3);
+
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    assertThat(breaker.failureRate()).isEqualTo(1.0);
+    assertThat(breaker.tryAcquirePermission()).isNotNull();
+  }
+
+  @Test
+  public void opensOnceFailureRateReachesThreshold() {
+    succeed(3);
+    fail(2);
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+    fail(1);
+
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquirePermission()).isNull();
+  }
+
+  @Test
+  public void windowForgetsOldestOutcomes() {
+    fail(1);
+    succeed(10);
+
+    assertThat(breaker.failureRate()).isZero();
+    fail(5);
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  public void halfOpensAfterWaitAndClosesWhenCallsSucceed() {
+    fail(4);
+    nanos.addAndGet(SECONDS.toNanos(1));
+
+    Permit first = breaker.tryAcquirePermission();
+    Permit second = breaker.tryAcquirePermission();
+    assertThat(breaker.tryAcquirePermission()).isNull();
+    assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+    first.onSuccess();
+    second.onSuccess();
+
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    assertThat(breaker.failureRate()).isZero();
+  }
+
+  @Test
+  public void opensAgainWhenHalfOpenCallsFail() {
+    fail(4);
+    nanos.addAndGet(SECONDS.toNanos(1));
+
+    breaker.tryAcquirePermission().onSuccess();
+    breaker.tryAcquirePermission().onError(new RuntimeException("failed"));
+
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquirePermission()).isNull();
+  }
+
+  @Test
+  public void ignoresOutcomesOfCallsPermittedBeforeTransition() {
+    Permit beforeOpening = breaker.tryAcquirePermission();
+    fail(4);
+    nanos.addAndGet(SECONDS.toNanos(1));
+    Permit first = breaker.tryAcquirePermission();
+
+    beforeOpening.onError(new RuntimeException("failed"));
+    first.onSuccess();
+    assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+    breaker.tryAcquirePermission().onSuccess();
+
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  public void releasedPermitsCanBeAcquiredAgain() {
+    fail(4);
+    nanos.addAndGet(SECONDS.toNanos(1));
+    Permit first = breaker.tryAcquirePermission();
+    breaker.tryAcquirePermission();
+    assertThat(breaker.tryAcquirePermission()).isNull();
+
+    first.release();
+
+    assertThat(breaker.tryAcquirePermission()).isNotNull();
+    assertThat(breaker.failureRate()).isZero();
+  }
+
+  @Test
+  public void errorsNotRecordedAsFailuresCountAsSuccesses() {
+    for (int i = 0; i < 10; i++) {
+      breaker.tryAcquirePermission().onError(new IllegalArgumentException());
+    }
+
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    assertThat(breaker.failureRate()).isZero();
+  }
+
+  @Test
+  public void countsDecodeWhenFailuresAreBorrowed() {
+    long counts = (3L << 32) - 1;
+
+    assertThat(CircuitBreaker.Ring.calls(counts)).isEqualTo(3);
+    assertThat(CircuitBreaker.Ring.failures(counts)).isEqualTo(-1);
+  }
+
+  private void succeed(int calls) {
+    for (int i = 0; i < calls; i++) {
+      breaker.tryAcquirePermission().onSuccess();
+    }
+  }
+
+  private void fail(int calls) {
+    for (int i = 0; i < calls; i++) {
+      breaker.tryAcquirePermission().onError(new RuntimeException("failed"));
+    }
+  }
+}
@@ -57,7 +57,11 @@ public interface AsyncClient<C> {
       final CompletableFuture<Response> result = new CompletableFuture<>();
       final Future<?> future = executorService.submit(() -> {
         try {
-          result.complete(client.execute(request, options));
+          final Response response = client.execute(request, options);
+          if (!result.complete(response)) {
+            // cancelled while executing
+            response.close();
+          }
         } catch (final Exception e) {
           result.completeExceptionally(e);
         }
@@ -14,8 +14,8 @@
 package feign;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.function.Supplier;
 import feign.Logger.NoOpLogger;
@@ -30,10 +30,10 @@ import feign.codec.ErrorDecoder;
  * session cookies or tokens) is explicit, as calls for the same session may be done across several
  * threads. <br>
  * <br>
- * {@link Retryer} is not supported in this model, as that is a blocking API.
+ * {@link Retryer} is not supported in this model, as that is a blocking API. Calls are retried by an
+ * {@link AsyncRetryer} instead, which schedules the next attempt without blocking a thread.
  * {@link ExceptionPropagationPolicy} is made redundant as {@link RetryableException} is never
  * thrown. <br>
- * Alternative approaches to retrying can be handled through {@link AsyncClient clients}. <br>
  * <br>
  * Target interface methods must return {@link CompletableFuture} with a non-wildcard type. As the
  * completion is done by the {@link AsyncClient}, it is important that any subsequent processing on
@@ -57,6 +57,16 @@ public abstract class AsyncFeign<C> extends Feign {
     });
   }
 
+  private static class LazyInitializedRetryScheduler {
+
+    private static final ScheduledExecutorService instance =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+          final Thread result = new Thread(r, "feign-async-retry");
+          result.setDaemon(true);
+          return result;
+        });
+  }
+
   public static class AsyncBuilder<C> {
 
     private final Builder builder;
@@ -64,12 +74,16 @@ public abstract class AsyncFeign<C> extends Feign {
     private AsyncClient<C> client;
 
     private Logger.Level logLevel = Logger.Level.NONE;
-    private final Logger logger = new NoOpLogger();
+    private Logger logger = new NoOpLogger();
+    private final List<RequestInterceptor> requestInterceptors = new ArrayList<>();
 
     private Decoder decoder = new Decoder.Default();
     private ErrorDecoder errorDecoder = new ErrorDecoder.Default();
     private boolean decode404;
     private boolean closeAfterDecode = true;
+    private AsyncRetryer retryer = AsyncRetryer.NEVER_RETRY;
+    private ScheduledExecutorService retryScheduler;
+    private Executor retryExecutor;
 
     public AsyncBuilder() {
       super();
@@ -123,6 +137,38 @@ public abstract class AsyncFeign<C> extends Feign {
       return this;
     }
 
+    /**
+     * Retries calls that fail with an {@link IOException} or a {@link RetryableException}, by
+     * sending the request again once the delay returned by {@code retryer} has passed. Request
+     * interceptors are applied again to each attempt. Delays are scheduled on a shared daemon
+     * thread, and attempts are started from a shared pool of daemon threads.
+     *
+     * @see #retryer(AsyncRetryer, ScheduledExecutorService, Executor)
+     */
+    public AsyncBuilder<C> retryer(AsyncRetryer retryer) {
+      this.retryer = Util.checkNotNull(retryer, "retryer");
+      return this;
+    }
+
+    /**
+     * Like {@link #retryer(AsyncRetryer)}, scheduling retries on {@code scheduler}.
+     */
+    public AsyncBuilder<C> retryer(AsyncRetryer retryer, ScheduledExecutorService scheduler) {
+      this.retryScheduler = Util.checkNotNull(scheduler, "scheduler");
+      return retryer(retryer);
+    }
+
+    /**
+     * Like {@link #retryer(AsyncRetryer, ScheduledExecutorService)}, starting attempts on
+     * {@code executor}, which calls the {@link AsyncClient}.
+     */
+    public AsyncBuilder<C> retryer(AsyncRetryer retryer,
+                                   ScheduledExecutorService scheduler,
+                                   Executor executor) {
+      this.retryExecutor = Util.checkNotNull(executor, "executor");
+      return retryer(retryer, scheduler);
+    }
+
     public <T> T target(Class<T> apiType, String url) {
       return target(new HardCodedTarget<>(apiType, url));
     }
@@ -144,6 +190,12 @@ public abstract class AsyncFeign<C> extends Feign {
         client = new AsyncClient.Default<>(new Client.Default(null, null),
             LazyInitializedExecutorService.instance);
       }
+      if (retryScheduler == null && retryer != AsyncRetryer.NEVER_RETRY) {
+        retryScheduler = LazyInitializedRetryScheduler.instance;
+      }
+      if (retryExecutor == null && retryer != AsyncRetryer.NEVER_RETRY) {
+        retryExecutor = LazyInitializedExecutorService.instance;
+      }
 
       return this;
     }
@@ -171,11 +223,28 @@ public abstract class AsyncFeign<C> extends Feign {
       return this;
     }
 
+    /**
+     * @see Builder#lazyMethodHandlers()
+     */
+    public AsyncBuilder<C> lazyMethodHandlers() {
+      builder.lazyMethodHandlers();
+      return this;
+    }
+
+    /**
+     * @see Builder#metadataCache(MetadataCache)
+     */
+    public AsyncBuilder<C> metadataCache(MetadataCache metadataCache) {
+      builder.metadataCache(metadataCache);
+      return this;
+    }
+
     /**
      * @see Builder#logLevel(Logger.Level)
      */
     public AsyncBuilder<C> logger(Logger logger) {
       builder.logger(logger);
+      this.logger = logger;
       return this;
     }
 
@@ -209,6 +278,7 @@ public abstract class AsyncFeign<C> extends Feign {
      */
     public AsyncBuilder<C> requestInterceptor(RequestInterceptor requestInterceptor) {
       builder.requestInterceptor(requestInterceptor);
+      this.requestInterceptors.add(requestInterceptor);
       return this;
     }
 
@@ -217,6 +287,8 @@ public abstract class AsyncFeign<C> extends Feign {
      */
     public AsyncBuilder<C> requestInterceptors(Iterable<RequestInterceptor> requestInterceptors) {
       builder.requestInterceptors(requestInterceptors);
+      this.requestInterceptors.clear();
+      requestInterceptors.forEach(this.requestInterceptors::add);
       return this;
     }
 
@@ -229,12 +301,14 @@ public abstract class AsyncFeign<C> extends Feign {
     }
   }
 
-  private final ThreadLocal<AsyncInvocation<C>> activeContext;
-
-  private final Feign feign;
+  private final ReflectiveFeign feign;
 
   private final Supplier<C> defaultContextSupplier;
   private final AsyncClient<C> client;
+  private final AsyncRetryer retryer;
+  private final ScheduledExecutorService retryScheduler;
+  private final Executor retryExecutor;
+  private final List<RequestInterceptor> requestInterceptors;
 
   private final Logger.Level logLevel;
   private final Logger logger;
@@ -242,10 +316,12 @@ public abstract class AsyncFeign<C> extends Feign {
   private final AsyncResponseHandler responseHandler;
 
   protected AsyncFeign(AsyncBuilder<C> asyncBuilder) {
-    this.activeContext = new ThreadLocal<>();
-
     this.defaultContextSupplier = asyncBuilder.defaultContextSupplier;
     this.client = asyncBuilder.client;
+    this.retryer = asyncBuilder.retryer;
+    this.retryScheduler = asyncBuilder.retryScheduler;
+    this.retryExecutor = asyncBuilder.retryExecutor;
+    this.requestInterceptors = new ArrayList<>(asyncBuilder.requestInterceptors);
 
     this.logLevel = asyncBuilder.logLevel;
     this.logger = asyncBuilder.logger;
@@ -258,82 +334,8 @@ public abstract class AsyncFeign<C> extends Feign {
         asyncBuilder.decode404,
         asyncBuilder.closeAfterDecode);
 
-    asyncBuilder.builder.client(this::stageExecution);
-    asyncBuilder.builder.decoder(this::stageDecode);
-    asyncBuilder.builder.forceDecoding(); // force all handling through stageDecode
-
-    this.feign = asyncBuilder.builder.build();
-  }
-
-  private Response stageExecution(Request request, Options options) {
-    final Response result = Response.builder()
-        .status(200)
-        .request(request)
-        .build();
-
-    final AsyncInvocation<C> invocationContext = activeContext.get();
-
-    invocationContext.setResponseFuture(
-        client.execute(request, options, Optional.ofNullable(invocationContext.context())));
-
-
-    return result;
-  }
-
-  // from SynchronousMethodHandler
-  long elapsedTime(long start) {
-    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
-  }
-
-
-  private Object stageDecode(Response response, Type type) {
-    final AsyncInvocation<C> invocationContext = activeContext.get();
-
-    final CompletableFuture<Object> result = new CompletableFuture<>();
-
-    invocationContext.responseFuture().whenComplete((r, t) -> {
-      final long elapsedTime = elapsedTime(invocationContext.startNanos());
-
-      if (t != null) {
-        if (logLevel != Logger.Level.NONE && t instanceof IOException) {
-          final IOException e = (IOException) t;
-          logger.logIOException(invocationContext.configKey(), logLevel, e, elapsedTime);
-        }
-        result.completeExceptionally(t);
-      } else {
-        responseHandler.handleResponse(result, invocationContext.configKey(), r,
-            invocationContext.underlyingType(), elapsedTime);
-      }
-    });
-
-    result.whenComplete((r, t) -> {
-      if (result.isCancelled()) {
-        invocationContext.responseFuture().cancel(true);
-      }
-    });
-
-    if (invocationContext.isAsyncReturnType()) {
-      return result;
-    }
-    try {
-      return result.join();
-    } catch (final CompletionException e) {
-      final Response r = invocationContext.responseFuture().join();
-      Throwable cause = e.getCause();
-      if (cause == null) {
-        cause = e;
-      }
-      throw new AsyncJoinException(r.status(), cause.getMessage(), r.request(), cause);
-    }
-  }
-
-
-  protected void setInvocationContext(AsyncInvocation<C> invocationContext) {
-    activeContext.set(invocationContext);
-  }
-
-  protected void clearInvocationContext() {
-    activeContext.remove();
+    // parses interfaces and creates proxies, with handlers replaced by asynchronous ones
+    this.feign = (ReflectiveFeign) asyncBuilder.builder.build();
   }
 
   @Override
@@ -342,8 +344,8 @@ public abstract class AsyncFeign<C> extends Feign {
   }
 
   public <T> T newInstance(Target<T> target, C context) {
-    return wrap(target.type(), feign.newInstance(target), context);
+    return feign.newInstance(target,
+        new AsynchronousMethodHandler.Factory<>(client, retryer, retryScheduler, retryExecutor,
+            requestInterceptors, logger, logLevel, responseHandler, context));
   }
-
-  protected abstract <T> T wrap(Class<T> type, T instance, C context);
 }
@@ -25,7 +25,11 @@ class AsyncInvocation<C> {
   private final C context;
   private final MethodInfo methodInfo;
   private final long startNanos;
-  private CompletableFuture<Response> responseFuture;
+  private RequestTemplate template;
+  private Request request;
+  private Request.Options options;
+  /* replaced by retries, which may run on other threads */
+  private volatile CompletableFuture<Response> responseFuture;
 
   AsyncInvocation(C context, MethodInfo methodInfo) {
     super();
@@ -54,6 +58,30 @@ class AsyncInvocation<C> {
     return methodInfo.isAsyncReturnType();
   }
 
+  /**
+   * The template requests are created from, once for each attempt.
+   */
+  void setTemplate(RequestTemplate template) {
+    this.template = template;
+  }
+
+  RequestTemplate template() {
+    return template;
+  }
+
+  void setRequest(Request request, Request.Options options) {
+    this.request = request;
+    this.options = options;
+  }
+
+  Request request() {
+    return request;
+  }
+
+  Request.Options options() {
+    return options;
+  }
+
   void setResponseFuture(CompletableFuture<Response> responseFuture) {
     this.responseFuture = responseFuture;
   }
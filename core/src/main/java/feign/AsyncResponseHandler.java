@@ -71,13 +71,15 @@ class AsyncResponseHandler {
       if (Response.class == returnType) {
         if (response.body() == null) {
           resultFuture.complete(response);
-        } else if (response.body().length() == null
+        } else if (response.body() instanceof Response.BufferedBody
+            || response.body().length() == null
             || response.body().length() > MAX_RESPONSE_BUFFER_SIZE) {
+          // buffered bodies are already disconnected, and are handed over like large ones
           shouldClose = false;
           resultFuture.complete(response);
         } else {
           // Ensure the response body is disconnected
-          final byte[] bodyData = Util.toByteArray(response.body().asInputStream());
+          final byte[] bodyData = Util.toByteArray(response.body());
           resultFuture.complete(response.toBuilder().body(bodyData).build());
         }
       } else if (response.status() >= 200 && response.status() < 300) {
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+/**
+ * Decides if, and when, {@link AsyncFeign} retries a call. Unlike {@link Retryer}, it returns the
+ * time to wait instead of sleeping, so that the next attempt can be scheduled without blocking a
+ * thread.
+ *
+ * <p>
+ * Cloned for each invocation, so implementations may keep state to determine if retry operations
+ * should continue or not.
+ */
+@Experimental
+public interface AsyncRetryer extends Cloneable {
+
+  /**
+   * Returns the time to wait before retrying after {@code e}, or propagates {@code e} when the call
+   * should not be retried.
+   *
+   * @return time in milliseconds from now until the next attempt, 0 to retry immediately.
+   */
+  long nextDelayMillis(RetryableException e);
+
+  AsyncRetryer clone();
+
+  /**
+   * Backs off like {@link Retryer.Default}, and can be used as either kind of retryer.
+   */
+  class Default extends Retryer.Default implements AsyncRetryer {
+
+    public Default() {
+      super();
+    }
+
+    public Default(long period, long maxPeriod, int maxAttempts) {
+      super(period, maxPeriod, maxAttempts);
+    }
+
+    @Override
+    public AsyncRetryer.Default clone() {
+      return new AsyncRetryer.Default(period, maxPeriod, maxAttempts);
+    }
+  }
+
+  /**
+   * Implementation that never retries request. It propagates the RetryableException.
+   */
+  AsyncRetryer NEVER_RETRY = new AsyncRetryer() {
+
+    @Override
+    public long nextDelayMillis(RetryableException e) {
+      throw e;
+    }
+
+    @Override
+    public AsyncRetryer clone() {
+      return this;
+    }
+  };
+}
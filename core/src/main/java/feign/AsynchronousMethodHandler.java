@@ -0,0 +1,282 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Request.Options;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+
+/**
+ * Handles the methods of {@link AsyncFeign} clients: builds the request like
+ * {@link SynchronousMethodHandler}, sends it with an {@link AsyncClient}, then decodes the response
+ * in a continuation, without blocking the calling thread. Methods that do not return a
+ * {@link CompletableFuture} wait for the result.
+ */
+@Experimental
+final class AsynchronousMethodHandler<C> implements MethodHandler {
+
+  private final MethodMetadata metadata;
+  private final Target<?> target;
+  private final AsyncClient<C> client;
+  private final AsyncRetryer retryer;
+  private final ScheduledExecutorService retryScheduler;
+  private final Executor retryExecutor;
+  private final List<RequestInterceptor> requestInterceptors;
+  private final Logger logger;
+  private final Logger.Level logLevel;
+  private final RequestTemplate.Factory buildTemplateFromArgs;
+  private final Options options;
+  private final AsyncResponseHandler responseHandler;
+  private final MethodInfo methodInfo;
+  private final C context;
+
+  private AsynchronousMethodHandler(Target<?> target, AsyncClient<C> client,
+      AsyncRetryer retryer, ScheduledExecutorService retryScheduler, Executor retryExecutor,
+      List<RequestInterceptor> requestInterceptors, Logger logger, Logger.Level logLevel,
+      MethodMetadata metadata, RequestTemplate.Factory buildTemplateFromArgs, Options options,
+      AsyncResponseHandler responseHandler, C context) {
+    this.target = checkNotNull(target, "target");
+    this.client = checkNotNull(client, "client for %s", target);
+    this.retryer = checkNotNull(retryer, "retryer for %s", target);
+    this.retryScheduler = retryScheduler;
+    this.retryExecutor = retryExecutor;
+    this.requestInterceptors =
+        checkNotNull(requestInterceptors, "requestInterceptors for %s", target);
+    this.logger = checkNotNull(logger, "logger for %s", target);
+    this.logLevel = checkNotNull(logLevel, "logLevel for %s", target);
+    this.metadata = checkNotNull(metadata, "metadata for %s", target);
+    this.buildTemplateFromArgs = checkNotNull(buildTemplateFromArgs, "metadata for %s", target);
+    this.options = checkNotNull(options, "options for %s", target);
+    this.responseHandler = checkNotNull(responseHandler, "responseHandler for %s", target);
+    this.methodInfo = new MethodInfo(target.type(), metadata.method());
+    this.context = context;
+  }
+
+  @Override
+  public Object invoke(Object[] argv) throws Throwable {
+    final AsyncInvocation<C> invocationContext = new AsyncInvocation<>(context, methodInfo);
+    final RequestTemplate template = buildTemplateFromArgs.create(argv);
+    final Request request = targetRequest(template);
+
+    if (logLevel != Logger.Level.NONE) {
+      logger.logRequest(metadata.configKey(), logLevel, request);
+    }
+
+    invocationContext.setTemplate(template);
+    invocationContext.setRequest(request, findOptions(argv));
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+    execute(invocationContext);
+    handleAttempt(invocationContext, result, retryer.clone());
+
+    result.whenComplete((r, t) -> {
+      if (result.isCancelled()) {
+        invocationContext.responseFuture().cancel(true);
+      }
+    });
+
+    if (methodInfo.isAsyncReturnType()) {
+      return result;
+    }
+    try {
+      return result.join();
+    } catch (final CompletionException e) {
+      final Throwable cause = e.getCause();
+      throw cause != null ? cause : e;
+    }
+  }
+
+  private void execute(AsyncInvocation<C> invocationContext) {
+    CompletableFuture<Response> responseFuture;
+    try {
+      responseFuture = client.execute(invocationContext.request(), invocationContext.options(),
+          Optional.ofNullable(invocationContext.context()));
+    } catch (final RuntimeException e) {
+      responseFuture = new CompletableFuture<>();
+      responseFuture.completeExceptionally(e);
+    }
+    invocationContext.setResponseFuture(responseFuture);
+  }
+
+  private void handleAttempt(AsyncInvocation<C> invocationContext,
+                             CompletableFuture<Object> result,
+                             AsyncRetryer retryer) {
+    invocationContext.responseFuture().whenComplete((r, t) -> {
+      final long elapsedTime = elapsedTime(invocationContext.startNanos());
+
+      if (t != null) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null
+            ? t.getCause()
+            : t;
+        if (cause instanceof IOException) {
+          if (logLevel != Logger.Level.NONE) {
+            logger.logIOException(metadata.configKey(), logLevel, (IOException) cause,
+                elapsedTime);
+          }
+          cause = FeignException.errorExecuting(invocationContext.request(), (IOException) cause);
+        }
+        retryOrFail(invocationContext, result, retryer, t, cause);
+      } else {
+        final CompletableFuture<Object> attempt = new CompletableFuture<>();
+        responseHandler.handleResponse(attempt, metadata.configKey(), r,
+            methodInfo.underlyingReturnType(), elapsedTime);
+        attempt.whenComplete((value, error) -> {
+          if (error != null) {
+            retryOrFail(invocationContext, result, retryer, error, error);
+          } else {
+            result.complete(value);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Sends the request again once {@code retryer} permits it, or fails {@code result} with
+   * {@code error} when {@code cause} isn't retryable.
+   */
+  private void retryOrFail(AsyncInvocation<C> invocationContext,
+                           CompletableFuture<Object> result,
+                           AsyncRetryer retryer,
+                           Throwable error,
+                           Throwable cause) {
+    final long delay;
+    try {
+      if (!(cause instanceof RetryableException) || result.isDone()) {
+        result.completeExceptionally(error);
+        return;
+      }
+      delay = retryer.nextDelayMillis((RetryableException) cause);
+    } catch (final RetryableException exhausted) {
+      result.completeExceptionally(error);
+      return;
+    }
+    if (logLevel != Logger.Level.NONE) {
+      logger.logRetry(metadata.configKey(), logLevel);
+    }
+
+    final Runnable retry = () -> {
+      if (result.isDone()) {
+        // cancelled while waiting
+        return;
+      }
+      try {
+        // like SynchronousMethodHandler, interceptors apply to each attempt, to refresh or sign it
+        final Request request = targetRequest(invocationContext.template());
+        if (logLevel != Logger.Level.NONE) {
+          logger.logRequest(metadata.configKey(), logLevel, request);
+        }
+        invocationContext.setRequest(request, invocationContext.options());
+      } catch (final RuntimeException e) {
+        result.completeExceptionally(e);
+        return;
+      }
+      execute(invocationContext);
+      handleAttempt(invocationContext, result, retryer);
+    };
+    // the scheduler only waits, so that a slow client doesn't hold up other retries
+    final Runnable send = () -> {
+      try {
+        retryExecutor.execute(retry);
+      } catch (final RejectedExecutionException e) {
+        result.completeExceptionally(error);
+      }
+    };
+    if (delay <= 0) {
+      send.run();
+      return;
+    }
+    try {
+      retryScheduler.schedule(send, delay, TimeUnit.MILLISECONDS);
+    } catch (final RejectedExecutionException e) {
+      result.completeExceptionally(error);
+    }
+  }
+
+  long elapsedTime(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  Request targetRequest(RequestTemplate template) {
+    for (RequestInterceptor interceptor : requestInterceptors) {
+      interceptor.apply(template);
+    }
+    return target.apply(template);
+  }
+
+  Options findOptions(Object[] argv) {
+    if (argv != null) {
+      for (Object arg : argv) {
+        if (arg instanceof Options) {
+          return (Options) arg;
+        }
+      }
+    }
+    return this.options;
+  }
+
+  /**
+   * Creates the handlers of one {@link AsyncFeign} instance, which all share its context. Responses
+   * are decoded by the {@link AsyncResponseHandler} of the {@link AsyncFeign.AsyncBuilder}, rather
+   * than by the decoders of the underlying {@link Feign.Builder}.
+   */
+  static class Factory<C> implements ReflectiveFeign.MethodHandlerFactory {
+
+    private final AsyncClient<C> client;
+    private final AsyncRetryer retryer;
+    private final ScheduledExecutorService retryScheduler;
+    private final Executor retryExecutor;
+    private final List<RequestInterceptor> requestInterceptors;
+    private final Logger logger;
+    private final Logger.Level logLevel;
+    private final AsyncResponseHandler responseHandler;
+    private final C context;
+
+    Factory(AsyncClient<C> client, AsyncRetryer retryer, ScheduledExecutorService retryScheduler,
+        Executor retryExecutor, List<RequestInterceptor> requestInterceptors, Logger logger,
+        Logger.Level logLevel, AsyncResponseHandler responseHandler, C context) {
+      this.client = checkNotNull(client, "client");
+      this.retryer = checkNotNull(retryer, "retryer");
+      this.retryScheduler = retryScheduler;
+      this.retryExecutor = retryExecutor;
+      this.requestInterceptors = checkNotNull(requestInterceptors, "requestInterceptors");
+      this.logger = checkNotNull(logger, "logger");
+      this.logLevel = checkNotNull(logLevel, "logLevel");
+      this.responseHandler = checkNotNull(responseHandler, "responseHandler");
+      this.context = context;
+    }
+
+    @Override
+    public MethodHandler create(Target<?> target,
+                                MethodMetadata md,
+                                RequestTemplate.Factory buildTemplateFromArgs,
+                                Options options,
+                                Decoder decoder,
+                                ErrorDecoder errorDecoder) {
+      return new AsynchronousMethodHandler<>(target, client, retryer, retryScheduler,
+          retryExecutor, requestInterceptors, logger, logLevel, md, buildTemplateFromArgs, options,
+          responseHandler, context);
+    }
+  }
+}
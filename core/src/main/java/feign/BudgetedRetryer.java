@@ -0,0 +1,107 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retryer that only retries while its {@link RetryBudget} allows it, and spreads attempts over
+ * time with {@link Jitter}, so that clients failing together do not retry in lockstep.
+ *
+ * <p>
+ * The budget is shared by all clones: each call, which clones the retryer, deposits into it, and
+ * each retry withdraws from it. A retry denied by the budget propagates the exception like running
+ * out of attempts. Can be used with both {@link Feign.Builder#retryer(Retryer)} and
+ * {@link AsyncFeign.AsyncBuilder#retryer(AsyncRetryer)}.
+ */
+@Experimental
+public class BudgetedRetryer extends Retryer.Default implements AsyncRetryer {
+
+  public enum Jitter {
+    /**
+     * Waits exactly as {@link Retryer.Default} does.
+     */
+    NONE,
+    /**
+     * Waits a random time between 0 and the backoff of {@link Retryer.Default}.
+     */
+    FULL,
+    /**
+     * Waits a random time between {@code period} and three times the previous wait, up to
+     * {@code maxPeriod}.
+     */
+    DECORRELATED
+  }
+
+  private final Jitter jitter;
+  private final RetryBudget budget;
+  private long previousInterval;
+
+  /**
+   * Retries up to 5 times, with {@link Jitter#FULL full jitter} over a backoff starting at 100ms
+   * and limited to 1 second.
+   */
+  public BudgetedRetryer(RetryBudget budget) {
+    this(100, SECONDS.toMillis(1), 5, Jitter.FULL, budget);
+  }
+
+  public BudgetedRetryer(long period, long maxPeriod, int maxAttempts, Jitter jitter,
+      RetryBudget budget) {
+    super(period, maxPeriod, maxAttempts);
+    this.jitter = checkNotNull(jitter, "jitter");
+    this.budget = checkNotNull(budget, "budget");
+    this.previousInterval = period;
+  }
+
+  public RetryBudget budget() {
+    return budget;
+  }
+
+  /**
+   * Also propagates {@code e} when the budget is exhausted. Attempts denied by
+   * {@code maxAttempts} do not count against the budget.
+   */
+  @Override
+  public long nextDelayMillis(RetryableException e) {
+    if (attempt >= maxAttempts || !budget.tryWithdraw()) {
+      throw e;
+    }
+    return super.nextDelayMillis(e);
+  }
+
+  @Override
+  long nextMaxInterval() {
+    switch (jitter) {
+      case FULL:
+        return ThreadLocalRandom.current().nextLong(super.nextMaxInterval() + 1);
+      case DECORRELATED:
+        long upper = Math.max(period, Math.min(previousInterval * 3, maxPeriod));
+        previousInterval = ThreadLocalRandom.current().nextLong(period, upper + 1);
+        return previousInterval;
+      default:
+        return super.nextMaxInterval();
+    }
+  }
+
+  /**
+   * Returns a retryer for a new call, crediting the budget for it.
+   */
+  @Override
+  public BudgetedRetryer clone() {
+    budget.deposit();
+    return new BudgetedRetryer(period, maxPeriod, maxAttempts, jitter, budget);
+  }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import static feign.Util.ensureClosed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of scratch arrays, used to read bodies into memory, such as when {@link Logger}
+ * rebuffers a response, without allocating new copy buffers each time.
+ *
+ * <p>
+ * Arrays are kept in a fixed number of slots, picked by thread so that concurrent readers rarely
+ * compete for the same one, and arrays larger than {@link #maxBufferSize()} are never kept. Only
+ * scratch space is pooled: arrays returned by {@link #toByteArray(InputStream, Integer)} belong to
+ * the caller. When the length of the content is known, it is read straight into the returned array,
+ * and no scratch space is used at all.
+ */
+@Experimental
+public final class BufferPool {
+
+  static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+  /* larger lengths are not trusted to allocate up front, content is read in chunks instead */
+  private static final int MAX_PRESIZED_LENGTH = 8 * 1024 * 1024;
+  private static final BufferPool SHARED =
+      new BufferPool(Runtime.getRuntime().availableProcessors() * 2, 64 * 1024);
+
+  private final AtomicReferenceArray<byte[]> slots;
+  private final int mask;
+  private final int maxBufferSize;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param slots count of arrays kept, rounded up to a power of two.
+   * @param maxBufferSize of the arrays kept, in bytes.
+   */
+  public BufferPool(int slots, int maxBufferSize) {
+    checkArgument(slots > 0, "slots must be positive, was %s", slots);
+    checkArgument(maxBufferSize > 0, "maxBufferSize must be positive, was %s", maxBufferSize);
+    int size = Integer.highestOneBit(slots);
+    if (size < slots) {
+      size <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.maxBufferSize = maxBufferSize;
+  }
+
+  /**
+   * The pool used by {@link Util#toByteArray(InputStream)}, which keeps up to two 64KB arrays per
+   * processor.
+   */
+  public static BufferPool shared() {
+    return SHARED;
+  }
+
+  /**
+   * Reads {@code in} fully, then closes it.
+   *
+   * @param in to read.
+   * @param length of the content, such as its {@code Content-Length}, or {@literal null} when
+   *        unknown. An incorrect length only costs an extra copy.
+   */
+  public byte[] toByteArray(InputStream in, Integer length) throws IOException {
+    checkNotNull(in, "in");
+    try {
+      if (length == null || length < 0 || length > MAX_PRESIZED_LENGTH) {
+        return readRemaining(in, acquire(DEFAULT_BUFFER_SIZE), 0);
+      }
+      byte[] data = new byte[length];
+      int count = 0;
+      while (count < length) {
+        int read = in.read(data, count, length - count);
+        if (read == -1) {
+          return Arrays.copyOf(data, count);
+        }
+        count += read;
+      }
+      int next = in.read();
+      if (next == -1) {
+        return data;
+      }
+      // the length was wrong, for example because the content was decompressed
+      byte[] buffer = acquire(Math.max(length * 2, DEFAULT_BUFFER_SIZE));
+      System.arraycopy(data, 0, buffer, 0, length);
+      buffer[length] = (byte) next;
+      return readRemaining(in, buffer, length + 1);
+    } finally {
+      ensureClosed(in);
+    }
+  }
+
+  private byte[] readRemaining(InputStream in, byte[] buffer, int count) throws IOException {
+    try {
+      while (true) {
+        if (count == buffer.length) {
+          checkArgument(count < Integer.MAX_VALUE - 8, "content is larger than 2GB");
+          buffer = Arrays.copyOf(buffer, (int) Math.min(count * 2L, Integer.MAX_VALUE - 8));
+        }
+        int read = in.read(buffer, count, buffer.length - count);
+        if (read == -1) {
+          return Arrays.copyOf(buffer, count);
+        }
+        count += read;
+      }
+    } finally {
+      release(buffer);
+    }
+  }
+
+  /**
+   * An array of at least {@code size} bytes, which should be {@link #release(byte[]) released}
+   * once no longer used.
+   */
+  byte[] acquire(int size) {
+    int index = slot();
+    byte[] buffer = slots.getAndSet(index, null);
+    if (buffer != null) {
+      if (buffer.length >= size) {
+        hits.increment();
+        return buffer;
+      }
+      // too small for this caller, but still fine for others
+      slots.compareAndSet(index, null, buffer);
+    }
+    misses.increment();
+    return new byte[size];
+  }
+
+  /**
+   * Returns {@code buffer} to the pool, unless it is too large or its slot is taken.
+   */
+  void release(byte[] buffer) {
+    if (buffer.length <= maxBufferSize) {
+      slots.compareAndSet(slot(), null, buffer);
+    }
+  }
+
+  private int slot() {
+    return (int) Thread.currentThread().getId() & mask;
+  }
+
+  /**
+   * Largest array kept by this pool, in bytes.
+   */
+  public int maxBufferSize() {
+    return maxBufferSize;
+  }
+
+  /**
+   * Count of reads that needed scratch space and reused a pooled array.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Count of reads that needed scratch space and allocated a new array.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "BufferPool(slots=" + slots.length() + ", maxBufferSize=" + maxBufferSize + ", hits="
+        + hits() + ", misses=" + misses() + ")";
+  }
+}
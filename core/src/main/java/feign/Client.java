@@ -31,7 +31,6 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.zip.DeflaterOutputStream;
@@ -119,13 +118,16 @@ public interface Client {
             connection.getRequestMethod(), connection.getURL()));
       }
 
-      Map<String, Collection<String>> headers = new LinkedHashMap<>();
-      for (Map.Entry<String, List<String>> field : connection.getHeaderFields().entrySet()) {
-        // response message
-        if (field.getKey() != null) {
-          headers.put(field.getKey(), field.getValue());
+      // the connection caches its header fields once the response code is read
+      Map<String, List<String>> headerFields = connection.getHeaderFields();
+      Map<String, Collection<String>> headers = HttpHeaders.lazy(true, builder -> {
+        for (Map.Entry<String, List<String>> field : headerFields.entrySet()) {
+          // response message
+          if (field.getKey() != null) {
+            builder.add(field.getKey(), field.getValue());
+          }
         }
-      }
+      });
 
       Integer length = connection.getContentLength();
       if (length == -1) {
@@ -135,9 +137,9 @@ public interface Client {
       if (status >= 400) {
         stream = connection.getErrorStream();
       } else {
-        if (this.isGzip(connection.getHeaderFields().get(CONTENT_ENCODING))) {
+        if (this.isGzip(headerFields.get(CONTENT_ENCODING))) {
           stream = new GZIPInputStream(connection.getInputStream());
-        } else if (this.isDeflate(connection.getHeaderFields().get(CONTENT_ENCODING))) {
+        } else if (this.isDeflate(headerFields.get(CONTENT_ENCODING))) {
           stream = new InflaterInputStream(connection.getInputStream());
         } else {
           stream = connection.getInputStream();
@@ -179,7 +181,7 @@ public interface Client {
       boolean deflateEncodedRequest = this.isDeflate(contentEncodingValues);
 
       boolean hasAcceptHeader = false;
-      Integer contentLength = null;
+      Long contentLength = null;
       for (String field : request.headers().keySet()) {
         if (field.equalsIgnoreCase("Accept")) {
           hasAcceptHeader = true;
@@ -187,7 +189,7 @@ public interface Client {
         for (String value : request.headers().get(field)) {
           if (field.equals(CONTENT_LENGTH)) {
             if (!gzipEncodedRequest && !deflateEncodedRequest) {
-              contentLength = Integer.valueOf(value);
+              contentLength = Long.valueOf(value);
               connection.addRequestProperty(field, value);
             }
           } else {
@@ -200,8 +202,10 @@ public interface Client {
         connection.addRequestProperty("Accept", "*/*");
       }
 
-      if (request.body() != null) {
-        if (disableRequestBuffering) {
+      Request.Body body = request.requestBody();
+      if (request.body() != null || body.isStreaming()) {
+        // streamed bodies are never buffered, as that is why they are streamed
+        if (disableRequestBuffering || body.isStreaming()) {
           if (contentLength != null) {
             connection.setFixedLengthStreamingMode(contentLength);
           } else {
@@ -216,7 +220,7 @@ public interface Client {
           out = new DeflaterOutputStream(out);
         }
         try {
-          out.write(request.body());
+          body.writeTo(out);
         } finally {
           try {
             out.close();
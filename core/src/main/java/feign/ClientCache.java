@@ -0,0 +1,123 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache of the underlying clients a {@link Client} builds for
+ * {@link Request.Options} that differ from its own settings, such as other timeouts.
+ *
+ * <p>
+ * Requests usually use a handful of distinct options, so clients are kept until {@code maxSize}
+ * are cached, after which building another one evicts the least recently used. Lookups stay
+ * lock-free, only stamping the entry they find, and eviction scans the entries for the oldest
+ * stamp. Options cycling through more than {@code maxSize} values still evict a client on most
+ * lookups, in which case the cache should be made larger. Evicted clients are passed to the
+ * eviction callback, which releases them if they are not garbage collected with their
+ * resources.
+ *
+ * @param <K> key built from the options that require a distinct client.
+ * @param <C> type of the underlying client.
+ */
+@Experimental
+public final class ClientCache<K, C> {
+
+  /* more distinct options than this means they vary per request, which caching can't help */
+  public static final int DEFAULT_MAX_SIZE = 16;
+
+  private final ConcurrentMap<K, Entry<C>> clients = new ConcurrentHashMap<>();
+  private final AtomicLong lookups = new AtomicLong();
+  private final int maxSize;
+  private final Consumer<? super C> onEviction;
+
+  public ClientCache() {
+    this(DEFAULT_MAX_SIZE, client -> {
+    });
+  }
+
+  /**
+   * @param maxSize count of clients kept.
+   * @param onEviction called with each client removed from the cache, such as to close it.
+   */
+  public ClientCache(int maxSize, Consumer<? super C> onEviction) {
+    checkArgument(maxSize > 0, "maxSize must be positive, was %s", maxSize);
+    this.maxSize = maxSize;
+    this.onEviction = checkNotNull(onEviction, "onEviction");
+  }
+
+  /**
+   * Returns the client cached for {@code key}, building it with {@code factory} on the first
+   * lookup. Concurrent lookups of the same key build a single client.
+   */
+  public C get(K key, Function<? super K, ? extends C> factory) {
+    Entry<C> entry = clients.get(key);
+    if (entry == null) {
+      if (clients.size() >= maxSize) {
+        evictLeastRecentlyUsed();
+      }
+      entry = clients.computeIfAbsent(key, k -> new Entry<>(factory.apply(k)));
+    }
+    entry.lastUsed = lookups.incrementAndGet();
+    return entry.client;
+  }
+
+  /**
+   * Removes every client, passing each to the eviction callback.
+   */
+  public void clear() {
+    clients.keySet().forEach(this::evict);
+  }
+
+  int size() {
+    return clients.size();
+  }
+
+  private void evictLeastRecentlyUsed() {
+    Map.Entry<K, Entry<C>> eldest = null;
+    for (Map.Entry<K, Entry<C>> candidate : clients.entrySet()) {
+      if (eldest == null || candidate.getValue().lastUsed < eldest.getValue().lastUsed) {
+        eldest = candidate;
+      }
+    }
+    if (eldest != null && clients.remove(eldest.getKey(), eldest.getValue())) {
+      onEviction.accept(eldest.getValue().client);
+    }
+  }
+
+  private void evict(K key) {
+    Entry<C> evicted = clients.remove(key);
+    if (evicted != null) {
+      onEviction.accept(evicted.client);
+    }
+  }
+
+  private static final class Entry<C> {
+
+    private final C client;
+    /* lookup count when last returned, compared to find the least recently used */
+    private volatile long lastUsed;
+
+    Entry(C client) {
+      this.client = client;
+    }
+  }
+}
@@ -355,5 +355,22 @@ public interface Contract {
       }
       return result;
     }
+
+    /**
+     * All instances of this class parse the same way, so that they share {@link MetadataCache}
+     * entries. Subclasses may register other annotations, and keep identity semantics.
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (getClass() != Default.class) {
+        return this == obj;
+      }
+      return obj != null && obj.getClass() == Default.class;
+    }
+
+    @Override
+    public int hashCode() {
+      return getClass() == Default.class ? Default.class.hashCode() : super.hashCode();
+    }
   }
 }
@@ -0,0 +1,185 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import feign.InvocationHandlerFactory.MethodHandler;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Immutable, array-backed replacement for {@code Map<Method, MethodHandler>} lookups on the proxy
+ * invocation path.
+ *
+ * <p>
+ * Each method of the dispatch map is assigned a stable slot, in iteration order, when the table is
+ * created. {@link #slot(Method)} resolves the {@link Method} passed to
+ * {@link java.lang.reflect.InvocationHandler#invoke} to that slot, and {@link #handler(int)}
+ * returns the handler bound to it. {@link Object#equals(Object)}, {@link Object#hashCode()} and
+ * {@link Object#toString()} resolve to the negative slots {@link #EQUALS}, {@link #HASH_CODE} and
+ * {@link #TO_STRING}, so handlers no longer need to compare method names on every call.
+ *
+ * <p>
+ * {@link java.lang.reflect.Proxy} passes its own copies of each {@link Method}, which are equal to,
+ * but not the same instance as, the ones used to build the table. The first time a copy is seen it
+ * is remembered per slot, so that subsequent calls resolve with a hash and an identity check.
+ */
+public final class DispatchTable {
+
+  /**
+   * Slot of {@link Object#equals(Object)}.
+   */
+  public static final int EQUALS = -1;
+
+  /**
+   * Slot of {@link Object#hashCode()}.
+   */
+  public static final int HASH_CODE = -2;
+
+  /**
+   * Slot of {@link Object#toString()}.
+   */
+  public static final int TO_STRING = -3;
+
+  /**
+   * Returned by {@link #slot(Method)} for methods that are not part of the table.
+   */
+  public static final int NOT_FOUND = -4;
+
+  private static final Method OBJECT_EQUALS;
+  private static final Method OBJECT_HASH_CODE;
+  private static final Method OBJECT_TO_STRING;
+
+  static {
+    try {
+      OBJECT_EQUALS = Object.class.getMethod("equals", Object.class);
+      OBJECT_HASH_CODE = Object.class.getMethod("hashCode");
+      OBJECT_TO_STRING = Object.class.getMethod("toString");
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private final Method[] methods;
+  private final MethodHandler[] handlers;
+  private final Bucket[] buckets;
+  private final int mask;
+
+  private DispatchTable(Method[] methods, MethodHandler[] handlers) {
+    this.methods = methods;
+    this.handlers = handlers;
+    // keep the load factor at or below 0.5 so that probe sequences stay short
+    int capacity = Integer.highestOneBit(Math.max(methods.length + 3, 2) * 2 - 1) << 1;
+    this.buckets = new Bucket[capacity];
+    this.mask = capacity - 1;
+    put(OBJECT_EQUALS, EQUALS);
+    put(OBJECT_HASH_CODE, HASH_CODE);
+    put(OBJECT_TO_STRING, TO_STRING);
+    for (int slot = 0; slot < methods.length; slot++) {
+      put(methods[slot], slot);
+    }
+  }
+
+  /**
+   * Assigns a slot to every entry of {@code dispatch}, following its iteration order.
+   */
+  public static DispatchTable create(Map<Method, MethodHandler> dispatch) {
+    checkNotNull(dispatch, "dispatch");
+    Method[] methods = new Method[dispatch.size()];
+    MethodHandler[] handlers = new MethodHandler[dispatch.size()];
+    int slot = 0;
+    for (Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+      methods[slot] = entry.getKey();
+      handlers[slot] = entry.getValue();
+      slot++;
+    }
+    return new DispatchTable(methods, handlers);
+  }
+
+  private void put(Method method, int slot) {
+    int index = method.hashCode() & mask;
+    while (buckets[index] != null) {
+      if (buckets[index].method.equals(method)) {
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    buckets[index] = new Bucket(method, slot);
+  }
+
+  /**
+   * Resolves {@code method} to its slot, one of the {@code Object} method slots, or
+   * {@link #NOT_FOUND}.
+   */
+  public int slot(Method method) {
+    int index = method.hashCode() & mask;
+    Bucket bucket;
+    while ((bucket = buckets[index]) != null) {
+      if (bucket.method == method || bucket.alias == method) {
+        return bucket.slot;
+      }
+      if (bucket.method.equals(method)) {
+        // benign race: Method instances handed out by a proxy are published by its class
+        // initializer, so at worst another thread misses the alias and takes this path again.
+        bucket.alias = method;
+        return bucket.slot;
+      }
+      index = (index + 1) & mask;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Handler bound to {@code slot}, which must be between zero and {@link #size()}.
+   */
+  public MethodHandler handler(int slot) {
+    return handlers[slot];
+  }
+
+  /**
+   * Method bound to {@code slot}, which must be between zero and {@link #size()}.
+   */
+  public Method method(int slot) {
+    return methods[slot];
+  }
+
+  /**
+   * Handler for {@code method}, or null when it is not part of the table. Equivalent to
+   * {@code Map.get} on the dispatch map this table was created from.
+   */
+  public MethodHandler get(Method method) {
+    int slot = slot(method);
+    return slot >= 0 ? handlers[slot] : null;
+  }
+
+  /**
+   * Count of slots, excluding the {@code Object} method slots.
+   */
+  public int size() {
+    return methods.length;
+  }
+
+  private static final class Bucket {
+
+    final Method method;
+    final int slot;
+    Method alias;
+
+    Bucket(Method method, int slot) {
+      this.method = method;
+      this.slot = slot;
+    }
+  }
+}
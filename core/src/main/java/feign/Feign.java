@@ -13,6 +13,7 @@
  */
 package feign;
 
+import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Logger.NoOpLogger;
 import feign.ReflectiveFeign.ParseHandlersByName;
 import feign.Request.Options;
@@ -26,6 +27,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import static feign.ExceptionPropagationPolicy.NONE;
 
@@ -94,6 +96,32 @@ public abstract class Feign {
    */
   public abstract <T> T newInstance(Target<T> target);
 
+  /**
+   * Like {@link #newInstance(Target)}, except the instance is created by {@code factory} from the
+   * bound method handlers, instead of by {@link java.lang.reflect.Proxy}. This is how compile-time
+   * generated clients are bound. Implementations that cannot bind handlers without a proxy fall
+   * back to {@link #newInstance(Target)}.
+   */
+  @Experimental
+  public <T> T newInstance(Target<T> target, InstanceFactory<T> factory) {
+    return newInstance(target);
+  }
+
+  /**
+   * Creates an instance of an HTTP API from its bound method handlers, typically by invoking the
+   * constructor of a class generated for the API interface at compile time.
+   */
+  @Experimental
+  public interface InstanceFactory<T> {
+
+    /**
+     * @param target the target the handlers were bound to.
+     * @param dispatch handlers for every abstract method of {@link Target#type()}. Default methods
+     *        are not included, as the instance is expected to inherit them from the interface.
+     */
+    T create(Target<T> target, Map<Method, MethodHandler> dispatch);
+  }
+
   public static class Builder {
 
     private final List<RequestInterceptor> requestInterceptors =
@@ -113,8 +141,9 @@ public abstract class Feign {
     private boolean decode404;
     private boolean closeAfterDecode = true;
     private ExceptionPropagationPolicy propagationPolicy = NONE;
-    private boolean forceDecoding = false;
     private List<Capability> capabilities = new ArrayList<>();
+    private MetadataCache metadataCache;
+    private boolean lazyMethodHandlers;
 
     public Builder logLevel(Logger.Level logLevel) {
       this.logLevel = logLevel;
@@ -126,6 +155,17 @@ public abstract class Feign {
       return this;
     }
 
+    /**
+     * Serves the {@link #contract(Contract) contract} results from {@code metadataCache}, which can
+     * be shared by several builders, so that each interface is parsed once instead of on every
+     * {@link Feign#newInstance(Target)}.
+     */
+    @Experimental
+    public Builder metadataCache(MetadataCache metadataCache) {
+      this.metadataCache = metadataCache;
+      return this;
+    }
+
     public Builder client(Client client) {
       this.client = client;
       return this;
@@ -242,6 +282,19 @@ public abstract class Feign {
       return this;
     }
 
+    /**
+     * Defers creating the handler of each method until it is first invoked, instead of when the
+     * instance is created. Interfaces are still parsed and validated up front, but startup time and
+     * memory scale with the methods a client actually calls, which helps with large interfaces.
+     *
+     * @since 11.8
+     */
+    @Experimental
+    public Builder lazyMethodHandlers() {
+      this.lazyMethodHandlers = true;
+      return this;
+    }
+
     public Builder exceptionPropagationPolicy(ExceptionPropagationPolicy propagationPolicy) {
       this.propagationPolicy = propagationPolicy;
       return this;
@@ -252,14 +305,6 @@ public abstract class Feign {
       return this;
     }
 
-    /**
-     * Internal - used to indicate that the decoder should be immediately called
-     */
-    Builder forceDecoding() {
-      this.forceDecoding = true;
-      return this;
-    }
-
     public <T> T target(Class<T> apiType, String url) {
       // 创建了一个JDK的动态代理类
       return target(new HardCodedTarget<T>(apiType, url));
@@ -270,6 +315,17 @@ public abstract class Feign {
       return build().newInstance(target);
     }
 
+    /**
+     * Like {@link #target(Target)}, except the instance is created by {@code factory}, usually a
+     * client generated at compile time, instead of by {@link java.lang.reflect.Proxy}.
+     *
+     * @see Feign#newInstance(Target, InstanceFactory)
+     */
+    @Experimental
+    public <T> T target(Target<T> target, InstanceFactory<T> factory) {
+      return build().newInstance(target, factory);
+    }
+
     public Feign build() {
       Client client = Capability.enrich(this.client, capabilities);
       // 重试器A
@@ -280,6 +336,9 @@ public abstract class Feign {
       Logger logger = Capability.enrich(this.logger, capabilities);
       // 接口协议组件(包含了全部的类上注解,方法上注解,参数上注解处理器),作用是提取Class对象得到各种元信息
       Contract contract = Capability.enrich(this.contract, capabilities);
+      if (metadataCache != null) {
+        contract = metadataCache.contract(contract);
+      }
       // 配置类(包含连接超时[默认10s]和读取超时[默认60s])
       Options options = Capability.enrich(this.options, capabilities);
       // 编码器
@@ -291,11 +350,11 @@ public abstract class Feign {
 
       SynchronousMethodHandler.Factory synchronousMethodHandlerFactory =
           new SynchronousMethodHandler.Factory(client, retryer, requestInterceptors, logger,
-              logLevel, decode404, closeAfterDecode, propagationPolicy, forceDecoding);
+              logLevel, decode404, closeAfterDecode, propagationPolicy);
       // 解析Feign客户端的各种方法,并绑定对应的处理器
       ParseHandlersByName handlersByName =
           new ParseHandlersByName(contract, options, encoder, decoder, queryMapEncoder,
-              errorDecoder, synchronousMethodHandlerFactory);
+              errorDecoder, synchronousMethodHandlerFactory, lazyMethodHandlers);
       return new ReflectiveFeign(handlersByName, invocationHandlerFactory, queryMapEncoder);
     }
   }
@@ -172,7 +172,7 @@ public class FeignException extends RuntimeException {
     byte[] body = {};
     try {
       if (response.body() != null) {
-        body = Util.toByteArray(response.body().asInputStream());
+        body = Util.toByteArray(response.body());
       }
     } catch (IOException ignored) { // NOPMD
     }
@@ -0,0 +1,362 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Immutable, case-insensitive header multimap, used by {@link Request} and {@link Response}.
+ *
+ * <p>
+ * Names are kept in two parallel arrays, sorted with {@link String#CASE_INSENSITIVE_ORDER} like
+ * the {@link TreeMap} it replaces. A header with a single value stores that value directly, and
+ * collections are only created when values are read through the {@link Map} interface. Builders
+ * that {@link #builder(boolean) lowercase names} reuse constants for common headers, such as
+ * {@literal content-type}, instead of allocating a lowercase copy of each name.
+ *
+ * <p>
+ * Client adapters can wrap their native header storage with {@link #lazy(boolean, Consumer)}, which
+ * defers copying headers until they are first read.
+ */
+@Experimental
+public final class HttpHeaders extends AbstractMap<String, Collection<String>> {
+
+  private static final String[] NO_VALUES = new String[0];
+  private static final Map<String, String> COMMON_NAMES =
+      new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+  static {
+    for (String name : new String[] {
+        "accept", "accept-encoding", "accept-language", "accept-ranges", "age", "allow",
+        "authorization", "cache-control", "connection", "content-disposition", "content-encoding",
+        "content-language", "content-length", "content-location", "content-range", "content-type",
+        "cookie", "date", "etag", "expect", "expires", "host", "if-match", "if-modified-since",
+        "if-none-match", "keep-alive", "last-modified", "link", "location", "pragma",
+        "proxy-authenticate", "proxy-authorization", "retry-after", "server", "set-cookie",
+        "strict-transport-security", "trailer", "transfer-encoding", "upgrade", "user-agent",
+        "vary", "via", "www-authenticate", "x-forwarded-for", "x-request-id"}) {
+      COMMON_NAMES.put(name, name);
+    }
+  }
+
+  private static final HttpHeaders EMPTY = new Builder(false).build();
+
+  private final boolean lowercaseNames;
+  /* set when built eagerly, final so that instances are safe to share */
+  private final Table built;
+  private volatile Table loaded;
+  private Consumer<Builder> loader;
+  private Set<Entry<String, Collection<String>>> entrySet;
+
+  private HttpHeaders(Table built, Consumer<Builder> loader, boolean lowercaseNames) {
+    this.built = built;
+    this.loader = loader;
+    this.lowercaseNames = lowercaseNames;
+  }
+
+  /**
+   * Headers with no entries.
+   */
+  public static HttpHeaders empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Builder that keeps names as first added.
+   */
+  public static Builder builder() {
+    return new Builder(false);
+  }
+
+  /**
+   * Builder that converts names to lower case when {@code lowercaseNames}, as
+   * {@link Response#headers()} does.
+   */
+  public static Builder builder(boolean lowercaseNames) {
+    return new Builder(lowercaseNames);
+  }
+
+  /**
+   * Copies {@code headers}, merging the values of names that only differ by case, or returns them
+   * when they already are {@link HttpHeaders} with the same naming.
+   *
+   * @param headers to copy, may be null.
+   * @param lowercaseNames if names should be converted to lower case.
+   */
+  public static HttpHeaders copyOf(Map<String, ? extends Collection<String>> headers,
+                                   boolean lowercaseNames) {
+    if (headers instanceof HttpHeaders
+        && ((HttpHeaders) headers).lowercaseNames == lowercaseNames) {
+      return (HttpHeaders) headers;
+    }
+    Builder builder = new Builder(lowercaseNames);
+    if (headers != null) {
+      for (Entry<String, ? extends Collection<String>> entry : headers.entrySet()) {
+        builder.add(entry.getKey(), entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Headers populated by {@code loader} the first time they are read. {@code loader} is called at
+   * most once, and must not depend on state that changes after this call, such as a connection
+   * that may be released.
+   *
+   * @param lowercaseNames if names should be converted to lower case.
+   * @param loader adding the headers to the provided builder.
+   */
+  public static HttpHeaders lazy(boolean lowercaseNames, Consumer<Builder> loader) {
+    return new HttpHeaders(null, checkNotNull(loader, "loader"), lowercaseNames);
+  }
+
+  private Table table() {
+    if (built != null) {
+      return built;
+    }
+    Table result = loaded;
+    if (result == null) {
+      synchronized (this) {
+        result = loaded;
+        if (result == null) {
+          Builder builder = new Builder(lowercaseNames);
+          loader.accept(builder);
+          loader = null;
+          loaded = result = builder.table();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The first value of the header {@code name}, or null when absent.
+   */
+  public String first(String name) {
+    Table table = table();
+    int index = indexOf(table.names, table.size, name);
+    if (index < 0) {
+      return null;
+    }
+    Object value = table.values[index];
+    if (value instanceof String) {
+      return (String) value;
+    }
+    String[] all = (String[]) value;
+    return all.length > 0 ? all[0] : null;
+  }
+
+  /**
+   * Like the {@link TreeMap} it replaces, throws {@link ClassCastException} for keys that are not
+   * strings.
+   */
+  @Override
+  public Collection<String> get(Object key) {
+    Table table = table();
+    int index = indexOf(table.names, table.size, (String) key);
+    return index < 0 ? null : table.valuesAt(index);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Table table = table();
+    return indexOf(table.names, table.size, (String) key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return table().size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public Set<Entry<String, Collection<String>>> entrySet() {
+    Set<Entry<String, Collection<String>>> result = entrySet;
+    if (result == null) {
+      entrySet = result = new EntrySet();
+    }
+    return result;
+  }
+
+  private static int indexOf(String[] names, int size, String name) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = String.CASE_INSENSITIVE_ORDER.compare(names[middle], name);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, Collection<String>>> {
+
+    @Override
+    public Iterator<Entry<String, Collection<String>>> iterator() {
+      Table table = table();
+      return new Iterator<Entry<String, Collection<String>>>() {
+        int index;
+
+        @Override
+        public boolean hasNext() {
+          return index < table.size;
+        }
+
+        @Override
+        public Entry<String, Collection<String>> next() {
+          if (index >= table.size) {
+            throw new NoSuchElementException();
+          }
+          Entry<String, Collection<String>> entry =
+              new SimpleImmutableEntry<>(table.names[index], table.valuesAt(index));
+          index++;
+          return entry;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return HttpHeaders.this.size();
+    }
+  }
+
+  private static final class Table {
+
+    final String[] names;
+    /* a String for a single non-null value, or a String[] */
+    final Object[] values;
+    final int size;
+
+    Table(String[] names, Object[] values, int size) {
+      this.names = names;
+      this.values = values;
+      this.size = size;
+    }
+
+    List<String> valuesAt(int index) {
+      Object value = values[index];
+      if (value instanceof String) {
+        return Collections.singletonList((String) value);
+      }
+      return Collections.unmodifiableList(Arrays.asList((String[]) value));
+    }
+  }
+
+  /**
+   * Accumulates headers, merging the values of names that only differ by case.
+   */
+  public static final class Builder {
+
+    private final boolean lowercaseNames;
+    private String[] names = new String[8];
+    private Object[] values = new Object[8];
+    private int size;
+
+    private Builder(boolean lowercaseNames) {
+      this.lowercaseNames = lowercaseNames;
+    }
+
+    /**
+     * Adds {@code value} to the header {@code name}.
+     */
+    public Builder add(String name, String value) {
+      int index = slot(name);
+      Object existing = values[index];
+      if (existing == NO_VALUES) {
+        values[index] = value != null ? value : new String[] {null};
+      } else if (existing instanceof String) {
+        values[index] = new String[] {(String) existing, value};
+      } else {
+        String[] previous = (String[]) existing;
+        String[] merged = Arrays.copyOf(previous, previous.length + 1);
+        merged[previous.length] = value;
+        values[index] = merged;
+      }
+      return this;
+    }
+
+    /**
+     * Adds {@code values} to the header {@code name}. The header is added even if there are no
+     * values.
+     */
+    public Builder add(String name, Iterable<String> values) {
+      slot(name);
+      if (values != null) {
+        for (String value : values) {
+          add(name, value);
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Index of {@code name}, inserting it, with no values, when absent.
+     */
+    private int slot(String name) {
+      checkNotNull(name, "name");
+      int index = indexOf(names, size, name);
+      if (index >= 0) {
+        return index;
+      }
+      index = -(index + 1);
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      System.arraycopy(names, index, names, index + 1, size - index);
+      System.arraycopy(values, index, values, index + 1, size - index);
+      names[index] = lowercaseNames ? lowercase(name) : name;
+      values[index] = NO_VALUES;
+      size++;
+      return index;
+    }
+
+    public HttpHeaders build() {
+      return new HttpHeaders(table(), null, lowercaseNames);
+    }
+
+    private Table table() {
+      return new Table(Arrays.copyOf(names, size), Arrays.copyOf(values, size), size);
+    }
+
+    private static String lowercase(String name) {
+      String common = COMMON_NAMES.get(name);
+      return common != null ? common : name.toLowerCase(Locale.ROOT);
+    }
+  }
+}
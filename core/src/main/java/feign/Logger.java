@@ -16,6 +16,7 @@ package feign;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.util.logging.FileHandler;
 import java.util.logging.LogRecord;
 import java.util.logging.SimpleFormatter;
@@ -52,7 +53,7 @@ public abstract class Logger {
       }
 
       int bodyLength = 0;
-      if (request.body() != null) {
+      if (request.body() != null || request.requestBody().isStreaming()) {
         bodyLength = request.length();
         if (logLevel.ordinal() >= Level.FULL.ordinal()) {
           String bodyText =
@@ -96,7 +97,17 @@ public abstract class Logger {
         if (logLevel.ordinal() >= Level.FULL.ordinal()) {
           log(configKey, ""); // CRLF
         }
-        byte[] bodyData = Util.toByteArray(response.body().asInputStream());
+        if (response.body() instanceof Response.BufferedBody) {
+          // already in memory, so there is nothing to rebuffer
+          ByteBuffer bodyData = ((Response.BufferedBody) response.body()).asByteBuffer();
+          bodyLength = bodyData.remaining();
+          if (logLevel.ordinal() >= Level.FULL.ordinal() && bodyLength > 0) {
+            log(configKey, "%s", decodeOrDefault(bodyData, UTF_8, "Binary data"));
+          }
+          log(configKey, "<--- END HTTP (%s-byte body)", bodyLength);
+          return response;
+        }
+        byte[] bodyData = Util.toByteArray(response.body());
         bodyLength = bodyData.length;
         if (logLevel.ordinal() >= Level.FULL.ordinal() && bodyLength > 0) {
           log(configKey, "%s", decodeOrDefault(bodyData, UTF_8, "Binary data"));
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Thread-safe cache of {@link Contract#parseAndValidateMetadata(Class) parsed metadata}, keyed by
+ * contract and interface type.
+ *
+ * <p>
+ * By default, each {@link Feign#newInstance(Target)} parses the target interface again. Sharing a
+ * cache between builders, with {@link Feign.Builder#metadataCache(MetadataCache)}, means each
+ * interface is parsed once per contract, no matter how many instances or targets are created for
+ * it.
+ *
+ * <p>
+ * Contracts are compared with {@link Object#equals(Object)}, so a contract created per build must
+ * implement it for entries to be reused. Concurrent lookups of the same key wait for a single
+ * parse, and failures are not cached, so the next lookup parses again.
+ *
+ * <p>
+ * Cached metadata is shared by every instance created from it, and must be treated as read-only.
+ * Feign itself only reads it, copying {@link MethodMetadata#template()} for each request.
+ */
+@Experimental
+public final class MetadataCache {
+
+  private final ConcurrentMap<Key, CompletableFuture<List<MethodMetadata>>> cache =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Returns the metadata of {@code type} as parsed by {@code contract}, parsing it on the first
+   * lookup.
+   */
+  public List<MethodMetadata> get(Contract contract, Class<?> type) {
+    checkNotNull(contract, "contract");
+    checkNotNull(type, "type");
+    Key key = new Key(contract, type);
+    CompletableFuture<List<MethodMetadata>> entry = cache.get(key);
+    if (entry == null) {
+      CompletableFuture<List<MethodMetadata>> parsing = new CompletableFuture<>();
+      entry = cache.putIfAbsent(key, parsing);
+      if (entry == null) {
+        // parse outside of the map, so that lookups of other keys are never blocked by it
+        return parse(key, parsing);
+      }
+    }
+    try {
+      return entry.join();
+    } catch (CompletionException e) {
+      throw propagate(e.getCause());
+    }
+  }
+
+  private List<MethodMetadata> parse(Key key, CompletableFuture<List<MethodMetadata>> parsing) {
+    try {
+      List<MethodMetadata> metadata = Collections.unmodifiableList(
+          new ArrayList<>(key.contract.parseAndValidateMetadata(key.type)));
+      parsing.complete(metadata);
+      return metadata;
+    } catch (RuntimeException | Error e) {
+      cache.remove(key, parsing);
+      parsing.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Parses {@code types} on {@code executor}, typically at startup, so that later lookups are
+   * served from the cache. The returned future fails with the first parse failure, if any.
+   */
+  public CompletableFuture<Void> preload(Contract contract, Executor executor, Class<?>... types) {
+    checkNotNull(contract, "contract");
+    checkNotNull(executor, "executor");
+    CompletableFuture<?>[] parsed = new CompletableFuture<?>[types.length];
+    for (int i = 0; i < types.length; i++) {
+      Class<?> type = checkNotNull(types[i], "types[%s]", i);
+      parsed[i] = CompletableFuture.runAsync(() -> get(contract, type), executor);
+    }
+    return CompletableFuture.allOf(parsed);
+  }
+
+  /**
+   * Returns a contract that serves {@code contract} results from this cache.
+   */
+  Contract contract(Contract contract) {
+    return type -> get(contract, type);
+  }
+
+  /**
+   * Count of interfaces parsed, or being parsed, across all contracts.
+   */
+  public int size() {
+    return cache.size();
+  }
+
+  /**
+   * Discards all entries. Instances already created keep the metadata they were built with.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  private static RuntimeException propagate(Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IllegalStateException(cause);
+  }
+
+  private static final class Key {
+
+    final Contract contract;
+    final Class<?> type;
+    final int hashCode;
+
+    Key(Contract contract, Class<?> type) {
+      this.contract = contract;
+      this.type = type;
+      this.hashCode = 31 * contract.hashCode() + type.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return type == other.type && contract.equals(other.contract);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
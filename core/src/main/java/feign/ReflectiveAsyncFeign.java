@@ -14,82 +14,11 @@
 package feign;
 
 import java.lang.reflect.*;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Experimental
 public class ReflectiveAsyncFeign<C> extends AsyncFeign<C> {
 
-  private class AsyncFeignInvocationHandler<T> implements InvocationHandler {
-
-    private final Map<Method, MethodInfo> methodInfoLookup = new ConcurrentHashMap<>();
-
-    private final Class<T> type;
-    private final T instance;
-    private final C context;
-
-    AsyncFeignInvocationHandler(Class<T> type, T instance, C context) {
-      this.type = type;
-      this.instance = instance;
-      this.context = context;
-    }
-
-    @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-      if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
-        try {
-          final Object otherHandler =
-              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0])
-                  : null;
-          return equals(otherHandler);
-        } catch (final IllegalArgumentException e) {
-          return false;
-        }
-      } else if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
-        return hashCode();
-      } else if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
-        return toString();
-      }
-
-      final MethodInfo methodInfo =
-          methodInfoLookup.computeIfAbsent(method, m -> new MethodInfo(type, m));
-
-      setInvocationContext(new AsyncInvocation<C>(context, methodInfo));
-      try {
-        return method.invoke(instance, args);
-      } catch (final InvocationTargetException e) {
-        Throwable cause = e.getCause();
-        if (cause instanceof AsyncJoinException) {
-          cause = cause.getCause();
-        }
-        throw cause;
-      } finally {
-        clearInvocationContext();
-      }
-    }
-
-    @SuppressWarnings("unchecked")
-    @Override
-    public boolean equals(Object obj) {
-      if (obj instanceof AsyncFeignInvocationHandler) {
-        final AsyncFeignInvocationHandler<?> other = (AsyncFeignInvocationHandler<?>) obj;
-        return instance.equals(other.instance);
-      }
-      return false;
-    }
-
-    @Override
-    public int hashCode() {
-      return instance.hashCode();
-    }
-
-    @Override
-    public String toString() {
-      return instance.toString();
-    }
-  }
-
   public ReflectiveAsyncFeign(AsyncBuilder<C> asyncBuilder) {
     super(asyncBuilder);
   }
@@ -98,8 +27,13 @@ public class ReflectiveAsyncFeign<C> extends AsyncFeign<C> {
     return retType.getTypeName() + " " + type.toGenericString() + "." + m.getName();
   }
 
+  /**
+   * Checks that async methods of {@code target} return a {@link CompletableFuture} of a concrete
+   * type, before creating their handlers.
+   */
   @Override
-  protected <T> T wrap(Class<T> type, T instance, C context) {
+  public <T> T newInstance(Target<T> target, C context) {
+    final Class<T> type = target.type();
     if (!type.isInterface()) {
       throw new IllegalArgumentException("Type must be an interface: " + type);
     }
@@ -131,7 +65,6 @@ public class ReflectiveAsyncFeign<C> extends AsyncFeign<C> {
       }
     }
 
-    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
-        new AsyncFeignInvocationHandler<>(type, instance, context)));
+    return super.newInstance(target, context);
   }
 }
@@ -17,9 +17,11 @@ import static feign.Util.checkArgument;
 import static feign.Util.checkNotNull;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Param.Expander;
 import feign.Request.Options;
@@ -43,10 +45,21 @@ public class ReflectiveFeign extends Feign {
    * creates an api binding to the {@code target}. As this invokes reflection, care should be taken
    * to cache the result.
    */
-  @SuppressWarnings("unchecked")
   @Override
   public <T> T newInstance(Target<T> target) {
-    Map<String, MethodHandler> nameToHandler = targetToHandlersByName.apply(target);
+    return newInstance(target, targetToHandlersByName.apply(target));
+  }
+
+  /**
+   * Like {@link #newInstance(Target)}, with handlers created by {@code methodHandlerFactory}
+   * instead of the factory this instance was built with, as {@link AsyncFeign} does.
+   */
+  <T> T newInstance(Target<T> target, MethodHandlerFactory methodHandlerFactory) {
+    return newInstance(target, targetToHandlersByName.apply(target, methodHandlerFactory));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T newInstance(Target<T> target, Map<String, MethodHandler> nameToHandler) {
     Map<Method, MethodHandler> methodToHandler = new LinkedHashMap<Method, MethodHandler>();
     List<DefaultMethodHandler> defaultMethodHandlers = new LinkedList<DefaultMethodHandler>();
 
@@ -74,14 +87,36 @@ public class ReflectiveFeign extends Feign {
     return proxy;
   }
 
+  /**
+   * Binds the handlers of {@code target} without creating a proxy. When a custom
+   * {@link InvocationHandlerFactory} is in use, dispatch must go through it, so this falls back to
+   * {@link #newInstance(Target)}.
+   */
+  @Override
+  public <T> T newInstance(Target<T> target, InstanceFactory<T> instanceFactory) {
+    checkNotNull(instanceFactory, "instanceFactory");
+    if (factory.getClass() != InvocationHandlerFactory.Default.class) {
+      return newInstance(target);
+    }
+    Map<String, MethodHandler> nameToHandler = targetToHandlersByName.apply(target);
+    Map<Method, MethodHandler> methodToHandler = new LinkedHashMap<Method, MethodHandler>();
+    for (Method method : target.type().getMethods()) {
+      if (method.getDeclaringClass() != Object.class && !Util.isDefault(method)
+          && !Modifier.isStatic(method.getModifiers())) {
+        methodToHandler.put(method, nameToHandler.get(Feign.configKey(target.type(), method)));
+      }
+    }
+    return instanceFactory.create(target, methodToHandler);
+  }
+
   static class FeignInvocationHandler implements InvocationHandler {
 
     private final Target target;
-    private final Map<Method, MethodHandler> dispatch;
+    private final DispatchTable dispatch;
 
     FeignInvocationHandler(Target target, Map<Method, MethodHandler> dispatch) {
       this.target = checkNotNull(target, "target");
-      this.dispatch = checkNotNull(dispatch, "dispatch for %s", target);
+      this.dispatch = DispatchTable.create(checkNotNull(dispatch, "dispatch for %s", target));
     }
 
     /**
@@ -89,21 +124,26 @@ public class ReflectiveFeign extends Feign {
      * */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-      // 省略对equals、hashCode、toString等方法的处理代码
-      if ("equals".equals(method.getName())) {
-        try {
-          Object otherHandler = args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
-          return equals(otherHandler);
-        } catch (IllegalArgumentException e) {
-          return false;
-        }
-      } else if ("hashCode".equals(method.getName())) {
-        return hashCode();
-      } else if ("toString".equals(method.getName())) {
-        return toString();
+      int slot = dispatch.slot(method);
+      switch (slot) {
+        case DispatchTable.EQUALS:
+          try {
+            Object otherHandler =
+                args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+            return equals(otherHandler);
+          } catch (IllegalArgumentException e) {
+            return false;
+          }
+        case DispatchTable.HASH_CODE:
+          return hashCode();
+        case DispatchTable.TO_STRING:
+          return toString();
+        case DispatchTable.NOT_FOUND:
+          throw new IllegalStateException(method + " is not a method handled by feign");
+        default:
+          // 通过dispath完成调度,因此最终调用的是MethodHandler#invoke
+          return dispatch.handler(slot).invoke(args);
       }
-      // 通过dispath完成调度,因此最终调用的是MethodHandler#invoke
-      return dispatch.get(method).invoke(args);
     }
 
     @Override
@@ -126,6 +166,19 @@ public class ReflectiveFeign extends Feign {
     }
   }
 
+  /**
+   * Creates the handler of a method, such as a {@link SynchronousMethodHandler}.
+   */
+  interface MethodHandlerFactory {
+
+    MethodHandler create(Target<?> target,
+                         MethodMetadata md,
+                         RequestTemplate.Factory buildTemplateFromArgs,
+                         Options options,
+                         Decoder decoder,
+                         ErrorDecoder errorDecoder);
+  }
+
   static final class ParseHandlersByName {
 
     private final Contract contract;
@@ -134,7 +187,8 @@ public class ReflectiveFeign extends Feign {
     private final Decoder decoder;
     private final ErrorDecoder errorDecoder;
     private final QueryMapEncoder queryMapEncoder;
-    private final SynchronousMethodHandler.Factory factory;
+    private final MethodHandlerFactory factory;
+    private final boolean lazyMethodHandlers;
 
     ParseHandlersByName(
         Contract contract,
@@ -143,7 +197,8 @@ public class ReflectiveFeign extends Feign {
         Decoder decoder,
         QueryMapEncoder queryMapEncoder,
         ErrorDecoder errorDecoder,
-        SynchronousMethodHandler.Factory factory) {
+        MethodHandlerFactory factory,
+        boolean lazyMethodHandlers) {
       this.contract = contract;
       this.options = options;
       this.factory = factory;
@@ -151,26 +206,68 @@ public class ReflectiveFeign extends Feign {
       this.queryMapEncoder = queryMapEncoder;
       this.encoder = checkNotNull(encoder, "encoder");
       this.decoder = checkNotNull(decoder, "decoder");
+      this.lazyMethodHandlers = lazyMethodHandlers;
     }
 
     public Map<String, MethodHandler> apply(Target target) {
+      return apply(target, factory);
+    }
+
+    Map<String, MethodHandler> apply(Target target, MethodHandlerFactory factory) {
       // 解析Class对象中的方法,并封装成元数据MethodMetadata的集合
       List<MethodMetadata> metadata = contract.parseAndValidateMetadata(target.type());
       Map<String, MethodHandler> result = new LinkedHashMap<String, MethodHandler>();
       for (MethodMetadata md : metadata) {
-        BuildTemplateByResolvingArgs buildTemplate;
-        if (!md.formParams().isEmpty() && md.template().bodyTemplate() == null) {     // 表单类型的(有@Param注解,但是没有在url的{}中体现)
-          buildTemplate = new BuildFormEncodedTemplateFromArgs(md, encoder, queryMapEncoder, target);
-        } else if (md.bodyIndex() != null || md.alwaysEncodeBody()) {                 // body类型的
-          buildTemplate = new BuildEncodedTemplateFromArgs(md, encoder, queryMapEncoder, target);
-        } else {                                                                      // 普通类型的
-          buildTemplate = new BuildTemplateByResolvingArgs(md, queryMapEncoder, target);
-        }
         if (md.isIgnored()) {
           result.put(md.configKey(), args -> { throw new IllegalStateException(md.configKey() + " is not a method handled by feign");});
+        } else if (lazyMethodHandlers) {
+          result.put(md.configKey(), new LazyMethodHandler(() -> create(target, md, factory)));
         } else {
-          // 为每一个方法创建一个SynchronousMethodHandler
-          result.put(md.configKey(), factory.create(target, md, buildTemplate, options, decoder, errorDecoder));
+          result.put(md.configKey(), create(target, md, factory));
+        }
+      }
+      return result;
+    }
+
+    private MethodHandler create(Target target, MethodMetadata md, MethodHandlerFactory factory) {
+      BuildTemplateByResolvingArgs buildTemplate;
+      if (!md.formParams().isEmpty() && md.template().bodyTemplate() == null) {     // 表单类型的(有@Param注解,但是没有在url的{}中体现)
+        buildTemplate = new BuildFormEncodedTemplateFromArgs(md, encoder, queryMapEncoder, target);
+      } else if (md.bodyIndex() != null || md.alwaysEncodeBody()) {                 // body类型的
+        buildTemplate = new BuildEncodedTemplateFromArgs(md, encoder, queryMapEncoder, target);
+      } else {                                                                      // 普通类型的
+        buildTemplate = new BuildTemplateByResolvingArgs(md, queryMapEncoder, target);
+      }
+      // 为每一个方法创建一个SynchronousMethodHandler
+      return factory.create(target, md, buildTemplate, options, decoder, errorDecoder);
+    }
+  }
+
+  /**
+   * Defers creating the handler of a method, and its expanders, until the method is first invoked.
+   */
+  static final class LazyMethodHandler implements MethodHandler {
+
+    private final Supplier<MethodHandler> factory;
+    private volatile MethodHandler delegate;
+
+    LazyMethodHandler(Supplier<MethodHandler> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public Object invoke(Object[] argv) throws Throwable {
+      return delegate().invoke(argv);
+    }
+
+    MethodHandler delegate() {
+      MethodHandler result = delegate;
+      if (result == null) {
+        synchronized (this) {
+          result = delegate;
+          if (result == null) {
+            delegate = result = factory.get();
+          }
         }
       }
       return result;
@@ -183,31 +280,49 @@ public class ReflectiveFeign extends Feign {
 
     protected final MethodMetadata metadata;
     protected final Target<?> target;
-    // key:数字类型,表示参数的index
-    // Expander:feign.Param.Expander,也就是由注解决定使用哪种Expander,默认是ToStringExpander
-    private final Map<Integer, Expander> indexToExpander = new LinkedHashMap<Integer, Expander>();
+    // indexToName and indexToExpander compiled into arrays, one entry per named argument, so that
+    // binding arguments to template variables needs no map lookups
+    private final int[] argumentIndexes;
+    private final String[][] argumentNames;
+    private final Expander[] argumentExpanders;
+    private final int variableCount;
 
     // 唯一构造器:给前三个属性赋值,并且根据这三个属性,计算出indexToExpander的值并缓存
     private BuildTemplateByResolvingArgs(MethodMetadata metadata, QueryMapEncoder queryMapEncoder, Target target) {
       this.metadata = metadata;
       this.target = target;
       this.queryMapEncoder = queryMapEncoder;
+      // key:数字类型,表示参数的index
+      // Expander:feign.Param.Expander,也就是由注解决定使用哪种Expander,默认是ToStringExpander
+      Map<Integer, Expander> indexToExpander = new LinkedHashMap<Integer, Expander>();
       if (metadata.indexToExpander() != null) {
         indexToExpander.putAll(metadata.indexToExpander());
-        return;
-      }
-      if (metadata.indexToExpanderClass().isEmpty()) {
-        return;
-      }
-      for (Entry<Integer, Class<? extends Expander>> indexToExpanderClass : metadata.indexToExpanderClass().entrySet()) {
-        try {
-          indexToExpander.put(indexToExpanderClass.getKey(), indexToExpanderClass.getValue().newInstance());
-        } catch (InstantiationException e) {
-          throw new IllegalStateException(e);
-        } catch (IllegalAccessException e) {
-          throw new IllegalStateException(e);
+      } else {
+        for (Entry<Integer, Class<? extends Expander>> indexToExpanderClass : metadata.indexToExpanderClass().entrySet()) {
+          try {
+            indexToExpander.put(indexToExpanderClass.getKey(), indexToExpanderClass.getValue().newInstance());
+          } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+          } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+          }
         }
       }
+
+      Map<Integer, Collection<String>> indexToName = metadata.indexToName();
+      this.argumentIndexes = new int[indexToName.size()];
+      this.argumentNames = new String[indexToName.size()][];
+      this.argumentExpanders = new Expander[indexToName.size()];
+      int binding = 0;
+      int variables = 0;
+      for (Entry<Integer, Collection<String>> entry : indexToName.entrySet()) {
+        argumentIndexes[binding] = entry.getKey();
+        argumentNames[binding] = entry.getValue().toArray(new String[0]);
+        argumentExpanders[binding] = indexToExpander.get(entry.getKey());
+        variables += argumentNames[binding].length;
+        binding++;
+      }
+      this.variableCount = variables;
     }
 
     /**
@@ -224,15 +339,15 @@ public class ReflectiveFeign extends Feign {
         mutable.target(String.valueOf(argv[urlIndex]));
       }
       // 将入参的名称和入参的值结合起来
-      Map<String, Object> varBuilder = new LinkedHashMap<String, Object>();
-      for (Entry<Integer, Collection<String>> entry : metadata.indexToName().entrySet()) {
-        int i = entry.getKey();
-        Object value = argv[entry.getKey()];
+      Map<String, Object> varBuilder =
+          new LinkedHashMap<String, Object>(Math.max(4, variableCount * 4 / 3 + 1));
+      for (int binding = 0; binding < argumentIndexes.length; binding++) {
+        Object value = argv[argumentIndexes[binding]];
         if (value != null) { // Null values are skipped.
-          if (indexToExpander.containsKey(i)) {
-            value = expandElements(indexToExpander.get(i), value);
+          if (argumentExpanders[binding] != null) {
+            value = expandElements(argumentExpanders[binding], value);
           }
-          for (String name : entry.getValue()) {
+          for (String name : argumentNames[binding]) {
             // 入参的键值对映射关系
             varBuilder.put(name, value);
           }
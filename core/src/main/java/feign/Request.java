@@ -13,9 +13,14 @@
  */
 package feign;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -168,6 +173,10 @@ public final class Request implements Serializable {
    * @return the request headers.
    */
   public Map<String, Collection<String>> headers() {
+    if (headers instanceof HttpHeaders) {
+      /* already immutable */
+      return headers;
+    }
     return Collections.unmodifiableMap(headers);
   }
 
@@ -182,7 +191,8 @@ public final class Request implements Serializable {
 
   /**
    * If present, this is the replayable body to send to the server. In some cases, this may be
-   * interpretable as text.
+   * interpretable as text. Always {@literal null} for {@link Body#isStreaming() streamed} bodies,
+   * which clients send with {@link #requestBody()}.
    *
    * @see #charset()
    */
@@ -367,6 +377,32 @@ public final class Request implements Serializable {
     return this.requestTemplate;
   }
 
+  /**
+   * The body of this request, which may be {@link Body#isStreaming() streamed} instead of being
+   * available from {@link #body()}.
+   */
+  @Experimental
+  public Body requestBody() {
+    return this.body;
+  }
+
+  /**
+   * Writes a request body that is not held in memory, such as a file or a database export.
+   *
+   * <p>
+   * Clients call the writer once per attempt, so it must be able to write the same content again
+   * when a request is {@link Retryer retried}.
+   */
+  @Experimental
+  @FunctionalInterface
+  public interface BodyWriter {
+
+    /**
+     * Writes the body to {@code out}. Implementations must not close {@code out}.
+     */
+    void writeTo(OutputStream out) throws IOException;
+  }
+
   /**
    * Request Body
    * <p>
@@ -380,6 +416,11 @@ public final class Request implements Serializable {
 
     private byte[] data;
 
+    /* streamed bodies, which are not serializable */
+    private transient BodyWriter writer;
+    private transient Path file;
+    private long contentLength = -1;
+
     private Body() {
       super();
     }
@@ -393,19 +434,51 @@ public final class Request implements Serializable {
       this.encoding = encoding;
     }
 
+    private Body(BodyWriter writer, Path file, long contentLength) {
+      this.writer = writer;
+      this.file = file;
+      this.contentLength = contentLength;
+    }
+
     public Optional<Charset> getEncoding() {
       return Optional.ofNullable(this.encoding);
     }
 
+    /**
+     * Length of the body, or 0 when unknown. Prefer {@link #contentLength()}, which supports
+     * streamed bodies larger than 2GB.
+     */
     public int length() {
       /* calculate the content length based on the data provided */
+      long length = contentLength();
+      return length > 0 ? (int) Math.min(length, Integer.MAX_VALUE) : 0;
+    }
+
+    /**
+     * Length of the body, or -1 when a {@link #isStreaming() streamed} body has no known length.
+     */
+    public long contentLength() {
+      if (writer != null) {
+        return contentLength;
+      }
       return data != null ? data.length : 0;
     }
 
+    /**
+     * The body data, or {@literal null} when empty or {@link #isStreaming() streamed}.
+     */
     public byte[] asBytes() {
       return data;
     }
 
+    /**
+     * The file this body is read from, or {@literal null}. Clients can use it to send the file
+     * with their own, possibly zero-copy, file transfer instead of {@link #writeTo(OutputStream)}.
+     */
+    public Path asFile() {
+      return file;
+    }
+
     public String asString() {
       return !isBinary()
           ? new String(data, encoding)
@@ -416,6 +489,25 @@ public final class Request implements Serializable {
       return encoding == null || data == null;
     }
 
+    /**
+     * If this body is written by a {@link BodyWriter} or read from a file, instead of being held
+     * in memory.
+     */
+    public boolean isStreaming() {
+      return writer != null;
+    }
+
+    /**
+     * Writes this body to {@code out}, without closing it.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+      if (writer != null) {
+        writer.writeTo(out);
+      } else if (data != null) {
+        out.write(data);
+      }
+    }
+
     public static Body create(String data) {
       return new Body(data.getBytes());
     }
@@ -432,6 +524,33 @@ public final class Request implements Serializable {
       return new Body(data, charset);
     }
 
+    /**
+     * Creates a body written by {@code writer} when the request is sent.
+     *
+     * @param writer of the body, called once per attempt.
+     * @param contentLength of the body, or -1 when unknown, in which case it is sent chunked.
+     */
+    public static Body create(BodyWriter writer, long contentLength) {
+      checkNotNull(writer, "writer");
+      return new Body(writer, null, contentLength < 0 ? -1 : contentLength);
+    }
+
+    /**
+     * Creates a body read from {@code file} when the request is sent.
+     *
+     * @throws UncheckedIOException if the size of the file can't be read.
+     */
+    public static Body create(Path file) {
+      checkNotNull(file, "file");
+      long size;
+      try {
+        size = Files.size(file);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return new Body(out -> Files.copy(file, out), file, size);
+    }
+
     /**
      * Creates a new Request Body with charset encoded data.
      *
@@ -18,11 +18,10 @@ import feign.template.*;
 import java.io.Serializable;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import static feign.Util.*;
 
@@ -36,7 +35,6 @@ import static feign.Util.*;
 @SuppressWarnings("UnusedReturnValue")
 public final class RequestTemplate implements Serializable {
 
-  private static final Pattern QUERY_STRING_PATTERN = Pattern.compile("(?<!\\{)\\?");
   private final Map<String, QueryTemplate> queries = new LinkedHashMap<>();
   private final Map<String, HeaderTemplate> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
   private String target;
@@ -106,30 +104,37 @@ public final class RequestTemplate implements Serializable {
    * @return a new Request Template.
    */
   public static RequestTemplate from(RequestTemplate requestTemplate) {
-    RequestTemplate template =
-        new RequestTemplate(
-            requestTemplate.target,
-            requestTemplate.fragment,
-            requestTemplate.uriTemplate,
-            requestTemplate.bodyTemplate,
-            requestTemplate.method,
-            requestTemplate.charset,
-            requestTemplate.body,
-            requestTemplate.decodeSlash,
-            requestTemplate.collectionFormat,
-            requestTemplate.methodMetadata,
-            requestTemplate.feignTarget);
-
-    if (!requestTemplate.queries().isEmpty()) {
+    RequestTemplate template = withoutParameters(requestTemplate);
+
+    if (!requestTemplate.queries.isEmpty()) {
       template.queries.putAll(requestTemplate.queries);
     }
 
-    if (!requestTemplate.headers().isEmpty()) {
+    if (!requestTemplate.headers.isEmpty()) {
       template.headers.putAll(requestTemplate.headers);
     }
     return template;
   }
 
+  /**
+   * Copies everything but the queries and headers of {@code requestTemplate}, which
+   * {@link #resolve(Map)} replaces with their expanded values.
+   */
+  private static RequestTemplate withoutParameters(RequestTemplate requestTemplate) {
+    return new RequestTemplate(
+        requestTemplate.target,
+        requestTemplate.fragment,
+        requestTemplate.uriTemplate,
+        requestTemplate.bodyTemplate,
+        requestTemplate.method,
+        requestTemplate.charset,
+        requestTemplate.body,
+        requestTemplate.decodeSlash,
+        requestTemplate.collectionFormat,
+        requestTemplate.methodMetadata,
+        requestTemplate.feignTarget);
+  }
+
   /**
    * Create a Request Template from an existing Request Template.
    *
@@ -170,8 +175,11 @@ public final class RequestTemplate implements Serializable {
 
     StringBuilder uri = new StringBuilder();
 
-    /* create a new template form this one, but explicitly */
-    RequestTemplate resolved = RequestTemplate.from(this);
+    /*
+     * create a new template form this one, but explicitly. queries and headers are left out, as
+     * only their resolved values are kept.
+     */
+    RequestTemplate resolved = withoutParameters(this);
 
     if (this.uriTemplate == null) {
       /* create a new uri template using the default root */
@@ -189,10 +197,6 @@ public final class RequestTemplate implements Serializable {
      * 支持@QueryMap,解析查询模板,将url和请求参数相结合,用&连接起来
      */
     if (!this.queries.isEmpty()) {
-      /*
-       * since we only want to keep resolved query values, reset any queries on the resolved copy
-       */
-      resolved.queries(Collections.emptyMap());
       StringBuilder query = new StringBuilder();
       Iterator<QueryTemplate> queryTemplates = this.queries.values().iterator();
 
@@ -207,16 +211,14 @@ public final class RequestTemplate implements Serializable {
         }
       }
 
-      String queryString = query.toString();
-      if (!queryString.isEmpty()) {
-        Matcher queryMatcher = QUERY_STRING_PATTERN.matcher(uri);
-        if (queryMatcher.find()) {
+      if (query.length() > 0) {
+        if (indexOfQuery(uri) != -1) {
           /* the uri already has a query, so any additional queries should be appended */
           uri.append("&");
         } else {
           uri.append("?");
         }
-        uri.append(queryString);
+        uri.append(query);
       }
     }
 
@@ -226,11 +228,10 @@ public final class RequestTemplate implements Serializable {
     // 处理HeaderTemplate模板,填充请求头,支持@HeaderMap
     if (!this.headers.isEmpty()) {
       /*
-       * same as the query string, we only want to keep resolved values, so clear the header map on
-       * the resolved instance
+       * same as the query string, we only want to keep resolved values, which the resolved instance
+       * starts without
        * 解析@Headers注解属性中的{xxx},填充入参值(即@Param("xxx"))
        */
-      resolved.headers(Collections.emptyMap());
       for (HeaderTemplate headerTemplate : this.headers.values()) {
         /* resolve the header */
         String header = headerTemplate.expand(variables);
@@ -267,6 +268,19 @@ public final class RequestTemplate implements Serializable {
     return this.resolve(unencoded);
   }
 
+  /**
+   * Index of the '?' that starts the query of {@code uri}, ignoring any that directly follow a '{',
+   * as those open a query expression. -1 when there is no query.
+   */
+  private static int indexOfQuery(CharSequence uri) {
+    for (int i = 0; i < uri.length(); i++) {
+      if (uri.charAt(i) == '?' && (i == 0 || uri.charAt(i - 1) != '{')) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   /**
    * Creates a {@link Request} from this template. The template must be resolved before calling this
    * method, or an {@link IllegalStateException} will be thrown.
@@ -453,15 +467,15 @@ public final class RequestTemplate implements Serializable {
      * to extract those out, leaving the uriTemplate with only the path to deal with.
      * url可能包含请求参数,例如xxx?sort=full_name,这里会提取这些请求参数信息,统一放到uriTemplate中处理
      */
-    Matcher queryMatcher = QUERY_STRING_PATTERN.matcher(uri);
-    if (queryMatcher.find()) {
-      String queryString = uri.substring(queryMatcher.start() + 1);
+    int queryIndex = indexOfQuery(uri);
+    if (queryIndex != -1) {
+      String queryString = uri.substring(queryIndex + 1);
 
       /* 解析请求参数,并填充到RequestTemplate类的queries属性中 */
       this.extractQueryTemplates(queryString, append);
 
       /* reduce the uri to the path */
-      uri = uri.substring(0, queryMatcher.start());
+      uri = uri.substring(0, queryIndex);
     }
     // 去除锚点(html的东西,不用管)
     int fragmentIndex = uri.indexOf('#');
@@ -780,16 +794,16 @@ public final class RequestTemplate implements Serializable {
    * @return the currently applied headers.
    */
   public Map<String, Collection<String>> headers() {
-    Map<String, Collection<String>> headerMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    HttpHeaders.Builder headerMap = HttpHeaders.builder();
     this.headers.forEach((key, headerTemplate) -> {
-      List<String> values = new ArrayList<>(headerTemplate.getValues());
+      Collection<String> values = headerTemplate.getValues();
 
       /* add the expanded collection, but only if it has values */
       if (!values.isEmpty()) {
-        headerMap.put(key, Collections.unmodifiableList(values));
+        headerMap.add(key, values);
       }
     });
-    return Collections.unmodifiableMap(headerMap);
+    return headerMap.build();
   }
 
   /**
@@ -815,6 +829,32 @@ public final class RequestTemplate implements Serializable {
     return this;
   }
 
+  /**
+   * Set the Body for this request, written by {@code writer} when the request is sent instead of
+   * being held in memory.
+   *
+   * @param writer of the body, called once per attempt.
+   * @param contentLength of the body, or -1 when unknown.
+   * @return a RequestTemplate for chaining.
+   */
+  @Experimental
+  public RequestTemplate body(Request.BodyWriter writer, long contentLength) {
+    this.body(Request.Body.create(writer, contentLength));
+    return this;
+  }
+
+  /**
+   * Set the Body for this request, read from {@code file} when the request is sent.
+   *
+   * @param file to send.
+   * @return a RequestTemplate for chaining.
+   */
+  @Experimental
+  public RequestTemplate body(Path file) {
+    this.body(Request.Body.create(file));
+    return this;
+  }
+
   /**
    * Set the Body for this request.
    *
@@ -830,8 +870,8 @@ public final class RequestTemplate implements Serializable {
     this.bodyTemplate = null;
 
     header(CONTENT_LENGTH, Collections.emptyList());
-    if (body.length() > 0) {
-      header(CONTENT_LENGTH, String.valueOf(body.length()));
+    if (body.contentLength() > 0) {
+      header(CONTENT_LENGTH, String.valueOf(body.contentLength()));
     }
 
     return this;
@@ -14,9 +14,12 @@
 package feign;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import static feign.Util.*;
 
 /**
@@ -108,6 +111,30 @@ public final class Response implements Closeable {
       return this;
     }
 
+    /**
+     * Sets a {@link BufferedBody} reading the remaining content of {@code data}, which must not be
+     * modified afterwards.
+     *
+     * @see Response#body
+     */
+    @Experimental
+    public Builder body(ByteBuffer data) {
+      this.body = ByteBufferBody.orNull(data, null);
+      return this;
+    }
+
+    /**
+     * Like {@link #body(ByteBuffer)}, but passes {@code data} to {@code release} once the body is
+     * closed, so that it can be returned to a pool.
+     *
+     * @see Response#body
+     */
+    @Experimental
+    public Builder body(ByteBuffer data, Consumer<ByteBuffer> release) {
+      this.body = ByteBufferBody.orNull(data, checkNotNull(release, "release"));
+      return this;
+    }
+
     /**
      * @see Response#request
      */
@@ -252,6 +279,25 @@ public final class Response implements Closeable {
     Reader asReader(Charset charset) throws IOException;
   }
 
+  /**
+   * A body that is already held in memory, for example by a client that buffers responses. Its
+   * content can be read without copying it, and it can be read more than once.
+   */
+  @Experimental
+  public interface BufferedBody extends Body {
+
+    /**
+     * A read-only view of the content. The view is only valid until this body is
+     * {@link #close() closed}, as its memory may be released to a pool.
+     */
+    ByteBuffer asByteBuffer();
+
+    @Override
+    default boolean isRepeatable() {
+      return true;
+    }
+  }
+
   private static final class InputStreamBody implements Response.Body {
 
     private final InputStream inputStream;
@@ -303,7 +349,7 @@ public final class Response implements Closeable {
 
   }
 
-  private static final class ByteArrayBody implements Response.Body {
+  private static final class ByteArrayBody implements BufferedBody {
 
     private final byte[] data;
 
@@ -332,13 +378,13 @@ public final class Response implements Closeable {
     }
 
     @Override
-    public boolean isRepeatable() {
-      return true;
+    public InputStream asInputStream() throws IOException {
+      return new ByteArrayInputStream(data);
     }
 
     @Override
-    public InputStream asInputStream() throws IOException {
-      return new ByteArrayInputStream(data);
+    public ByteBuffer asByteBuffer() {
+      return ByteBuffer.wrap(data).asReadOnlyBuffer();
     }
 
     @SuppressWarnings("deprecation")
@@ -358,4 +404,91 @@ public final class Response implements Closeable {
 
   }
 
+  private static final class ByteBufferBody implements BufferedBody {
+
+    private final ByteBuffer data;
+    private final Consumer<ByteBuffer> release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ByteBufferBody(ByteBuffer data, Consumer<ByteBuffer> release) {
+      this.data = data;
+      this.release = release;
+    }
+
+    private static Body orNull(ByteBuffer data, Consumer<ByteBuffer> release) {
+      if (data == null) {
+        return null;
+      }
+      return new ByteBufferBody(data, release);
+    }
+
+    @Override
+    public Integer length() {
+      return data.remaining();
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer() {
+      checkState(!closed.get(), "body is closed");
+      return data.asReadOnlyBuffer();
+    }
+
+    @Override
+    public InputStream asInputStream() {
+      return new ByteBufferInputStream(asByteBuffer());
+    }
+
+    @Override
+    public Reader asReader(Charset charset) {
+      checkNotNull(charset, "charset should not be null");
+      return new InputStreamReader(asInputStream(), charset);
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true) && release != null) {
+        release.accept(data);
+      }
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int read = Math.min(len, buffer.remaining());
+      buffer.get(b, off, read);
+      return read;
+    }
+
+    @Override
+    public long skip(long n) {
+      int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket limiting retries to a fraction of the calls made to a target, so that a degraded
+ * downstream receives at most {@code 1 + retryRatio} times its usual load, instead of
+ * {@code maxAttempts} times.
+ *
+ * <p>
+ * Each call {@link #deposit() deposits} {@code retryRatio} of a token, and each retry
+ * {@link #tryWithdraw() withdraws} a whole one. The balance starts full and is capped at
+ * {@code maxRetries} tokens, so only recent calls count towards the budget. Updates are lock-free,
+ * and a single budget is meant to be shared by every client of the same target.
+ *
+ * @see BudgetedRetryer
+ */
+@Experimental
+public final class RetryBudget {
+
+  /* balance is kept in thousandths of a token */
+  private static final long SCALE = 1000;
+
+  private final String target;
+  private final long deposit;
+  private final long maxBalance;
+  private final AtomicLong balance;
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+
+  /**
+   * Budget allowing retries for 10% of calls, in bursts of up to 10 retries.
+   *
+   * @param target name of the downstream, such as {@link Target#name()}.
+   */
+  public static RetryBudget create(String target) {
+    return new RetryBudget(target, 0.1, 10);
+  }
+
+  /**
+   * @param target name of the downstream, such as {@link Target#name()}.
+   * @param retryRatio retries allowed per call, for example {@code 0.1} for 10%.
+   * @param maxRetries retries that can be saved up, which is also the initial balance.
+   */
+  public RetryBudget(String target, double retryRatio, int maxRetries) {
+    checkArgument(retryRatio >= 0 && retryRatio <= maxRetries,
+        "retryRatio must be between 0 and maxRetries, was %s", retryRatio);
+    checkArgument(maxRetries > 0, "maxRetries must be positive, was %s", maxRetries);
+    this.target = checkNotNull(target, "target");
+    this.deposit = Math.round(retryRatio * SCALE);
+    this.maxBalance = maxRetries * SCALE;
+    this.balance = new AtomicLong(maxBalance);
+  }
+
+  /**
+   * Credits the budget for a call.
+   */
+  public void deposit() {
+    long current;
+    do {
+      current = balance.get();
+      if (current >= maxBalance) {
+        return;
+      }
+    } while (!balance.compareAndSet(current, Math.min(current + deposit, maxBalance)));
+  }
+
+  /**
+   * Takes a token for a retry.
+   *
+   * @return false, without changing the balance, when less than a token is left.
+   */
+  public boolean tryWithdraw() {
+    long current;
+    do {
+      current = balance.get();
+      if (current < SCALE) {
+        exhausted.increment();
+        return false;
+      }
+    } while (!balance.compareAndSet(current, current - SCALE));
+    retries.increment();
+    return true;
+  }
+
+  public String target() {
+    return target;
+  }
+
+  /**
+   * Retries currently available, possibly fractional.
+   */
+  public double balance() {
+    return balance.get() / (double) SCALE;
+  }
+
+  /**
+   * Count of retries allowed by this budget.
+   */
+  public long retries() {
+    return retries.sum();
+  }
+
+  /**
+   * Count of retries denied because the budget was exhausted.
+   */
+  public long exhausted() {
+    return exhausted.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "RetryBudget(target=" + target + ", balance=" + balance() + ", retries=" + retries()
+        + ", exhausted=" + exhausted() + ")";
+  }
+}
@@ -33,9 +33,9 @@ public interface Retryer extends Cloneable {
    * */
   class Default implements Retryer {
     // 重试参数
-    private final int maxAttempts;  // 最大重试次数
-    private final long period;      // 重试周期,隔多久重试一次
-    private final long maxPeriod;   // 最大重试时间
+    final int maxAttempts;  // 最大重试次数
+    final long period;      // 重试周期,隔多久重试一次
+    final long maxPeriod;   // 最大重试时间
     // 内部统计指标计数
     int attempt;  //计数:重试了几次
     long sleptForMillis;  // 休息时间
@@ -65,23 +65,9 @@ public interface Retryer extends Cloneable {
      * 否则会把这个异常继续传播
      * */
     public void continueOrPropagate(RetryableException e) {
-      // 1. 若超过了最大重试次数,异常继续向上抛出
-      // 2. 设置不重试,异常继续向上抛出
-      if (attempt++ >= maxAttempts) {
-        throw e;
-      }
-
-      long interval;
-      if (e.retryAfter() != null) {
-        interval = e.retryAfter().getTime() - currentTimeMillis();
-        if (interval > maxPeriod) {
-          interval = maxPeriod;
-        }
-        if (interval < 0) {
-          return;
-        }
-      } else {
-        interval = nextMaxInterval();
+      long interval = nextDelayMillis(e);
+      if (interval <= 0) {
+        return;
       }
       try {
         Thread.sleep(interval);
@@ -92,6 +78,25 @@ public interface Retryer extends Cloneable {
       sleptForMillis += interval;
     }
 
+    /**
+     * Returns the time to wait before retrying after {@code e}, honoring
+     * {@link RetryableException#retryAfter()}, or propagates {@code e} when out of attempts.
+     *
+     * @return time in milliseconds from now until the next attempt, 0 to retry immediately.
+     */
+    public long nextDelayMillis(RetryableException e) {
+      // 1. 若超过了最大重试次数,异常继续向上抛出
+      // 2. 设置不重试,异常继续向上抛出
+      if (attempt++ >= maxAttempts) {
+        throw e;
+      }
+      if (e.retryAfter() != null) {
+        long interval = e.retryAfter().getTime() - currentTimeMillis();
+        return Math.max(0, Math.min(interval, maxPeriod));
+      }
+      return nextMaxInterval();
+    }
+
     /**
      * Calculates the time interval to a retry attempt. <br>
      * The interval increases exponentially with each attempt, at a rate of nextInterval *= 1.5
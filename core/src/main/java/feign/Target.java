@@ -81,7 +81,7 @@ public interface Target<T> {
     public Request apply(RequestTemplate input) {
       // 若请求模版的URL不含有http,也就是说是个相对路径,这里就把Target.url加进去;
       // 若请求模版已经是绝对路径了,那就不管
-      if (input.url().indexOf("http") != 0) {
+      if (!input.path().startsWith("http")) {
         input.target(url());
       }
       return input.request();
@@ -157,7 +157,7 @@ public interface Target<T> {
     public Request apply(RequestTemplate input) {
       // 如果请求模版的URL里已经包含了http,即绝对路径,EmptyTarget才能支持,
       // 否则直接抛出异常
-      if (input.url().indexOf("http") != 0) {
+      if (!input.path().startsWith("http")) {
         throw new UnsupportedOperationException(
             "Request with non-absolute URL not supported with empty target");
       }
@@ -13,11 +13,9 @@
  */
 package feign;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Reader;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
@@ -31,6 +29,7 @@ import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -195,6 +194,30 @@ public class Util {
     }
   }
 
+  /**
+   * Unwraps the failure of a call awaited by a blocking {@link Client}: {@code IOException}s are
+   * returned as they are, unchecked exceptions and errors are thrown, and other causes are wrapped.
+   *
+   * <pre>
+   * } catch (ExecutionException e) {
+   *   throw Util.unwrapExecutionException(e);
+   * }
+   * </pre>
+   */
+  public static IOException unwrapExecutionException(ExecutionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IOException(cause);
+  }
+
   /**
    * Resolves the last type parameter of the parameterized {@code supertype}, based on the {@code
    * genericContext}, into its upper bounds.
@@ -288,46 +311,47 @@ public class Util {
   }
 
   /**
-   * Adapted from {@code com.google.common.io.ByteStreams.toByteArray()}.
+   * Reads {@code in} fully, then closes it, using scratch space from {@link BufferPool#shared()}.
    */
   public static byte[] toByteArray(InputStream in) throws IOException {
-    checkNotNull(in, "in");
-    try {
-      ByteArrayOutputStream out = new ByteArrayOutputStream();
-      copy(in, out);
-      return out.toByteArray();
-    } finally {
-      ensureClosed(in);
-    }
+    return BufferPool.shared().toByteArray(in, null);
   }
 
   /**
-   * Adapted from {@code com.google.common.io.ByteStreams.copy()}.
+   * Reads the content of {@code body}, copying it straight out of memory when it is a
+   * {@link Response.BufferedBody}. Unlike {@link #toByteArray(InputStream)}, this doesn't close
+   * buffered bodies, so that they can still be read again. Other bodies are read into an array
+   * sized from their {@link Response.Body#length() length}, when known.
    */
-  private static long copy(InputStream from, OutputStream to)
-      throws IOException {
-    checkNotNull(from, "from");
-    checkNotNull(to, "to");
-    byte[] buf = new byte[BUF_SIZE];
-    long total = 0;
-    while (true) {
-      int r = from.read(buf);
-      if (r == -1) {
-        break;
-      }
-      to.write(buf, 0, r);
-      total += r;
+  public static byte[] toByteArray(Response.Body body) throws IOException {
+    checkNotNull(body, "body");
+    if (body instanceof Response.BufferedBody) {
+      ByteBuffer buffer = ((Response.BufferedBody) body).asByteBuffer();
+      byte[] data = new byte[buffer.remaining()];
+      buffer.get(data);
+      return data;
     }
-    return total;
+    return BufferPool.shared().toByteArray(body.asInputStream(), body.length());
   }
 
   public static String decodeOrDefault(byte[] data, Charset charset, String defaultValue) {
+    if (data == null) {
+      return defaultValue;
+    }
+    return decodeOrDefault(ByteBuffer.wrap(data), charset, defaultValue);
+  }
+
+  /**
+   * Like {@link #decodeOrDefault(byte[], Charset, String)}, reading the remaining content of
+   * {@code data} without changing its position.
+   */
+  public static String decodeOrDefault(ByteBuffer data, Charset charset, String defaultValue) {
     if (data == null) {
       return defaultValue;
     }
     checkNotNull(charset, "charset");
     try {
-      return charset.newDecoder().decode(ByteBuffer.wrap(data)).toString();
+      return charset.newDecoder().decode(data.duplicate()).toString();
     } catch (CharacterCodingException ex) {
       return defaultValue;
     }
@@ -356,29 +380,14 @@ public class Util {
   /**
    * Copy entire map of string collection.
    *
-   * The copy is unmodifiable map of unmodifiable collections.
+   * The copy is unmodifiable map of unmodifiable collections, with lower case names. Copying
+   * {@link HttpHeaders} that already have lower case names returns them as-is.
    *
    * @param map string collection map
    * @return copy of the map or an empty map if the map is null.
    */
   public static Map<String, Collection<String>> caseInsensitiveCopyOf(Map<String, Collection<String>> map) {
-    if (map == null) {
-      return Collections.emptyMap();
-    }
-
-    Map<String, Collection<String>> result =
-        new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-
-    for (Map.Entry<String, Collection<String>> entry : map.entrySet()) {
-      String key = entry.getKey();
-      if (!result.containsKey(key)) {
-        result.put(key.toLowerCase(Locale.ROOT), new LinkedList<>());
-      }
-      result.get(key).addAll(entry.getValue());
-    }
-    result.replaceAll((key, value) -> Collections.unmodifiableCollection(value));
-
-    return Collections.unmodifiableMap(result);
+    return HttpHeaders.copyOf(map, true);
   }
 
 }
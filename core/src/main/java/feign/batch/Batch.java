@@ -0,0 +1,57 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.batch;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Sends the calls to a method of a single parameter made within a short window as one request, to
+ * the bulk method {@link #value() named}, when installed by a
+ * {@link BatchingInvocationHandlerFactory}. <br>
+ * The bulk method takes a {@link java.util.List} of the distinct arguments, and returns either a
+ * list of results in the same order, or a {@link java.util.Map} of results by argument. Either
+ * may be wrapped in a {@link java.util.concurrent.CompletableFuture}. A call alone in its window is
+ * sent to the annotated method itself.
+ *
+ * <pre>
+ * &#64;Batch("getAll")
+ * &#64;RequestLine("GET /users/{id}")
+ * CompletableFuture&lt;User&gt; get(&#64;Param("id") String id);
+ *
+ * &#64;RequestLine("POST /users:batchGet")
+ * CompletableFuture&lt;List&lt;User&gt;&gt; getAll(List&lt;String&gt; ids);
+ * </pre>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Batch {
+
+  /**
+   * Name of the bulk method, declared by the same interface.
+   */
+  String value();
+
+  /**
+   * Most distinct arguments sent in one bulk request, which is sent as soon as they are collected.
+   */
+  int maxSize() default 100;
+
+  /**
+   * How long calls are collected after the first one, before sending them.
+   */
+  long windowMillis() default 2;
+}
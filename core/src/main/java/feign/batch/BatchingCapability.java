@@ -0,0 +1,39 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.batch;
+
+import feign.Capability;
+import feign.Experimental;
+import feign.InvocationHandlerFactory;
+
+/**
+ * Batches the calls to methods annotated with {@link Batch}, wrapping the invocation handler
+ * factory in a {@link BatchingInvocationHandlerFactory}.
+ *
+ * <pre>
+ * Users users = Feign.builder()
+ *     .addCapability(new BatchingCapability())
+ *     .encoder(new JacksonEncoder())
+ *     .decoder(new JacksonDecoder())
+ *     .target(Users.class, "https://users.example.com");
+ * </pre>
+ */
+@Experimental
+public class BatchingCapability implements Capability {
+
+  @Override
+  public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+    return new BatchingInvocationHandlerFactory(invocationHandlerFactory);
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.batch;
+
+import static feign.Util.checkNotNull;
+import static feign.Util.checkState;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import feign.Experimental;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+
+/**
+ * Batches the calls to methods annotated with {@link Batch}, then creates the invocation handler
+ * with {@code delegate}. Install it with {@link BatchingCapability}, or with
+ * {@code invocationHandlerFactory} on {@link feign.AsyncFeign.AsyncBuilder}:
+ *
+ * <pre>
+ * Users users = AsyncFeign.asyncBuilder()
+ *     .invocationHandlerFactory(new BatchingInvocationHandlerFactory())
+ *     .encoder(new JacksonEncoder())
+ *     .decoder(new JacksonDecoder())
+ *     .target(Users.class, "https://users.example.com");
+ * </pre>
+ *
+ * Calls are collected for each proxy, so that a proxy should be shared to batch the calls of
+ * different threads.
+ */
+@Experimental
+public class BatchingInvocationHandlerFactory implements InvocationHandlerFactory {
+
+  private static class LazyInitializedScheduler {
+
+    private static final ScheduledExecutorService instance =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+          final Thread result = new Thread(r, "feign-batch-scheduler");
+          result.setDaemon(true);
+          return result;
+        });
+  }
+
+  private static class LazyInitializedExecutorService {
+
+    private static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-batch");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
+  private final InvocationHandlerFactory delegate;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+
+  public BatchingInvocationHandlerFactory() {
+    this(new InvocationHandlerFactory.Default());
+  }
+
+  public BatchingInvocationHandlerFactory(InvocationHandlerFactory delegate) {
+    this(delegate, LazyInitializedScheduler.instance, LazyInitializedExecutorService.instance);
+  }
+
+  /**
+   * @param scheduler to close windows from, which should not block.
+   * @param executor to send requests from, which needs a thread for each blocking request in
+   *        flight.
+   */
+  public BatchingInvocationHandlerFactory(InvocationHandlerFactory delegate,
+      ScheduledExecutorService scheduler, Executor executor) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+    this.executor = checkNotNull(executor, "executor");
+  }
+
+  @Override
+  public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+    Map<Method, MethodHandler> batching = new LinkedHashMap<>(dispatch);
+    for (Map.Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+      Method method = entry.getKey();
+      Batch batch = method.getAnnotation(Batch.class);
+      if (batch == null) {
+        continue;
+      }
+      checkState(method.getParameterCount() == 1,
+          "Method %s annotated with @Batch must have a single parameter", method.getName());
+      checkState(batch.maxSize() > 1, "@Batch maxSize of %s must be greater than 1, was %s",
+          method.getName(), batch.maxSize());
+      MethodHandler bulk = dispatch.get(bulkMethod(target.type(), method, batch));
+      checkState(bulk != null, "Bulk method %s of %s is not handled by feign", batch.value(),
+          method.getName());
+      batching.put(method,
+          new BatchingMethodHandler(method, entry.getValue(), bulk, batch, scheduler, executor));
+    }
+    return delegate.create(target, batching);
+  }
+
+  private static Method bulkMethod(Class<?> type, Method method, Batch batch) {
+    for (Method candidate : type.getMethods()) {
+      if (candidate.getName().equals(batch.value())
+          && candidate.getParameterCount() == 1
+          && candidate.getParameterTypes()[0].isAssignableFrom(List.class)) {
+        return candidate;
+      }
+    }
+    throw new IllegalStateException(String.format(
+        "Bulk method %s of %s must take a List of arguments", batch.value(), method.getName()));
+  }
+}
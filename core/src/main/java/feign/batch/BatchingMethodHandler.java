@@ -0,0 +1,198 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.batch;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+/**
+ * Collects the calls to a {@link Batch} method into windows, each sent as one bulk request, or as
+ * a single one when it holds a single argument.
+ */
+final class BatchingMethodHandler implements MethodHandler {
+
+  private final String methodName;
+  private final MethodHandler single;
+  private final MethodHandler bulk;
+  private final boolean async;
+  private final int maxSize;
+  private final long windowMillis;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+  private final Object lock = new Object();
+  /* guarded by lock */
+  private Window open;
+
+  BatchingMethodHandler(Method method, MethodHandler single, MethodHandler bulk, Batch batch,
+      ScheduledExecutorService scheduler, Executor executor) {
+    this.methodName = method.getName();
+    this.single = single;
+    this.bulk = bulk;
+    this.async = CompletableFuture.class.isAssignableFrom(method.getReturnType());
+    this.maxSize = batch.maxSize();
+    this.windowMillis = batch.windowMillis();
+    this.scheduler = scheduler;
+    this.executor = executor;
+  }
+
+  @Override
+  public Object invoke(Object[] argv) throws Throwable {
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    Window opened = null;
+    Window full = null;
+    synchronized (lock) {
+      if (open == null) {
+        open = opened = new Window();
+      }
+      open.calls.computeIfAbsent(argv[0], argument -> new ArrayList<>(1)).add(result);
+      if (open.calls.size() >= maxSize) {
+        full = open;
+        open = null;
+      }
+    }
+    if (full != null) {
+      send(full);
+    } else if (opened != null) {
+      schedule(opened);
+    }
+
+    if (async) {
+      return result;
+    }
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      throw e.getCause() != null ? e.getCause() : e;
+    }
+  }
+
+  private void schedule(Window window) {
+    try {
+      window.timeout = scheduler.schedule(() -> {
+        synchronized (lock) {
+          if (open != window) {
+            /* sent when full */
+            return;
+          }
+          open = null;
+        }
+        send(window);
+      }, windowMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      synchronized (lock) {
+        if (open != window) {
+          return;
+        }
+        open = null;
+      }
+      send(window);
+    }
+  }
+
+  private void send(Window window) {
+    if (window.timeout != null) {
+      window.timeout.cancel(false);
+    }
+    try {
+      executor.execute(() -> sendNow(window.calls));
+    } catch (RejectedExecutionException e) {
+      failAll(window.calls, e);
+    }
+  }
+
+  private void sendNow(Map<Object, List<CompletableFuture<Object>>> calls) {
+    try {
+      if (calls.size() == 1) {
+        Map.Entry<Object, List<CompletableFuture<Object>>> call =
+            calls.entrySet().iterator().next();
+        whenDone(single.invoke(new Object[] {call.getKey()}), calls,
+            value -> call.getValue().forEach(future -> future.complete(value)));
+      } else {
+        List<Object> arguments = new ArrayList<>(calls.keySet());
+        whenDone(bulk.invoke(new Object[] {arguments}), calls,
+            results -> split(calls, results));
+      }
+    } catch (Throwable e) {
+      failAll(calls, e);
+    }
+  }
+
+  private void split(Map<Object, List<CompletableFuture<Object>>> calls, Object results) {
+    if (results instanceof Map) {
+      Map<?, ?> byArgument = (Map<?, ?>) results;
+      calls.forEach((argument, futures) -> {
+        Object value = byArgument.get(argument);
+        futures.forEach(future -> future.complete(value));
+      });
+    } else if (results instanceof Collection && ((Collection<?>) results).size() == calls.size()) {
+      Iterator<?> values = ((Collection<?>) results).iterator();
+      calls.values().forEach(futures -> {
+        Object value = values.next();
+        futures.forEach(future -> future.complete(value));
+      });
+    } else {
+      Object returned = results instanceof Collection
+          ? ((Collection<?>) results).size() + " results"
+          : results;
+      failAll(calls, new IllegalStateException(String.format(
+          "Bulk method of %s must return a Map, or a List of %s results, but returned %s",
+          methodName, calls.size(), returned)));
+    }
+  }
+
+  private static void whenDone(Object result,
+                               Map<Object, List<CompletableFuture<Object>>> calls,
+                               Consumer<Object> onSuccess) {
+    if (!(result instanceof CompletableFuture)) {
+      onSuccess.accept(result);
+      return;
+    }
+    ((CompletableFuture<?>) result).whenComplete((value, error) -> {
+      if (error == null) {
+        onSuccess.accept(value);
+      } else {
+        failAll(calls, error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error);
+      }
+    });
+  }
+
+  private static void failAll(Map<Object, List<CompletableFuture<Object>>> calls, Throwable error) {
+    calls.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(error)));
+  }
+
+  /**
+   * Calls collected until sent, by argument.
+   */
+  private static final class Window {
+
+    final Map<Object, List<CompletableFuture<Object>>> calls = new LinkedHashMap<>();
+    volatile ScheduledFuture<?> timeout;
+  }
+}
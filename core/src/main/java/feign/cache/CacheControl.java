@@ -0,0 +1,98 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The directives of the {@code Cache-Control} headers of a request or response that matter to a
+ * private cache. Durations are in milliseconds, and -1 when absent.
+ */
+final class CacheControl {
+
+  static final CacheControl NONE = new CacheControl();
+
+  boolean noStore;
+  boolean noCache;
+  boolean mustRevalidate;
+  long maxAgeMillis = -1;
+  long staleWhileRevalidateMillis = -1;
+  long staleIfErrorMillis = -1;
+
+  private CacheControl() {}
+
+  static CacheControl parse(Map<String, Collection<String>> headers) {
+    Collection<String> values = CachedResponse.values(headers, "Cache-Control");
+    if (values.isEmpty()) {
+      return NONE;
+    }
+    CacheControl result = new CacheControl();
+    for (String value : values) {
+      for (String directive : value.split(",")) {
+        String name = directive;
+        String argument = null;
+        int equals = directive.indexOf('=');
+        if (equals != -1) {
+          name = directive.substring(0, equals);
+          argument = directive.substring(equals + 1).trim();
+        }
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+          case "no-store":
+            result.noStore = true;
+            break;
+          case "no-cache":
+            result.noCache = true;
+            break;
+          case "must-revalidate":
+          case "proxy-revalidate":
+            result.mustRevalidate = true;
+            break;
+          case "max-age":
+            result.maxAgeMillis = seconds(argument);
+            break;
+          case "stale-while-revalidate":
+            result.staleWhileRevalidateMillis = seconds(argument);
+            break;
+          case "stale-if-error":
+            result.staleIfErrorMillis = seconds(argument);
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Parses a delta-seconds argument, treating invalid ones as if the directive were absent.
+   */
+  private static long seconds(String argument) {
+    if (argument == null) {
+      return -1;
+    }
+    if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+      argument = argument.substring(1, argument.length() - 1);
+    }
+    try {
+      long seconds = Long.parseLong(argument);
+      return seconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(seconds);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import feign.Experimental;
+import feign.HttpHeaders;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+/**
+ * A response held by a {@link ResponseCache}, along with the time it was received and the values of
+ * the request headers it varies on.
+ */
+@Experimental
+public final class CachedResponse {
+
+  /*
+   * a private cache may hold responses to requests with credentials, but only for the same ones,
+   * which are kept as digests so that they are neither held nor written in clear
+   */
+  private static final List<String> CREDENTIALS = Arrays.asList("authorization", "cookie");
+
+  private final int status;
+  private final String reason;
+  private final Map<String, Collection<String>> headers;
+  private final ByteBuffer body;
+  private final long responseMillis;
+  private final Map<String, List<String>> varyValues;
+  private final CacheControl control;
+  private final long freshnessMillis;
+
+  CachedResponse(int status, String reason, Map<String, Collection<String>> headers,
+      ByteBuffer body, long responseMillis, Map<String, List<String>> varyValues) {
+    this.status = status;
+    this.reason = reason;
+    this.headers = HttpHeaders.copyOf(headers, true);
+    this.body = body.asReadOnlyBuffer();
+    this.responseMillis = responseMillis;
+    this.varyValues = Collections.unmodifiableMap(new TreeMap<>(varyValues));
+    this.control = CacheControl.parse(headers);
+    this.freshnessMillis = freshnessMillis(this.headers, control, responseMillis);
+  }
+
+  /**
+   * Holds {@code response} with its content, read into {@code body}. The time it was received is
+   * corrected by its {@code Age} header.
+   *
+   * @return null if the response varies on every request.
+   */
+  static CachedResponse of(Request request, Response response, byte[] body, long responseMillis) {
+    Map<String, List<String>> varyValues = new TreeMap<>();
+    for (String name : CREDENTIALS) {
+      varyValues.put(name, varyValue(request, name));
+    }
+    for (String value : values(response.headers(), "Vary")) {
+      for (String name : value.split(",")) {
+        name = name.trim().toLowerCase(Locale.ROOT);
+        if (name.equals("*")) {
+          return null;
+        }
+        if (!name.isEmpty()) {
+          varyValues.put(name, varyValue(request, name));
+        }
+      }
+    }
+    long ageMillis = 0;
+    for (String age : values(response.headers(), "Age")) {
+      try {
+        ageMillis = Math.max(ageMillis, TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim())));
+      } catch (NumberFormatException e) {
+        // ignore invalid ages
+      }
+    }
+    return new CachedResponse(response.status(), response.reason(), response.headers(),
+        ByteBuffer.wrap(body), responseMillis - ageMillis, varyValues);
+  }
+
+  public int status() {
+    return status;
+  }
+
+  public String reason() {
+    return reason;
+  }
+
+  public Map<String, Collection<String>> headers() {
+    return headers;
+  }
+
+  /**
+   * The content of the response, which is read-only.
+   */
+  public ByteBuffer body() {
+    return body.duplicate();
+  }
+
+  /**
+   * When the response was generated by the server, as known from its {@code Age}, in milliseconds
+   * since the epoch.
+   */
+  public long responseMillis() {
+    return responseMillis;
+  }
+
+  /**
+   * Values of the request headers named by the {@code Vary} header of the response, and of
+   * {@code Authorization} and {@code Cookie}, by lowercase name. The values of the latter are
+   * replaced by their SHA-256 digest.
+   */
+  public Map<String, List<String>> varyValues() {
+    return varyValues;
+  }
+
+  /**
+   * Approximate size of the response in memory, in bytes.
+   */
+  public long size() {
+    long size = body.remaining();
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      for (String value : header.getValue()) {
+        size += header.getKey().length() + value.length();
+      }
+    }
+    return size;
+  }
+
+  boolean matches(Request request) {
+    for (Map.Entry<String, List<String>> vary : varyValues.entrySet()) {
+      if (!vary.getValue().equals(varyValue(request, vary.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  CacheControl control() {
+    return control;
+  }
+
+  long ageMillis(long nowMillis) {
+    return Math.max(0, nowMillis - responseMillis);
+  }
+
+  long freshnessMillis() {
+    return freshnessMillis;
+  }
+
+  String header(String name) {
+    Collection<String> values = values(headers, name);
+    return values.isEmpty() ? null : values.iterator().next();
+  }
+
+  /**
+   * The response once revalidated by a {@code 304 Not Modified} response, whose headers replace
+   * the stored ones.
+   */
+  CachedResponse revalidated(Response notModified, long responseMillis) {
+    HttpHeaders updates = HttpHeaders.copyOf(notModified.headers(), true);
+    HttpHeaders.Builder merged = HttpHeaders.builder(true);
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      if (!updates.containsKey(header.getKey())) {
+        merged.add(header.getKey(), header.getValue());
+      }
+    }
+    for (Map.Entry<String, Collection<String>> header : updates.entrySet()) {
+      if (!header.getKey().equals("content-length")) {
+        merged.add(header.getKey(), header.getValue());
+      }
+    }
+    return new CachedResponse(status, reason, merged.build(), body, responseMillis, varyValues);
+  }
+
+  Response toResponse(Request request) {
+    return Response.builder()
+        .status(status)
+        .reason(reason)
+        .headers(headers)
+        .request(request)
+        .body(body())
+        .build();
+  }
+
+  /**
+   * Values of the request header {@code name}, or the digest of all of them if they are
+   * credentials.
+   */
+  static List<String> varyValue(Request request, String name) {
+    Collection<String> values = values(request.headers(), name);
+    if (values.isEmpty() || !CREDENTIALS.contains(name)) {
+      return new ArrayList<>(values);
+    }
+    MessageDigest sha256;
+    try {
+      sha256 = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // required of every Java platform
+      throw new AssertionError(e);
+    }
+    for (String value : values) {
+      sha256.update(value.getBytes(Util.UTF_8));
+      sha256.update((byte) 0);
+    }
+    return Collections.singletonList(
+        "sha256:" + Base64.getEncoder().encodeToString(sha256.digest()));
+  }
+
+  static Collection<String> values(Map<String, Collection<String>> headers, String name) {
+    if (headers instanceof HttpHeaders) {
+      Collection<String> values = headers.get(name);
+      return values != null ? values : Collections.emptyList();
+    }
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      if (header.getKey() != null && header.getKey().equalsIgnoreCase(name)) {
+        return header.getValue();
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  private static long freshnessMillis(Map<String, Collection<String>> headers,
+                                      CacheControl control,
+                                      long responseMillis) {
+    if (control.noCache) {
+      return 0;
+    }
+    if (control.maxAgeMillis >= 0) {
+      return control.maxAgeMillis;
+    }
+    Collection<String> expires = values(headers, "Expires");
+    if (expires.isEmpty()) {
+      return 0;
+    }
+    long expiresMillis = parseDate(expires.iterator().next());
+    Collection<String> date = values(headers, "Date");
+    long dateMillis = date.isEmpty() ? -1 : parseDate(date.iterator().next());
+    return Math.max(0, expiresMillis - (dateMillis >= 0 ? dateMillis : responseMillis));
+  }
+
+  /**
+   * @return -1 for invalid dates, which are in the past.
+   */
+  private static long parseDate(String value) {
+    try {
+      return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+          .toInstant()
+          .toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.checkNotNull;
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Caches responses, wrapping the client in a {@link CachingClient}.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .addCapability(new CachingCapability(new MemoryResponseCache(10 * 1024 * 1024,
+ *         new DiskResponseCache(Paths.get("cache"), 100 * 1024 * 1024))))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+@Experimental
+public class CachingCapability implements Capability {
+
+  private final ResponseCache cache;
+
+  /**
+   * Keeps up to 10 MiB of responses in memory.
+   */
+  public CachingCapability() {
+    this(new MemoryResponseCache(10 * 1024 * 1024));
+  }
+
+  /**
+   * @param cache shared by the clients enriched, as responses are cached by URL.
+   */
+  public CachingCapability(ResponseCache cache) {
+    this.cache = checkNotNull(cache, "cache");
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new CachingClient(client, cache);
+  }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.checkNotNull;
+import static feign.Util.ensureClosed;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import feign.Client;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+
+/**
+ * Caches the responses to {@code GET} requests as a private HTTP cache would, following their
+ * {@code Cache-Control}, {@code Expires} and {@code Vary} headers.
+ *
+ * <p>
+ * Fresh responses are returned without sending a request. Stale ones are revalidated with
+ * {@code If-None-Match} or {@code If-Modified-Since} when they have an {@code ETag} or
+ * {@code Last-Modified} header, and returned again on {@code 304 Not Modified}. Within their
+ * {@code stale-while-revalidate} window, stale responses are returned at once, while they are
+ * revalidated from {@code executor}. Within their {@code stale-if-error} window, they are returned
+ * when the server fails with an {@link IOException} or a {@code 5xx} status. Successful
+ * {@code POST}, {@code PUT}, {@code PATCH} and {@code DELETE} requests remove the response cached
+ * for their URL.
+ *
+ * <p>
+ * Responses without a freshness lifetime or a validator, and those larger than
+ * {@value #MAX_BODY_BYTES} bytes, are not cached. Requests that are conditional themselves, or ask
+ * for a range, skip the cache.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .client(new CachingClient(new Client.Default(null, null),
+ *         new MemoryResponseCache(10 * 1024 * 1024)))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ *
+ * @see CachingCapability
+ */
+@Experimental
+public class CachingClient implements Client {
+
+  /**
+   * Size of the largest body cached.
+   */
+  public static final int MAX_BODY_BYTES = 8 * 1024 * 1024;
+
+  private static final Set<Integer> CACHEABLE_STATUSES =
+      new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501));
+  private static final Set<HttpMethod> UNSAFE_METHODS =
+      EnumSet.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+  private static final String[] BYPASSING_HEADERS = {
+      "If-None-Match", "If-Modified-Since", "If-Match", "If-Unmodified-Since", "If-Range", "Range"};
+
+  private static class LazyInitializedExecutorService {
+
+    private static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-cache-revalidation");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
+  private final Client delegate;
+  private final ResponseCache cache;
+  private final Executor executor;
+  private final LongSupplier clock;
+  /* URLs revalidated in the background */
+  private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+  public CachingClient(Client delegate, ResponseCache cache) {
+    this(delegate, cache, LazyInitializedExecutorService.instance);
+  }
+
+  /**
+   * @param executor to revalidate responses from while returning them stale.
+   */
+  public CachingClient(Client delegate, ResponseCache cache, Executor executor) {
+    this(delegate, cache, executor, System::currentTimeMillis);
+  }
+
+  CachingClient(Client delegate, ResponseCache cache, Executor executor, LongSupplier clock) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.cache = checkNotNull(cache, "cache");
+    this.executor = checkNotNull(executor, "executor");
+    this.clock = clock;
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    if (request.httpMethod() != HttpMethod.GET) {
+      Response response = delegate.execute(request, options);
+      if (UNSAFE_METHODS.contains(request.httpMethod()) && response.status() < 400) {
+        cache.remove(request.url());
+      }
+      return response;
+    }
+    CacheControl requestControl = CacheControl.parse(request.headers());
+    if (!usesCache(request, requestControl)) {
+      return delegate.execute(request, options);
+    }
+
+    CachedResponse cached = cache.get(request.url());
+    if (cached != null && !cached.matches(request)) {
+      cached = null;
+    }
+    if (cached != null && !requestControl.noCache) {
+      long staleMillis = staleMillis(cached);
+      if (staleMillis < 0) {
+        return cached.toResponse(request);
+      }
+      if (!cached.control().mustRevalidate
+          && staleMillis < cached.control().staleWhileRevalidateMillis) {
+        revalidateLater(request, options, cached);
+        return cached.toResponse(request);
+      }
+    }
+    return fetch(request, options, requestControl, cached);
+  }
+
+  /**
+   * Sends {@code request}, conditionally when a response to revalidate is {@code cached}.
+   */
+  private Response fetch(Request request,
+                         Options options,
+                         CacheControl requestControl,
+                         CachedResponse cached)
+      throws IOException {
+    /* the earliest the response could have been generated */
+    long requestMillis = clock.getAsLong();
+    Response response;
+    try {
+      response = delegate.execute(cached != null ? conditional(request, cached) : request, options);
+    } catch (IOException | RuntimeException e) {
+      if (servesOnError(cached, requestControl)) {
+        return cached.toResponse(request);
+      }
+      throw e;
+    }
+
+    if (cached != null && response.status() == 304) {
+      ensureClosed(response);
+      CachedResponse revalidated = cached.revalidated(response, requestMillis);
+      cache.put(request.url(), revalidated);
+      return revalidated.toResponse(request);
+    }
+    if (response.status() >= 500 && servesOnError(cached, requestControl)) {
+      ensureClosed(response);
+      return cached.toResponse(request);
+    }
+    return store(request, requestControl, response, requestMillis);
+  }
+
+  private Response store(Request request,
+                         CacheControl requestControl,
+                         Response response,
+                         long requestMillis)
+      throws IOException {
+    CacheControl control = CacheControl.parse(response.headers());
+    if (!CACHEABLE_STATUSES.contains(response.status())
+        || control.noStore
+        || requestControl.noStore
+        || !(control.maxAgeMillis >= 0 || has(response, "Expires") || has(response, "ETag")
+            || has(response, "Last-Modified"))) {
+      return response;
+    }
+    Response.Body body = response.body();
+    if (body != null && body.length() != null && body.length() > MAX_BODY_BYTES) {
+      return response;
+    }
+
+    byte[] data;
+    try (Response source = response) {
+      data = body != null ? Util.toByteArray(body) : new byte[0];
+    }
+    CachedResponse cached = CachedResponse.of(request, response, data, requestMillis);
+    if (cached == null) {
+      /* varies on every request */
+      return response.toBuilder().body(ByteBuffer.wrap(data)).build();
+    }
+    if (data.length <= MAX_BODY_BYTES) {
+      cache.put(request.url(), cached);
+    }
+    return cached.toResponse(request);
+  }
+
+  private void revalidateLater(Request request, Options options, CachedResponse cached) {
+    String url = request.url();
+    if (!revalidating.add(url)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          ensureClosed(fetch(request, options, CacheControl.NONE, cached));
+        } catch (IOException | RuntimeException e) {
+          // the stale response was returned, and is revalidated again on the next request
+        } finally {
+          revalidating.remove(url);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      revalidating.remove(url);
+    }
+  }
+
+  private boolean servesOnError(CachedResponse cached, CacheControl requestControl) {
+    if (cached == null || cached.control().mustRevalidate) {
+      return false;
+    }
+    long staleIfErrorMillis =
+        Math.max(cached.control().staleIfErrorMillis, requestControl.staleIfErrorMillis);
+    return staleMillis(cached) <= staleIfErrorMillis;
+  }
+
+  /**
+   * How long ago {@code cached} became stale, negative while it is fresh.
+   */
+  private long staleMillis(CachedResponse cached) {
+    return cached.ageMillis(clock.getAsLong()) - cached.freshnessMillis();
+  }
+
+  private static boolean usesCache(Request request, CacheControl requestControl) {
+    if (requestControl.noStore || request.body() != null || request.requestBody().isStreaming()) {
+      return false;
+    }
+    for (String name : BYPASSING_HEADERS) {
+      if (!CachedResponse.values(request.headers(), name).isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Request conditional(Request request, CachedResponse cached) {
+    String etag = cached.header("ETag");
+    String lastModified = cached.header("Last-Modified");
+    if (etag == null && lastModified == null) {
+      return request;
+    }
+    Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+    if (etag != null) {
+      headers.put("If-None-Match", Collections.singletonList(etag));
+    }
+    if (lastModified != null) {
+      headers.put("If-Modified-Since", Collections.singletonList(lastModified));
+    }
+    return Request.create(request.httpMethod(), request.url(), headers, request.requestBody(),
+        request.requestTemplate());
+  }
+
+  private static boolean has(Response response, String header) {
+    return !CachedResponse.values(response.headers(), header).isEmpty();
+  }
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.UTF_8;
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import feign.Experimental;
+import feign.HttpHeaders;
+
+/**
+ * Keeps responses in files of a directory, up to a total size, evicting the least recently used
+ * ones first. Response bodies are memory-mapped when read, rather than copied to the heap.
+ *
+ * <p>
+ * Files that cannot be read or written are treated as missing, so that the cache never fails a
+ * request. Responses stored by a previous instance on the same directory are kept, oldest first.
+ * Put it behind a {@link MemoryResponseCache} to avoid reading the same files again and again.
+ */
+@Experimental
+public final class DiskResponseCache implements ResponseCache {
+
+  /* changed when the format changes, so that older files are discarded */
+  private static final int MAGIC = 0xFE16CAC2;
+  private static final String SUFFIX = ".response";
+
+  private final Path directory;
+  private final long maxBytes;
+  /* sizes of the files, by name */
+  private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  /**
+   * @param directory to store responses in, created if missing.
+   * @param maxBytes total size of the files kept.
+   */
+  public DiskResponseCache(Path directory, long maxBytes) throws IOException {
+    checkArgument(maxBytes > 0, "maxBytes must be positive, was %s", maxBytes);
+    this.directory = checkNotNull(directory, "directory");
+    this.maxBytes = maxBytes;
+    Files.createDirectories(directory);
+    List<Path> existing;
+    try (Stream<Path> list = Files.list(directory)) {
+      existing = list.collect(Collectors.toList());
+    }
+    /* left by writes that were interrupted */
+    existing.stream()
+        .filter(path -> path.getFileName().toString().endsWith(".tmp"))
+        .forEach(DiskResponseCache::deleteQuietly);
+    existing.removeIf(path -> !path.getFileName().toString().endsWith(SUFFIX));
+    existing.sort((a, b) -> Long.compare(lastModified(a), lastModified(b)));
+    synchronized (this) {
+      for (Path file : existing) {
+        long size = Files.size(file);
+        files.put(file.getFileName().toString(), size);
+        bytes += size;
+      }
+      trim();
+    }
+  }
+
+  @Override
+  public CachedResponse get(String url) {
+    String name = fileName(url);
+    synchronized (this) {
+      if (files.get(name) == null) {
+        return null;
+      }
+    }
+    try (FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ)) {
+      /* stays valid once the channel is closed */
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(url, mapped);
+    } catch (IOException | RuntimeException e) {
+      remove(url);
+      return null;
+    }
+  }
+
+  @Override
+  public void put(String url, CachedResponse response) {
+    String name = fileName(url);
+    Path temp = null;
+    try {
+      ByteBuffer metadata = ByteBuffer.wrap(write(url, response));
+      ByteBuffer body = response.body();
+      long size = 8L + metadata.remaining() + body.remaining();
+      if (size > maxBytes) {
+        remove(url);
+        return;
+      }
+      temp = Files.createTempFile(directory, name, ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(metadata.remaining());
+        header.flip();
+        for (ByteBuffer buffer : new ByteBuffer[] {header, metadata, body}) {
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+        }
+      }
+      synchronized (this) {
+        move(temp, directory.resolve(name));
+        temp = null;
+        Long previous = files.put(name, size);
+        bytes += size - (previous != null ? previous : 0);
+        trim();
+      }
+    } catch (IOException | RuntimeException e) {
+      // caching is best effort
+    } finally {
+      if (temp != null) {
+        deleteQuietly(temp);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void remove(String url) {
+    String name = fileName(url);
+    Long size = files.remove(name);
+    if (size != null) {
+      bytes -= size;
+      deleteQuietly(directory.resolve(name));
+    }
+  }
+
+  /**
+   * Total size of the files kept.
+   */
+  public synchronized long bytes() {
+    return bytes;
+  }
+
+  private void trim() {
+    Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+    while (bytes > maxBytes) {
+      Map.Entry<String, Long> entry = eldest.next();
+      bytes -= entry.getValue();
+      eldest.remove();
+      deleteQuietly(directory.resolve(entry.getKey()));
+    }
+  }
+
+  private static byte[] write(String url, CachedResponse response) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeUTF(url);
+      out.writeInt(response.status());
+      out.writeBoolean(response.reason() != null);
+      if (response.reason() != null) {
+        out.writeUTF(response.reason());
+      }
+      out.writeLong(response.responseMillis());
+      writeValues(out, response.headers());
+      writeValues(out, response.varyValues());
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @return null if the file holds another URL, whose name has the same hash.
+   */
+  private static CachedResponse read(String url, ByteBuffer file) throws IOException {
+    if (file.getInt() != MAGIC) {
+      throw new IOException("not a cached response");
+    }
+    byte[] metadata = new byte[file.getInt()];
+    file.get(metadata);
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(metadata))) {
+      if (!in.readUTF().equals(url)) {
+        return null;
+      }
+      int status = in.readInt();
+      String reason = in.readBoolean() ? in.readUTF() : null;
+      long responseMillis = in.readLong();
+      HttpHeaders.Builder headers = HttpHeaders.builder(true);
+      readValues(in).forEach(headers::add);
+      Map<String, List<String>> varyValues = readValues(in);
+      return new CachedResponse(status, reason, headers.build(), file.slice(), responseMillis,
+          varyValues);
+    }
+  }
+
+  private static void writeValues(DataOutputStream out,
+                                  Map<String, ? extends Collection<String>> values)
+      throws IOException {
+    out.writeInt(values.size());
+    for (Map.Entry<String, ? extends Collection<String>> entry : values.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeInt(entry.getValue().size());
+      for (String value : entry.getValue()) {
+        out.writeUTF(value);
+      }
+    }
+  }
+
+  private static Map<String, List<String>> readValues(DataInputStream in) throws IOException {
+    Map<String, List<String>> result = new TreeMap<>();
+    for (int count = in.readInt(); count > 0; count--) {
+      String name = in.readUTF();
+      List<String> values = new ArrayList<>();
+      for (int valueCount = in.readInt(); valueCount > 0; valueCount--) {
+        values.add(in.readUTF());
+      }
+      result.put(name, values);
+    }
+    return result;
+  }
+
+  private static String fileName(String url) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(UTF_8));
+      StringBuilder result = new StringBuilder(hash.length * 2 + SUFFIX.length());
+      for (byte b : hash) {
+        result.append(Character.forDigit((b >> 4) & 0xf, 16))
+            .append(Character.forDigit(b & 0xf, 16));
+      }
+      return result.append(SUFFIX).toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static long lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // deleted later, or overwritten
+    }
+  }
+}
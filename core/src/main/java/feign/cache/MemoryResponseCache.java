@@ -0,0 +1,117 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.checkArgument;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import feign.Experimental;
+
+/**
+ * Keeps responses in memory up to a total {@link CachedResponse#size() size}, evicting the least
+ * recently used ones first.
+ *
+ * <p>
+ * Responses can also be written through to a slower {@code next} cache, such as a
+ * {@link DiskResponseCache}. Those missing from memory are then looked up in {@code next}, and kept
+ * in memory again when found.
+ */
+@Experimental
+public final class MemoryResponseCache implements ResponseCache {
+
+  private final long maxBytes;
+  private final ResponseCache next;
+  private final LinkedHashMap<String, CachedResponse> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  /**
+   * @param maxBytes total size of the responses kept.
+   */
+  public MemoryResponseCache(long maxBytes) {
+    this(maxBytes, null);
+  }
+
+  /**
+   * @param maxBytes total size of the responses kept in memory.
+   * @param next cache to write responses through to, may be null.
+   */
+  public MemoryResponseCache(long maxBytes, ResponseCache next) {
+    checkArgument(maxBytes > 0, "maxBytes must be positive, was %s", maxBytes);
+    this.maxBytes = maxBytes;
+    this.next = next;
+  }
+
+  @Override
+  public CachedResponse get(String url) {
+    synchronized (this) {
+      CachedResponse response = entries.get(url);
+      if (response != null || next == null) {
+        return response;
+      }
+    }
+    CachedResponse response = next.get(url);
+    if (response != null) {
+      store(url, response);
+    }
+    return response;
+  }
+
+  @Override
+  public void put(String url, CachedResponse response) {
+    store(url, response);
+    if (next != null) {
+      next.put(url, response);
+    }
+  }
+
+  @Override
+  public void remove(String url) {
+    synchronized (this) {
+      CachedResponse removed = entries.remove(url);
+      if (removed != null) {
+        bytes -= removed.size();
+      }
+    }
+    if (next != null) {
+      next.remove(url);
+    }
+  }
+
+  /**
+   * Total size of the responses in memory.
+   */
+  public synchronized long bytes() {
+    return bytes;
+  }
+
+  private synchronized void store(String url, CachedResponse response) {
+    CachedResponse previous = entries.remove(url);
+    if (previous != null) {
+      bytes -= previous.size();
+    }
+    long size = response.size();
+    if (size > maxBytes) {
+      return;
+    }
+    entries.put(url, response);
+    bytes += size;
+    Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+    while (bytes > maxBytes) {
+      bytes -= eldest.next().getValue().size();
+      eldest.remove();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import feign.Experimental;
+
+/**
+ * Stores the responses of a {@link CachingClient}, by URL. Implementations must be thread-safe,
+ * and may drop entries at any time.
+ *
+ * @see MemoryResponseCache
+ * @see DiskResponseCache
+ */
+@Experimental
+public interface ResponseCache {
+
+  /**
+   * @return the response stored for {@code url}, or null.
+   */
+  CachedResponse get(String url);
+
+  /**
+   * Stores {@code response} for {@code url}, replacing any previous one.
+   */
+  void put(String url, CachedResponse response);
+
+  /**
+   * Removes the response stored for {@code url}, if any.
+   */
+  void remove(String url);
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import static feign.Util.checkNotNull;
+import java.util.Collection;
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Coalesces identical concurrent requests, wrapping the client in a {@link CoalescingClient}.
+ *
+ * <pre>
+ * ConfigApi config = Feign.builder()
+ *     .addCapability(new CoalescingCapability())
+ *     .target(ConfigApi.class, "https://config.example.com");
+ * </pre>
+ */
+@Experimental
+public class CoalescingCapability implements Capability {
+
+  private final Collection<String> ignoredHeaders;
+
+  public CoalescingCapability() {
+    this(CoalescingClient.DEFAULT_IGNORED_HEADERS);
+  }
+
+  /**
+   * @param ignoredHeaders names of the headers that may differ between coalesced requests.
+   */
+  public CoalescingCapability(Collection<String> ignoredHeaders) {
+    this.ignoredHeaders = checkNotNull(ignoredHeaders, "ignoredHeaders");
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new CoalescingClient(client, ignoredHeaders);
+  }
+}
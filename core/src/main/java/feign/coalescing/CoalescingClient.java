@@ -0,0 +1,212 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import feign.Client;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+
+/**
+ * Sends a single request for concurrent {@code GET} and {@code HEAD} requests to the same URL, with
+ * the same headers, except the {@link #DEFAULT_IGNORED_HEADERS ignored ones}. The first caller
+ * sends the request, reads the response body into memory, then hands a copy of the response to
+ * every caller that asked for it in the meantime, each with its own body. A failure is thrown to
+ * all of them.
+ *
+ * <p>
+ * Callers that join a request in flight get the response to the request sent by the first one:
+ * its ignored headers, and the {@link Options} of the first caller, apply to all. As any other
+ * header may identify the caller, such as an API key or a tenant, requests are only coalesced when
+ * they are all equal. As bodies are held in memory, this suits small responses, such as
+ * configuration fetched on a cache miss by many callers at once.
+ *
+ * @see CoalescingCapability
+ */
+@Experimental
+public class CoalescingClient implements Client {
+
+  /**
+   * Headers that differ on every request without changing the response, such as request ids and
+   * tracing headers, which are not compared before coalescing it.
+   */
+  public static final Set<String> DEFAULT_IGNORED_HEADERS =
+      Collections.unmodifiableSet(ignoredHeaders(Arrays.asList(
+          "X-Request-Id", "X-Correlation-Id", "traceparent", "tracestate", "b3",
+          "X-B3-TraceId", "X-B3-SpanId", "X-B3-ParentSpanId", "X-B3-Sampled")));
+
+  private final Client delegate;
+  private final Set<String> ignoredHeaders;
+  private final ConcurrentMap<Key, CompletableFuture<Flight>> inFlight = new ConcurrentHashMap<>();
+
+  public CoalescingClient(Client delegate) {
+    this(delegate, DEFAULT_IGNORED_HEADERS);
+  }
+
+  /**
+   * @param ignoredHeaders names of the headers that may differ between coalesced requests. All
+   *        others must be equal.
+   */
+  public CoalescingClient(Client delegate, Collection<String> ignoredHeaders) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.ignoredHeaders = ignoredHeaders(checkNotNull(ignoredHeaders, "ignoredHeaders"));
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    if (!isCoalesced(request)) {
+      return delegate.execute(request, options);
+    }
+    Key key = new Key(request, ignoredHeaders);
+    CompletableFuture<Flight> flight = new CompletableFuture<>();
+    CompletableFuture<Flight> leader = inFlight.putIfAbsent(key, flight);
+    if (leader != null) {
+      return await(leader).response(request);
+    }
+
+    Flight result;
+    try {
+      result = new Flight(delegate.execute(request, options));
+    } catch (IOException | RuntimeException | Error e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+    /* later requests are sent again, rather than getting a response that may be stale */
+    inFlight.remove(key, flight);
+    flight.complete(result);
+    return result.response(request);
+  }
+
+  /**
+   * Number of distinct requests in flight.
+   */
+  int inFlight() {
+    return inFlight.size();
+  }
+
+  /**
+   * Number of callers waiting for a request sent by another one.
+   */
+  int waiting() {
+    return inFlight.values().stream().mapToInt(CompletableFuture::getNumberOfDependents).sum();
+  }
+
+  private static boolean isCoalesced(Request request) {
+    return (request.httpMethod() == HttpMethod.GET || request.httpMethod() == HttpMethod.HEAD)
+        && request.body() == null
+        && !request.requestBody().isStreaming();
+  }
+
+  private static Flight await(CompletableFuture<Flight> leader) throws IOException {
+    try {
+      return leader.get();
+    } catch (InterruptedException e) {
+      /* the request carries on for the other callers */
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (ExecutionException e) {
+      throw Util.unwrapExecutionException(e);
+    }
+  }
+
+  private static Set<String> ignoredHeaders(Collection<String> names) {
+    Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    result.addAll(names);
+    return result;
+  }
+
+  /**
+   * Method, URL and values of the headers of a request, except the ignored ones.
+   */
+  private static final class Key {
+
+    private final HttpMethod method;
+    private final String url;
+    private final Map<String, Collection<String>> headers = new TreeMap<>();
+    private final int hashCode;
+
+    Key(Request request, Set<String> ignoredHeaders) {
+      this.method = request.httpMethod();
+      this.url = request.url();
+      for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+        if (!ignoredHeaders.contains(header.getKey())) {
+          headers.put(header.getKey().toLowerCase(Locale.ROOT), new ArrayList<>(header.getValue()));
+        }
+      }
+      this.hashCode = 31 * (31 * method.hashCode() + url.hashCode()) + headers.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return method == other.method && url.equals(other.url) && headers.equals(other.headers);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * A response read into memory, shared by the callers of a request.
+   */
+  private static final class Flight {
+
+    private final Response response;
+    private final byte[] body;
+
+    Flight(Response response) throws IOException {
+      try (Response source = response) {
+        this.body = source.body() != null ? Util.toByteArray(source.body()) : null;
+      }
+      this.response = response.toBuilder().body((Response.Body) null).build();
+    }
+
+    Response response(Request request) {
+      Response.Builder builder = response.toBuilder().request(request);
+      if (body != null) {
+        builder.body(ByteBuffer.wrap(body).asReadOnlyBuffer());
+      }
+      return builder.build();
+    }
+  }
+}
@@ -87,7 +87,7 @@ public interface Decoder {
       if (response.body() == null)
         return null;
       if (byte[].class.equals(type)) {
-        return Util.toByteArray(response.body().asInputStream());
+        return Util.toByteArray(response.body());
       }
       return super.decode(response, type);
     }
@@ -14,6 +14,8 @@
 package feign.codec;
 
 import java.lang.reflect.Type;
+import java.nio.file.Path;
+import feign.Request;
 import feign.RequestTemplate;
 import feign.Util;
 import static java.lang.String.format;
@@ -79,7 +81,8 @@ public interface Encoder {
   void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException;
 
   /**
-   * Default implementation of {@code Encoder}.
+   * Default implementation of {@code Encoder}. Besides strings and byte arrays, it streams
+   * {@link Path files} and {@link Request.BodyWriter writers} without buffering them in memory.
    */
   class Default implements Encoder {
 
@@ -89,6 +92,10 @@ public interface Encoder {
         template.body(object.toString());
       } else if (bodyType == byte[].class) {
         template.body((byte[]) object, null);
+      } else if (object instanceof Path) {
+        template.body((Path) object);
+      } else if (object instanceof Request.BodyWriter) {
+        template.body((Request.BodyWriter) object, -1);
       } else if (object != null) {
         throw new EncodeException(
             format("%s is not a type supported by this encoder.", object.getClass()));
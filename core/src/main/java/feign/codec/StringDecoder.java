@@ -28,6 +28,9 @@ public class StringDecoder implements Decoder {
       return null;
     }
     if (String.class.equals(type)) {
+      if (body instanceof Response.BufferedBody) {
+        return Util.UTF_8.decode(((Response.BufferedBody) body).asByteBuffer()).toString();
+      }
       return Util.toString(body.asReader(Util.UTF_8));
     }
     throw new DecodeException(response.status(),
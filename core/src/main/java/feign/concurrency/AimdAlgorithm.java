@@ -0,0 +1,40 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+/**
+ * @see LimitAlgorithm#aimd(double, long, java.util.concurrent.TimeUnit)
+ */
+final class AimdAlgorithm implements LimitAlgorithm {
+
+  private final double backoffRatio;
+  private final long timeoutNanos;
+
+  AimdAlgorithm(double backoffRatio, long timeoutNanos) {
+    this.backoffRatio = backoffRatio;
+    this.timeoutNanos = timeoutNanos;
+  }
+
+  @Override
+  public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+    if (dropped || rttNanos > timeoutNanos) {
+      return (int) (limit * backoffRatio);
+    }
+    /* don't grow a limit that isn't reached */
+    if (inFlight * 2 >= limit) {
+      return limit + 1;
+    }
+    return limit;
+  }
+}
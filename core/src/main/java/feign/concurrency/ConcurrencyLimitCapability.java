@@ -0,0 +1,47 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static feign.Util.checkNotNull;
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Limits the requests in flight to a target, wrapping the client in a
+ * {@link ConcurrencyLimitingClient}. Add it before {@code MicrometerCapability}, so that the limit
+ * is reported as a gauge.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .addCapability(new ConcurrencyLimitCapability(ConcurrencyLimiter.builder("github")
+ *         .maxWait(50, TimeUnit.MILLISECONDS)
+ *         .build()))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+@Experimental
+public class ConcurrencyLimitCapability implements Capability {
+
+  private final ConcurrencyLimiter limiter;
+
+  public ConcurrencyLimitCapability(ConcurrencyLimiter limiter) {
+    this.limiter = checkNotNull(limiter, "limiter");
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new ConcurrencyLimitingClient(client, limiter);
+  }
+}
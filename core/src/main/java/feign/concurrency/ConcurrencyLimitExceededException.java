@@ -0,0 +1,41 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import feign.FeignException;
+import feign.Request;
+
+/**
+ * This exception is raised when a {@link ConcurrencyLimiter} rejects a request, without sending
+ * it. It is not retryable, so that retries don't add to the overload.
+ */
+public class ConcurrencyLimitExceededException extends FeignException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int limit;
+
+  public ConcurrencyLimitExceededException(String target, int limit, Request request) {
+    super(-1, String.format("Concurrency limit of %s reached for %s, executing %s %s", limit,
+        target, request.httpMethod(), request.url()), request);
+    this.limit = limit;
+  }
+
+  /**
+   * The limit when the request was rejected.
+   */
+  public int limit() {
+    return limit;
+  }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import feign.Experimental;
+
+/**
+ * Limits the calls in flight to a target, adapting the limit to observed round-trip times with a
+ * {@link LimitAlgorithm}. Calls over the limit wait up to {@link Builder#maxWait(long, TimeUnit)
+ * maxWait} for another to complete, in order, or are rejected.
+ *
+ * <p>
+ * A single limiter is meant to be shared by every client of the same target, and its
+ * {@link #limit()} reported as a gauge, as {@code MicrometerCapability} does.
+ *
+ * @see ConcurrencyLimitCapability
+ */
+@Experimental
+public final class ConcurrencyLimiter {
+
+  private static class LazyInitializedScheduler {
+
+    private static final ScheduledExecutorService instance =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+          final Thread result = new Thread(r, "feign-concurrency-limiter");
+          result.setDaemon(true);
+          return result;
+        });
+  }
+
+  private final String target;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long maxWaitNanos;
+  private final LimitAlgorithm algorithm;
+  private final ScheduledExecutorService scheduler;
+  private final LongAdder rejected = new LongAdder();
+  /* guarded by this */
+  private final ArrayDeque<CompletableFuture<Permit>> waiting = new ArrayDeque<>();
+  private int inFlight;
+  private volatile int limit;
+
+  private ConcurrencyLimiter(Builder builder) {
+    this.target = builder.target;
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.maxWaitNanos = builder.maxWaitNanos;
+    this.algorithm = builder.algorithm != null ? builder.algorithm : LimitAlgorithm.gradient();
+    this.scheduler =
+        builder.scheduler != null ? builder.scheduler : LazyInitializedScheduler.instance;
+    this.limit = Math.max(minLimit, Math.min(builder.initialLimit, maxLimit));
+  }
+
+  /**
+   * @param target name of the downstream, such as {@link feign.Target#name()}.
+   */
+  public static Builder builder(String target) {
+    return new Builder(target);
+  }
+
+  public String target() {
+    return target;
+  }
+
+  /**
+   * Calls currently allowed in flight.
+   */
+  public int limit() {
+    return limit;
+  }
+
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Calls rejected so far.
+   */
+  public long rejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * Completes with a permit to send a call once under the limit, or with null when the call is
+   * rejected. Cancel the future to stop waiting.
+   */
+  public CompletableFuture<Permit> acquire() {
+    CompletableFuture<Permit> result;
+    synchronized (this) {
+      if (inFlight < limit && waiting.isEmpty()) {
+        inFlight++;
+        return CompletableFuture.completedFuture(new Permit());
+      }
+      if (maxWaitNanos == 0) {
+        rejected.increment();
+        return CompletableFuture.completedFuture(null);
+      }
+      result = new CompletableFuture<>();
+      waiting.add(result);
+    }
+    try {
+      ScheduledFuture<?> timeout =
+          scheduler.schedule(() -> timeout(result), maxWaitNanos, TimeUnit.NANOSECONDS);
+      result.whenComplete((permit, error) -> timeout.cancel(false));
+    } catch (RejectedExecutionException e) {
+      timeout(result);
+    }
+    return result;
+  }
+
+  private void timeout(CompletableFuture<Permit> waiter) {
+    synchronized (this) {
+      if (!waiting.remove(waiter)) {
+        return;
+      }
+    }
+    if (!waiter.isDone()) {
+      rejected.increment();
+      waiter.complete(null);
+    }
+  }
+
+  private void release(long rttNanos, boolean dropped, boolean sample) {
+    List<CompletableFuture<Permit>> granted = new ArrayList<>();
+    synchronized (this) {
+      if (sample) {
+        int updated = algorithm.update(limit, rttNanos, inFlight, dropped);
+        limit = Math.max(minLimit, Math.min(updated, maxLimit));
+      }
+      inFlight--;
+      while (inFlight < limit && !waiting.isEmpty()) {
+        CompletableFuture<Permit> waiter = waiting.poll();
+        if (!waiter.isDone()) {
+          inFlight++;
+          granted.add(waiter);
+        }
+      }
+    }
+    /* outside the lock, as callers send their request right away */
+    for (CompletableFuture<Permit> waiter : granted) {
+      Permit permit = new Permit();
+      if (!waiter.complete(permit)) {
+        permit.ignore();
+      }
+    }
+  }
+
+  /**
+   * Allows one call in flight, which must be released once, with the outcome of the call.
+   */
+  public final class Permit {
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit() {}
+
+    /**
+     * The call completed, its round-trip time adjusts the limit.
+     */
+    public void success() {
+      release(false, true);
+    }
+
+    /**
+     * The call timed out, or the target reported it was overloaded, which lowers the limit.
+     */
+    public void dropped() {
+      release(true, true);
+    }
+
+    /**
+     * The call failed for reasons unrelated to load, and leaves the limit as is.
+     */
+    public void ignore() {
+      release(false, false);
+    }
+
+    private void release(boolean dropped, boolean sample) {
+      if (released.compareAndSet(false, true)) {
+        ConcurrencyLimiter.this.release(System.nanoTime() - startNanos, dropped, sample);
+      }
+    }
+  }
+
+  public static final class Builder {
+
+    private final String target;
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private long maxWaitNanos;
+    private LimitAlgorithm algorithm;
+    private ScheduledExecutorService scheduler;
+
+    private Builder(String target) {
+      this.target = checkNotNull(target, "target");
+    }
+
+    /**
+     * Bounds of the limit, 1 to 200 calls by default, starting at 20.
+     */
+    public Builder limit(int initialLimit, int minLimit, int maxLimit) {
+      checkArgument(minLimit > 0 && minLimit <= maxLimit,
+          "minLimit must be between 1 and maxLimit, was %s", minLimit);
+      checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit,
+          "initialLimit must be between minLimit and maxLimit, was %s", initialLimit);
+      this.initialLimit = initialLimit;
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    /**
+     * How long calls over the limit wait for another to complete, before being rejected. By
+     * default, they are rejected right away.
+     */
+    public Builder maxWait(long maxWait, TimeUnit unit) {
+      checkArgument(maxWait >= 0, "maxWait must not be negative, was %s", maxWait);
+      this.maxWaitNanos = unit.toNanos(maxWait);
+      return this;
+    }
+
+    /**
+     * Algorithm adjusting the limit, {@link LimitAlgorithm#gradient()} by default.
+     */
+    public Builder algorithm(LimitAlgorithm algorithm) {
+      this.algorithm = checkNotNull(algorithm, "algorithm");
+      return this;
+    }
+
+    /**
+     * To time out calls waiting over the limit, which should not block.
+     */
+    public Builder scheduler(ScheduledExecutorService scheduler) {
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      return this;
+    }
+
+    public ConcurrencyLimiter build() {
+      return new ConcurrencyLimiter(this);
+    }
+  }
+}
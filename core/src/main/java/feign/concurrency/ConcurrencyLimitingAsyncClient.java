@@ -0,0 +1,114 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import feign.AsyncClient;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Sends requests within the limit of a {@link ConcurrencyLimiter}, as
+ * {@link ConcurrencyLimitingClient} does, without blocking while waiting for the limit. Rejected
+ * requests fail with a {@link ConcurrencyLimitExceededException}.
+ *
+ * <pre>
+ * GitHub github = AsyncFeign.asyncBuilder()
+ *     .client(new ConcurrencyLimitingAsyncClient&lt;&gt;(client,
+ *         ConcurrencyLimiter.builder("github").build()))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+@Experimental
+public class ConcurrencyLimitingAsyncClient<C> implements AsyncClient<C> {
+
+  private final AsyncClient<C> delegate;
+  private final ConcurrencyLimiter limiter;
+
+  public ConcurrencyLimitingAsyncClient(AsyncClient<C> delegate, ConcurrencyLimiter limiter) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.limiter = checkNotNull(limiter, "limiter");
+  }
+
+  public ConcurrencyLimiter limiter() {
+    return limiter;
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<C> requestContext) {
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    CompletableFuture<ConcurrencyLimiter.Permit> acquired = limiter.acquire();
+    result.whenComplete((response, error) -> acquired.cancel(false));
+    acquired.whenComplete((permit, error) -> {
+      if (permit == null) {
+        result.completeExceptionally(
+            new ConcurrencyLimitExceededException(limiter.target(), limiter.limit(), request));
+        return;
+      }
+      if (result.isDone()) {
+        /* cancelled while waiting */
+        permit.ignore();
+        return;
+      }
+      send(request, options, requestContext, permit, result);
+    });
+    return result;
+  }
+
+  private void send(Request request,
+                    Options options,
+                    Optional<C> requestContext,
+                    ConcurrencyLimiter.Permit permit,
+                    CompletableFuture<Response> result) {
+    CompletableFuture<Response> sent;
+    try {
+      sent = delegate.execute(request, options, requestContext);
+    } catch (RuntimeException e) {
+      permit.ignore();
+      result.completeExceptionally(e);
+      return;
+    }
+    result.whenComplete((response, error) -> {
+      if (result.isCancelled()) {
+        sent.cancel(true);
+      }
+    });
+    sent.whenComplete((response, error) -> {
+      if (error == null) {
+        ConcurrencyLimitingClient.release(permit, response);
+        if (!result.complete(response)) {
+          response.close();
+        }
+        return;
+      }
+      Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause()
+          : error;
+      if (cause instanceof IOException) {
+        permit.dropped();
+      } else {
+        permit.ignore();
+      }
+      result.completeExceptionally(cause);
+    });
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import feign.Client;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Sends requests within the limit of a {@link ConcurrencyLimiter}, and throws a
+ * {@link ConcurrencyLimitExceededException} for those it rejects. A call lasts until its response
+ * headers are received. It counts as dropped when it fails with an {@link IOException}, or when the
+ * status is {@code 429} or {@code 503}.
+ *
+ * @see ConcurrencyLimitCapability
+ */
+@Experimental
+public class ConcurrencyLimitingClient implements Client {
+
+  private final Client delegate;
+  private final ConcurrencyLimiter limiter;
+
+  public ConcurrencyLimitingClient(Client delegate, ConcurrencyLimiter limiter) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.limiter = checkNotNull(limiter, "limiter");
+  }
+
+  public ConcurrencyLimiter limiter() {
+    return limiter;
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    ConcurrencyLimiter.Permit permit = acquire(request);
+    Response response;
+    try {
+      response = delegate.execute(request, options);
+    } catch (IOException e) {
+      permit.dropped();
+      throw e;
+    } catch (RuntimeException | Error e) {
+      permit.ignore();
+      throw e;
+    }
+    release(permit, response);
+    return response;
+  }
+
+  private ConcurrencyLimiter.Permit acquire(Request request) throws IOException {
+    CompletableFuture<ConcurrencyLimiter.Permit> acquired = limiter.acquire();
+    ConcurrencyLimiter.Permit permit;
+    try {
+      permit = acquired.get();
+    } catch (InterruptedException e) {
+      acquired.cancel(false);
+      acquired.thenAccept(granted -> {
+        if (granted != null) {
+          granted.ignore();
+        }
+      });
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+    if (permit == null) {
+      throw new ConcurrencyLimitExceededException(limiter.target(), limiter.limit(), request);
+    }
+    return permit;
+  }
+
+  static void release(ConcurrencyLimiter.Permit permit, Response response) {
+    if (response.status() == 429 || response.status() == 503) {
+      permit.dropped();
+    } else {
+      permit.success();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+/**
+ * @see LimitAlgorithm#gradient()
+ */
+final class GradientAlgorithm implements LimitAlgorithm {
+
+  /* weight of each call in the averages, the long-term one covering about 600 calls */
+  private static final double SHORT_WEIGHT = 0.1;
+  private static final double LONG_WEIGHT = 1.0 / 600;
+  private static final double SMOOTHING = 0.2;
+
+  private double estimate = -1;
+  private double shortRttNanos = -1;
+  private double longRttNanos = -1;
+
+  @Override
+  public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+    if (estimate < 0) {
+      shortRttNanos = longRttNanos = rttNanos;
+    }
+    if ((int) estimate != limit) {
+      /* start over from the limit once the limiter bounded it, so the estimate can't run away */
+      estimate = limit;
+    }
+    shortRttNanos += (rttNanos - shortRttNanos) * SHORT_WEIGHT;
+    longRttNanos += (rttNanos - longRttNanos) * LONG_WEIGHT;
+    /* recover quickly once latency drops back under its long-term average */
+    if (longRttNanos / shortRttNanos > 2) {
+      longRttNanos *= 0.95;
+    }
+
+    double gradient = dropped
+        ? 0.5
+        : Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+    double target = estimate * gradient + Math.sqrt(estimate);
+    if (target > estimate && inFlight * 2 < estimate) {
+      /* don't grow a limit that isn't reached */
+      return limit;
+    }
+    estimate = estimate * (1 - SMOOTHING) + target * SMOOTHING;
+    return (int) estimate;
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static feign.Util.checkArgument;
+import java.util.concurrent.TimeUnit;
+import feign.Experimental;
+
+/**
+ * Adjusts the limit of a {@link ConcurrencyLimiter} after each call. Algorithms may keep state, as
+ * they are only called by their limiter, one call at a time, so an instance must not be shared
+ * between limiters.
+ */
+@Experimental
+public interface LimitAlgorithm {
+
+  /**
+   * @param limit current limit.
+   * @param rttNanos round-trip time of the call.
+   * @param inFlight calls in flight when the call completed, including it.
+   * @param dropped if the call failed in a way that suggests overload, such as a timeout.
+   * @return the new limit, which the limiter bounds by its minimum and maximum.
+   */
+  int update(int limit, long rttNanos, int inFlight, boolean dropped);
+
+  /**
+   * Additive increase, multiplicative decrease: the limit grows by one after each call completing
+   * in time while more than half the limit is in use, and is multiplied by 0.9 after a call is
+   * dropped or slower than 5 seconds.
+   */
+  static LimitAlgorithm aimd() {
+    return aimd(0.9, 5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * @param backoffRatio multiplying the limit after a call is dropped, between 0.5 and 1.
+   * @param timeout past which calls count as dropped.
+   */
+  static LimitAlgorithm aimd(double backoffRatio, long timeout, TimeUnit unit) {
+    checkArgument(backoffRatio >= 0.5 && backoffRatio < 1,
+        "backoffRatio must be between 0.5 and 1, was %s", backoffRatio);
+    checkArgument(timeout > 0, "timeout must be positive, was %s", timeout);
+    return new AimdAlgorithm(backoffRatio, unit.toNanos(timeout));
+  }
+
+  /**
+   * Compares the latest round-trip times to their long-term average: the limit shrinks in
+   * proportion as latency grows, down to half the limit at once, and otherwise grows by the square
+   * root of the limit, the queue allowed downstream.
+   */
+  static LimitAlgorithm gradient() {
+    return new GradientAlgorithm();
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static feign.Util.checkNotNull;
+import static feign.Util.ensureClosed;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import feign.AsyncClient;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Sends a second, identical request when the first has not completed after the delay chosen by a
+ * {@link HedgingPolicy}. The first response wins, and the other attempt is cancelled, or its
+ * response closed if it arrives anyway. The call fails once every attempt sent has failed, so a
+ * hedge is not sent after the first attempt failed.
+ *
+ * <pre>
+ * GitHub github = AsyncFeign.asyncBuilder()
+ *     .client(new HedgingAsyncClient&lt;&gt;(client, policy))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+@Experimental
+public class HedgingAsyncClient<C> implements AsyncClient<C> {
+
+  private static class LazyInitializedScheduler {
+
+    private static final ScheduledExecutorService instance =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+          final Thread result = new Thread(r, "feign-hedging");
+          result.setDaemon(true);
+          return result;
+        });
+  }
+
+  private final AsyncClient<C> delegate;
+  private final HedgingPolicy policy;
+  private final ScheduledExecutorService scheduler;
+
+  public HedgingAsyncClient(AsyncClient<C> delegate, HedgingPolicy policy) {
+    this(delegate, policy, LazyInitializedScheduler.instance);
+  }
+
+  /**
+   * @param scheduler to wait for the hedging delay, which should not block.
+   */
+  public HedgingAsyncClient(AsyncClient<C> delegate, HedgingPolicy policy,
+      ScheduledExecutorService scheduler) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.policy = checkNotNull(policy, "policy");
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<C> requestContext) {
+    HedgingPolicy.MethodStats stats = policy.stats(request);
+    if (!stats.isHedged(request)) {
+      return delegate.execute(request, options, requestContext);
+    }
+    policy.budget().deposit();
+    return new Call(request, options, requestContext, stats).start();
+  }
+
+  private final class Call {
+
+    private final Request request;
+    private final Options options;
+    private final Optional<C> requestContext;
+    private final HedgingPolicy.MethodStats stats;
+    private final long startNanos = System.nanoTime();
+    private final CompletableFuture<Response> result = new CompletableFuture<>();
+    private final List<CompletableFuture<Response>> attempts = new CopyOnWriteArrayList<>();
+    /* attempts sent that have not failed yet, the call fails when none is left */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    Call(Request request, Options options, Optional<C> requestContext,
+        HedgingPolicy.MethodStats stats) {
+      this.request = request;
+      this.options = options;
+      this.requestContext = requestContext;
+      this.stats = stats;
+    }
+
+    CompletableFuture<Response> start() {
+      result.whenComplete((response, throwable) -> attempts.forEach(a -> a.cancel(true)));
+      send(true);
+      if (!result.isDone()) {
+        try {
+          ScheduledFuture<?> hedge =
+              scheduler.schedule(this::hedge, stats.delayMillis(), MILLISECONDS);
+          result.whenComplete((response, throwable) -> hedge.cancel(false));
+        } catch (RejectedExecutionException e) {
+          // hedging is best effort, the first attempt is still in flight
+        }
+      }
+      return result;
+    }
+
+    private void hedge() {
+      if (!result.isDone() && policy.budget().tryWithdraw()) {
+        send(false);
+      }
+    }
+
+    /**
+     * @param primary if this is the first attempt, whose latency sets the hedging delay: recording
+     *        the winner's instead would only see the faster attempts, and shorten the delay.
+     */
+    private void send(boolean primary) {
+      pending.incrementAndGet();
+      CompletableFuture<Response> attempt;
+      try {
+        attempt = delegate.execute(request, options, requestContext);
+      } catch (RuntimeException e) {
+        attempt = new CompletableFuture<>();
+        attempt.completeExceptionally(e);
+      }
+      attempts.add(attempt);
+      attempt.whenComplete((response, throwable) -> {
+        if (primary && (throwable == null || wonByHedge(throwable))) {
+          // when cancelled, the first attempt took at least this long
+          stats.record(NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+        if (throwable != null) {
+          if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(throwable);
+          }
+        } else if (!result.complete(response)) {
+          ensureClosed(response);
+        }
+      });
+      if (result.isDone()) {
+        attempt.cancel(true);
+      }
+    }
+
+    private boolean wonByHedge(Throwable throwable) {
+      return throwable instanceof CancellationException && result.isDone()
+          && !result.isCompletedExceptionally();
+    }
+  }
+}
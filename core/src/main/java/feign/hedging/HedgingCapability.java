@@ -0,0 +1,49 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static feign.Util.checkNotNull;
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Hedges idempotent requests, wrapping the client in a {@link HedgingClient}.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .addCapability(new HedgingCapability(HedgingPolicy.builder()
+ *         .percentileDelay(0.95, 10, 500, TimeUnit.MILLISECONDS)
+ *         .build()))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+@Experimental
+public class HedgingCapability implements Capability {
+
+  private final HedgingPolicy policy;
+
+  public HedgingCapability() {
+    this(HedgingPolicy.builder().build());
+  }
+
+  public HedgingCapability(HedgingPolicy policy) {
+    this.policy = checkNotNull(policy, "policy");
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new HedgingClient(client, policy);
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+
+/**
+ * Hedges the requests of a blocking {@link Client}, as {@link HedgingAsyncClient} does. Hedged
+ * requests are sent from {@code executor} while the calling thread waits for the first response;
+ * other requests are sent from the calling thread.
+ *
+ * @see HedgingCapability
+ */
+@Experimental
+public class HedgingClient implements Client {
+
+  private static class LazyInitializedExecutorService {
+
+    private static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-hedging-client");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
+  private final Client delegate;
+  private final HedgingPolicy policy;
+  private final HedgingAsyncClient<Object> hedgingClient;
+
+  public HedgingClient(Client delegate, HedgingPolicy policy) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.policy = checkNotNull(policy, "policy");
+    this.hedgingClient = new HedgingAsyncClient<>(
+        new AsyncClient.Default<>(delegate, LazyInitializedExecutorService.instance), policy);
+  }
+
+  /**
+   * @param executor to send hedged requests from, which needs a thread for each attempt in flight.
+   * @param scheduler to wait for the hedging delay, which should not block.
+   */
+  public HedgingClient(Client delegate, HedgingPolicy policy, ExecutorService executor,
+      ScheduledExecutorService scheduler) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.policy = checkNotNull(policy, "policy");
+    this.hedgingClient =
+        new HedgingAsyncClient<>(new AsyncClient.Default<>(delegate, executor), policy, scheduler);
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    if (!policy.isHedged(request)) {
+      return delegate.execute(request, options);
+    }
+    CompletableFuture<Response> result =
+        hedgingClient.execute(request, options, Optional.empty());
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (ExecutionException e) {
+      throw Util.unwrapExecutionException(e);
+    }
+  }
+}
@@ -0,0 +1,274 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import feign.Experimental;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.RetryBudget;
+
+/**
+ * Decides which requests are hedged, and how long to wait for a response before sending the
+ * hedge.
+ *
+ * <p>
+ * A method is hedged when it is marked {@link Idempotent}, or, if not annotated, when its HTTP
+ * method is one of the {@link Builder#idempotentMethods(HttpMethod...) idempotent methods},
+ * {@code GET} by default. Requests with a body that can only be written once are never hedged.
+ *
+ * <p>
+ * The delay is either fixed, or a percentile of the recent latency of each method, keyed by
+ * {@link MethodMetadata#configKey()}: by default, a hedge is sent once a call is slower than 95% of
+ * recent ones. Hedges are limited by a {@link RetryBudget}, which allows them for 10% of hedged
+ * calls by default. Share a policy between the clients of a target, so that they share its
+ * latencies and budget.
+ */
+@Experimental
+public final class HedgingPolicy {
+
+  private final double percentile;
+  private final long minDelayMillis;
+  private final long maxDelayMillis;
+  private final Set<HttpMethod> idempotentMethods;
+  private final RetryBudget budget;
+  private final ConcurrentMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+  /* for requests not created from a method, such as in tests */
+  private final MethodStats unknownMethod;
+
+  private HedgingPolicy(Builder builder) {
+    this.percentile = builder.percentile;
+    this.minDelayMillis = builder.minDelayMillis;
+    this.maxDelayMillis = builder.maxDelayMillis;
+    this.idempotentMethods = EnumSet.copyOf(builder.idempotentMethods);
+    this.budget = builder.budget != null ? builder.budget : RetryBudget.create("hedging");
+    this.unknownMethod = new MethodStats(null);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * If a hedge may be sent for {@code request}.
+   */
+  public boolean isHedged(Request request) {
+    return stats(request).isHedged(request);
+  }
+
+  /**
+   * How long to wait for a response to {@code request} before sending a hedge.
+   */
+  public long delayMillis(Request request) {
+    return stats(request).delayMillis();
+  }
+
+  public RetryBudget budget() {
+    return budget;
+  }
+
+  MethodStats stats(Request request) {
+    MethodMetadata metadata =
+        request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+    if (metadata == null) {
+      return unknownMethod;
+    }
+    MethodStats stats = methods.get(metadata.configKey());
+    if (stats == null) {
+      stats = methods.computeIfAbsent(metadata.configKey(), key -> new MethodStats(metadata));
+    }
+    return stats;
+  }
+
+  final class MethodStats {
+
+    /* null when not annotated, true or false otherwise */
+    private final Boolean idempotent;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private volatile long delayMillis = maxDelayMillis;
+
+    private MethodStats(MethodMetadata metadata) {
+      Idempotent annotation = metadata != null && metadata.method() != null
+          ? metadata.method().getAnnotation(Idempotent.class)
+          : null;
+      this.idempotent = annotation != null ? annotation.value() : null;
+    }
+
+    boolean isHedged(Request request) {
+      boolean hedged =
+          idempotent != null ? idempotent : idempotentMethods.contains(request.httpMethod());
+      return hedged
+          && (!request.requestBody().isStreaming() || request.requestBody().asFile() != null);
+    }
+
+    long delayMillis() {
+      return delayMillis;
+    }
+
+    /**
+     * Records the latency of the first attempt of a call, so that the delay tracks recent latency.
+     */
+    void record(long millis) {
+      if (minDelayMillis == maxDelayMillis) {
+        return;
+      }
+      long estimate = latencies.record(millis, percentile);
+      if (estimate >= 0) {
+        delayMillis = Math.max(minDelayMillis, Math.min(estimate, maxDelayMillis));
+      }
+    }
+  }
+
+  /**
+   * Counts latencies in buckets that are 25% wide at most, halving counts regularly so that recent
+   * latencies weigh more. Updates are lock-free, and may race with halving, which only makes the
+   * estimate slightly less precise.
+   */
+  static final class LatencyHistogram {
+
+    /* up to 2^30ms, four buckets for each power of two */
+    private static final int BUCKETS = 120;
+    private static final int MIN_SAMPLES = 20;
+    private static final int ESTIMATE_INTERVAL = 16;
+    private static final int DECAY_INTERVAL = 1024;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong samples = new AtomicLong();
+
+    /**
+     * @return the latency at {@code percentile}, when due to be estimated again, otherwise -1.
+     */
+    long record(long millis, double percentile) {
+      counts.incrementAndGet(index(millis));
+      long count = samples.incrementAndGet();
+      if (count % DECAY_INTERVAL == 0) {
+        for (int i = 0; i < BUCKETS; i++) {
+          counts.getAndUpdate(i, value -> value >> 1);
+        }
+      }
+      if (count < MIN_SAMPLES || (count != MIN_SAMPLES && count % ESTIMATE_INTERVAL != 0)) {
+        return -1;
+      }
+      return valueAt(percentile);
+    }
+
+    long valueAt(double percentile) {
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        total += counts.get(i);
+      }
+      long rank = (long) Math.ceil(total * percentile);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts.get(i);
+        if (seen >= rank && seen > 0) {
+          return upperBound(i);
+        }
+      }
+      return upperBound(BUCKETS - 1);
+    }
+
+    static int index(long millis) {
+      if (millis < 4) {
+        return (int) Math.max(millis, 0);
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(millis);
+      if (exponent > 30) {
+        return BUCKETS - 1;
+      }
+      int subBucket = (int) (millis >> (exponent - 2)) & 3;
+      return (exponent - 1) * 4 + subBucket;
+    }
+
+    static long upperBound(int index) {
+      if (index < 4) {
+        return index;
+      }
+      int exponent = index / 4 + 1;
+      int subBucket = index % 4;
+      return ((4L + subBucket + 1) << (exponent - 2)) - 1;
+    }
+  }
+
+  public static final class Builder {
+
+    private double percentile = 0.95;
+    private long minDelayMillis = 5;
+    private long maxDelayMillis = 1000;
+    private Set<HttpMethod> idempotentMethods = EnumSet.of(HttpMethod.GET);
+    private RetryBudget budget;
+
+    private Builder() {}
+
+    /**
+     * Always waits {@code delay} before sending a hedge.
+     */
+    public Builder fixedDelay(long delay, TimeUnit unit) {
+      checkArgument(delay >= 0, "delay must not be negative, was %s", delay);
+      this.minDelayMillis = this.maxDelayMillis = unit.toMillis(delay);
+      return this;
+    }
+
+    /**
+     * Waits until a call is slower than {@code percentile} of recent calls to the same method,
+     * bounded by {@code minDelay} and {@code maxDelay}. {@code maxDelay} is used until enough
+     * calls were made to estimate the percentile.
+     *
+     * @param percentile between 0 and 1, for example {@code 0.95}.
+     */
+    public Builder percentileDelay(double percentile, long minDelay, long maxDelay,
+                                   TimeUnit unit) {
+      checkArgument(percentile > 0 && percentile < 1,
+          "percentile must be between 0 and 1, was %s", percentile);
+      checkArgument(minDelay >= 0 && minDelay < maxDelay,
+          "minDelay must be between 0 and maxDelay, was %s", minDelay);
+      this.percentile = percentile;
+      this.minDelayMillis = unit.toMillis(minDelay);
+      this.maxDelayMillis = unit.toMillis(maxDelay);
+      return this;
+    }
+
+    /**
+     * HTTP methods hedged unless the method is annotated with {@link Idempotent}.
+     */
+    public Builder idempotentMethods(HttpMethod... methods) {
+      this.idempotentMethods = methods.length == 0
+          ? EnumSet.noneOf(HttpMethod.class)
+          : EnumSet.copyOf(Arrays.asList(methods));
+      return this;
+    }
+
+    /**
+     * Limits the extra load generated by hedges, {@code RetryBudget.create("hedging")} by default.
+     */
+    public Builder budget(RetryBudget budget) {
+      this.budget = checkNotNull(budget, "budget");
+      return this;
+    }
+
+    public HedgingPolicy build() {
+      return new HedgingPolicy(this);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks whether a method is safe to send more than once, overriding the HTTP methods that
+ * {@link HedgingPolicy} considers idempotent. <br>
+ *
+ * <pre>
+ * &#64;Idempotent
+ * &#64;RequestLine("PUT /repos/{owner}/{repo}/subscription")
+ * void watch(&#64;Param("owner") String owner, &#64;Param("repo") String repo);
+ *
+ * &#64;Idempotent(false)
+ * &#64;RequestLine("GET /tokens/next")
+ * String nextToken();
+ * </pre>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Idempotent {
+
+  boolean value() default true;
+}
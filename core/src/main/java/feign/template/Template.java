@@ -38,6 +38,7 @@ public class Template {
   private final boolean encodeSlash;
   private final Charset charset;
   private final List<TemplateChunk> templateChunks = new ArrayList<>();
+  private String value;
 
   /**
    * Create a new Template.
@@ -131,7 +132,7 @@ public class Template {
       if (expanded != null) {
         if (!this.encodeSlash) {
           logger.fine("Explicit slash decoding specified, decoding all slashes in uri");
-          expanded = expanded.replaceAll("%2F", "/");
+          expanded = UriUtils.decodeSlash(expanded);
         }
         resolved = expanded;
       }
@@ -229,8 +230,16 @@ public class Template {
 
   @Override
   public String toString() {
-    return this.templateChunks.stream()
-        .map(TemplateChunk::getValue).collect(Collectors.joining());
+    /* chunks never change once constructed, racing threads at worst join them twice */
+    String result = this.value;
+    if (result == null) {
+      StringBuilder joined = new StringBuilder();
+      for (TemplateChunk chunk : this.templateChunks) {
+        joined.append(chunk.getValue());
+      }
+      this.value = result = joined.toString();
+    }
+    return result;
   }
 
   public boolean encodeLiteral() {
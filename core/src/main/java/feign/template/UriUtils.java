@@ -14,17 +14,33 @@
 package feign.template;
 
 import feign.Util;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Pct-encoding for uri templates, following
+ * <a href="https://tools.ietf.org/html/rfc3986#section-2">RFC 3986 section 2</a>.
+ *
+ * <p>
+ * Values are scanned once, classifying ASCII characters with lookup tables. Values that need no
+ * escaping are returned as-is, and only runs of non-ASCII characters are converted to bytes with
+ * the charset. The encoded result only contains ASCII characters.
+ */
 public class UriUtils {
 
-  private static final Pattern PCT_ENCODED_PATTERN = Pattern.compile("%[0-9A-Fa-f][0-9A-Fa-f]");
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /* ASCII character classes, indexed by character */
+  private static final boolean[] UNRESERVED = new boolean[128];
+  private static final boolean[] RESERVED = new boolean[128];
+
+  static {
+    for (char c = 0; c < 128; c++) {
+      UNRESERVED[c] = isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_' || c == '~';
+      RESERVED[c] = isGenericDelimiter(c) || isSubDelimiter(c);
+    }
+  }
 
   /**
    * Determines if the value is already pct-encoded.
@@ -33,13 +49,16 @@ public class UriUtils {
    * @return {@literal true} if the value is already pct-encoded
    */
   public static boolean isEncoded(String value, Charset charset) {
-    for (byte b : value.getBytes(charset)) {
-      if (!isUnreserved((char) b) && b != '%') {
-        /* break if there are any unreserved character */
+    boolean pctEncoded = false;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c != '%' && !isUnreserved(c)) {
+        /* break if there are any reserved or non-ascii characters */
         return false;
       }
+      pctEncoded = pctEncoded || isPctEncoded(value, i);
     }
-    return PCT_ENCODED_PATTERN.matcher(value).find();
+    return pctEncoded;
   }
 
   /**
@@ -111,34 +130,9 @@ public class UriUtils {
   public static String encodeInternal(String value,
                                       Charset charset,
                                       boolean allowReservedCharacters) {
-    /* value is encoded, we need to split it up and skip the parts that are already encoded */
-    Matcher matcher = PCT_ENCODED_PATTERN.matcher(value);
-
-    if (!matcher.find()) {
-      return encodeChunk(value, charset, true);
-    }
-
-    int length = value.length();
-    StringBuilder encoded = new StringBuilder(length + 8);
-    int index = 0;
-    do {
-      /* split out the value before the encoded value */
-      String before = value.substring(index, matcher.start());
-
-      /* encode it */
-      encoded.append(encodeChunk(before, charset, allowReservedCharacters));
-
-      /* append the encoded value */
-      encoded.append(matcher.group());
-
-      /* update the string search index */
-      index = matcher.end();
-    } while (matcher.find());
-
-    /* append the rest of the string */
-    String tail = value.substring(index, length);
-    encoded.append(encodeChunk(tail, charset, allowReservedCharacters));
-    return encoded.toString();
+    /* reserved characters are only encoded when part of the value is already encoded */
+    boolean allowReserved = allowReservedCharacters || indexOfPctEncoded(value) == -1;
+    return encode(value, charset, allowReserved, true);
   }
 
   /**
@@ -152,40 +146,125 @@ public class UriUtils {
     if (isEncoded(value, charset)) {
       return value;
     }
+    return encode(value, charset, allowReserved, false);
+  }
+
+  /**
+   * Encodes {@code value} in a single pass.
+   *
+   * @param value to encode.
+   * @param charset of non-ascii characters.
+   * @param allowReserved if reserved characters are copied as-is.
+   * @param skipPctEncoded if pct-encoded triplets are copied as-is.
+   * @return {@code value} when nothing needed to be encoded, or the encoded value.
+   */
+  private static String encode(String value, Charset charset, boolean allowReserved,
+                               boolean skipPctEncoded) {
+    int length = value.length();
+    int index = 0;
+    /* fast path, most values need no encoding at all */
+    while (index < length
+        && (isAllowed(value.charAt(index), allowReserved)
+            || skipPctEncoded && isPctEncoded(value, index))) {
+      index += value.charAt(index) == '%' ? 3 : 1;
+    }
+    if (index == length) {
+      return value;
+    }
 
-    byte[] data = value.getBytes(charset);
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-      for (byte b : data) {
-        if (isUnreserved((char) b)) {
-          bos.write(b);
-        } else if (isReserved((char) b) && allowReserved) {
-          bos.write(b);
+    StringBuilder encoded = new StringBuilder(length + 16);
+    encoded.append(value, 0, index);
+    while (index < length) {
+      char c = value.charAt(index);
+      if (c >= 128) {
+        /* convert the whole run of non-ascii characters at once, keeping surrogate pairs intact */
+        int end = index + 1;
+        while (end < length && value.charAt(end) >= 128) {
+          end++;
+        }
+        for (byte b : value.substring(index, end).getBytes(charset)) {
+          if (isAllowed((char) (b & 0xFF), allowReserved)) {
+            /* charsets may replace unmappable characters with ascii ones, such as '?' */
+            encoded.append((char) b);
+          } else {
+            pctEncode(b, encoded);
+          }
+        }
+        index = end;
+      } else if (skipPctEncoded && isPctEncoded(value, index)) {
+        encoded.append(value, index, index + 3);
+        index += 3;
+      } else {
+        if (isAllowed(c, allowReserved)) {
+          encoded.append(c);
         } else {
-          pctEncode(b, bos);
+          pctEncode((byte) c, encoded);
         }
+        index++;
       }
-      return new String(bos.toByteArray(), charset);
-    } catch (IOException ioe) {
-      throw new IllegalStateException("Error occurred during encoding of the uri: "
-          + ioe.getMessage(), ioe);
     }
+    return encoded.toString();
+  }
+
+  /**
+   * Replaces each pct-encoded slash, {@literal %2F}, in the value with a literal slash.
+   *
+   * @param value to decode.
+   * @return {@code value} when there are no encoded slashes, or the decoded value.
+   */
+  static String decodeSlash(String value) {
+    int index = value.indexOf("%2F");
+    if (index == -1) {
+      return value;
+    }
+    StringBuilder decoded = new StringBuilder(value.length());
+    int last = 0;
+    do {
+      decoded.append(value, last, index).append('/');
+      last = index + 3;
+      index = value.indexOf("%2F", last);
+    } while (index != -1);
+    return decoded.append(value, last, value.length()).toString();
   }
 
   /**
    * Percent Encode the provided byte.
    *
    * @param data to encode
-   * @param bos with the output stream to use.
+   * @param encoded to append to.
    */
-  private static void pctEncode(byte data, ByteArrayOutputStream bos) {
-    bos.write('%');
-    char hex1 = Character.toUpperCase(Character.forDigit((data >> 4) & 0xF, 16));
-    char hex2 = Character.toUpperCase(Character.forDigit(data & 0xF, 16));
-    bos.write(hex1);
-    bos.write(hex2);
+  private static void pctEncode(byte data, StringBuilder encoded) {
+    encoded.append('%')
+        .append(HEX_DIGITS[(data >> 4) & 0xF])
+        .append(HEX_DIGITS[data & 0xF]);
   }
 
+  private static boolean isAllowed(char c, boolean allowReserved) {
+    return c < 128 && (UNRESERVED[c] || allowReserved && RESERVED[c]);
+  }
 
+  /**
+   * Determines if a pct-encoded triplet, such as {@literal %2F}, starts at {@code index}.
+   */
+  private static boolean isPctEncoded(String value, int index) {
+    return value.charAt(index) == '%'
+        && index + 2 < value.length()
+        && isHexDigit(value.charAt(index + 1))
+        && isHexDigit(value.charAt(index + 2));
+  }
+
+  private static int indexOfPctEncoded(String value) {
+    for (int index = value.indexOf('%'); index != -1; index = value.indexOf('%', index + 1)) {
+      if (isPctEncoded(value, index)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isHexDigit(char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
 
   private static boolean isAlpha(int c) {
     return (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z');
@@ -206,11 +285,7 @@ public class UriUtils {
   }
 
   private static boolean isUnreserved(int c) {
-    return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_' || c == '~';
-  }
-
-  private static boolean isReserved(int c) {
-    return isGenericDelimiter(c) || isSubDelimiter(c);
+    return c >= 0 && c < 128 && UNRESERVED[c];
   }
 
   private boolean isPchar(int c) {
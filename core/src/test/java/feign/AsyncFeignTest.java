@@ -34,10 +34,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Rule;
 import org.junit.Test;
@@ -506,6 +509,141 @@ public class AsyncFeignTest {
     unwrap(cf);
   }
 
+  @Test
+  public void retriesRetryableErrorsOnScheduler() throws Throwable {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "1"));
+    server.enqueue(new MockResponse().setBody("success!"));
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+          .retryer(new AsyncRetryer.Default(1, 10, 3), scheduler)
+          .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+      assertEquals("success!", unwrap(api.post()));
+      assertEquals(2, server.getRequestCount());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  public void retriesIOExceptions() throws Throwable {
+    AtomicInteger attempts = new AtomicInteger();
+    TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+        .client((request, options, context) -> {
+          CompletableFuture<Response> result = new CompletableFuture<>();
+          if (attempts.incrementAndGet() < 3) {
+            result.completeExceptionally(new IOException("connection reset"));
+          } else {
+            result.complete(Response.builder()
+                .status(200)
+                .request(request)
+                .body("success!", UTF_8)
+                .build());
+          }
+          return result;
+        })
+        .retryer(new AsyncRetryer.Default(1, 10, 3))
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    assertEquals("success!", unwrap(api.post()));
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void appliesInterceptorsToEachRetryOnRetryExecutor() throws Throwable {
+    List<String> attempts = new ArrayList<>();
+    List<String> threads = new ArrayList<>();
+    AtomicInteger signatures = new AtomicInteger();
+    ScheduledExecutorService retryScheduler = Executors.newScheduledThreadPool(1);
+    ExecutorService retryExecutor =
+        Executors.newSingleThreadExecutor(r -> new Thread(r, "test-retry-executor"));
+    try {
+      TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+          .requestInterceptor(template -> template.removeHeader("X-Attempt")
+              .header("X-Attempt", String.valueOf(signatures.incrementAndGet())))
+          .client((request, options, context) -> {
+            CompletableFuture<Response> result = new CompletableFuture<>();
+            synchronized (attempts) {
+              attempts.add(request.headers().get("X-Attempt").iterator().next());
+              threads.add(Thread.currentThread().getName());
+            }
+            if (attempts.size() < 3) {
+              result.completeExceptionally(new IOException("connection reset"));
+            } else {
+              result.complete(Response.builder()
+                  .status(200)
+                  .request(request)
+                  .body("success!", UTF_8)
+                  .build());
+            }
+            return result;
+          })
+          .retryer(new AsyncRetryer.Default(1, 10, 3), retryScheduler, retryExecutor)
+          .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+      assertEquals("success!", unwrap(api.post()));
+      assertThat(attempts).containsExactly("1", "2", "3");
+      assertThat(threads.subList(1, 3)).containsOnly("test-retry-executor");
+    } finally {
+      retryScheduler.shutdown();
+      retryExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void propagatesErrorWhenRetriesAreExhausted() throws Throwable {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "1"));
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "1"));
+    thrown.expect(RetryableException.class);
+
+    TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+        .retryer(new AsyncRetryer.Default(1, 10, 2))
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    try {
+      unwrap(api.post());
+    } finally {
+      assertEquals(2, server.getRequestCount());
+    }
+  }
+
+  @Test
+  public void doesNotRetryByDefault() throws Throwable {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "1"));
+    thrown.expect(RetryableException.class);
+
+    TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    try {
+      unwrap(api.post());
+    } finally {
+      assertEquals(1, server.getRequestCount());
+    }
+  }
+
+  @Test
+  public void logsRequestAndResponseWithConfiguredLogger() throws Throwable {
+    server.enqueue(new MockResponse().setBody("foo"));
+    List<String> messages = new CopyOnWriteArrayList<>();
+
+    TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+        .logger(new Logger() {
+          @Override
+          protected void log(String configKey, String format, Object... args) {
+            messages.add(String.format(format, args));
+          }
+        })
+        .logLevel(Logger.Level.BASIC)
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    assertEquals("foo", unwrap(api.post()));
+    assertThat(messages).hasSize(2);
+    assertThat(messages.get(0)).startsWith("---> POST http://localhost:");
+    assertThat(messages.get(1)).startsWith("<--- HTTP/1.1 200 OK");
+  }
+
   @Test
   public void throwsFeignExceptionIncludingBody() throws Throwable {
     server.enqueue(new MockResponse().setBody("success!"));
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import feign.BudgetedRetryer.Jitter;
+import java.util.Collections;
+import java.util.Date;
+import org.junit.Test;
+
+public class BudgetedRetryerTest {
+
+  private final static Request REQUEST = Request
+      .create(Request.HttpMethod.GET, "/", Collections.emptyMap(), null, Util.UTF_8, null);
+  private final static RetryableException ERROR =
+      new RetryableException(-1, null, null, null, REQUEST);
+
+  @Test
+  public void budgetLimitsRetriesToRatioOfCalls() {
+    RetryBudget budget = new RetryBudget("api", 0.1, 2);
+    BudgetedRetryer prototype = new BudgetedRetryer(0, 0, 5, Jitter.NONE, budget);
+
+    // the initial balance allows a burst of two retries
+    assertThat(prototype.clone().nextDelayMillis(ERROR)).isZero();
+    assertThat(prototype.clone().nextDelayMillis(ERROR)).isZero();
+    assertThatThrownBy(() -> prototype.clone().nextDelayMillis(ERROR)).isSameAs(ERROR);
+    assertThat(budget.exhausted()).isEqualTo(1);
+
+    // the fraction left after three calls needs eight more to add up to a retry
+    for (int i = 0; i < 6; i++) {
+      prototype.clone();
+    }
+    assertThatThrownBy(() -> prototype.clone().nextDelayMillis(ERROR)).isSameAs(ERROR);
+    assertThat(prototype.clone().nextDelayMillis(ERROR)).isZero();
+
+    assertThat(budget.retries()).isEqualTo(3);
+    assertThat(budget.exhausted()).isEqualTo(2);
+  }
+
+  @Test
+  public void balanceIsCapped() {
+    RetryBudget budget = new RetryBudget("api", 0.5, 1);
+    for (int i = 0; i < 10; i++) {
+      budget.deposit();
+    }
+    assertThat(budget.balance()).isEqualTo(1.0);
+
+    assertThat(budget.tryWithdraw()).isTrue();
+    assertThat(budget.tryWithdraw()).isFalse();
+    assertThat(budget.balance()).isZero();
+  }
+
+  @Test
+  public void attemptsBeyondMaxAttemptsDoNotSpendBudget() {
+    RetryBudget budget = RetryBudget.create("api");
+    BudgetedRetryer retryer = new BudgetedRetryer(0, 0, 2, Jitter.NONE, budget).clone();
+
+    retryer.nextDelayMillis(ERROR);
+    assertThatThrownBy(() -> retryer.nextDelayMillis(ERROR)).isSameAs(ERROR);
+
+    assertThat(budget.retries()).isEqualTo(1);
+    assertThat(budget.exhausted()).isZero();
+  }
+
+  @Test
+  public void fullJitterStaysWithinBackoff() {
+    RetryBudget budget = new RetryBudget("api", 1, 100);
+    for (int i = 0; i < 20; i++) {
+      BudgetedRetryer retryer = new BudgetedRetryer(100, 1000, 5, Jitter.FULL, budget).clone();
+      assertThat(retryer.nextDelayMillis(ERROR)).isBetween(0L, 150L);
+      assertThat(retryer.nextDelayMillis(ERROR)).isBetween(0L, 225L);
+    }
+  }
+
+  @Test
+  public void decorrelatedJitterStaysWithinPeriods() {
+    RetryBudget budget = new RetryBudget("api", 1, 100);
+    for (int i = 0; i < 20; i++) {
+      BudgetedRetryer retryer =
+          new BudgetedRetryer(100, 1000, 5, Jitter.DECORRELATED, budget).clone();
+      long previous = 100;
+      for (int attempt = 1; attempt < 5; attempt++) {
+        long delay = retryer.nextDelayMillis(ERROR);
+        assertThat(delay).isBetween(100L, Math.min(previous * 3, 1000));
+        previous = delay;
+      }
+    }
+  }
+
+  @Test
+  public void considersRetryAfterWithoutJitter() {
+    BudgetedRetryer retryer =
+        new BudgetedRetryer(100, 1000, 5, Jitter.FULL, RetryBudget.create("api")) {
+          @Override
+          protected long currentTimeMillis() {
+            return 0;
+          }
+        };
+
+    assertThat(retryer.nextDelayMillis(
+        new RetryableException(-1, null, null, new Date(500), REQUEST))).isEqualTo(500);
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+  private final BufferPool pool = new BufferPool(1, 64 * 1024);
+
+  @Test
+  public void reusesScratchArrays() throws IOException {
+    byte[] data = bytes(20_000);
+
+    assertThat(pool.toByteArray(new ByteArrayInputStream(data), null)).isEqualTo(data);
+    assertThat(pool.toByteArray(new ByteArrayInputStream(data), null)).isEqualTo(data);
+
+    assertThat(pool.misses()).isEqualTo(1);
+    assertThat(pool.hits()).isEqualTo(1);
+  }
+
+  @Test
+  public void knownLengthsNeedNoScratchArrays() throws IOException {
+    byte[] data = bytes(20_000);
+
+    assertThat(pool.toByteArray(new ByteArrayInputStream(data), data.length)).isEqualTo(data);
+
+    assertThat(pool.misses()).isZero();
+    assertThat(pool.hits()).isZero();
+  }
+
+  @Test
+  public void toleratesWrongLengths() throws IOException {
+    byte[] data = bytes(20_000);
+
+    assertThat(pool.toByteArray(new ByteArrayInputStream(data), 100)).isEqualTo(data);
+    assertThat(pool.toByteArray(new ByteArrayInputStream(data), 30_000)).isEqualTo(data);
+  }
+
+  @Test
+  public void doesNotKeepLargeArrays() throws IOException {
+    byte[] data = bytes(100_000);
+
+    pool.toByteArray(new ByteArrayInputStream(data), null);
+    pool.toByteArray(new ByteArrayInputStream(data), null);
+
+    assertThat(pool.misses()).isEqualTo(2);
+  }
+
+  @Test
+  public void closesStreams() throws IOException {
+    AtomicBoolean closed = new AtomicBoolean();
+    InputStream in = new ByteArrayInputStream(bytes(10)) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+
+    pool.toByteArray(in, 10);
+
+    assertThat(closed).isTrue();
+  }
+
+  private static byte[] bytes(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ClientCacheTest {
+
+  private final List<String> evicted = new ArrayList<>();
+  private final AtomicInteger built = new AtomicInteger();
+
+  @Test
+  public void reusesClientsByKey() {
+    ClientCache<Integer, String> cache = new ClientCache<>(2, evicted::add);
+
+    assertThat(cache.get(1, this::build)).isEqualTo("client-1");
+    assertThat(cache.get(1, this::build)).isEqualTo("client-1");
+
+    assertThat(built).hasValue(1);
+  }
+
+  @Test
+  public void evictsToStayBounded() {
+    ClientCache<Integer, String> cache = new ClientCache<>(2, evicted::add);
+
+    for (int i = 0; i < 10; i++) {
+      cache.get(i, this::build);
+    }
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(evicted).hasSize(8).doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    ClientCache<Integer, String> cache = new ClientCache<>(2, evicted::add);
+    cache.get(1, this::build);
+    cache.get(2, this::build);
+
+    for (int i = 3; i < 10; i++) {
+      // 1 stays in use, so only the others are evicted
+      cache.get(1, this::build);
+      cache.get(i, this::build);
+    }
+
+    assertThat(evicted).doesNotContain("client-1").hasSize(7);
+    assertThat(built).hasValue(9);
+  }
+
+  @Test
+  public void clearEvictsEveryClient() {
+    ClientCache<Integer, String> cache = new ClientCache<>(2, evicted::add);
+    cache.get(1, this::build);
+    cache.get(2, this::build);
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+    assertThat(evicted).containsExactlyInAnyOrder("client-1", "client-2");
+  }
+
+  private String build(Integer key) {
+    built.incrementAndGet();
+    return "client-" + key;
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import feign.InvocationHandlerFactory.MethodHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class DispatchTableTest {
+
+  interface Api {
+
+    String first();
+
+    String second(String arg);
+
+    String second(int arg);
+  }
+
+  private static Map<Method, MethodHandler> dispatchFor(Class<?> type) {
+    Map<Method, MethodHandler> dispatch = new LinkedHashMap<>();
+    for (Method method : type.getMethods()) {
+      dispatch.put(method, args -> method.toString());
+    }
+    return dispatch;
+  }
+
+  @Test
+  public void assignsSlotsInDispatchOrder() throws Exception {
+    Map<Method, MethodHandler> dispatch = dispatchFor(Api.class);
+    DispatchTable table = DispatchTable.create(dispatch);
+
+    assertThat(table.size()).isEqualTo(3);
+    int slot = 0;
+    for (Map.Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+      assertThat(table.slot(entry.getKey())).isEqualTo(slot);
+      assertThat(table.method(slot)).isSameAs(entry.getKey());
+      assertThat(table.handler(slot)).isSameAs(entry.getValue());
+      slot++;
+    }
+  }
+
+  @Test
+  public void resolvesEqualMethodCopies() throws Throwable {
+    DispatchTable table = DispatchTable.create(dispatchFor(Api.class));
+
+    Method copy = Api.class.getMethod("second", int.class);
+    assertThat(table.get(copy).invoke(null)).isEqualTo(copy.toString());
+    // second lookup is served by the remembered alias
+    assertThat(table.get(copy).invoke(null)).isEqualTo(copy.toString());
+  }
+
+  @Test
+  public void objectMethodsResolveToReservedSlots() throws Exception {
+    DispatchTable table = DispatchTable.create(dispatchFor(Api.class));
+
+    assertThat(table.slot(Object.class.getMethod("equals", Object.class)))
+        .isEqualTo(DispatchTable.EQUALS);
+    assertThat(table.slot(Object.class.getMethod("hashCode")))
+        .isEqualTo(DispatchTable.HASH_CODE);
+    assertThat(table.slot(Object.class.getMethod("toString")))
+        .isEqualTo(DispatchTable.TO_STRING);
+  }
+
+  @Test
+  public void unknownMethodIsNotFound() throws Exception {
+    DispatchTable table = DispatchTable.create(dispatchFor(Api.class));
+
+    assertThat(table.slot(Runnable.class.getMethod("run"))).isEqualTo(DispatchTable.NOT_FOUND);
+    assertThat(table.get(Runnable.class.getMethod("run"))).isNull();
+  }
+
+  @Test
+  public void resolvesMethodsPassedByProxy() {
+    DispatchTable table = DispatchTable.create(dispatchFor(Api.class));
+    Api api = (Api) Proxy.newProxyInstance(Api.class.getClassLoader(), new Class<?>[] {Api.class},
+        (proxy, method, args) -> {
+          int slot = table.slot(method);
+          if (slot == DispatchTable.TO_STRING) {
+            return "proxy";
+          }
+          return table.handler(slot).invoke(args);
+        });
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(api.first()).contains("first()");
+      assertThat(api.second("a")).contains("second(java.lang.String)");
+      assertThat(api.second(1)).contains("second(int)");
+      assertThat(api.toString()).isEqualTo("proxy");
+    }
+  }
+}
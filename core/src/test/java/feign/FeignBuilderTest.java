@@ -28,6 +28,7 @@ import java.io.Reader;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,6 +36,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -454,6 +458,77 @@ public class FeignBuilderTest {
     assertTrue("Responses must be closed when the decoder fails", closed.get());
   }
 
+  @Test
+  public void testLazyMethodHandlers() throws Exception {
+    server.enqueue(new MockResponse().setBody("first"));
+    server.enqueue(new MockResponse().setBody("second"));
+    CountingExpander.created.set(0);
+
+    String url = "http://localhost:" + server.getPort();
+    LazyInterface api = Feign.builder().lazyMethodHandlers().target(LazyInterface.class, url);
+    assertThat(CountingExpander.created).hasValue(0);
+
+    assertThat(api.expanded("a")).isEqualTo("first");
+    assertThat(api.expanded("b")).isEqualTo("second");
+    assertThat(CountingExpander.created).hasValue(1);
+
+    assertThat(server.takeRequest()).hasPath("/a");
+    assertThat(server.takeRequest()).hasPath("/b");
+  }
+
+  @Test
+  public void testLazyMethodHandlerCreatesDelegateOnce() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    ReflectiveFeign.LazyMethodHandler handler = new ReflectiveFeign.LazyMethodHandler(() -> {
+      created.incrementAndGet();
+      return args -> args[0];
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        Object arg = i;
+        results.add(executor.submit(() -> {
+          try {
+            return handler.invoke(new Object[] {arg});
+          } catch (Throwable t) {
+            throw new AssertionError(t);
+          }
+        }));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(i, results.get(i).get(1, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(created).hasValue(1);
+  }
+
+  static class CountingExpander implements Param.Expander {
+
+    static final AtomicInteger created = new AtomicInteger();
+
+    CountingExpander() {
+      created.incrementAndGet();
+    }
+
+    @Override
+    public String expand(Object value) {
+      return String.valueOf(value);
+    }
+  }
+
+  interface LazyInterface {
+
+    @RequestLine("GET /{value}")
+    String expanded(@Param(value = "value", expander = CountingExpander.class) String value);
+
+    @RequestLine("GET /other/{value}")
+    String other(@Param(value = "value", expander = CountingExpander.class) String value);
+  }
+
   interface TestInterface {
     @RequestLine("GET")
     Response getNoPath();
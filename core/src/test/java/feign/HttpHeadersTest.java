@@ -0,0 +1,127 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class HttpHeadersTest {
+
+  @Test
+  public void namesAreCaseInsensitiveAndSorted() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("X-Trace", "1")
+        .add("Accept", "text/plain")
+        .add("accept", "application/json")
+        .add("Content-Type", "text/plain")
+        .build();
+
+    assertThat(headers.keySet()).containsExactly("Accept", "Content-Type", "X-Trace");
+    assertThat(headers.get("ACCEPT")).containsExactly("text/plain", "application/json");
+    assertThat(headers.get("content-type")).containsExactly("text/plain");
+    assertThat(headers.first("x-trace")).isEqualTo("1");
+    assertThat(headers.get("missing")).isNull();
+    assertThat(headers.first("missing")).isNull();
+  }
+
+  @Test
+  public void lowercaseNamesReuseCommonNames() {
+    HttpHeaders headers = HttpHeaders.builder(true)
+        .add("Content-Type", "text/plain")
+        .add("X-Custom", "value")
+        .build();
+
+    String name = headers.keySet().iterator().next();
+    assertThat(name).isSameAs(HttpHeaders.builder(true).add("CONTENT-TYPE", "a").build()
+        .keySet().iterator().next());
+    assertThat(headers.keySet()).containsExactly("content-type", "x-custom");
+  }
+
+  @Test
+  public void keepsEmptyAndNullValues() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("Empty", Collections.emptyList())
+        .add("Null", (String) null)
+        .build();
+
+    assertThat(headers.get("empty")).isEmpty();
+    assertThat(headers.get("null")).containsExactly((String) null);
+    assertThat(headers.first("null")).isNull();
+  }
+
+  @Test
+  public void isImmutable() {
+    HttpHeaders headers = HttpHeaders.builder().add("Accept", asList("a", "b")).build();
+
+    assertThatThrownBy(() -> headers.put("Other", asList("c")))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> headers.get("Accept").add("c"))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void copyOfMergesNamesThatDifferByCase() {
+    Map<String, Collection<String>> source = new LinkedHashMap<>();
+    source.put("Set-Cookie", asList("a=1"));
+    source.put("set-cookie", asList("b=2"));
+
+    HttpHeaders copy = HttpHeaders.copyOf(source, true);
+
+    assertThat(copy).hasSize(1);
+    assertThat(copy.get("Set-Cookie")).containsExactly("a=1", "b=2");
+    assertThat(HttpHeaders.copyOf(copy, true)).isSameAs(copy);
+    assertThat(HttpHeaders.copyOf(copy, false)).isNotSameAs(copy).isEqualTo(copy);
+  }
+
+  @Test
+  public void lazyHeadersLoadOnce() {
+    AtomicInteger loads = new AtomicInteger();
+    HttpHeaders headers = HttpHeaders.lazy(true, builder -> {
+      loads.incrementAndGet();
+      builder.add("Content-Length", "3");
+    });
+    assertThat(loads).hasValue(0);
+
+    assertThat(headers.get("content-length")).containsExactly("3");
+    assertThat(headers).containsOnlyKeys("content-length");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void responsesKeepLazyHeaders() {
+    AtomicInteger loads = new AtomicInteger();
+    HttpHeaders headers = HttpHeaders.lazy(true, builder -> {
+      loads.incrementAndGet();
+      builder.add("Content-Type", "text/plain; charset=UTF-8");
+    });
+
+    Response response = Response.builder()
+        .status(200)
+        .request(Request.create(Request.HttpMethod.GET, "/", Collections.emptyMap(), null,
+            Util.UTF_8, null))
+        .headers(headers)
+        .build();
+
+    assertThat(response.headers()).isSameAs(headers);
+    assertThat(loads).hasValue(0);
+    assertThat(response.charset()).isEqualTo(Util.UTF_8);
+  }
+}
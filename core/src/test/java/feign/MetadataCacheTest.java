@@ -0,0 +1,145 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.assertj.MockWebServerAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class MetadataCacheTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  interface Foo {
+
+    @RequestLine("GET /foo/{id}")
+    String get(@Param("id") String id);
+  }
+
+  interface Bar {
+
+    @RequestLine("POST /bar")
+    void post(String body);
+  }
+
+  interface Invalid {
+
+    String notAnnotated();
+  }
+
+  static class CountingContract implements Contract {
+
+    final Contract delegate = new Contract.Default();
+    final AtomicInteger parsed = new AtomicInteger();
+
+    @Override
+    public List<MethodMetadata> parseAndValidateMetadata(Class<?> targetType) {
+      parsed.incrementAndGet();
+      return delegate.parseAndValidateMetadata(targetType);
+    }
+  }
+
+  @Test
+  public void parsesOncePerContractAndType() {
+    MetadataCache cache = new MetadataCache();
+    CountingContract contract = new CountingContract();
+
+    List<MethodMetadata> first = cache.get(contract, Foo.class);
+    assertThat(cache.get(contract, Foo.class)).isSameAs(first);
+    assertThat(contract.parsed).hasValue(1);
+
+    cache.get(contract, Bar.class);
+    assertThat(contract.parsed).hasValue(2);
+
+    CountingContract other = new CountingContract();
+    assertThat(cache.get(other, Foo.class)).isNotSameAs(first);
+    assertThat(other.parsed).hasValue(1);
+    assertThat(cache.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void defaultContractsShareEntries() {
+    MetadataCache cache = new MetadataCache();
+
+    List<MethodMetadata> first = cache.get(new Contract.Default(), Foo.class);
+    assertThat(cache.get(new Contract.Default(), Foo.class)).isSameAs(first);
+    assertThat(cache.get(new Contract.Default() {}, Foo.class)).isNotSameAs(first);
+  }
+
+  @Test
+  public void cachedMetadataIsUnmodifiable() {
+    List<MethodMetadata> metadata = new MetadataCache().get(new Contract.Default(), Foo.class);
+
+    assertThatThrownBy(metadata::clear).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void failuresAreNotCached() {
+    MetadataCache cache = new MetadataCache();
+    CountingContract contract = new CountingContract();
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> cache.get(contract, Invalid.class))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("notAnnotated");
+    }
+    assertThat(contract.parsed).hasValue(2);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void preloadParsesInParallel() throws Exception {
+    MetadataCache cache = new MetadataCache();
+    CountingContract contract = new CountingContract();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      cache.preload(contract, executor, Foo.class, Bar.class, Foo.class)
+          .get(1, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(contract.parsed).hasValue(2);
+    cache.get(contract, Bar.class);
+    assertThat(contract.parsed).hasValue(2);
+  }
+
+  @Test
+  public void sharedAcrossBuilders() throws Exception {
+    server.enqueue(new MockResponse().setBody("one"));
+    server.enqueue(new MockResponse().setBody("two"));
+    MetadataCache cache = new MetadataCache();
+    CountingContract contract = new CountingContract();
+    String url = "http://localhost:" + server.getPort();
+
+    Foo one = Feign.builder().contract(contract).metadataCache(cache).target(Foo.class, url);
+    Foo two = Feign.builder().contract(contract).metadataCache(cache).target(Foo.class, url);
+
+    assertThat(one.get("1")).isEqualTo("one");
+    assertThat(two.get("2")).isEqualTo("two");
+    assertThat(contract.parsed).hasValue(1);
+    assertThat(server.takeRequest()).hasPath("/foo/1");
+    assertThat(server.takeRequest()).hasPath("/foo/2");
+  }
+}
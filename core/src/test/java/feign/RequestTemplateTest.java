@@ -320,6 +320,28 @@ public class RequestTemplateTest {
             entry("name", Collections.singletonList("denominator.io")));
   }
 
+  @Test
+  public void resolveAppendsQueriesToUriQuery() {
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/search?q={q}")
+        .query("page", "{page}")
+        .header("Accept", "{accept}");
+
+    RequestTemplate resolved = template.resolve(mapOf(
+        "q", "a b",
+        "page", 2,
+        "accept", "text/plain"));
+
+    assertThat(resolved)
+        .hasUrl("/search?q=a%20b&page=2")
+        .hasHeaders(entry("Accept", Collections.singletonList("text/plain")));
+    assertThat(template)
+        .hasQueries(
+            entry("q", Collections.singletonList("{q}")),
+            entry("page", Collections.singletonList("{page}")))
+        .hasHeaders(entry("Accept", Collections.singletonList("{accept}")));
+  }
+
   @Test
   public void allQueriesUnresolvable() {
     RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)//
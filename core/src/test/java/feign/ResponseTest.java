@@ -14,10 +14,13 @@
 package feign;
 
 import feign.Request.HttpMethod;
+import feign.codec.StringDecoder;
 import org.assertj.core.util.Lists;
 import org.junit.Test;
+import java.nio.ByteBuffer;
 import java.util.*;
 import static feign.assertj.FeignAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SuppressWarnings("deprecation")
 public class ResponseTest {
@@ -105,4 +108,41 @@ public class ResponseTest {
       assertThat(response.status()).isEqualTo(statusCode);
     });
   }
+
+  @Test
+  public void byteBufferBodiesAreBufferedAndReleasedOnce() throws Exception {
+    List<ByteBuffer> released = new ArrayList<>();
+    ByteBuffer data = ByteBuffer.allocateDirect(16);
+    data.put("hello".getBytes(Util.UTF_8)).flip();
+    Response response = Response.builder()
+        .status(200)
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(), null, Util.UTF_8))
+        .body(data, released::add)
+        .build();
+
+    Response.BufferedBody body = (Response.BufferedBody) response.body();
+    assertThat(body.length()).isEqualTo(5);
+    assertThat(body.isRepeatable()).isTrue();
+    assertThat(body.asByteBuffer().isReadOnly()).isTrue();
+    assertThat(Util.toString(body.asReader(Util.UTF_8))).isEqualTo("hello");
+    assertThat(Util.toByteArray(body)).isEqualTo("hello".getBytes(Util.UTF_8));
+    assertThat(new StringDecoder().decode(response, String.class)).isEqualTo("hello");
+
+    response.close();
+    response.close();
+    assertThat(released).containsExactly(data);
+    assertThatThrownBy(body::asByteBuffer).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void byteArrayBodiesAreBuffered() {
+    Response response = Response.builder()
+        .status(200)
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(), null, Util.UTF_8))
+        .body("hello", Util.UTF_8)
+        .build();
+
+    assertThat(response.body()).isInstanceOf(Response.BufferedBody.class);
+    assertThat(((Response.BufferedBody) response.body()).asByteBuffer().remaining()).isEqualTo(5);
+  }
 }
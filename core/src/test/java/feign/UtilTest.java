@@ -22,6 +22,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import feign.codec.Decoder;
+import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.Arrays;
@@ -33,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -309,4 +311,18 @@ public class UtilTest {
   static class ParameterizedSubtype implements Parameterized<String> {
 
   }
+
+  @Test
+  public void unwrapExecutionException() {
+    IOException io = new IOException("reset");
+    assertThat(Util.unwrapExecutionException(new ExecutionException(io))).isSameAs(io);
+
+    IllegalStateException unchecked = new IllegalStateException();
+    assertThatThrownBy(() -> Util.unwrapExecutionException(new ExecutionException(unchecked)))
+        .isSameAs(unchecked);
+
+    Exception checked = new Exception();
+    assertThat(Util.unwrapExecutionException(new ExecutionException(checked)))
+        .hasCause(checked);
+  }
 }
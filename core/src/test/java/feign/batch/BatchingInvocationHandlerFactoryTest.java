@@ -0,0 +1,247 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import feign.AsyncFeign;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Param;
+import feign.RequestLine;
+import feign.Target;
+import feign.Util;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class BatchingInvocationHandlerFactoryTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public interface Users {
+
+    @Batch(value = "getAll", windowMillis = 100)
+    @RequestLine("GET /users/{id}")
+    String get(@Param("id") String id);
+
+    @RequestLine("POST /users:batchGet")
+    List<String> getAll(List<String> ids);
+  }
+
+  public interface AsyncUsers {
+
+    @Batch(value = "getAll", windowMillis = 100)
+    @RequestLine("GET /users/{id}")
+    CompletableFuture<String> get(@Param("id") String id);
+
+    @RequestLine("POST /users:batchGet")
+    CompletableFuture<List<String>> getAll(List<String> ids);
+  }
+
+  @Test
+  public void sendsConcurrentCallsAsOneBulkRequest() throws Exception {
+    // the ids are in the order the calls arrived, which threads don't guarantee
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        String ids = request.getBody().clone().readUtf8();
+        return new MockResponse().setBody(Arrays.stream(ids.split(","))
+            .map(id -> "user " + id)
+            .collect(Collectors.joining(",")));
+      }
+    });
+    Users users = Feign.builder()
+        .addCapability(new BatchingCapability())
+        .encoder(LIST_ENCODER)
+        .decoder(LIST_DECODER)
+        .target(Users.class, "http://localhost:" + server.getPort());
+
+    Future<String> a = executor.submit(() -> users.get("a"));
+    Future<String> b = executor.submit(() -> users.get("b"));
+    Future<String> again = executor.submit(() -> users.get("a"));
+
+    assertThat(a.get()).isEqualTo("user a");
+    assertThat(b.get()).isEqualTo("user b");
+    assertThat(again.get()).isEqualTo("user a");
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getPath()).isEqualTo("/users:batchGet");
+    assertThat(request.getBody().readUtf8()).isIn("a,b", "b,a");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void sendsLoneCallToMethodItself() throws Exception {
+    server.enqueue(new MockResponse().setBody("user a"));
+    AsyncUsers users = AsyncFeign.<Void>asyncBuilder()
+        .invocationHandlerFactory(new BatchingInvocationHandlerFactory())
+        .encoder(LIST_ENCODER)
+        .decoder(LIST_DECODER)
+        .target(AsyncUsers.class, "http://localhost:" + server.getPort());
+
+    assertThat(users.get("a").get()).isEqualTo("user a");
+    assertThat(server.takeRequest().getPath()).isEqualTo("/users/a");
+  }
+
+  @Test
+  public void splitsAsyncBulkResponse() throws Exception {
+    server.enqueue(new MockResponse().setBody("user a,user b"));
+    AsyncUsers users = AsyncFeign.<Void>asyncBuilder()
+        .invocationHandlerFactory(new BatchingInvocationHandlerFactory())
+        .encoder(LIST_ENCODER)
+        .decoder(LIST_DECODER)
+        .target(AsyncUsers.class, "http://localhost:" + server.getPort());
+
+    CompletableFuture<String> a = users.get("a");
+    CompletableFuture<String> b = users.get("b");
+
+    assertThat(a.get()).isEqualTo("user a");
+    assertThat(b.get()).isEqualTo("user b");
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("a,b");
+  }
+
+  public interface Stub {
+
+    @Batch(value = "getAll", maxSize = 2, windowMillis = 3_600_000)
+    CompletableFuture<String> get(String id);
+
+    CompletableFuture<Object> getAll(List<String> ids);
+  }
+
+  @Test
+  public void sendsFullWindowAtOnce() throws Throwable {
+    StubHandler bulk = new StubHandler(ids -> ids.stream()
+        .collect(Collectors.toMap(id -> id, id -> "user " + id)));
+    InvocationHandler handler = stub(bulk);
+
+    CompletableFuture<?> a = (CompletableFuture<?>) handler.invoke(null, GET, new Object[] {"a"});
+    CompletableFuture<?> b = (CompletableFuture<?>) handler.invoke(null, GET, new Object[] {"b"});
+
+    assertThat(a.get(5, TimeUnit.SECONDS)).isEqualTo("user a");
+    assertThat(b.get(5, TimeUnit.SECONDS)).isEqualTo("user b");
+    assertThat(bulk.calls).containsExactly(Arrays.asList("a", "b"));
+  }
+
+  @Test
+  public void failsCallsWhenResultsDoNotMatch() throws Throwable {
+    InvocationHandler handler = stub(new StubHandler(ids -> Arrays.asList("user a")));
+
+    CompletableFuture<?> a = (CompletableFuture<?>) handler.invoke(null, GET, new Object[] {"a"});
+    CompletableFuture<?> b = (CompletableFuture<?>) handler.invoke(null, GET, new Object[] {"b"});
+
+    for (CompletableFuture<?> future : Arrays.asList(a, b)) {
+      assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("List of 2 results, but returned 1 results");
+    }
+  }
+
+  public interface MissingBulkMethod {
+
+    @Batch("getAll")
+    String get(String id);
+  }
+
+  @Test
+  public void requiresBulkMethod() throws Exception {
+    Method get = MissingBulkMethod.class.getMethod("get", String.class);
+    Map<Method, MethodHandler> dispatch = new HashMap<>();
+    dispatch.put(get, argv -> null);
+
+    assertThatThrownBy(() -> new BatchingInvocationHandlerFactory().create(
+        new Target.HardCodedTarget<>(MissingBulkMethod.class, "http://localhost"), dispatch))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Bulk method getAll of get must take a List of arguments");
+  }
+
+  private static final Method GET;
+
+  static {
+    try {
+      GET = Stub.class.getMethod("get", String.class);
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static InvocationHandler stub(StubHandler bulk) throws Exception {
+    Map<Method, MethodHandler> dispatch = new LinkedHashMap<>();
+    dispatch.put(GET, argv -> CompletableFuture.completedFuture("single " + argv[0]));
+    dispatch.put(Stub.class.getMethod("getAll", List.class), bulk);
+    return new BatchingInvocationHandlerFactory(new InvocationHandlerFactory.Default())
+        .create(new Target.HardCodedTarget<>(Stub.class, "http://localhost"), dispatch);
+  }
+
+  interface BulkFunction {
+
+    Object apply(List<String> ids);
+  }
+
+  static class StubHandler implements MethodHandler {
+
+    final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    private final BulkFunction function;
+
+    StubHandler(BulkFunction function) {
+      this.function = function;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object[] argv) {
+      List<String> ids = (List<String>) argv[0];
+      calls.add(ids);
+      return CompletableFuture.completedFuture(function.apply(ids));
+    }
+  }
+
+  private static final Encoder LIST_ENCODER = (object, bodyType, template) -> template
+      .body(String.join(",", (List<String>) object));
+
+  private static final Decoder LIST_DECODER = (response, type) -> {
+    String body = Util.toString(response.body().asReader(Util.UTF_8));
+    return type == String.class ? body : Arrays.asList(body.split(","));
+  };
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class CachingClientTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+  private final List<Runnable> revalidations = new ArrayList<>();
+  private final MemoryResponseCache cache = new MemoryResponseCache(1024 * 1024);
+  private final CachingClient client = new CachingClient(new Client.Default(null, null), cache,
+      revalidations::add, clock::get);
+
+  @Test
+  public void returnsFreshResponsesWithoutSendingRequests() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1").addHeader("Cache-Control", "max-age=60"));
+
+    assertThat(body(get())).isEqualTo("v1");
+    clock.addAndGet(TimeUnit.SECONDS.toMillis(59));
+    assertThat(body(get())).isEqualTo("v1");
+
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void revalidatesStaleResponsesWithETag() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1")
+        .addHeader("Cache-Control", "max-age=10")
+        .addHeader("ETag", "\"1\""));
+    server.enqueue(new MockResponse().setResponseCode(304)
+        .addHeader("Cache-Control", "max-age=20"));
+
+    assertThat(body(get())).isEqualTo("v1");
+    clock.addAndGet(TimeUnit.SECONDS.toMillis(11));
+    Response revalidated = get();
+    assertThat(revalidated.status()).isEqualTo(200);
+    assertThat(body(revalidated)).isEqualTo("v1");
+
+    server.takeRequest();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"1\"");
+    // fresh again, for the lifetime sent with the 304
+    clock.addAndGet(TimeUnit.SECONDS.toMillis(19));
+    assertThat(body(get())).isEqualTo("v1");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void revalidatesWithLastModifiedAndStoresNewResponse() throws Exception {
+    String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+    server.enqueue(new MockResponse().setBody("v1").addHeader("Last-Modified", lastModified));
+    server.enqueue(new MockResponse().setBody("v2").addHeader("Cache-Control", "max-age=60"));
+
+    assertThat(body(get())).isEqualTo("v1");
+    assertThat(body(get())).isEqualTo("v2");
+    assertThat(body(get())).isEqualTo("v2");
+
+    server.takeRequest();
+    assertThat(server.takeRequest().getHeader("If-Modified-Since")).isEqualTo(lastModified);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void returnsStaleResponseWhileRevalidating() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1")
+        .addHeader("Cache-Control", "max-age=1, stale-while-revalidate=60"));
+    server.enqueue(new MockResponse().setBody("v2").addHeader("Cache-Control", "max-age=60"));
+
+    get().close();
+    clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+    assertThat(body(get())).isEqualTo("v1");
+    assertThat(body(get())).isEqualTo("v1");
+
+    assertThat(revalidations).hasSize(1);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    revalidations.get(0).run();
+    assertThat(body(get())).isEqualTo("v2");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void returnsStaleResponseOnServerError() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1")
+        .addHeader("Cache-Control", "max-age=1, stale-if-error=60"));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    get().close();
+    clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+    Response response = get();
+
+    assertThat(response.status()).isEqualTo(200);
+    assertThat(body(response)).isEqualTo("v1");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void mustRevalidateForbidsStaleResponses() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1")
+        .addHeader("Cache-Control", "max-age=1, stale-if-error=60, must-revalidate"));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    get().close();
+    clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+
+    assertThat(get().status()).isEqualTo(503);
+  }
+
+  @Test
+  public void doesNotStoreNoStoreResponses() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1").addHeader("Cache-Control", "no-store"));
+    server.enqueue(new MockResponse().setBody("v2").addHeader("Cache-Control", "no-store"));
+
+    assertThat(body(get())).isEqualTo("v1");
+    assertThat(body(get())).isEqualTo("v2");
+    assertThat(cache.bytes()).isZero();
+  }
+
+  @Test
+  public void matchesVaryingHeaders() throws Exception {
+    server.enqueue(new MockResponse().setBody("json")
+        .addHeader("Cache-Control", "max-age=60")
+        .addHeader("Vary", "Accept"));
+    server.enqueue(new MockResponse().setBody("text")
+        .addHeader("Cache-Control", "max-age=60")
+        .addHeader("Vary", "Accept"));
+
+    assertThat(body(get("Accept", "application/json"))).isEqualTo("json");
+    assertThat(body(get("Accept", "application/json"))).isEqualTo("json");
+    assertThat(body(get("Accept", "text/plain"))).isEqualTo("text");
+
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void keepsResponsesToOtherCredentialsApart() throws Exception {
+    server.enqueue(new MockResponse().setBody("alice").addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setBody("bob").addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setBody("token").addHeader("Cache-Control", "max-age=60"));
+
+    assertThat(body(get("Cookie", "session=alice"))).isEqualTo("alice");
+    assertThat(body(get("Cookie", "session=bob"))).isEqualTo("bob");
+    assertThat(body(get("Cookie", "session=bob"))).isEqualTo("bob");
+    assertThat(body(get("Authorization", "Bearer secret"))).isEqualTo("token");
+
+    assertThat(server.getRequestCount()).isEqualTo(3);
+    assertThat(cache.get(server.url("/config").toString()).varyValues().toString())
+        .doesNotContain("secret")
+        .contains("sha256:");
+  }
+
+  @Test
+  public void unsafeRequestsInvalidateResponse() throws Exception {
+    server.enqueue(new MockResponse().setBody("v1").addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setResponseCode(204));
+    server.enqueue(new MockResponse().setBody("v2").addHeader("Cache-Control", "max-age=60"));
+
+    assertThat(body(get())).isEqualTo("v1");
+    client.execute(request(HttpMethod.PUT, "v2".getBytes(Util.UTF_8)), new Options()).close();
+
+    assertThat(body(get())).isEqualTo("v2");
+  }
+
+  private Response get(String... headers) throws IOException {
+    Map<String, Collection<String>> map = new LinkedHashMap<>();
+    for (int i = 0; i < headers.length; i += 2) {
+      map.put(headers[i], Collections.singletonList(headers[i + 1]));
+    }
+    return client.execute(Request.create(HttpMethod.GET, server.url("/config").toString(), map,
+        null, Util.UTF_8, null), new Options());
+  }
+
+  private Request request(HttpMethod method, byte[] body) {
+    return Request.create(method, server.url("/config").toString(), Collections.emptyMap(), body,
+        Util.UTF_8, null);
+  }
+
+  private static String body(Response response) throws IOException {
+    try (Response closed = response) {
+      return Util.toString(closed.body().asReader(Util.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Util;
+
+public class DiskResponseCacheTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void mapsStoredResponses() throws Exception {
+    DiskResponseCache cache = new DiskResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+    cache.put("http://localhost/a", response("foo"));
+
+    CachedResponse read = cache.get("http://localhost/a");
+
+    assertThat(read.status()).isEqualTo(200);
+    assertThat(read.reason()).isEqualTo("OK");
+    assertThat(read.headers()).containsEntry("etag", Collections.singletonList("\"1\""));
+    assertThat(read.varyValues())
+        .containsEntry("accept", Collections.singletonList("text/plain"));
+    assertThat(read.responseMillis()).isEqualTo(1000);
+    assertThat(read.body().isDirect()).isTrue();
+    assertThat(Util.toByteArray(read.toResponse(request()).body()))
+        .isEqualTo("foo".getBytes(Util.UTF_8));
+    assertThat(cache.get("http://localhost/b")).isNull();
+  }
+
+  @Test
+  public void keepsResponsesOfPreviousInstance() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    new DiskResponseCache(directory, 1024 * 1024).put("http://localhost/a", response("foo"));
+
+    DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024);
+
+    assertThat(cache.bytes()).isPositive();
+    assertThat(cache.get("http://localhost/a").body()).isEqualTo(utf8("foo"));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedResponses() throws Exception {
+    DiskResponseCache cache = new DiskResponseCache(folder.getRoot().toPath(), 1024);
+    char[] body = new char[300];
+    cache.put("http://localhost/a", response(new String(body)));
+    cache.put("http://localhost/b", response(new String(body)));
+    cache.get("http://localhost/a");
+    cache.put("http://localhost/c", response(new String(body)));
+
+    assertThat(cache.get("http://localhost/a")).isNotNull();
+    assertThat(cache.get("http://localhost/b")).isNull();
+    assertThat(cache.get("http://localhost/c")).isNotNull();
+    assertThat(cache.bytes()).isLessThanOrEqualTo(1024);
+    assertThat(folder.getRoot().list()).hasSize(2);
+  }
+
+  @Test
+  public void removesResponses() throws Exception {
+    DiskResponseCache cache = new DiskResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+    cache.put("http://localhost/a", response("foo"));
+
+    cache.remove("http://localhost/a");
+
+    assertThat(cache.get("http://localhost/a")).isNull();
+    assertThat(cache.bytes()).isZero();
+    assertThat(folder.getRoot().list()).isEmpty();
+  }
+
+  static CachedResponse response(String body) {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>();
+    headers.put("ETag", Collections.singletonList("\"1\""));
+    return new CachedResponse(200, "OK", headers, utf8(body), 1000,
+        Collections.singletonMap("accept", Collections.singletonList("text/plain")));
+  }
+
+  private static Request request() {
+    return Request.create(HttpMethod.GET, "http://localhost/a",
+        Collections.emptyMap(), null, Util.UTF_8, null);
+  }
+
+  private static ByteBuffer utf8(String value) {
+    return ByteBuffer.wrap(value.getBytes(Util.UTF_8));
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.cache.DiskResponseCacheTest.response;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MemoryResponseCacheTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void evictsLeastRecentlyUsedResponses() {
+    MemoryResponseCache cache = new MemoryResponseCache(1000);
+    String body = new String(new char[300]);
+    cache.put("a", response(body));
+    cache.put("b", response(body));
+    cache.get("a");
+    cache.put("c", response(body));
+    cache.put("d", response(body));
+
+    assertThat(cache.get("a")).isNotNull();
+    assertThat(cache.get("b")).isNull();
+    assertThat(cache.bytes()).isLessThanOrEqualTo(1000);
+  }
+
+  @Test
+  public void doesNotKeepResponsesLargerThanCache() {
+    MemoryResponseCache cache = new MemoryResponseCache(100);
+    cache.put("a", response(new String(new char[200])));
+
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.bytes()).isZero();
+  }
+
+  @Test
+  public void readsThroughToNextCache() throws Exception {
+    DiskResponseCache disk = new DiskResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+    new MemoryResponseCache(1024, disk).put("a", response("foo"));
+
+    MemoryResponseCache cache = new MemoryResponseCache(1024, disk);
+
+    assertThat(cache.get("a")).isNotNull();
+    assertThat(cache.bytes()).isPositive();
+    cache.remove("a");
+    assertThat(disk.get("a")).isNull();
+  }
+}
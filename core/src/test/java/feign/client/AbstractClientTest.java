@@ -23,21 +23,26 @@ import feign.FeignException;
 import feign.Headers;
 import feign.Logger;
 import feign.Param;
+import feign.Request;
 import feign.RequestLine;
 import feign.Response;
 import feign.Util;
 import feign.assertj.MockWebServerAssertions;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * {@link AbstractClientTest} can be extended to run a set of tests against any {@link Client}
@@ -49,6 +54,8 @@ public abstract class AbstractClientTest {
   public final ExpectedException thrown = ExpectedException.none();
   @Rule
   public final MockWebServer server = new MockWebServer();
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   /**
    * Create a Feign {@link Builder} with a client configured
@@ -386,6 +393,43 @@ public abstract class AbstractClientTest {
         .hasOneOfPath("/?foo=bar,baz", "/?foo=bar%2Cbaz");
   }
 
+  @Test
+  public void streamsFileBody() throws Exception {
+    server.enqueue(new MockResponse().setBody("stored"));
+    byte[] data = new byte[64 * 1024];
+    new Random(1).nextBytes(data);
+    Path file = temporaryFolder.newFile().toPath();
+    Files.write(file, data);
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.upload(file)).isEqualTo("stored");
+
+    RecordedRequest request = server.takeRequest();
+    MockWebServerAssertions.assertThat(request).hasMethod("POST")
+        .hasHeaders(entry("Content-Length", Collections.singletonList("65536")));
+    assertThat(request.getBody().readByteArray()).isEqualTo(data);
+  }
+
+  @Test
+  public void streamsWriterBody() throws Exception {
+    server.enqueue(new MockResponse().setBody("stored"));
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.upload(out -> {
+      for (int i = 0; i < 1000; i++) {
+        out.write(("line " + i + "\n").getBytes(UTF_8));
+      }
+    })).isEqualTo("stored");
+
+    String body = server.takeRequest().getBody().readUtf8();
+    assertThat(body).startsWith("line 0\n").endsWith("line 999\n");
+    assertThat(body.split("\n")).hasSize(1000);
+  }
+
   @SuppressWarnings("UnusedReturnValue")
   public interface TestInterface {
 
@@ -433,6 +477,14 @@ public abstract class AbstractClientTest {
     @RequestLine("POST /?foo=bar&foo=baz&qux=")
     @Headers({"Foo: Bar", "Foo: Baz", "Qux: ", "Content-Type: {contentType}"})
     Response postWithContentType(String body, @Param("contentType") String contentType);
+
+    @RequestLine("POST /upload")
+    @Headers("Content-Type: application/octet-stream")
+    String upload(Path file);
+
+    @RequestLine("POST /upload")
+    @Headers("Content-Type: application/octet-stream")
+    String upload(Request.BodyWriter body);
   }
 
 }
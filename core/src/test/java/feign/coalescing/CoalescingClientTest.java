@@ -0,0 +1,229 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Test;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+
+public class CoalescingClientTest {
+
+  private final StubClient client = new StubClient();
+  private final CoalescingClient coalescing = new CoalescingClient(client);
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void sendsOneRequestForConcurrentCallers() throws Exception {
+    List<Future<Response>> responses = new ArrayList<>();
+    responses.add(send(request(HttpMethod.GET, "http://localhost/config/1")));
+    await(() -> client.calls.get() == 1);
+    for (int i = 0; i < 3; i++) {
+      responses.add(send(request(HttpMethod.GET, "http://localhost/config/1")));
+    }
+    await(() -> coalescing.waiting() == 3);
+
+    AtomicBoolean closed = new AtomicBoolean();
+    client.respond("foo", closed);
+
+    for (Future<Response> future : responses) {
+      try (Response response = future.get()) {
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.headers()).containsKey("etag");
+        assertThat(Util.toString(response.body().asReader(Util.UTF_8))).isEqualTo("foo");
+      }
+    }
+    assertThat(client.calls).hasValue(1);
+    assertThat(closed).isTrue();
+    assertThat(coalescing.inFlight()).isZero();
+  }
+
+  @Test
+  public void eachCallerReadsItsOwnBody() throws Exception {
+    Future<Response> first = send(request(HttpMethod.GET, "http://localhost/"));
+    await(() -> client.calls.get() == 1);
+    Future<Response> second = send(request(HttpMethod.GET, "http://localhost/"));
+    await(() -> coalescing.waiting() == 1);
+    client.respond("foo", new AtomicBoolean());
+
+    Response one = first.get();
+    Response two = second.get();
+    assertThat(one.body()).isNotSameAs(two.body());
+    assertThat(one.body().asInputStream().read()).isEqualTo('f');
+    assertThat(Util.toByteArray(two.body().asInputStream())).isEqualTo("foo".getBytes(Util.UTF_8));
+    assertThat(two.request()).isNotSameAs(one.request());
+  }
+
+  @Test
+  public void headersSeparateRequests() throws Exception {
+    send(request(HttpMethod.GET, "http://localhost/", "Accept", "application/json"));
+    await(() -> client.calls.get() == 1);
+    send(request(HttpMethod.GET, "http://localhost/", "accept", "text/plain"));
+    await(() -> client.calls.get() == 2);
+    send(request(HttpMethod.GET, "http://localhost/", "X-Api-Key", "alice"));
+    await(() -> client.calls.get() == 3);
+    send(request(HttpMethod.GET, "http://localhost/", "X-Api-Key", "bob"));
+    await(() -> client.calls.get() == 4);
+    // only differs from the second request in an ignored header
+    send(request(HttpMethod.GET, "http://localhost/", "X-Request-Id", "2", "Accept", "text/plain"));
+
+    await(() -> coalescing.waiting() == 1);
+    assertThat(client.calls).hasValue(4);
+  }
+
+  @Test
+  public void doesNotCoalesceUnsafeMethods() throws Exception {
+    send(request(HttpMethod.POST, "http://localhost/"));
+    send(request(HttpMethod.POST, "http://localhost/"));
+
+    await(() -> client.calls.get() == 2);
+    assertThat(coalescing.inFlight()).isZero();
+  }
+
+  @Test
+  public void failureIsThrownToAllCallersThenRequestIsSentAgain() throws Exception {
+    Future<Response> first = send(request(HttpMethod.GET, "http://localhost/"));
+    await(() -> client.calls.get() == 1);
+    Future<Response> second = send(request(HttpMethod.GET, "http://localhost/"));
+    await(() -> coalescing.waiting() == 1);
+
+    IOException error = new IOException("connection reset");
+    client.fail(error);
+
+    for (Future<Response> future : Arrays.asList(first, second)) {
+      assertThatThrownBy(future::get)
+          .isInstanceOf(ExecutionException.class)
+          .hasCause(error);
+    }
+    assertThat(coalescing.inFlight()).isZero();
+
+    send(request(HttpMethod.GET, "http://localhost/"));
+    await(() -> client.calls.get() == 2);
+  }
+
+  interface ConfigApi {
+
+    @RequestLine("GET /config/{id}")
+    Response config(@Param("id") String id);
+  }
+
+  @Test
+  public void capabilityWrapsClient() throws Exception {
+    assertThat(new CoalescingCapability().enrich(client)).isInstanceOf(CoalescingClient.class);
+
+    client.respond("foo", new AtomicBoolean());
+    ConfigApi api = Feign.builder()
+        .client(client)
+        .addCapability(new CoalescingCapability())
+        .target(ConfigApi.class, "http://localhost");
+
+    try (Response response = api.config("1")) {
+      assertThat(response.body()).isInstanceOf(Response.BufferedBody.class);
+      assertThat(response.body().length()).isEqualTo(3);
+    }
+  }
+
+  private Future<Response> send(Request request) {
+    return executor.submit(() -> coalescing.execute(request, new Options()));
+  }
+
+  private static Request request(HttpMethod method, String url, String... headers) {
+    Map<String, Collection<String>> map = new LinkedHashMap<>();
+    for (int i = 0; i < headers.length; i += 2) {
+      map.put(headers[i], Collections.singletonList(headers[i + 1]));
+    }
+    return Request.create(method, url, map, null, Util.UTF_8, null);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).isLessThan(deadline);
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Blocks each request until the test completes it.
+   */
+  static class StubClient implements Client {
+
+    final AtomicInteger calls = new AtomicInteger();
+    private volatile CompletableFuture<Response> next = new CompletableFuture<>();
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+      calls.incrementAndGet();
+      try {
+        return next.get(5, TimeUnit.SECONDS).toBuilder().request(request).build();
+      } catch (ExecutionException e) {
+        throw (IOException) e.getCause();
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+    }
+
+    void respond(String body, AtomicBoolean closed) {
+      Map<String, Collection<String>> headers = new LinkedHashMap<>();
+      headers.put("ETag", Collections.singletonList("\"1\""));
+      next.complete(Response.builder()
+          .status(200)
+          .headers(headers)
+          .request(request(HttpMethod.GET, "http://localhost/"))
+          .body(new ByteArrayInputStream(body.getBytes(Util.UTF_8)) {
+            @Override
+            public void close() {
+              closed.set(true);
+            }
+          }, body.length())
+          .build());
+    }
+
+    void fail(IOException error) {
+      next.completeExceptionally(error);
+    }
+  }
+}
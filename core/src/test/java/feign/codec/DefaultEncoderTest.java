@@ -16,17 +16,28 @@ package feign.codec;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import feign.Request;
 import feign.RequestTemplate;
 import static feign.Util.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class DefaultEncoderTest {
 
   @Rule
   public final ExpectedException thrown = ExpectedException.none();
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   private final Encoder encoder = new Encoder.Default();
 
@@ -46,6 +57,34 @@ public class DefaultEncoderTest {
     assertTrue(Arrays.equals(content, template.body()));
   }
 
+  @Test
+  public void testStreamsFiles() throws Exception {
+    Path file = temporaryFolder.newFile().toPath();
+    Files.write(file, new byte[] {12, 34, 56});
+    RequestTemplate template = new RequestTemplate();
+    encoder.encode(file, Path.class, template);
+
+    Request.Body body = template.requestBody();
+    assertTrue(body.isStreaming());
+    assertNull(template.body());
+    assertEquals(file, body.asFile());
+    assertEquals(Collections.singletonList("3"), template.headers().get("Content-Length"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    body.writeTo(out);
+    assertArrayEquals(new byte[] {12, 34, 56}, out.toByteArray());
+  }
+
+  @Test
+  public void testStreamsWriters() throws Exception {
+    RequestTemplate template = new RequestTemplate();
+    encoder.encode((Request.BodyWriter) out -> out.write(42), Request.BodyWriter.class, template);
+
+    Request.Body body = template.requestBody();
+    assertTrue(body.isStreaming());
+    assertEquals(-1, body.contentLength());
+    assertFalse(template.headers().containsKey("Content-Length"));
+  }
+
   @Test
   public void testRefusesToEncodeOtherTypes() throws Exception {
     thrown.expect(EncodeException.class);
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+  @Test
+  public void rejectsCallsOverLimit() {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("test").limit(2, 1, 2).build();
+
+    assertThat(limiter.acquire()).isCompletedWithValueMatching(permit -> permit != null);
+    assertThat(limiter.acquire()).isCompletedWithValueMatching(permit -> permit != null);
+    assertThat(limiter.acquire()).isCompletedWithValue(null);
+
+    assertThat(limiter.inFlight()).isEqualTo(2);
+    assertThat(limiter.rejected()).isEqualTo(1);
+  }
+
+  @Test
+  public void queuedCallsWaitForRelease() throws Exception {
+    ConcurrencyLimiter limiter =
+        ConcurrencyLimiter.builder("test").limit(1, 1, 1).maxWait(1, HOURS).build();
+
+    ConcurrencyLimiter.Permit first = limiter.acquire().get();
+    CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquire();
+    CompletableFuture<ConcurrencyLimiter.Permit> third = limiter.acquire();
+    assertThat(second).isNotDone();
+
+    first.ignore();
+    assertThat(second).isCompletedWithValueMatching(permit -> permit != null);
+    assertThat(third).isNotDone();
+    // released once only
+    first.ignore();
+    assertThat(third).isNotDone();
+    assertThat(limiter.inFlight()).isEqualTo(1);
+  }
+
+  @Test
+  public void cancelledWaitersAreSkipped() throws Exception {
+    ConcurrencyLimiter limiter =
+        ConcurrencyLimiter.builder("test").limit(1, 1, 1).maxWait(1, HOURS).build();
+
+    ConcurrencyLimiter.Permit first = limiter.acquire().get();
+    limiter.acquire().cancel(false);
+    CompletableFuture<ConcurrencyLimiter.Permit> third = limiter.acquire();
+
+    first.success();
+    assertThat(third).isCompletedWithValueMatching(permit -> permit != null);
+  }
+
+  @Test
+  public void queuedCallsAreRejectedAfterMaxWait() throws Exception {
+    ConcurrencyLimiter limiter =
+        ConcurrencyLimiter.builder("test").limit(1, 1, 1).maxWait(10, MILLISECONDS).build();
+
+    limiter.acquire().get();
+
+    assertThat(limiter.acquire().get(5, TimeUnit.SECONDS)).isNull();
+    assertThat(limiter.rejected()).isEqualTo(1);
+  }
+
+  @Test
+  public void aimdGrowsWhenSaturatedAndBacksOffWhenDropped() {
+    LimitAlgorithm aimd = LimitAlgorithm.aimd();
+
+    assertThat(aimd.update(10, MILLISECONDS.toNanos(5), 10, false)).isEqualTo(11);
+    assertThat(aimd.update(10, MILLISECONDS.toNanos(5), 2, false)).isEqualTo(10);
+    assertThat(aimd.update(10, MILLISECONDS.toNanos(5), 10, true)).isEqualTo(9);
+    assertThat(aimd.update(10, TimeUnit.SECONDS.toNanos(6), 10, false)).isEqualTo(9);
+  }
+
+  @Test
+  public void gradientShrinksLimitWhenLatencyGrows() {
+    LimitAlgorithm gradient = LimitAlgorithm.gradient();
+    int limit = 20;
+    for (int i = 0; i < 100; i++) {
+      limit = gradient.update(limit, MILLISECONDS.toNanos(10), limit, false);
+    }
+    int steady = limit;
+    assertThat(steady).isGreaterThan(20);
+
+    for (int i = 0; i < 20; i++) {
+      limit = gradient.update(limit, MILLISECONDS.toNanos(100), limit, false);
+    }
+    assertThat(limit).isLessThan(steady / 2);
+  }
+
+  @Test
+  public void gradientFollowsTheBoundedLimit() {
+    LimitAlgorithm gradient = LimitAlgorithm.gradient();
+    int limit = 20;
+    for (int i = 0; i < 100; i++) {
+      /* as the limiter does, with a maximum of 20 */
+      limit = Math.min(gradient.update(limit, MILLISECONDS.toNanos(10), limit, false), 20);
+    }
+    assertThat(limit).isEqualTo(20);
+
+    /* shrinks right away once latency grows, rather than first working off a runaway estimate */
+    assertThat(gradient.update(limit, MILLISECONDS.toNanos(100), limit, false)).isLessThan(20);
+  }
+
+  @Test
+  public void limitIsBounded() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("test")
+        .limit(2, 2, 3)
+        .algorithm(LimitAlgorithm.aimd())
+        .build();
+
+    for (int i = 0; i < 5; i++) {
+      limiter.acquire().get().dropped();
+    }
+    assertThat(limiter.limit()).isEqualTo(2);
+    for (int i = 0; i < 5; i++) {
+      ConcurrencyLimiter.Permit a = limiter.acquire().get();
+      limiter.acquire().get().success();
+      a.success();
+    }
+    assertThat(limiter.limit()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.concurrency;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+
+public class ConcurrencyLimitingClientTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  interface Api {
+
+    @RequestLine("GET /")
+    Response get();
+  }
+
+  @Test
+  public void rejectsRequestsOverLimit() throws Exception {
+    CountDownLatch sent = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Client blocking = (request, options) -> {
+      sent.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return response(request, 200);
+    };
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("test").limit(1, 1, 1).build();
+    Api api = Feign.builder()
+        .client(blocking)
+        .addCapability(new ConcurrencyLimitCapability(limiter))
+        .target(Api.class, "http://localhost");
+
+    Future<Response> first = executor.submit(api::get);
+    sent.await(5, TimeUnit.SECONDS);
+
+    assertThatThrownBy(api::get)
+        .isInstanceOf(ConcurrencyLimitExceededException.class)
+        .hasMessage("Concurrency limit of 1 reached for test, executing GET http://localhost/");
+    release.countDown();
+    assertThat(first.get().status()).isEqualTo(200);
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  @Test
+  public void overloadedResponsesLowerLimit() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("test")
+        .limit(10, 1, 10)
+        .algorithm(LimitAlgorithm.aimd())
+        .build();
+    ConcurrencyLimitingClient client =
+        new ConcurrencyLimitingClient((request, options) -> response(request, 503), limiter);
+
+    client.execute(request(), new Options()).close();
+
+    assertThat(limiter.limit()).isEqualTo(9);
+  }
+
+  @Test
+  public void asyncRequestsWaitForLimit() throws Exception {
+    StubAsyncClient delegate = new StubAsyncClient();
+    ConcurrencyLimiter limiter =
+        ConcurrencyLimiter.builder("test").limit(1, 1, 1).maxWait(1, HOURS).build();
+    ConcurrencyLimitingAsyncClient<Void> client =
+        new ConcurrencyLimitingAsyncClient<>(delegate, limiter);
+
+    CompletableFuture<Response> first = client.execute(request(), new Options(), Optional.empty());
+    CompletableFuture<Response> second = client.execute(request(), new Options(), Optional.empty());
+    assertThat(delegate.calls).hasSize(1);
+
+    delegate.calls.get(0).complete(response(request(), 200));
+    assertThat(first).isCompleted();
+    assertThat(delegate.calls).hasSize(2);
+    delegate.calls.get(1).complete(response(request(), 200));
+    assertThat(second).isCompleted();
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  @Test
+  public void asyncRequestsFailOverLimit() {
+    StubAsyncClient delegate = new StubAsyncClient();
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("test").limit(1, 1, 1).build();
+    ConcurrencyLimitingAsyncClient<Void> client =
+        new ConcurrencyLimitingAsyncClient<>(delegate, limiter);
+
+    client.execute(request(), new Options(), Optional.empty());
+    CompletableFuture<Response> rejected =
+        client.execute(request(), new Options(), Optional.empty());
+
+    assertThatThrownBy(rejected::get)
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(ConcurrencyLimitExceededException.class);
+    assertThat(delegate.calls).hasSize(1);
+  }
+
+  @Test
+  public void cancellingAsyncRequestReleasesPermit() {
+    StubAsyncClient delegate = new StubAsyncClient();
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("test").limit(1, 1, 1).build();
+    ConcurrencyLimitingAsyncClient<Void> client =
+        new ConcurrencyLimitingAsyncClient<>(delegate, limiter);
+
+    client.execute(request(), new Options(), Optional.empty()).cancel(true);
+
+    assertThat(delegate.calls.get(0)).isCancelled();
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  private static Request request() {
+    return Request.create(HttpMethod.GET, "http://localhost/", Collections.emptyMap(), null,
+        Util.UTF_8, null);
+  }
+
+  private static Response response(Request request, int status) {
+    return Response.builder()
+        .status(status)
+        .request(request)
+        .headers(Collections.emptyMap())
+        .build();
+  }
+
+  static class StubAsyncClient implements AsyncClient<Void> {
+
+    final List<CompletableFuture<Response>> calls = new CopyOnWriteArrayList<>();
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options,
+                                               Optional<Void> requestContext) {
+      CompletableFuture<Response> call = new CompletableFuture<>();
+      calls.add(call);
+      return call;
+    }
+  }
+}
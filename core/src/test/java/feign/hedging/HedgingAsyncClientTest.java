@@ -0,0 +1,223 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import org.junit.Test;
+import feign.AsyncClient;
+import feign.AsyncFeign;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.RequestLine;
+import feign.Response;
+import feign.RetryBudget;
+import feign.Util;
+
+public class HedgingAsyncClientTest {
+
+  private final StubClient client = new StubClient();
+
+  @Test
+  public void hedgesSlowRequestAndClosesLoser() throws Exception {
+    HedgingAsyncClient<Void> hedging = new HedgingAsyncClient<>(client,
+        HedgingPolicy.builder().fixedDelay(10, MILLISECONDS).build());
+
+    CompletableFuture<Response> result =
+        hedging.execute(request(HttpMethod.GET), new Options(), Optional.empty());
+    await(() -> client.calls.size() == 2);
+
+    Response winner = response(new AtomicBoolean());
+    client.calls.get(1).complete(winner);
+    AtomicBoolean loserClosed = new AtomicBoolean();
+    client.calls.get(0).complete(response(loserClosed));
+
+    assertThat(result.get()).isSameAs(winner);
+    assertThat(loserClosed).isTrue();
+  }
+
+  @Test
+  public void doesNotHedgeNonIdempotentMethods() {
+    HedgingAsyncClient<Void> hedging = new HedgingAsyncClient<>(client,
+        HedgingPolicy.builder().fixedDelay(0, MILLISECONDS).build());
+
+    CompletableFuture<Response> result =
+        hedging.execute(request(HttpMethod.POST), new Options(), Optional.empty());
+
+    assertThat(client.calls).containsExactly(result);
+  }
+
+  @Test
+  public void budgetLimitsHedges() throws Exception {
+    RetryBudget budget = new RetryBudget("test", 0, 1);
+    HedgingAsyncClient<Void> hedging = new HedgingAsyncClient<>(client,
+        HedgingPolicy.builder().fixedDelay(0, MILLISECONDS).budget(budget).build());
+
+    hedging.execute(request(HttpMethod.GET), new Options(), Optional.empty());
+    await(() -> client.calls.size() == 2);
+    hedging.execute(request(HttpMethod.GET), new Options(), Optional.empty());
+    await(() -> budget.exhausted() == 1);
+
+    assertThat(client.calls).hasSize(3);
+    assertThat(budget.retries()).isEqualTo(1);
+  }
+
+  @Test
+  public void delayTracksLatencyOfFirstAttemptsRatherThanWinners() throws Exception {
+    HedgingPolicy policy = HedgingPolicy.builder()
+        .percentileDelay(0.5, 1, 1000, MILLISECONDS)
+        .budget(new RetryBudget("test", 1, 1))
+        .build();
+    ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1) {
+      @Override
+      public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return super.schedule(command, 0, unit);
+      }
+    };
+    try {
+      HedgingAsyncClient<Void> hedging = new HedgingAsyncClient<>(client, policy, scheduler);
+      for (int i = 0; i < 20; i++) {
+        int primary = i * 2;
+        CompletableFuture<Response> result =
+            hedging.execute(request(HttpMethod.GET), new Options(), Optional.empty());
+        await(() -> client.calls.size() == primary + 2);
+        client.calls.get(primary + 1).complete(response(new AtomicBoolean()));
+        result.get();
+        Thread.sleep(30);
+        client.calls.get(primary).complete(response(new AtomicBoolean()));
+      }
+    } finally {
+      scheduler.shutdown();
+    }
+
+    assertThat(policy.delayMillis(request(HttpMethod.GET))).isGreaterThanOrEqualTo(30);
+  }
+
+  @Test
+  public void failsWithoutHedgingWhenFirstAttemptFails() throws Exception {
+    HedgingAsyncClient<Void> hedging = new HedgingAsyncClient<>(client,
+        HedgingPolicy.builder().fixedDelay(1, HOURS).build());
+
+    CompletableFuture<Response> result =
+        hedging.execute(request(HttpMethod.GET), new Options(), Optional.empty());
+    IOException error = new IOException("connection reset");
+    client.calls.get(0).completeExceptionally(error);
+
+    assertThat(result).isCompletedExceptionally();
+    try {
+      result.get();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(error);
+    }
+    assertThat(client.calls).hasSize(1);
+  }
+
+  public interface Api {
+
+    @Idempotent
+    @RequestLine("POST /")
+    CompletableFuture<String> idempotentPost();
+
+    @Idempotent(false)
+    @RequestLine("GET /")
+    CompletableFuture<String> nonIdempotentGet();
+  }
+
+  @Test
+  public void annotationOverridesHttpMethod() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      Api api = AsyncFeign.<Void>asyncBuilder()
+          .client(new HedgingAsyncClient<>(client,
+              HedgingPolicy.builder().fixedDelay(0, MILLISECONDS).build(), scheduler))
+          .target(Api.class, "http://localhost");
+
+      api.idempotentPost();
+      // hedges are sent from the scheduler, which runs tasks in order
+      scheduler.submit(() -> {}).get();
+      assertThat(client.calls).hasSize(2);
+
+      api.nonIdempotentGet();
+      scheduler.submit(() -> {}).get();
+      assertThat(client.calls).hasSize(3);
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  private static Request request(HttpMethod method) {
+    return Request.create(method, "http://localhost/", Collections.emptyMap(), null, Util.UTF_8,
+        null);
+  }
+
+  private static Response response(AtomicBoolean closed) {
+    return Response.builder()
+        .status(200)
+        .request(request(HttpMethod.GET))
+        .body(new ByteArrayInputStream(new byte[0]) {
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        }, 0)
+        .build();
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).isLessThan(deadline);
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Returns futures completed by the test, which ignore cancellation like a client that cannot
+   * abort a request in flight.
+   */
+  static class StubClient implements AsyncClient<Void> {
+
+    final List<CompletableFuture<Response>> calls = new CopyOnWriteArrayList<>();
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options,
+                                               Optional<Void> requestContext) {
+      CompletableFuture<Response> call = new CompletableFuture<Response>() {
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+          return false;
+        }
+      };
+      calls.add(call);
+      return call;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2012-2021 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.junit.Test;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.RequestTemplate;
+import feign.Util;
+
+public class HedgingPolicyTest {
+
+  private static final Request GET = Request.create(HttpMethod.GET, "http://localhost/",
+      Collections.emptyMap(), null, Util.UTF_8, null);
+
+  @Test
+  public void usesMaxDelayUntilLatencyIsKnown() {
+    HedgingPolicy policy =
+        HedgingPolicy.builder().percentileDelay(0.95, 1, 500, MILLISECONDS).build();
+
+    assertThat(policy.delayMillis(GET)).isEqualTo(500);
+  }
+
+  @Test
+  public void delayTracksPercentileOfRecentLatency() {
+    HedgingPolicy policy =
+        HedgingPolicy.builder().percentileDelay(0.95, 1, 500, MILLISECONDS).build();
+
+    for (int i = 1; i <= 1000; i++) {
+      policy.stats(GET).record(i % 100 + 1);
+    }
+
+    // buckets are at most 25% wide
+    assertThat(policy.delayMillis(GET)).isBetween(95L, 119L);
+  }
+
+  @Test
+  public void delayIsBounded() {
+    HedgingPolicy policy =
+        HedgingPolicy.builder().percentileDelay(0.5, 20, 40, MILLISECONDS).build();
+
+    for (int i = 0; i < 100; i++) {
+      policy.stats(GET).record(1);
+    }
+    assertThat(policy.delayMillis(GET)).isEqualTo(20);
+  }
+
+  @Test
+  public void histogramBucketsCoverAllLatencies() {
+    long previous = -1;
+    for (int index = 0; index < 120; index++) {
+      long upperBound = HedgingPolicy.LatencyHistogram.upperBound(index);
+      assertThat(upperBound).isGreaterThan(previous);
+      assertThat(HedgingPolicy.LatencyHistogram.index(upperBound)).isEqualTo(index);
+      assertThat(HedgingPolicy.LatencyHistogram.index(previous + 1)).isEqualTo(index);
+      previous = upperBound;
+    }
+    assertThat(HedgingPolicy.LatencyHistogram.index(Long.MAX_VALUE)).isEqualTo(119);
+  }
+
+  @Test
+  public void neverHedgesBodiesWrittenOnce() {
+    HedgingPolicy policy =
+        HedgingPolicy.builder().idempotentMethods(HttpMethod.GET, HttpMethod.PUT).build();
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.PUT).target("http://a");
+
+    template.body(out -> out.write(1), 1);
+    assertThat(policy.isHedged(template.resolve(Collections.emptyMap()).request())).isFalse();
+    template.body(Paths.get("pom.xml"));
+    assertThat(policy.isHedged(template.resolve(Collections.emptyMap()).request())).isTrue();
+  }
+}
@@ -41,4 +41,34 @@ public class UriUtilsTest {
     String encoded = UriUtils.encode(withReserved, UTF_8, true);
     assertThat(encoded).isEqualTo("/api/user@host:port#section[a-z]/data");
   }
+
+  @Test
+  public void valuesWithoutCharactersToEncodeAreReturnedAsIs() {
+    String id = "3f2a9c1e-7b4d-4e8a-9f6b-2d1c0e5a7b3c";
+    assertThat(UriUtils.encode(id, UTF_8)).isSameAs(id);
+    assertThat(UriUtils.encode(id, UTF_8, true)).isSameAs(id);
+  }
+
+  @Test
+  public void pctEncodeNonAsciiCharacters() {
+    assertThat(UriUtils.encode("Z\u00fcrich \ud83d\ude00", UTF_8))
+        .isEqualTo("Z%C3%BCrich%20%F0%9F%98%80");
+  }
+
+  /**
+   * pct-encoded triplets are kept when preserving reserved characters, and the remainder of the
+   * value is encoded, including reserved characters.
+   */
+  @Test
+  public void pctEncodeSkipsEncodedTriplets() {
+    assertThat(UriUtils.encode("a%2Fb c/d", UTF_8, false)).isEqualTo("a%2Fb%20c%2Fd");
+    assertThat(UriUtils.encode("a%2Fb c/d", UTF_8, true)).isEqualTo("a%2Fb%20c/d");
+    assertThat(UriUtils.encode("100%", UTF_8, true)).isEqualTo("100%25");
+  }
+
+  @Test
+  public void decodeSlash() {
+    assertThat(UriUtils.decodeSlash("a%2Fb%2F%2Fc")).isEqualTo("a/b//c");
+    assertThat(UriUtils.decodeSlash("a%2fb")).isEqualTo("a%2fb");
+  }
 }
@@ -20,8 +20,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 import feign.*;
 
@@ -32,13 +30,6 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
 
   private static final Logger LOG = LoggerFactory.getLogger(MeteredInvocationHandleFactory.class);
 
-  /**
-   * Methods that are declared by super class object and, if invoked, we don't wanna record metrics
-   * for
-   */
-  private static final List<String> JAVA_OBJECT_METHODS =
-      Arrays.asList("equals", "toString", "hashCode");
-
   private final InvocationHandlerFactory invocationHandler;
 
   private final MetricRegistry metricRegistry;
@@ -60,10 +51,14 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
     final Class clientClass = target.type();
 
     final InvocationHandler invocationHandle = invocationHandler.create(target, dispatch);
+    final DispatchTable methods = DispatchTable.create(dispatch);
+    final boolean[] metered = metered(methods);
     return (proxy, method, args) -> {
 
-      if (JAVA_OBJECT_METHODS.contains(method.getName())
-          || Util.isDefault(method)) {
+      // methods declared by java.lang.Object resolve to negative slots and, like default
+      // methods, if invoked, we don't wanna record metrics for
+      final int slot = methods.slot(method);
+      if (slot < 0 || !metered[slot]) {
         LOG.trace("Skipping metrics for method={}", method);
         return invocationHandle.invoke(proxy, method, args);
       }
@@ -92,5 +87,11 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
     };
   }
 
-
+  private static boolean[] metered(DispatchTable methods) {
+    final boolean[] result = new boolean[methods.size()];
+    for (int slot = 0; slot < result.length; slot++) {
+      result[slot] = !Util.isDefault(methods.method(slot));
+    }
+    return result;
+  }
 }
@@ -13,6 +13,7 @@
  */
 package feign.googlehttpclient;
 
+import com.google.api.client.http.AbstractHttpContent;
 import com.google.api.client.http.ByteArrayContent;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpContent;
@@ -23,6 +24,7 @@ import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Map;
 import java.util.HashMap;
@@ -64,12 +66,26 @@ public class GoogleHttpClient implements Client {
     return convertResponse(inputRequest, response);
   }
 
+  private static HttpContent toStreamingContent(String contentType, Request.Body body) {
+    return new AbstractHttpContent(contentType) {
+      @Override
+      public long getLength() {
+        return body.contentLength();
+      }
+
+      @Override
+      public void writeTo(OutputStream out) throws IOException {
+        body.writeTo(out);
+      }
+    };
+  }
+
   private final HttpRequest convertRequest(final Request inputRequest,
                                            final Request.Options options)
       throws IOException {
     // Setup the request body
     HttpContent content = null;
-    if (inputRequest.length() > 0) {
+    if (inputRequest.length() > 0 || inputRequest.requestBody().isStreaming()) {
       final Collection<String> contentTypeValues = inputRequest.headers().get("Content-Type");
       String contentType = null;
       if (contentTypeValues != null && contentTypeValues.size() > 0) {
@@ -77,7 +93,11 @@ public class GoogleHttpClient implements Client {
       } else {
         contentType = "application/octet-stream";
       }
-      content = new ByteArrayContent(contentType, inputRequest.body());
+      if (inputRequest.requestBody().isStreaming()) {
+        content = toStreamingContent(contentType, inputRequest.requestBody());
+      } else {
+        content = new ByteArrayContent(contentType, inputRequest.body());
+      }
     }
 
     // Build the request
@@ -21,6 +21,7 @@ import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.*;
 import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityTemplate;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
@@ -32,6 +33,7 @@ import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.util.*;
 import feign.*;
+import feign.HttpHeaders;
 
 /**
  * This module directs Feign's http requests to Apache's
@@ -128,7 +130,11 @@ public final class ApacheHttp5Client implements Client {
     // request body
     // final Body requestBody = request.requestBody();
     byte[] data = request.body();
-    if (data != null) {
+    if (request.requestBody().isStreaming()) {
+      final Request.Body body = request.requestBody();
+      requestBuilder.setEntity(new EntityTemplate(body.contentLength(), getContentType(request),
+          null, body::writeTo));
+    } else if (data != null) {
       HttpEntity entity;
       if (request.isBinary()) {
         entity = new ByteArrayEntity(data, null);
@@ -167,18 +173,11 @@ public final class ApacheHttp5Client implements Client {
 
     final String reason = httpResponse.getReasonPhrase();
 
-    final Map<String, Collection<String>> headers = new HashMap<String, Collection<String>>();
-    for (final Header header : httpResponse.getHeaders()) {
-      final String name = header.getName();
-      final String value = header.getValue();
-
-      Collection<String> headerValues = headers.get(name);
-      if (headerValues == null) {
-        headerValues = new ArrayList<String>();
-        headers.put(name, headerValues);
+    final Map<String, Collection<String>> headers = HttpHeaders.lazy(true, builder -> {
+      for (final Header header : httpResponse.getHeaders()) {
+        builder.add(header.getName(), header.getValue());
       }
-      headerValues.add(value);
-    }
+    });
 
     return Response.builder()
         .status(statusCode)
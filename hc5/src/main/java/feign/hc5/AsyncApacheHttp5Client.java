@@ -15,6 +15,7 @@ package feign.hc5;
 
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
 import org.apache.hc.client5.http.config.Configurable;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
@@ -23,9 +24,24 @@ import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducerWrapper;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.FileEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
 import org.apache.hc.core5.io.CloseMode;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import feign.*;
 import feign.Request.Options;
 
@@ -36,14 +52,30 @@ import feign.Request.Options;
  * <pre>
  * GitHub github = Feign.builder().client(new ApacheHttp5Client()).target(GitHub.class,
  * "https://api.github.com");
- */
-/*
+ * </pre>
+ *
+ * <p>
+ * By default, responses are received in full before the future completes. In streaming mode, the
+ * future completes once the headers arrive, and the body is then read as it is received, which
+ * suits large responses consumed by a {@link feign.stream.StreamDecoder}. Request bodies are
+ * streamed in both modes.
  */
 public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientContext>, AutoCloseable {
 
   private static final String ACCEPT_HEADER_NAME = "Accept";
 
+  private static class LazyInitializedExecutorService {
+
+    private static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-hc5-async");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
   private final CloseableHttpAsyncClient client;
+  private final boolean streaming;
+  private final Executor executor;
 
   public AsyncApacheHttp5Client() {
     this(createStartedClient());
@@ -56,39 +88,85 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
   }
 
   public AsyncApacheHttp5Client(CloseableHttpAsyncClient client) {
+    this(client, false);
+  }
+
+  /**
+   * @param streaming to complete futures once the response headers arrive, and then stream the
+   *        body, instead of receiving it in full first.
+   */
+  public AsyncApacheHttp5Client(CloseableHttpAsyncClient client, boolean streaming) {
+    this(client, streaming, LazyInitializedExecutorService.instance);
+  }
+
+  /**
+   * @param executor to run {@link feign.Request.BodyWriter body writers}, and in streaming mode to
+   *        complete futures, since their continuations read the body and must not block the I/O
+   *        threads of {@code client}.
+   */
+  public AsyncApacheHttp5Client(CloseableHttpAsyncClient client, boolean streaming,
+      Executor executor) {
     this.client = client;
+    this.streaming = streaming;
+    this.executor = Util.checkNotNull(executor, "executor");
   }
 
   @Override
   public CompletableFuture<Response> execute(Request request,
                                              Options options,
                                              Optional<HttpClientContext> requestContext) {
-    final SimpleHttpRequest httpUriRequest = toClassicHttpRequest(request, options);
+    final BasicRequestProducer requestProducer =
+        new BasicRequestProducer(toClassicHttpRequest(request, options), toEntityProducer(request));
+    final HttpClientContext context =
+        configureTimeouts(options, requestContext.orElseGet(HttpClientContext::new));
 
     final CompletableFuture<Response> result = new CompletableFuture<>();
-    final FutureCallback<SimpleHttpResponse> callback = new FutureCallback<SimpleHttpResponse>() {
-
-      @Override
-      public void completed(SimpleHttpResponse httpResponse) {
-        result.complete(toFeignResponse(httpResponse, request));
+    final Future<?> future;
+    if (streaming) {
+      future = client.execute(requestProducer,
+          new StreamingResponseConsumer(result, executor,
+              httpResponse -> toResponseBuilder(httpResponse, request)),
+          context, new ResultCallback<>(result, response -> {
+            // the future completed once headers arrived
+          }));
+    } else {
+      future = client.execute(requestProducer, SimpleResponseConsumer.create(), context,
+          new ResultCallback<>(result,
+              httpResponse -> result.complete(toFeignResponse(httpResponse, request))));
+    }
+    result.whenComplete((response, throwable) -> {
+      if (result.isCancelled()) {
+        future.cancel(true);
       }
+    });
 
-      @Override
-      public void failed(Exception ex) {
-        result.completeExceptionally(ex);
-      }
+    return result;
+  }
 
-      @Override
-      public void cancelled() {
-        result.cancel(false);
-      }
-    };
+  private static final class ResultCallback<T> implements FutureCallback<T> {
 
-    client.execute(httpUriRequest,
-        configureTimeouts(options, requestContext.orElseGet(HttpClientContext::new)),
-        callback);
+    private final CompletableFuture<Response> result;
+    private final Consumer<T> onCompleted;
 
-    return result;
+    ResultCallback(CompletableFuture<Response> result, Consumer<T> onCompleted) {
+      this.result = result;
+      this.onCompleted = onCompleted;
+    }
+
+    @Override
+    public void completed(T httpResponse) {
+      onCompleted.accept(httpResponse);
+    }
+
+    @Override
+    public void failed(Exception ex) {
+      result.completeExceptionally(ex);
+    }
+
+    @Override
+    public void cancelled() {
+      result.cancel(false);
+    }
   }
 
   protected HttpClientContext configureTimeouts(Request.Options options,
@@ -133,14 +211,55 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
       httpRequest.addHeader(ACCEPT_HEADER_NAME, "*/*");
     }
 
-    // request body
-    // final Body requestBody = request.requestBody();
+    return httpRequest;
+  }
+
+  /**
+   * Produces the request body, without copying streamed bodies into memory.
+   */
+  AsyncEntityProducer toEntityProducer(Request request) {
+    final Request.Body body = request.requestBody();
+    final ContentType contentType = getContentType(request);
     final byte[] data = request.body();
     if (data != null) {
-      httpRequest.setBody(data, getContentType(request));
+      return new BasicAsyncEntityProducer(data, contentType);
     }
+    if (!body.isStreaming()) {
+      return null;
+    }
+    final Path file = body.asFile();
+    if (file != null) {
+      try {
+        // read with a FileChannel by the I/O threads
+        return new FileEntityProducer(file.toFile(), contentType);
+      } catch (final UnsupportedOperationException e) {
+        // not on the default file system, written like other bodies
+      }
+    }
+    final AsyncEntityProducer writer =
+        new AbstractClassicEntityProducer(StreamingResponseConsumer.BUFFER_SIZE, contentType,
+            executor) {
+          @Override
+          protected void produceData(ContentType contentType, OutputStream out)
+              throws IOException {
+            body.writeTo(out);
+          }
+        };
+    if (body.contentLength() < 0) {
+      return writer;
+    }
+    // sends a Content-Length, as when the body was buffered, instead of chunks
+    return new AsyncEntityProducerWrapper(writer) {
+      @Override
+      public long getContentLength() {
+        return body.contentLength();
+      }
 
-    return httpRequest;
+      @Override
+      public boolean isChunked() {
+        return false;
+      }
+    };
   }
 
   private ContentType getContentType(Request request) {
@@ -161,31 +280,27 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
   }
 
   Response toFeignResponse(SimpleHttpResponse httpResponse, Request request) {
+    return toResponseBuilder(httpResponse, request)
+        .body(httpResponse.getBodyBytes())
+        .build();
+  }
+
+  Response.Builder toResponseBuilder(HttpResponse httpResponse, Request request) {
     final int statusCode = httpResponse.getCode();
 
     final String reason = httpResponse.getReasonPhrase();
 
-    final Map<String, Collection<String>> headers = new HashMap<String, Collection<String>>();
-    for (final Header header : httpResponse.getHeaders()) {
-      final String name = header.getName();
-      final String value = header.getValue();
-
-      Collection<String> headerValues = headers.get(name);
-      if (headerValues == null) {
-        headerValues = new ArrayList<String>();
-        headers.put(name, headerValues);
+    final Map<String, Collection<String>> headers = HttpHeaders.lazy(true, builder -> {
+      for (final Header header : httpResponse.getHeaders()) {
+        builder.add(header.getName(), header.getValue());
       }
-      headerValues.add(value);
-    }
+    });
 
     return Response.builder()
         .status(statusCode)
         .reason(reason)
         .headers(headers)
-        .request(request)
-        .body(httpResponse
-            .getBodyBytes())
-        .build();
+        .request(request);
   }
 
   @Override
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hc5;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.classic.ContentInputStream;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import feign.Response;
+
+/**
+ * Completes a future with the {@link Response} as soon as its headers arrive, and then feeds its
+ * body to {@link Response.Body#asInputStream()} as it is received. The body is buffered up to
+ * {@link #BUFFER_SIZE}, after which the connection stops reading until the caller consumes it.
+ *
+ * <p>
+ * The future is completed on {@code executor}, since whoever continues from it reads the body,
+ * which would never arrive if it blocked the I/O thread.
+ */
+final class StreamingResponseConsumer implements AsyncResponseConsumer<Response> {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private final CompletableFuture<Response> result;
+  private final Executor executor;
+  private final Function<HttpResponse, Response.Builder> responseBuilder;
+  private final SharedInputBuffer buffer = new SharedInputBuffer(BUFFER_SIZE);
+  private final BodyInputStream body = new BodyInputStream(buffer);
+  private volatile Response response;
+  private volatile FutureCallback<Response> resultCallback;
+  private volatile boolean endStream;
+
+  StreamingResponseConsumer(CompletableFuture<Response> result, Executor executor,
+      Function<HttpResponse, Response.Builder> responseBuilder) {
+    this.result = result;
+    this.executor = executor;
+    this.responseBuilder = responseBuilder;
+  }
+
+  @Override
+  public void consumeResponse(HttpResponse httpResponse,
+                              EntityDetails entityDetails,
+                              HttpContext context,
+                              FutureCallback<Response> resultCallback)
+      throws IOException {
+    final Response.Builder builder = responseBuilder.apply(httpResponse);
+    this.resultCallback = resultCallback;
+    if (entityDetails == null) {
+      endStream = true;
+      response = builder.body(new byte[0]).build();
+      resultCallback.completed(response);
+    } else {
+      final long length = entityDetails.getContentLength();
+      response = builder.body(body,
+          length >= 0 && length <= Integer.MAX_VALUE ? (int) length : null).build();
+    }
+    try {
+      executor.execute(() -> {
+        if (!result.complete(response)) {
+          // cancelled while receiving headers
+          response.close();
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public void informationResponse(HttpResponse response, HttpContext context) {}
+
+  @Override
+  public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+    buffer.updateCapacity(capacityChannel);
+  }
+
+  @Override
+  public void consume(ByteBuffer src) {
+    buffer.fill(src);
+  }
+
+  @Override
+  public void streamEnd(List<? extends Header> trailers) {
+    endStream = true;
+    buffer.markEndStream();
+    resultCallback.completed(response);
+  }
+
+  @Override
+  public void failed(Exception cause) {
+    body.failure = cause;
+    buffer.abort();
+  }
+
+  @Override
+  public void releaseResources() {
+    if (!endStream) {
+      // cancelled or failed, the reader must not mistake this for the end of the body
+      if (body.failure == null) {
+        body.failure = new IOException("Response body was not fully received");
+      }
+      buffer.abort();
+    }
+  }
+
+  /**
+   * Fails on the end of a body that was not fully received, where the buffer only reports the end
+   * of the stream.
+   */
+  private static final class BodyInputStream extends ContentInputStream {
+
+    private volatile Exception failure;
+
+    BodyInputStream(SharedInputBuffer buffer) {
+      super(buffer);
+    }
+
+    @Override
+    public int read() throws IOException {
+      return checkFailure(super.read());
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+      return checkFailure(super.read(b));
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return checkFailure(super.read(b, off, len));
+    }
+
+    private int checkFailure(int read) throws IOException {
+      if (read == -1 && failure != null) {
+        throw new IOException("Failed receiving response body", failure);
+      }
+      return read;
+    }
+  }
+}
@@ -22,6 +22,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.junit.Rule;
@@ -766,6 +768,66 @@ public class AsyncApacheHttp5ClientTest {
     checkCFCompletedSoon(cf);
   }
 
+  @Test
+  public void streamingCompletesBeforeBodyArrives() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").setBodyDelay(2, TimeUnit.SECONDS));
+
+    try (AsyncApacheHttp5Client client = newStreamingClient()) {
+      final Response response = client.execute(request(HttpMethod.GET, null),
+          new Request.Options(), Optional.empty()).get(1, TimeUnit.SECONDS);
+
+      assertThat(response.status()).isEqualTo(200);
+      assertThat(response.body().length()).isEqualTo(3);
+      assertEquals("foo", Util.toString(response.body().asReader(Util.UTF_8)));
+    }
+  }
+
+  @Test
+  public void streamingReadsBodiesLargerThanItsBuffer() throws Exception {
+    final byte[] data = new byte[StreamingResponseConsumer.BUFFER_SIZE * 8 + 1];
+    new Random(1).nextBytes(data);
+    server.enqueue(new MockResponse().setBody(new Buffer().write(data)));
+
+    try (AsyncApacheHttp5Client client = newStreamingClient()) {
+      final Response response = client.execute(request(HttpMethod.GET, null),
+          new Request.Options(), Optional.empty()).get();
+
+      assertThat(Util.toByteArray(response.body().asInputStream())).isEqualTo(data);
+    }
+  }
+
+  @Test
+  public void streamsWrittenRequestBodies() throws Exception {
+    server.enqueue(new MockResponse());
+    server.enqueue(new MockResponse());
+
+    try (AsyncApacheHttp5Client client = newStreamingClient()) {
+      client.execute(request(HttpMethod.POST,
+          Request.Body.create(out -> out.write("foo".getBytes(Util.UTF_8)), 3)),
+          new Request.Options(), Optional.empty()).get().close();
+      client.execute(request(HttpMethod.POST,
+          Request.Body.create(out -> out.write("bar".getBytes(Util.UTF_8)), -1)),
+          new Request.Options(), Optional.empty()).get().close();
+    }
+
+    assertThat(server.takeRequest()).hasHeaders(entry("Content-Length", Arrays.asList("3")))
+        .hasBody("foo");
+    assertThat(server.takeRequest()).hasHeaders(
+        entry("Transfer-Encoding", Arrays.asList("chunked")))
+        .hasBody("bar");
+  }
+
+  private static AsyncApacheHttp5Client newStreamingClient() {
+    final CloseableHttpAsyncClient client = HttpAsyncClients.custom().build();
+    client.start();
+    return new AsyncApacheHttp5Client(client, true);
+  }
+
+  private Request request(HttpMethod method, Request.Body body) {
+    return Request.create(method, "http://localhost:" + server.getPort() + "/",
+        Collections.emptyMap(), body != null ? body : Request.Body.empty(), null);
+  }
+
   public interface TestInterfaceAsync {
 
     @RequestLine("POST /")
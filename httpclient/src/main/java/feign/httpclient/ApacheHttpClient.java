@@ -25,6 +25,7 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
@@ -33,16 +34,16 @@ import org.apache.http.util.EntityUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import feign.Client;
+import feign.HttpHeaders;
 import feign.Request;
 import feign.Response;
 import feign.Util;
@@ -132,7 +133,9 @@ public final class ApacheHttpClient implements Client {
     }
 
     // request body
-    if (request.body() != null) {
+    if (request.requestBody().isStreaming()) {
+      requestBuilder.setEntity(toStreamingEntity(request.requestBody()));
+    } else if (request.body() != null) {
       HttpEntity entity = null;
       if (request.charset() != null) {
         ContentType contentType = getContentType(request);
@@ -150,6 +153,35 @@ public final class ApacheHttpClient implements Client {
     return requestBuilder.build();
   }
 
+  private static HttpEntity toStreamingEntity(Request.Body body) {
+    return new AbstractHttpEntity() {
+      @Override
+      public boolean isRepeatable() {
+        return true;
+      }
+
+      @Override
+      public long getContentLength() {
+        return body.contentLength();
+      }
+
+      @Override
+      public InputStream getContent() {
+        throw new UnsupportedOperationException("streamed bodies can only be written");
+      }
+
+      @Override
+      public void writeTo(OutputStream out) throws IOException {
+        body.writeTo(out);
+      }
+
+      @Override
+      public boolean isStreaming() {
+        return false;
+      }
+    };
+  }
+
   private ContentType getContentType(Request request) {
     ContentType contentType = null;
     for (Map.Entry<String, Collection<String>> entry : request.headers().entrySet())
@@ -172,18 +204,11 @@ public final class ApacheHttpClient implements Client {
 
     String reason = statusLine.getReasonPhrase();
 
-    Map<String, Collection<String>> headers = new HashMap<String, Collection<String>>();
-    for (Header header : httpResponse.getAllHeaders()) {
-      String name = header.getName();
-      String value = header.getValue();
-
-      Collection<String> headerValues = headers.get(name);
-      if (headerValues == null) {
-        headerValues = new ArrayList<String>();
-        headers.put(name, headerValues);
+    Map<String, Collection<String>> headers = HttpHeaders.lazy(true, builder -> {
+      for (Header header : httpResponse.getAllHeaders()) {
+        builder.add(header.getName(), header.getValue());
       }
-      headerValues.add(value);
-    }
+    });
 
     return Response.builder()
         .status(statusCode)
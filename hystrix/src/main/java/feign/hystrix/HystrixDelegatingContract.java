@@ -72,4 +72,15 @@ public final class HystrixDelegatingContract implements Contract {
 
     return metadatas;
   }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof HystrixDelegatingContract
+        && delegate.equals(((HystrixDelegatingContract) obj).delegate);
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
 }
@@ -19,12 +19,11 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import feign.DispatchTable;
 import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Target;
 import feign.Util;
@@ -36,18 +35,18 @@ import static feign.Util.checkNotNull;
 final class HystrixInvocationHandler implements InvocationHandler {
 
   private final Target<?> target;
-  private final Map<Method, MethodHandler> dispatch;
+  private final DispatchTable dispatch;
   private final FallbackFactory<?> fallbackFactory; // Nullable
-  private final Map<Method, Method> fallbackMethodMap;
-  private final Map<Method, Setter> setterMethodMap;
+  private final Method[] fallbackMethods;
+  private final Setter[] setters;
 
   HystrixInvocationHandler(Target<?> target, Map<Method, MethodHandler> dispatch,
       SetterFactory setterFactory, FallbackFactory<?> fallbackFactory) {
     this.target = checkNotNull(target, "target");
-    this.dispatch = checkNotNull(dispatch, "dispatch");
+    this.dispatch = DispatchTable.create(checkNotNull(dispatch, "dispatch"));
     this.fallbackFactory = fallbackFactory;
-    this.fallbackMethodMap = toFallbackMethod(dispatch);
-    this.setterMethodMap = toSetters(setterFactory, target, dispatch.keySet());
+    this.fallbackMethods = toFallbackMethods(this.dispatch);
+    this.setters = toSetters(setterFactory, target, this.dispatch);
   }
 
   /**
@@ -57,27 +56,31 @@ final class HystrixInvocationHandler implements InvocationHandler {
    * effect to the method in InvocationHandler.invoke. Use map to store a copy of method to invoke
    * the fallback to bypass this and reducing the count of reflection calls.
    *
-   * @return cached methods map for fallback invoking
+   * @return cached methods for fallback invoking, indexed by dispatch slot
    */
-  static Map<Method, Method> toFallbackMethod(Map<Method, MethodHandler> dispatch) {
-    Map<Method, Method> result = new LinkedHashMap<Method, Method>();
-    for (Method method : dispatch.keySet()) {
+  static Method[] toFallbackMethods(DispatchTable dispatch) {
+    Method[] result = new Method[dispatch.size()];
+    for (int slot = 0; slot < result.length; slot++) {
+      Method method = dispatch.method(slot);
       method.setAccessible(true);
-      result.put(method, method);
+      result[slot] = method;
     }
     return result;
   }
 
   /**
    * Process all methods in the target so that appropriate setters are created.
+   *
+   * @return setters indexed by dispatch slot
    */
-  static Map<Method, Setter> toSetters(SetterFactory setterFactory,
-                                       Target<?> target,
-                                       Set<Method> methods) {
-    Map<Method, Setter> result = new LinkedHashMap<Method, Setter>();
-    for (Method method : methods) {
+  static Setter[] toSetters(SetterFactory setterFactory,
+                            Target<?> target,
+                            DispatchTable dispatch) {
+    Setter[] result = new Setter[dispatch.size()];
+    for (int slot = 0; slot < result.length; slot++) {
+      Method method = dispatch.method(slot);
       method.setAccessible(true);
-      result.put(method, setterFactory.create(target, method));
+      result[slot] = setterFactory.create(target, method);
     }
     return result;
   }
@@ -87,26 +90,32 @@ final class HystrixInvocationHandler implements InvocationHandler {
       throws Throwable {
     // early exit if the invoked method is from java.lang.Object
     // code is the same as ReflectiveFeign.FeignInvocationHandler
-    if ("equals".equals(method.getName())) {
-      try {
-        Object otherHandler =
-            args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
-        return equals(otherHandler);
-      } catch (IllegalArgumentException e) {
-        return false;
-      }
-    } else if ("hashCode".equals(method.getName())) {
-      return hashCode();
-    } else if ("toString".equals(method.getName())) {
-      return toString();
+    final int slot = dispatch.slot(method);
+    switch (slot) {
+      case DispatchTable.EQUALS:
+        try {
+          Object otherHandler =
+              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+          return equals(otherHandler);
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      case DispatchTable.HASH_CODE:
+        return hashCode();
+      case DispatchTable.TO_STRING:
+        return toString();
+      case DispatchTable.NOT_FOUND:
+        throw new IllegalStateException(method + " is not a method handled by feign");
+      default:
+        break;
     }
 
     HystrixCommand<Object> hystrixCommand =
-        new HystrixCommand<Object>(setterMethodMap.get(method)) {
+        new HystrixCommand<Object>(setters[slot]) {
           @Override
           protected Object run() throws Exception {
             try {
-              return HystrixInvocationHandler.this.dispatch.get(method).invoke(args);
+              return HystrixInvocationHandler.this.dispatch.handler(slot).invoke(args);
             } catch (Exception e) {
               throw e;
             } catch (Throwable t) {
@@ -121,7 +130,7 @@ final class HystrixInvocationHandler implements InvocationHandler {
             }
             try {
               Object fallback = fallbackFactory.create(getExecutionException());
-              Object result = fallbackMethodMap.get(method).invoke(fallback, args);
+              Object result = fallbackMethods[slot].invoke(fallback, args);
               if (isReturnsHystrixCommand(method)) {
                 return ((HystrixCommand) result).execute();
               } else if (isReturnsObservable(method)) {
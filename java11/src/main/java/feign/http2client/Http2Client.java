@@ -13,8 +13,12 @@
  */
 package feign.http2client;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
@@ -26,6 +30,8 @@ import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpRequest.Builder;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
@@ -39,10 +45,18 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import feign.AsyncClient;
 import feign.Client;
+import feign.ClientCache;
 import feign.Request;
 import feign.Request.Options;
 import feign.Response;
@@ -50,7 +64,31 @@ import feign.Util;
 
 public class Http2Client implements Client, AsyncClient<Object> {
 
+
+  private static class LazyInitializedBodyWriters {
+
+    /* writers block while the server isn't reading, so they don't run on the client's threads */
+    private static final Executor instance;
+
+    static {
+      final ThreadPoolExecutor executor = new ThreadPoolExecutor(16, 16, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(), r -> {
+            final Thread result = new Thread(r, "feign-body-writer");
+            result.setDaemon(true);
+            return result;
+          });
+      executor.allowCoreThreadTimeOut(true);
+      instance = executor;
+    }
+  }
+
   private final HttpClient client;
+  private final Executor bodyWriterExecutor;
+  /*
+   * keyed by connect timeout and redirect policy, so that connections are reused across calls.
+   * Evicted clients close their connections once they are no longer referenced.
+   */
+  private final ClientCache<Long, HttpClient> derivedClients = new ClientCache<>();
 
   public Http2Client() {
     this(HttpClient.newBuilder()
@@ -66,14 +104,25 @@ public class Http2Client implements Client, AsyncClient<Object> {
   }
 
   public Http2Client(HttpClient client) {
+    this(client, LazyInitializedBodyWriters.instance);
+  }
+
+  /**
+   * @param bodyWriterExecutor runs the {@link Request.BodyWriter writers} of streamed bodies, which
+   *        block until the server reads what they wrote. By default, 16 threads shared by all
+   *        clients.
+   */
+  public Http2Client(HttpClient client, Executor bodyWriterExecutor) {
     this.client = Util.checkNotNull(client, "HttpClient must not be null");
+    this.bodyWriterExecutor = Util.checkNotNull(bodyWriterExecutor, "bodyWriterExecutor");
   }
 
   @Override
   public Response execute(Request request, Options options) throws IOException {
+    final BodyPublisher body = toBodyPublisher(request);
     final HttpRequest httpRequest;
     try {
-      httpRequest = newRequestBuilder(request, options)
+      httpRequest = newRequestBuilder(request, options, body)
           .version(client.version())
           .build();
     } catch (URISyntaxException e) {
@@ -81,12 +130,14 @@ public class Http2Client implements Client, AsyncClient<Object> {
     }
 
     HttpClient clientForRequest = getOrCreateClient(options);
-    HttpResponse<byte[]> httpResponse;
+    HttpResponse<InputStream> httpResponse;
     try {
-      httpResponse = clientForRequest.send(httpRequest, BodyHandlers.ofByteArray());
+      httpResponse = clientForRequest.send(httpRequest, BodyHandlers.ofInputStream());
     } catch (final InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IOException("Invalid uri " + request.url(), e);
+    } finally {
+      abandon(body);
     }
 
     return toFeignResponse(request, httpResponse);
@@ -96,25 +147,42 @@ public class Http2Client implements Client, AsyncClient<Object> {
   public CompletableFuture<Response> execute(Request request,
                                              Options options,
                                              Optional<Object> requestContext) {
+    final BodyPublisher body;
     HttpRequest httpRequest;
     try {
-      httpRequest = newRequestBuilder(request, options).build();
+      body = toBodyPublisher(request);
+      httpRequest = newRequestBuilder(request, options, body).build();
     } catch (URISyntaxException e) {
       throw new IllegalArgumentException("Invalid uri " + request.url(), e);
+    } catch (FileNotFoundException e) {
+      return CompletableFuture.failedFuture(e);
     }
 
     HttpClient clientForRequest = getOrCreateClient(options);
-    CompletableFuture<HttpResponse<byte[]>> future =
-        clientForRequest.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
-    return future.thenApply(httpResponse -> toFeignResponse(request, httpResponse));
+    CompletableFuture<HttpResponse<InputStream>> future =
+        clientForRequest.sendAsync(httpRequest, BodyHandlers.ofInputStream());
+    CompletableFuture<Response> result =
+        future.thenApply(httpResponse -> toFeignResponse(request, httpResponse));
+    result.whenComplete((response, error) -> {
+      abandon(body);
+      if (result.isCancelled()) {
+        future.cancel(true);
+      }
+    });
+    return result;
   }
 
-  protected Response toFeignResponse(Request request, HttpResponse<byte[]> httpResponse) {
+  /**
+   * @param httpResponse whose body is streamed as it arrives, so it must be closed once read.
+   */
+  protected Response toFeignResponse(Request request, HttpResponse<InputStream> httpResponse) {
     final OptionalLong length = httpResponse.headers().firstValueAsLong("Content-Length");
 
     return Response.builder()
-        .body(new ByteArrayInputStream(httpResponse.body()),
-            length.isPresent() ? (int) length.getAsLong() : null)
+        .body(httpResponse.body(),
+            length.isPresent() && length.getAsLong() <= Integer.MAX_VALUE
+                ? (int) length.getAsLong()
+                : null)
         .reason(httpResponse.headers().firstValue("Reason-Phrase").orElse("OK"))
         .request(request)
         .status(httpResponse.statusCode())
@@ -123,20 +191,27 @@ public class Http2Client implements Client, AsyncClient<Object> {
   }
 
   private HttpClient getOrCreateClient(Options options) {
-    if (doesClientConfigurationDiffer(options)) {
-      // create a new client from the existing one - but with connectTimeout and followRedirect
-      // settings from options
-      java.net.http.HttpClient.Builder builder = newClientBuilder(options)
-          .sslContext(client.sslContext())
-          .sslParameters(client.sslParameters())
-          .version(client.version());
-      client.authenticator().ifPresent(builder::authenticator);
-      client.cookieHandler().ifPresent(builder::cookieHandler);
-      client.executor().ifPresent(builder::executor);
-      client.proxy().ifPresent(builder::proxy);
-      return builder.build();
-    }
-    return client;
+    if (!doesClientConfigurationDiffer(options)) {
+      return client;
+    }
+    final Long key = options.connectTimeoutMillis() * 2L + (options.isFollowRedirects() ? 1 : 0);
+    return derivedClients.get(key, k -> deriveClient(options));
+  }
+
+  /**
+   * Creates a new client from the existing one, but with the connectTimeout and followRedirect
+   * settings of {@code options}.
+   */
+  private HttpClient deriveClient(Options options) {
+    java.net.http.HttpClient.Builder builder = newClientBuilder(options)
+        .sslContext(client.sslContext())
+        .sslParameters(client.sslParameters())
+        .version(client.version());
+    client.authenticator().ifPresent(builder::authenticator);
+    client.cookieHandler().ifPresent(builder::cookieHandler);
+    client.executor().ifPresent(builder::executor);
+    client.proxy().ifPresent(builder::proxy);
+    return builder.build();
   }
 
   private boolean doesClientConfigurationDiffer(Options options) {
@@ -155,16 +230,20 @@ public class Http2Client implements Client, AsyncClient<Object> {
         .connectTimeout(Duration.ofMillis(options.connectTimeoutMillis()));
   }
 
-  private Builder newRequestBuilder(Request request, Options options) throws URISyntaxException {
-    URI uri = new URI(request.url());
-
-    final BodyPublisher body;
+  private BodyPublisher toBodyPublisher(Request request) throws FileNotFoundException {
     final byte[] data = request.body();
-    if (data == null) {
-      body = BodyPublishers.noBody();
+    if (request.requestBody().isStreaming()) {
+      return toStreamingPublisher(request.requestBody());
+    } else if (data == null) {
+      return BodyPublishers.noBody();
     } else {
-      body = BodyPublishers.ofByteArray(data);
+      return BodyPublishers.ofByteArray(data);
     }
+  }
+
+  private Builder newRequestBuilder(Request request, Options options, BodyPublisher body)
+      throws URISyntaxException {
+    URI uri = new URI(request.url());
 
     final Builder requestBuilder = HttpRequest.newBuilder()
         .uri(uri)
@@ -192,6 +271,153 @@ public class Http2Client implements Client, AsyncClient<Object> {
 
   }
 
+  private BodyPublisher toStreamingPublisher(Request.Body body) throws FileNotFoundException {
+    final Path file = body.asFile();
+    if (file != null) {
+      // the client reads files with a FileChannel, instead of copying them through a stream
+      return BodyPublishers.ofFile(file);
+    }
+    return new WriterPublisher(body, bodyWriterExecutor);
+  }
+
+  /**
+   * Stops the writers of {@code body} once the exchange is over, in case the client did not read
+   * the whole body, for example when the server responded early or the request failed.
+   */
+  private static void abandon(BodyPublisher body) {
+    if (body instanceof WriterPublisher) {
+      ((WriterPublisher) body).cancel();
+    }
+  }
+
+  /**
+   * Publishes the output of a {@link Request.BodyWriter} as it is written. The writer runs on an
+   * executor and blocks while the client hasn't asked for more, without polling. Once the
+   * subscription is cancelled, the next write fails, so that an abandoned body releases its thread.
+   */
+  static final class WriterPublisher implements BodyPublisher {
+
+    private final Request.Body body;
+    private final Executor executor;
+    /* one for each time the client sends the body */
+    private final List<WriterSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    WriterPublisher(Request.Body body, Executor executor) {
+      this.body = body;
+      this.executor = executor;
+    }
+
+    @Override
+    public long contentLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      final WriterSubscription subscription = new WriterSubscription(body, subscriber);
+      subscriptions.add(subscription);
+      subscriber.onSubscribe(subscription);
+      try {
+        executor.execute(subscription::write);
+      } catch (final RejectedExecutionException e) {
+        subscription.fail(new IOException("Cannot write request body", e));
+      }
+    }
+
+    void cancel() {
+      subscriptions.forEach(WriterSubscription::cancel);
+    }
+  }
+
+  static final class WriterSubscription extends OutputStream implements Flow.Subscription {
+
+    private final Request.Body body;
+    private final Flow.Subscriber<? super ByteBuffer> subscriber;
+    /* guarded by this */
+    private long demand;
+    private boolean cancelled;
+
+    WriterSubscription(Request.Body body, Flow.Subscriber<? super ByteBuffer> subscriber) {
+      this.body = body;
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        fail(new IllegalArgumentException("non-positive subscription request: " + n));
+        return;
+      }
+      synchronized (this) {
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        notifyAll();
+      }
+    }
+
+    @Override
+    public synchronized void cancel() {
+      cancelled = true;
+      notifyAll();
+    }
+
+    void write() {
+      try (OutputStream out = new BufferedOutputStream(this, 8192)) {
+        body.writeTo(out);
+      } catch (final Throwable e) {
+        fail(e);
+        return;
+      }
+      if (!isCancelled()) {
+        subscriber.onComplete();
+      }
+    }
+
+    void fail(Throwable error) {
+      synchronized (this) {
+        if (cancelled) {
+          return;
+        }
+        cancelled = true;
+        notifyAll();
+      }
+      subscriber.onError(error);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return;
+      }
+      awaitDemand();
+      // the writer may reuse its buffer once this returns
+      subscriber.onNext(ByteBuffer.wrap(Arrays.copyOfRange(b, off, off + len)));
+    }
+
+    private synchronized void awaitDemand() throws IOException {
+      while (demand == 0 && !cancelled) {
+        try {
+          wait();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted writing request body");
+        }
+      }
+      if (cancelled) {
+        throw new IOException("Request body is no longer read");
+      }
+      demand--;
+    }
+
+    private synchronized boolean isCancelled() {
+      return cancelled;
+    }
+  }
+
   /**
    * There is a bunch o headers that the http2 client do not allow to be set.
    *
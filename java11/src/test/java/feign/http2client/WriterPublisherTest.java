@@ -0,0 +1,125 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.http2client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import feign.Request;
+import feign.Util;
+
+public class WriterPublisherTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void publishesWhatTheWriterWrites() throws Exception {
+    Http2Client.WriterPublisher publisher = new Http2Client.WriterPublisher(
+        Request.Body.create(out -> out.write("foo".getBytes(Util.UTF_8)), 3), executor);
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    subscriber.done.get(5, TimeUnit.SECONDS);
+    assertThat(publisher.contentLength()).isEqualTo(3);
+    assertThat(subscriber.bytes.toString("UTF-8")).isEqualTo("foo");
+  }
+
+  @Test
+  public void writerWaitsForDemand() throws Exception {
+    Http2Client.WriterPublisher publisher = new Http2Client.WriterPublisher(
+        Request.Body.create(out -> {
+          out.write(new byte[8192]);
+          out.write(new byte[8192]);
+        }, -1), executor);
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(1);
+    Thread.sleep(50);
+
+    assertThat(subscriber.bytes.size()).isEqualTo(8192);
+    assertThat(subscriber.done).isNotDone();
+    subscriber.subscription.request(1);
+    subscriber.done.get(5, TimeUnit.SECONDS);
+    assertThat(subscriber.bytes.size()).isEqualTo(16384);
+  }
+
+  @Test
+  public void cancellingReleasesTheWriter() throws Exception {
+    CompletableFuture<Throwable> writerFailure = new CompletableFuture<>();
+    Http2Client.WriterPublisher publisher = new Http2Client.WriterPublisher(
+        Request.Body.create(out -> {
+          try {
+            while (true) {
+              out.write(new byte[8192]);
+            }
+          } catch (IOException e) {
+            writerFailure.complete(e);
+            throw e;
+          }
+        }, -1), executor);
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(1);
+
+    publisher.cancel();
+
+    assertThat(writerFailure.get(5, TimeUnit.SECONDS)).isInstanceOf(IOException.class);
+    assertThat(subscriber.done).isNotDone();
+  }
+
+  static class CollectingSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    volatile Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public synchronized void onNext(ByteBuffer item) {
+      byte[] chunk = new byte[item.remaining()];
+      item.get(chunk);
+      bytes.write(chunk, 0, chunk.length);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      done.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(null);
+    }
+  }
+}
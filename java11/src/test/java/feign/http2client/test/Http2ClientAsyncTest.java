@@ -125,6 +125,22 @@ public class Http2ClientAsyncTest {
     assertEquals("foo", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
   }
 
+  @Test
+  public void reusesConnectionsForOptionsDifferentFromClient() throws Throwable {
+    server.enqueue(new MockResponse().setBody("foo"));
+    server.enqueue(new MockResponse().setBody("bar"));
+
+    final TestInterfaceAsync api =
+        newAsyncBuilder().target("http://localhost:" + server.getPort());
+
+    // the default client has no connect timeout, so these use a client derived from it
+    assertEquals("foo", unwrap(api.post()));
+    assertEquals("bar", unwrap(api.post()));
+
+    assertThat(server.takeRequest().getSequenceNumber()).isEqualTo(0);
+    assertThat(server.takeRequest().getSequenceNumber()).isEqualTo(1);
+  }
+
   @Test
   public void postFormParams() throws Exception {
     server.enqueue(new MockResponse().setBody("foo"));
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.virtualthread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Runs each call of a blocking {@link Client} on its own virtual thread, rather than on the pool of
+ * platform threads of {@link AsyncClient.Default}. Blocked calls then cost no OS thread, which
+ * allows many thousands of requests in flight over {@link Client.Default} or OkHttp.
+ *
+ * <pre>
+ * GitHub github = AsyncFeign.asyncBuilder()
+ *     .client(new VirtualThreadAsyncClient&lt;&gt;())
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ *
+ * <p>
+ * A client that holds a lock while blocked on I/O pins the carrier thread of the virtual thread,
+ * which limits concurrency to the number of carriers.
+ */
+@Experimental
+public class VirtualThreadAsyncClient<C> extends AsyncClient.Default<C> {
+
+  private static class LazyInitializedExecutorService {
+
+    private static final ExecutorService instance = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("feign-virtual-", 0).factory());
+  }
+
+  /**
+   * Uses {@link Client.Default} without SSL customization.
+   */
+  public VirtualThreadAsyncClient() {
+    this(new Client.Default(null, null));
+  }
+
+  public VirtualThreadAsyncClient(Client client) {
+    super(client, executor());
+  }
+
+  /**
+   * Executor shared by Feign, starting a virtual thread for each task. It is never shut down.
+   */
+  public static ExecutorService executor() {
+    return LazyInitializedExecutorService.instance;
+  }
+}
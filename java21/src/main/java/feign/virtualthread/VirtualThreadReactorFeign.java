@@ -0,0 +1,53 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.virtualthread;
+
+import feign.Experimental;
+import feign.reactive.ReactorFeign;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Builds {@link ReactorFeign} clients that subscribe to their invocations on virtual threads, so
+ * that each blocked call costs no OS thread, unlike the default {@link Schedulers#elastic()}.
+ *
+ * <pre>
+ * GitHub github = VirtualThreadReactorFeign.builder()
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+@Experimental
+public final class VirtualThreadReactorFeign {
+
+  private static class LazyInitializedScheduler {
+
+    /* wraps the executor so that disposing the scheduler does not shut it down */
+    private static final Scheduler instance =
+        Schedulers.fromExecutor(VirtualThreadAsyncClient.executor()::execute);
+  }
+
+  private VirtualThreadReactorFeign() {}
+
+  public static ReactorFeign.Builder builder() {
+    return ReactorFeign.builder().scheduleOn(scheduler());
+  }
+
+  /**
+   * Scheduler running each task on a new virtual thread, for
+   * {@link ReactorFeign.Builder#scheduleOn}.
+   */
+  public static Scheduler scheduler() {
+    return LazyInitializedScheduler.instance;
+  }
+}
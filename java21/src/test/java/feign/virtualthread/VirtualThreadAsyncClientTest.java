@@ -0,0 +1,74 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.virtualthread;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Rule;
+import org.junit.Test;
+import feign.AsyncFeign;
+import feign.Client;
+import feign.RequestLine;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import reactor.core.publisher.Mono;
+
+public class VirtualThreadAsyncClientTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  private final AtomicBoolean executedOnVirtualThread = new AtomicBoolean();
+  private final Client client = (request, options) -> {
+    executedOnVirtualThread.set(Thread.currentThread().isVirtual());
+    return new Client.Default(null, null).execute(request, options);
+  };
+
+  public interface AsyncApi {
+
+    @RequestLine("GET /")
+    CompletableFuture<String> get();
+  }
+
+  public interface ReactorApi {
+
+    @RequestLine("GET /")
+    Mono<String> get();
+  }
+
+  @Test
+  public void executesBlockingClientOnVirtualThread() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    AsyncApi api = AsyncFeign.<Void>asyncBuilder()
+        .client(new VirtualThreadAsyncClient<>(client))
+        .target(AsyncApi.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.get().get()).isEqualTo("foo");
+    assertThat(executedOnVirtualThread).isTrue();
+  }
+
+  @Test
+  public void subscribesToReactorInvocationsOnVirtualThread() {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    ReactorApi api = VirtualThreadReactorFeign.builder()
+        .client(client)
+        .target(ReactorApi.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.get().block()).isEqualTo("foo");
+    assertThat(executedOnVirtualThread).isTrue();
+  }
+}
@@ -13,18 +13,28 @@
  */
 package feign.jaxrs2;
 
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.core.*;
+import feign.AsyncClient;
 import feign.Client;
+import feign.ClientCache;
 import feign.Request.Options;
 
 /**
@@ -34,41 +44,244 @@ import feign.Request.Options;
  * GitHub github =
  *     Feign.builder().client(new JaxRSClient()).target(GitHub.class, "https://api.github.com");
  * </pre>
+ *
+ * <p>
+ * A JAX-RS client is built for each distinct pair of connect and read timeouts, and reused, with
+ * its connections, until this client is {@link #close() closed}. Up to
+ * {@link ClientCache#DEFAULT_MAX_SIZE} are kept by default, past which the least recently used is
+ * closed, once the calls using it complete and their responses are closed. It can also be used
+ * with {@link feign.AsyncFeign}, in which case requests are sent with the JAX-RS
+ * {@link javax.ws.rs.client.AsyncInvoker}.
  */
-public class JAXRSClient implements Client {
+public class JAXRSClient implements Client, AsyncClient<Object>, Closeable {
 
   private final ClientBuilder clientBuilder;
+  private final ClientCache<Long, SharedClient> clients;
 
   public JAXRSClient() {
     this(ClientBuilder.newBuilder());
   }
 
   public JAXRSClient(ClientBuilder clientBuilder) {
+    this(clientBuilder, ClientCache.DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param maxClients JAX-RS clients kept open, one for each pair of timeouts in use.
+   */
+  public JAXRSClient(ClientBuilder clientBuilder, int maxClients) {
     this.clientBuilder = clientBuilder;
+    this.clients = new ClientCache<>(maxClients, SharedClient::retire);
   }
 
   @Override
   public feign.Response execute(feign.Request request, Options options) throws IOException {
-    final Response response = clientBuilder
-        .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
-        .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
-        .build()
+    final Lease lease = lease(options);
+    final Response response;
+    try {
+      response = newInvocation(lease.client(), request)
+          .method(request.httpMethod().name(), createRequestEntity(request));
+    } catch (final RuntimeException e) {
+      lease.release();
+      throw e;
+    }
+    return toFeignResponse(request, response, lease);
+  }
+
+  @Override
+  public CompletableFuture<feign.Response> execute(feign.Request request,
+                                                   Options options,
+                                                   Optional<Object> requestContext) {
+    final CompletableFuture<feign.Response> result = new CompletableFuture<>();
+    final Lease lease = lease(options);
+    final Future<Response> future;
+    try {
+      future = newInvocation(lease.client(), request).async()
+          .method(request.httpMethod().name(), createRequestEntity(request),
+              new InvocationCallback<Response>() {
+                @Override
+                public void completed(Response response) {
+                  try {
+                    final feign.Response feignResponse =
+                        toFeignResponse(request, response, lease);
+                    if (!result.complete(feignResponse)) {
+                      // cancelled while executing
+                      feignResponse.close();
+                    }
+                  } catch (final RuntimeException e) {
+                    result.completeExceptionally(e);
+                  }
+                }
+
+                @Override
+                public void failed(Throwable throwable) {
+                  lease.release();
+                  result.completeExceptionally(throwable);
+                }
+              });
+    } catch (final RuntimeException e) {
+      lease.release();
+      throw e;
+    }
+    result.whenComplete((response, throwable) -> {
+      if (result.isCancelled()) {
+        future.cancel(true);
+        lease.release();
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Closes the JAX-RS clients built so far, each once the calls using it complete and their
+   * responses are closed. Clients built from then on must be closed again.
+   */
+  @Override
+  public void close() {
+    clients.clear();
+  }
+
+  private Invocation.Builder newInvocation(javax.ws.rs.client.Client client,
+                                           feign.Request request) {
+    return client
         .target(request.url())
         .request()
-        .headers(toMultivaluedMap(request.headers()))
-        .method(request.httpMethod().name(), createRequestEntity(request));
+        .headers(toMultivaluedMap(request.headers()));
+  }
 
-    return feign.Response.builder()
+  /**
+   * Takes the client for {@code options} until the call is done with it, building it if needed.
+   */
+  private Lease lease(Options options) {
+    final long key =
+        ((long) options.connectTimeoutMillis() << 32) | (options.readTimeoutMillis() & 0xFFFFFFFFL);
+    while (true) {
+      final SharedClient shared = clients.get(key, k -> {
+        // the builder is mutable, so calls must not interleave
+        synchronized (clientBuilder) {
+          return new SharedClient(clientBuilder
+              .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+              .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+              .build());
+        }
+      });
+      if (shared.acquire()) {
+        return new Lease(shared);
+      }
+      // evicted in the meantime, the next lookup builds another one
+    }
+  }
+
+  /**
+   * The response owns the lease, which is released once its body is closed.
+   */
+  private feign.Response toFeignResponse(feign.Request request, Response response, Lease lease) {
+    final InputStream body;
+    try {
+      body = response.readEntity(InputStream.class);
+    } catch (final RuntimeException e) {
+      response.close();
+      lease.release();
+      throw e;
+    }
+    final feign.Response.Builder builder = feign.Response.builder()
         .request(request)
-        .body(response.readEntity(InputStream.class),
-            integerHeader(response, HttpHeaders.CONTENT_LENGTH))
         .headers(toMap(response.getStringHeaders()))
         .status(response.getStatus())
-        .reason(response.getStatusInfo().getReasonPhrase())
-        .build();
+        .reason(response.getStatusInfo().getReasonPhrase());
+    if (body == null) {
+      lease.release();
+      return builder.build();
+    }
+    return builder.body(new FilterInputStream(body) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          lease.release();
+        }
+      }
+    }, integerHeader(response, HttpHeaders.CONTENT_LENGTH)).build();
+  }
+
+  /**
+   * A cached JAX-RS client, closed once it is evicted and no call uses it anymore, since closing it
+   * fails the calls in flight.
+   */
+  private static final class SharedClient {
+
+    private final javax.ws.rs.client.Client client;
+    private int users;
+    private boolean retired;
+
+    SharedClient(javax.ws.rs.client.Client client) {
+      this.client = client;
+    }
+
+    /**
+     * @return false if the client was evicted, and must not be used anymore.
+     */
+    synchronized boolean acquire() {
+      if (retired) {
+        return false;
+      }
+      users++;
+      return true;
+    }
+
+    void release() {
+      final boolean close;
+      synchronized (this) {
+        close = --users == 0 && retired;
+      }
+      if (close) {
+        client.close();
+      }
+    }
+
+    void retire() {
+      final boolean close;
+      synchronized (this) {
+        retired = true;
+        close = users == 0;
+      }
+      if (close) {
+        client.close();
+      }
+    }
   }
 
-  private Entity<byte[]> createRequestEntity(feign.Request request) {
+  /**
+   * Use of a {@link SharedClient} by one call, released at most once.
+   */
+  private static final class Lease {
+
+    private final SharedClient shared;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Lease(SharedClient shared) {
+      this.shared = shared;
+    }
+
+    javax.ws.rs.client.Client client() {
+      return shared.client;
+    }
+
+    void release() {
+      if (released.compareAndSet(false, true)) {
+        shared.release();
+      }
+    }
+  }
+
+  private Entity<?> createRequestEntity(feign.Request request) {
+    if (request.requestBody().isStreaming()) {
+      final feign.Request.Body body = request.requestBody();
+      return Entity.entity((StreamingOutput) body::writeTo,
+          new Variant(mediaType(request.headers()), locale(request.headers()),
+              encoding(request.charset())));
+    }
     if (request.body() == null) {
       return null;
     }
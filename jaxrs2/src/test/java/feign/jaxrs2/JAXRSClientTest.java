@@ -18,14 +18,28 @@ import feign.Feign.Builder;
 import feign.assertj.MockWebServerAssertions;
 import feign.client.AbstractClientTest;
 import feign.jaxrs.JAXRSContract;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.assertj.core.data.MapEntry;
+import org.glassfish.jersey.client.JerseyClient;
+import org.glassfish.jersey.client.JerseyClientBuilder;
 import org.junit.Assume;
 import org.junit.Test;
 import javax.ws.rs.*;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static feign.Util.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -143,6 +157,133 @@ public class JAXRSClientTest extends AbstractClientTest {
         .hasMethod("POST");
   }
 
+  @Test
+  public void reusesClientUntilClosed() throws Exception {
+    final AtomicInteger builds = new AtomicInteger();
+    final JAXRSClient client = new JAXRSClient(new JerseyClientBuilder() {
+      @Override
+      public JerseyClient build() {
+        builds.incrementAndGet();
+        return super.build();
+      }
+    });
+    final TestInterface api = Feign.builder().client(client)
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    server.enqueue(new MockResponse().setBody("foo"));
+    server.enqueue(new MockResponse().setBody("bar"));
+    api.post("foo");
+    api.post("bar");
+    assertThat(builds).hasValue(1);
+
+    client.close();
+    server.enqueue(new MockResponse().setBody("baz"));
+    api.post("baz");
+    assertThat(builds).hasValue(2);
+  }
+
+  @Test
+  public void evictedClientsServeCallsInFlight() throws Exception {
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        return new MockResponse().setBody("ok");
+      }
+    });
+    final List<JerseyClient> built = new CopyOnWriteArrayList<>();
+    final JAXRSClient client = new JAXRSClient(new JerseyClientBuilder() {
+      @Override
+      public JerseyClient build() {
+        final JerseyClient result = super.build();
+        built.add(result);
+        return result;
+      }
+    });
+    final Request request = Request.create(Request.HttpMethod.GET,
+        "http://localhost:" + server.getPort(), Collections.emptyMap(), null, UTF_8, null);
+    final int distinctOptions = ClientCache.DEFAULT_MAX_SIZE + 8;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<String>> calls = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        final Request.Options options = new Request.Options(1, TimeUnit.SECONDS,
+            5000 + i % distinctOptions, TimeUnit.MILLISECONDS, true);
+        final boolean async = i % 2 == 0;
+        calls.add(executor.submit(() -> {
+          try (Response response = async
+              ? client.execute(request, options, Optional.empty()).get()
+              : client.execute(request, options)) {
+            return Util.toString(response.body().asReader(UTF_8));
+          }
+        }));
+      }
+      for (final Future<String> call : calls) {
+        assertThat(call.get()).isEqualTo("ok");
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(built.size()).isGreaterThan(ClientCache.DEFAULT_MAX_SIZE);
+
+    client.close();
+    assertThat(built).allMatch(JerseyClient::isClosed);
+  }
+
+  @Test
+  public void closesEvictedClientOnceItsResponseIsClosed() throws Exception {
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        return new MockResponse().setBody("ok");
+      }
+    });
+    final List<JerseyClient> built = new CopyOnWriteArrayList<>();
+    final JAXRSClient client = new JAXRSClient(new JerseyClientBuilder() {
+      @Override
+      public JerseyClient build() {
+        final JerseyClient result = super.build();
+        built.add(result);
+        return result;
+      }
+    });
+    final Request request = Request.create(Request.HttpMethod.GET,
+        "http://localhost:" + server.getPort(), Collections.emptyMap(), null, UTF_8, null);
+
+    final Response open = client.execute(request, new Request.Options());
+    for (int i = 1; i <= ClientCache.DEFAULT_MAX_SIZE; i++) {
+      client.execute(request,
+          new Request.Options(1, TimeUnit.SECONDS, i, TimeUnit.SECONDS, true)).close();
+    }
+
+    // evicted, but still reading its response
+    assertThat(built).hasSize(ClientCache.DEFAULT_MAX_SIZE + 1);
+    assertThat(built.get(0).isClosed()).isFalse();
+    assertThat(Util.toString(open.body().asReader(UTF_8))).isEqualTo("ok");
+    open.close();
+    assertThat(built.get(0).isClosed()).isTrue();
+    client.close();
+  }
+
+  @Test
+  public void sendsAsyncRequests() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    final AsyncTestInterface api = AsyncFeign.asyncBuilder()
+        .client(new JAXRSClient())
+        .target(AsyncTestInterface.class, "http://localhost:" + server.getPort());
+
+    assertEquals("foo", api.post("bar").get());
+    MockWebServerAssertions.assertThat(server.takeRequest()).hasMethod("POST")
+        .hasBody("bar");
+  }
+
+  public interface AsyncTestInterface {
+
+    @RequestLine("POST /")
+    CompletableFuture<String> post(String body);
+  }
+
   public interface JaxRSClientTestInterface {
 
     @RequestLine("GET /")
@@ -18,8 +18,6 @@ import feign.*;
 import io.micrometer.core.instrument.*;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 import static feign.micrometer.MetricTagResolver.EMPTY_TAGS_ARRAY;
 
@@ -28,13 +26,6 @@ import static feign.micrometer.MetricTagResolver.EMPTY_TAGS_ARRAY;
  */
 public class MeteredInvocationHandleFactory implements InvocationHandlerFactory {
 
-  /**
-   * Methods that are declared by super class object and, if invoked, we don't wanna record metrics
-   * for
-   */
-  private static final List<String> JAVA_OBJECT_METHODS =
-      Arrays.asList("equals", "toString", "hashCode");
-
   private final InvocationHandlerFactory invocationHandler;
   private final MeterRegistry meterRegistry;
   private final MetricName metricName;
@@ -57,10 +48,14 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
   @Override
   public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
     final InvocationHandler invocationHandle = invocationHandler.create(target, dispatch);
+    final DispatchTable methods = DispatchTable.create(dispatch);
+    final boolean[] metered = metered(methods);
     return (proxy, method, args) -> {
 
-      if (JAVA_OBJECT_METHODS.contains(method.getName())
-          || Util.isDefault(method)) {
+      // methods declared by java.lang.Object resolve to negative slots and, like default
+      // methods, if invoked, we don't wanna record metrics for
+      final int slot = methods.slot(method);
+      if (slot < 0 || !metered[slot]) {
         return invocationHandle.invoke(proxy, method, args);
       }
 
@@ -109,4 +104,12 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
                             Throwable throwable) {
     return EMPTY_TAGS_ARRAY;
   }
+
+  private static boolean[] metered(DispatchTable methods) {
+    final boolean[] result = new boolean[methods.size()];
+    for (int slot = 0; slot < result.length; slot++) {
+      result[slot] = !Util.isDefault(methods.method(slot));
+    }
+    return result;
+  }
 }
@@ -13,12 +13,19 @@
  */
 package feign.micrometer;
 
+import feign.BudgetedRetryer;
 import feign.Capability;
 import feign.Client;
 import feign.InvocationHandlerFactory;
+import feign.RetryBudget;
+import feign.Retryer;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
+import feign.concurrency.ConcurrencyLimiter;
+import feign.concurrency.ConcurrencyLimitingClient;
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.simple.SimpleConfig;
@@ -37,11 +44,54 @@ public class MicrometerCapability implements Capability {
     this.meterRegistry = meterRegistry;
   }
 
+  /**
+   * Also registers the limiter of a {@link ConcurrencyLimitingClient}: its limit, the calls in
+   * flight and how many it rejected, tagged with its target.
+   */
   @Override
   public Client enrich(Client client) {
+    if (client instanceof ConcurrencyLimitingClient) {
+      ConcurrencyLimiter limiter = ((ConcurrencyLimitingClient) client).limiter();
+      FeignMetricName metricName = new FeignMetricName(Client.class);
+      Gauge.builder(metricName.name("concurrency.limit"), limiter, ConcurrencyLimiter::limit)
+          .description("Requests currently allowed in flight by the concurrency limiter")
+          .tag("target", limiter.target())
+          .register(meterRegistry);
+      Gauge.builder(metricName.name("concurrency.in.flight"), limiter,
+          ConcurrencyLimiter::inFlight)
+          .description("Requests in flight within the concurrency limit")
+          .tag("target", limiter.target())
+          .register(meterRegistry);
+      FunctionCounter.builder(metricName.name("concurrency.rejected"), limiter,
+          ConcurrencyLimiter::rejected)
+          .description("Requests rejected because the concurrency limit was reached")
+          .tag("target", limiter.target())
+          .register(meterRegistry);
+    }
     return new MeteredClient(client, meterRegistry);
   }
 
+  /**
+   * Registers the budget of a {@link BudgetedRetryer}: how many retries it denied, and how many it
+   * can still grant, tagged with its target.
+   */
+  @Override
+  public Retryer enrich(Retryer retryer) {
+    if (retryer instanceof BudgetedRetryer) {
+      RetryBudget budget = ((BudgetedRetryer) retryer).budget();
+      FeignMetricName metricName = new FeignMetricName(Retryer.class);
+      FunctionCounter.builder(metricName.name("budget.exhausted"), budget, RetryBudget::exhausted)
+          .description("Retries denied because the retry budget was exhausted")
+          .tag("target", budget.target())
+          .register(meterRegistry);
+      Gauge.builder(metricName.name("budget.balance"), budget, RetryBudget::balance)
+          .description("Retries currently allowed by the retry budget")
+          .tag("target", budget.target())
+          .register(meterRegistry);
+    }
+    return retryer;
+  }
+
   @Override
   public Encoder enrich(Encoder encoder) {
     return new MeteredEncoder(encoder, meterRegistry);
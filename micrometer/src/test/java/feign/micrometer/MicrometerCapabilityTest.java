@@ -13,8 +13,20 @@
  */
 package feign.micrometer;
 
+import feign.BudgetedRetryer;
+import feign.BudgetedRetryer.Jitter;
 import feign.Capability;
+import feign.Feign;
+import feign.RetryBudget;
+import feign.RetryableException;
 import feign.Util;
+import feign.concurrency.ConcurrencyLimitCapability;
+import feign.concurrency.ConcurrencyLimiter;
+import feign.mock.HttpMethod;
+import feign.mock.MockClient;
+import feign.mock.MockTarget;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Meter.Id;
 import io.micrometer.core.instrument.MockClock;
@@ -27,6 +39,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.junit.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class MicrometerCapabilityTest
     extends AbstractMetricsTestBase<SimpleMeterRegistry, Id, Meter> {
@@ -108,6 +123,49 @@ public class MicrometerCapabilityTest
     return metricId.getName().startsWith("feign.codec.Decoder");
   }
 
+  @Test
+  public void countsExhaustedRetryBudget() {
+    RetryBudget budget = new RetryBudget("simple", 0, 1);
+    SimpleSource source = Feign.builder()
+        .client(new MockClient().add(HttpMethod.GET, "/get", 503, ""))
+        .errorDecoder((methodKey, response) -> new RetryableException(response.status(),
+            "unavailable", response.request().httpMethod(), null, response.request()))
+        .retryer(new BudgetedRetryer(0, 0, 5, Jitter.NONE, budget))
+        .addCapability(createMetricCapability())
+        .target(new MockTarget<>(SimpleSource.class));
+
+    assertThatThrownBy(() -> source.get("0x3456789")).isInstanceOf(RetryableException.class);
+
+    FunctionCounter exhausted = metricsRegistry.get("feign.Retryer.budget.exhausted")
+        .tag("target", "simple").functionCounter();
+    assertThat(exhausted.count()).isEqualTo(1);
+    Gauge balance = metricsRegistry.get("feign.Retryer.budget.balance")
+        .tag("target", "simple").gauge();
+    assertThat(balance.value()).isZero();
+  }
+
+  @Test
+  public void reportsConcurrencyLimit() {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.builder("simple").limit(5, 1, 10).build();
+    SimpleSource source = Feign.builder()
+        .client(new MockClient().ok(HttpMethod.GET, "/get", "1234567890abcde"))
+        .addCapability(new ConcurrencyLimitCapability(limiter))
+        .addCapability(createMetricCapability())
+        .target(new MockTarget<>(SimpleSource.class));
+
+    source.get("0x3456789");
+
+    Gauge limit = metricsRegistry.get("feign.Client.concurrency.limit")
+        .tag("target", "simple").gauge();
+    assertThat(limit.value()).isEqualTo(limiter.limit());
+    Gauge inFlight = metricsRegistry.get("feign.Client.concurrency.in.flight")
+        .tag("target", "simple").gauge();
+    assertThat(inFlight.value()).isZero();
+    FunctionCounter rejected = metricsRegistry.get("feign.Client.concurrency.rejected")
+        .tag("target", "simple").functionCounter();
+    assertThat(rejected.count()).isZero();
+  }
+
   @Override
   protected boolean doesMetricIncludeUri(Id metricId, String uri) {
     return uri.equals(metricId.getTag("uri"));
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.netty;
+
+import java.util.concurrent.ThreadFactory;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+
+/**
+ * Loads the native epoll transport reflectively, so that it stays an optional dependency.
+ */
+final class Epoll {
+
+  private Epoll() {}
+
+  /**
+   * @return event loops using epoll, or null if the transport is not available.
+   */
+  static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+    try {
+      final Class<?> epoll = Class.forName("io.netty.channel.epoll.Epoll");
+      if (!(Boolean) epoll.getMethod("isAvailable").invoke(null)) {
+        return null;
+      }
+      return (EventLoopGroup) Class.forName("io.netty.channel.epoll.EpollEventLoopGroup")
+          .getConstructor(int.class, ThreadFactory.class)
+          .newInstance(threads, threadFactory);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  static Class<? extends Channel> socketChannelType() {
+    try {
+      return Class.forName("io.netty.channel.epoll.EpollSocketChannel").asSubclass(Channel.class);
+    } catch (final ClassNotFoundException e) {
+      throw new IllegalStateException("epoll transport is not available", e);
+    }
+  }
+}
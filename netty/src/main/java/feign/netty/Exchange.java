@@ -0,0 +1,207 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.netty;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import feign.Request;
+import feign.Response;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * One request and its response, on a connection acquired from a pool. Once a connection is
+ * acquired, all state is accessed from its event loop.
+ */
+final class Exchange {
+
+  private final CompletableFuture<Response> result = new CompletableFuture<>();
+  private final Request request;
+  private final FullHttpRequest httpRequest;
+  private final ChannelPool pool;
+  private final long readTimeoutNanos;
+  private final int maxResponseBytes;
+
+  private Channel channel;
+  private ResponseHandler handler;
+  private HttpResponse head;
+  private ByteBuf content;
+  private long lastReadNanos;
+  private ScheduledFuture<?> timeout;
+  private boolean done;
+
+  Exchange(Request request, FullHttpRequest httpRequest, ChannelPool pool, int readTimeoutMillis,
+      int maxResponseBytes) {
+    this.request = request;
+    this.httpRequest = httpRequest;
+    this.pool = pool;
+    this.readTimeoutNanos = MILLISECONDS.toNanos(readTimeoutMillis);
+    this.maxResponseBytes = maxResponseBytes;
+  }
+
+  CompletableFuture<Response> result() {
+    return result;
+  }
+
+  void acquired(Future<Channel> acquire) {
+    if (!acquire.isSuccess()) {
+      httpRequest.release();
+      result.completeExceptionally(acquire.cause());
+      return;
+    }
+    final Channel channel = acquire.getNow();
+    if (channel.eventLoop().inEventLoop()) {
+      start(channel);
+    } else {
+      channel.eventLoop().execute(() -> start(channel));
+    }
+  }
+
+  private void start(Channel channel) {
+    this.channel = channel;
+    this.handler = channel.pipeline().get(ResponseHandler.class);
+    if (result.isDone()) {
+      // cancelled while waiting for a connection, the request was not written
+      httpRequest.release();
+      finish(null, new CancellationException(), true);
+      return;
+    }
+    handler.start(this);
+    lastReadNanos = System.nanoTime();
+    if (readTimeoutNanos > 0) {
+      scheduleTimeout(readTimeoutNanos);
+    }
+    channel.writeAndFlush(httpRequest).addListener(write -> {
+      if (!write.isSuccess()) {
+        fail(write.cause());
+      }
+    });
+    result.whenComplete((response, throwable) -> {
+      if (result.isCancelled()) {
+        channel.eventLoop().execute(() -> finish(null, new CancellationException(), false));
+      }
+    });
+  }
+
+  void read(HttpObject msg) {
+    lastReadNanos = System.nanoTime();
+    if (msg.decoderResult().isFailure()) {
+      fail(new IOException("Invalid response", msg.decoderResult().cause()));
+      return;
+    }
+    if (msg instanceof HttpResponse) {
+      head = (HttpResponse) msg;
+      final long length = HttpUtil.getContentLength(head, -1L);
+      if (length > maxResponseBytes) {
+        fail(new IOException("Response body of " + length + " bytes is larger than "
+            + maxResponseBytes));
+        return;
+      }
+      content = channel.alloc().buffer(length >= 0 ? (int) length : 1024, maxResponseBytes);
+    }
+    if (msg instanceof HttpContent && content != null) {
+      final ByteBuf chunk = ((HttpContent) msg).content();
+      if (chunk.readableBytes() > content.maxWritableBytes()) {
+        fail(new IOException("Response body is larger than " + maxResponseBytes + " bytes"));
+        return;
+      }
+      content.writeBytes(chunk);
+      if (msg instanceof LastHttpContent) {
+        complete();
+      }
+    }
+  }
+
+  private void complete() {
+    final ByteBuf body = content;
+    content = null;
+    final Response.Builder response = Response.builder()
+        .status(head.status().code())
+        .reason(head.status().reasonPhrase())
+        .request(request)
+        .headers(feign.HttpHeaders.lazy(true, builder -> {
+          for (final Map.Entry<String, String> header : head.headers()) {
+            builder.add(header.getKey(), header.getValue());
+          }
+        }));
+    if (body.isReadable()) {
+      // the response owns the buffer, and releases it once closed
+      response.body(body.nioBuffer(), buffer -> body.release());
+    } else {
+      body.release();
+    }
+    finish(response.build(), null, HttpUtil.isKeepAlive(head));
+  }
+
+  void fail(Throwable cause) {
+    finish(null, cause, false);
+  }
+
+  private void scheduleTimeout(long delayNanos) {
+    timeout = channel.eventLoop().schedule(() -> {
+      final long idleNanos = System.nanoTime() - lastReadNanos;
+      if (idleNanos >= readTimeoutNanos) {
+        fail(new SocketTimeoutException("Read timed out"));
+      } else if (!done) {
+        scheduleTimeout(readTimeoutNanos - idleNanos);
+      }
+    }, delayNanos, NANOSECONDS);
+  }
+
+  /**
+   * Returns the connection to the pool, closing it unless it can be reused, then completes the
+   * result.
+   */
+  private void finish(Response response, Throwable error, boolean reusable) {
+    if (done) {
+      return;
+    }
+    done = true;
+    if (timeout != null) {
+      timeout.cancel(false);
+    }
+    if (content != null) {
+      content.release();
+      content = null;
+    }
+    handler.end();
+    if (!reusable) {
+      channel.close();
+    }
+    pool.release(channel);
+
+    if (response != null) {
+      if (!result.complete(response)) {
+        // cancelled while receiving
+        response.close();
+      }
+    } else {
+      result.completeExceptionally(error);
+    }
+  }
+}
@@ -0,0 +1,519 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.netty;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.FutureListener;
+
+/**
+ * This module directs Feign's http requests to <a href="https://netty.io/">Netty</a>, which sends
+ * them from an event loop, without blocking a thread per request. Ex.
+ *
+ * <pre>
+ * GitHub github = AsyncFeign.asyncBuilder()
+ *     .client(new NettyClient())
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ *
+ * <p>
+ * Connections are pooled per host, up to {@link Builder#maxConnectionsPerHost(int)}. Responses are
+ * received in full into pooled buffers, which {@link Response.BufferedBody} exposes without
+ * copying them, and which return to the pool when the response is closed. Responses returned as
+ * is must therefore be closed. Futures complete on the event loop, so their continuations must not
+ * block.
+ *
+ * <p>
+ * Redirects are followed when {@link Options#isFollowRedirects()}, up to 20 times like
+ * {@link java.net.HttpURLConnection}. {@code 303} responses, and {@code 301} or {@code 302}
+ * responses to other methods than {@code GET} or {@code HEAD}, are followed with a {@code GET}.
+ * Other redirects repeat the request, unless its body can only be written once, in which case the
+ * redirect is returned as is. Credentials are not sent to other origins.
+ *
+ * <p>
+ * The native epoll transport is used on Linux when {@code netty-transport-native-epoll}, an
+ * optional dependency, is on the classpath with the native library of the platform, such as its
+ * {@code linux-x86_64} classifier.
+ */
+@Experimental
+public final class NettyClient implements Client, AsyncClient<Object>, Closeable {
+
+  private static final int MAX_REDIRECTS = 20;
+  /* only sent to the origin they were meant for */
+  private static final List<String> ORIGIN_HEADERS =
+      Arrays.asList("Authorization", "Cookie", "Host");
+  /* describe the body, which a redirect changed to a GET drops */
+  private static final List<String> CONTENT_HEADERS =
+      Arrays.asList("Content-Type", "Content-Encoding", "Content-Length");
+
+  private final EventLoopGroup group;
+  private final boolean ownsGroup;
+  private final int maxResponseBytes;
+  private final AbstractChannelPoolMap<PoolKey, ChannelPool> pools;
+  private SslContext sslContext;
+
+  public NettyClient() {
+    this(builder());
+  }
+
+  private NettyClient(Builder builder) {
+    final Bootstrap bootstrap = new Bootstrap()
+        .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+        .option(ChannelOption.TCP_NODELAY, true);
+    if (builder.group != null) {
+      this.group = builder.group;
+      this.ownsGroup = false;
+      bootstrap.group(group).channel(builder.channelType);
+    } else {
+      final ThreadFactory threadFactory = new DefaultThreadFactory("feign-netty", true);
+      final EventLoopGroup epoll =
+          builder.nativeTransport ? Epoll.newEventLoopGroup(builder.threads, threadFactory) : null;
+      if (epoll != null) {
+        this.group = epoll;
+        bootstrap.group(group).channel(Epoll.socketChannelType());
+      } else {
+        this.group = new NioEventLoopGroup(builder.threads, threadFactory);
+        bootstrap.group(group).channel(NioSocketChannel.class);
+      }
+      this.ownsGroup = true;
+    }
+    this.sslContext = builder.sslContext;
+    this.maxResponseBytes = builder.maxResponseBytes;
+    final int maxConnectionsPerHost = builder.maxConnectionsPerHost;
+    this.pools = new AbstractChannelPoolMap<PoolKey, ChannelPool>() {
+      @Override
+      protected ChannelPool newPool(PoolKey key) {
+        final Bootstrap hostBootstrap = bootstrap.clone()
+            .remoteAddress(InetSocketAddress.createUnresolved(key.host, key.port))
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, key.connectTimeoutMillis);
+        return new FixedChannelPool(hostBootstrap, new PoolHandler(key), maxConnectionsPerHost);
+      }
+    };
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    final CompletableFuture<Response> future = execute(request, options, Optional.empty());
+    try {
+      return future.get();
+    } catch (final InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+    } catch (final ExecutionException e) {
+      throw Util.unwrapExecutionException(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<Object> requestContext) {
+    final CompletableFuture<Response> exchange = exchange(request, options);
+    if (!options.isFollowRedirects()) {
+      return exchange;
+    }
+    final CompletableFuture<Response> result = new CompletableFuture<>();
+    follow(result, request, exchange, options, 0);
+    return result;
+  }
+
+  /**
+   * Completes {@code result} with the response to {@code exchange}, or to the request it redirects
+   * to.
+   */
+  private void follow(CompletableFuture<Response> result,
+                      Request request,
+                      CompletableFuture<Response> exchange,
+                      Options options,
+                      int redirects) {
+    result.whenComplete((response, throwable) -> {
+      if (result.isCancelled()) {
+        exchange.cancel(true);
+      }
+    });
+    exchange.whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        result.completeExceptionally(throwable);
+        return;
+      }
+      final Request redirect;
+      try {
+        redirect = redirect(request, response);
+      } catch (final IOException e) {
+        response.close();
+        result.completeExceptionally(e);
+        return;
+      }
+      if (redirect == null) {
+        if (!result.complete(response)) {
+          response.close();
+        }
+        return;
+      }
+      response.close();
+      if (redirects == MAX_REDIRECTS) {
+        result.completeExceptionally(
+            new ProtocolException("Server redirected too many times (" + MAX_REDIRECTS + ")"));
+      } else if (!result.isDone()) {
+        final CompletableFuture<Response> next;
+        try {
+          next = exchange(redirect, options);
+        } catch (final RuntimeException e) {
+          result.completeExceptionally(e);
+          return;
+        }
+        follow(result, redirect, next, options, redirects + 1);
+      }
+    });
+  }
+
+  /**
+   * @return the request to send for a redirect, or null if {@code response} is not one to follow.
+   */
+  static Request redirect(Request request, Response response) throws IOException {
+    final int status = response.status();
+    if (status != 301 && status != 302 && status != 303 && status != 307 && status != 308) {
+      return null;
+    }
+    final Collection<String> locations = response.headers().get("Location");
+    if (locations == null || locations.isEmpty()) {
+      return null;
+    }
+    final URI from;
+    final URI to;
+    try {
+      from = new URI(request.url());
+      to = from.resolve(new URI(locations.iterator().next()));
+    } catch (final URISyntaxException | IllegalArgumentException e) {
+      throw new ProtocolException("Invalid redirect location " + locations.iterator().next());
+    }
+    if (!"http".equalsIgnoreCase(to.getScheme()) && !"https".equalsIgnoreCase(to.getScheme())) {
+      return null;
+    }
+
+    final Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.putAll(request.headers());
+    if (!sameOrigin(from, to)) {
+      ORIGIN_HEADERS.forEach(headers::remove);
+    }
+    final Request.HttpMethod method = request.httpMethod();
+    if (status == 303 && method != Request.HttpMethod.HEAD
+        || (status == 301 || status == 302) && method != Request.HttpMethod.GET
+            && method != Request.HttpMethod.HEAD) {
+      CONTENT_HEADERS.forEach(headers::remove);
+      return Request.create(Request.HttpMethod.GET, to.toString(), headers,
+          Request.Body.empty(), request.requestTemplate());
+    }
+    final Request.Body body = request.requestBody();
+    if (body.isStreaming() && body.asFile() == null) {
+      // already written, the caller gets to decide
+      return null;
+    }
+    return Request.create(method, to.toString(), headers, body, request.requestTemplate());
+  }
+
+  private static boolean sameOrigin(URI from, URI to) {
+    return from.getScheme().equalsIgnoreCase(to.getScheme())
+        && from.getHost() != null && from.getHost().equalsIgnoreCase(to.getHost())
+        && port(from) == port(to);
+  }
+
+  private static int port(URI uri) {
+    if (uri.getPort() != -1) {
+      return uri.getPort();
+    }
+    return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+  }
+
+  private CompletableFuture<Response> exchange(Request request, Options options) {
+    final URI uri;
+    final FullHttpRequest httpRequest;
+    try {
+      uri = new URI(request.url());
+      httpRequest = toNettyRequest(request, uri);
+    } catch (final URISyntaxException e) {
+      throw new IllegalArgumentException("Invalid uri " + request.url(), e);
+    } catch (final IOException e) {
+      final CompletableFuture<Response> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+
+    final ChannelPool pool = pools.get(new PoolKey(uri, options.connectTimeoutMillis()));
+    final Exchange exchange = new Exchange(request, httpRequest, pool,
+        options.readTimeoutMillis(), maxResponseBytes);
+    pool.acquire().addListener((FutureListener<Channel>) exchange::acquired);
+    return exchange.result();
+  }
+
+  /**
+   * Closes pooled connections, and shuts down the event loops, unless they were provided.
+   */
+  @Override
+  public void close() {
+    pools.close();
+    if (ownsGroup) {
+      group.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+    }
+  }
+
+  private static FullHttpRequest toNettyRequest(Request request, URI uri) throws IOException {
+    String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+    if (uri.getRawQuery() != null) {
+      path += "?" + uri.getRawQuery();
+    }
+    final FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+        HttpMethod.valueOf(request.httpMethod().name()), path, toContent(request));
+
+    final HttpHeaders headers = httpRequest.headers();
+    for (final Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+      // always set from the content below
+      if (!header.getKey().equalsIgnoreCase(HttpHeaderNames.CONTENT_LENGTH.toString())) {
+        headers.add(header.getKey(), header.getValue());
+      }
+    }
+    if (!headers.contains(HttpHeaderNames.HOST)) {
+      headers.set(HttpHeaderNames.HOST,
+          uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+    }
+    // some servers choke on the default accept string
+    if (!headers.contains(HttpHeaderNames.ACCEPT)) {
+      headers.set(HttpHeaderNames.ACCEPT, "*/*");
+    }
+    final boolean isMethodWithBody = request.httpMethod() == Request.HttpMethod.POST
+        || request.httpMethod() == Request.HttpMethod.PUT
+        || request.httpMethod() == Request.HttpMethod.PATCH;
+    if (isMethodWithBody || httpRequest.content().isReadable()) {
+      HttpUtil.setContentLength(httpRequest, httpRequest.content().readableBytes());
+    }
+    return httpRequest;
+  }
+
+  /**
+   * Wraps byte array bodies, and writes streamed ones to a pooled buffer on the calling thread, so
+   * that body writers never block the event loop.
+   */
+  private static ByteBuf toContent(Request request) throws IOException {
+    final byte[] data = request.body();
+    if (data != null) {
+      return Unpooled.wrappedBuffer(data);
+    }
+    final Request.Body body = request.requestBody();
+    if (!body.isStreaming()) {
+      return Unpooled.EMPTY_BUFFER;
+    }
+    final ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(body.contentLength() >= 0
+        ? (int) Math.min(body.contentLength(), Integer.MAX_VALUE)
+        : 256);
+    try (ByteBufOutputStream out = new ByteBufOutputStream(buffer)) {
+      body.writeTo(out);
+    } catch (IOException | RuntimeException e) {
+      buffer.release();
+      throw e;
+    }
+    return buffer;
+  }
+
+  private synchronized SslContext sslContext() throws IOException {
+    if (sslContext == null) {
+      sslContext = SslContextBuilder.forClient().build();
+    }
+    return sslContext;
+  }
+
+  private final class PoolHandler extends AbstractChannelPoolHandler {
+
+    private final PoolKey key;
+
+    PoolHandler(PoolKey key) {
+      this.key = key;
+    }
+
+    @Override
+    public void channelCreated(Channel channel) throws IOException {
+      final ChannelPipeline pipeline = channel.pipeline();
+      if (key.secure) {
+        pipeline.addLast(sslContext().newHandler(channel.alloc(), key.host, key.port));
+      }
+      pipeline.addLast(new HttpClientCodec());
+      pipeline.addLast(new ResponseHandler());
+    }
+  }
+
+  /**
+   * Connections are pooled by host, and by connect timeout since it is set when connecting.
+   */
+  private static final class PoolKey {
+
+    private final boolean secure;
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMillis;
+
+    PoolKey(URI uri, int connectTimeoutMillis) {
+      checkArgument("http".equalsIgnoreCase(uri.getScheme())
+          || "https".equalsIgnoreCase(uri.getScheme()), "Unsupported scheme in %s", uri);
+      this.secure = "https".equalsIgnoreCase(uri.getScheme());
+      this.host = checkNotNull(uri.getHost(), "host of %s", uri);
+      this.port = uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80;
+      this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof PoolKey)) {
+        return false;
+      }
+      final PoolKey that = (PoolKey) obj;
+      return secure == that.secure && port == that.port
+          && connectTimeoutMillis == that.connectTimeoutMillis && host.equals(that.host);
+    }
+
+    @Override
+    public int hashCode() {
+      return ((host.hashCode() * 31 + port) * 31 + connectTimeoutMillis) * 31 + (secure ? 1 : 0);
+    }
+  }
+
+  public static final class Builder {
+
+    private EventLoopGroup group;
+    private Class<? extends Channel> channelType;
+    private int threads;
+    private boolean nativeTransport = true;
+    private int maxConnectionsPerHost = 32;
+    private int maxResponseBytes = 64 * 1024 * 1024;
+    private SslContext sslContext;
+
+    private Builder() {}
+
+    /**
+     * Runs on {@code group}, which is not shut down when the client is closed, instead of event
+     * loops of its own.
+     *
+     * @param channelType of the socket channels supported by {@code group}.
+     */
+    public Builder eventLoopGroup(EventLoopGroup group, Class<? extends Channel> channelType) {
+      this.group = checkNotNull(group, "group");
+      this.channelType = checkNotNull(channelType, "channelType");
+      return this;
+    }
+
+    /**
+     * Number of event loops the client starts, twice the number of processors by default.
+     */
+    public Builder threads(int threads) {
+      checkArgument(threads >= 0, "threads must not be negative, was %s", threads);
+      this.threads = threads;
+      return this;
+    }
+
+    /**
+     * Whether to use the native epoll transport when available, true by default.
+     */
+    public Builder nativeTransport(boolean nativeTransport) {
+      this.nativeTransport = nativeTransport;
+      return this;
+    }
+
+    /**
+     * Connections kept open to each host, 32 by default. Requests wait for a connection beyond
+     * that.
+     */
+    public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+      checkArgument(maxConnectionsPerHost > 0, "maxConnectionsPerHost must be positive, was %s",
+          maxConnectionsPerHost);
+      this.maxConnectionsPerHost = maxConnectionsPerHost;
+      return this;
+    }
+
+    /**
+     * Fails responses with larger bodies, which are held in memory, 64MB by default.
+     */
+    public Builder maxResponseBytes(int maxResponseBytes) {
+      checkArgument(maxResponseBytes >= 0, "maxResponseBytes must not be negative, was %s",
+          maxResponseBytes);
+      this.maxResponseBytes = maxResponseBytes;
+      return this;
+    }
+
+    /**
+     * For https requests, by default the JDK's with its default trust store.
+     */
+    public Builder sslContext(SslContext sslContext) {
+      checkArgument(sslContext == null || sslContext.isClient(), "sslContext must be for clients");
+      this.sslContext = sslContext;
+      return this;
+    }
+
+    public NettyClient build() {
+      return new NettyClient(this);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.netty;
+
+import java.io.IOException;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.HttpObject;
+
+/**
+ * Passes the response received on a pooled connection to the {@link Exchange} using it.
+ */
+final class ResponseHandler extends SimpleChannelInboundHandler<HttpObject> {
+
+  /* only accessed from the event loop of the channel */
+  private Exchange exchange;
+
+  void start(Exchange exchange) {
+    this.exchange = exchange;
+  }
+
+  void end() {
+    this.exchange = null;
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+    if (exchange != null) {
+      exchange.read(msg);
+    } else {
+      // nothing was requested, the connection can't be trusted anymore
+      ctx.close();
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    if (exchange != null) {
+      exchange.fail(new IOException("Connection closed before the response was received"));
+    }
+    super.channelInactive(ctx);
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    if (exchange != null) {
+      exchange.fail(cause);
+    } else {
+      ctx.close();
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.netty;
+
+import static feign.Util.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.net.SocketTimeoutException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import feign.AsyncFeign;
+import feign.Feign;
+import feign.Feign.Builder;
+import feign.FeignException;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+import feign.Retryer;
+import feign.client.AbstractClientTest;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/** Tests client-specific behavior, such as ensuring Content-Length is sent when specified. */
+public class NettyClientTest extends AbstractClientTest {
+
+  private final NettyClient client = NettyClient.builder().maxResponseBytes(1024 * 1024).build();
+
+  @After
+  public void closeClient() {
+    client.close();
+  }
+
+  @Override
+  public Builder newBuilder() {
+    return Feign.builder().client(client);
+  }
+
+  @Override
+  @Test
+  public void parsesResponseMissingLength() throws IOException {
+    server.enqueue(new MockResponse().setChunkedBody("foo", 1));
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    Response response = api.post("testing");
+    assertThat(response.status()).isEqualTo(200);
+    // received in full, so the length is known
+    assertThat(response.body().length()).isEqualTo(3);
+    assertThat(response.body().asInputStream())
+        .hasSameContentAs(new ByteArrayInputStream("foo".getBytes(UTF_8)));
+  }
+
+  @Override
+  @Test
+  public void testVeryLongResponseNullLength() {
+    server.enqueue(new MockResponse()
+        .setBody("AAAAAAAA")
+        .addHeader("Content-Length", Long.MAX_VALUE));
+    TestInterface api = newBuilder()
+        .retryer(Retryer.NEVER_RETRY)
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    // the codec refuses conflicting lengths, and bodies this large couldn't be held in memory
+    assertThatThrownBy(() -> api.post("foo"))
+        .isInstanceOf(FeignException.class);
+  }
+
+  @Test
+  public void reusesPooledConnections() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+    server.enqueue(new MockResponse().setBody("bar"));
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    api.post("foo").close();
+    api.post("bar").close();
+
+    assertThat(server.takeRequest().getSequenceNumber()).isEqualTo(0);
+    assertThat(server.takeRequest().getSequenceNumber()).isEqualTo(1);
+  }
+
+  @Test
+  public void exposesPooledBufferWithoutCopying() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    try (Response response = api.post("foo")) {
+      assertThat(response.body()).isInstanceOf(Response.BufferedBody.class);
+      assertThat(((Response.BufferedBody) response.body()).asByteBuffer().isDirect()).isTrue();
+    }
+  }
+
+  @Test
+  public void failsWhenReadTimesOut() {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+    TestInterface api = newBuilder()
+        .retryer(Retryer.NEVER_RETRY)
+        .options(new Request.Options(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, true))
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertThatThrownBy(() -> api.post("foo"))
+        .isInstanceOf(FeignException.class)
+        .hasCauseInstanceOf(SocketTimeoutException.class);
+  }
+
+  @Test
+  public void sendsAsyncRequests() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    AsyncTestInterface api = AsyncFeign.asyncBuilder()
+        .client(client)
+        .target(AsyncTestInterface.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.post("bar").get()).isEqualTo("foo");
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("bar");
+  }
+
+  @Test
+  public void followsRedirectsWithGetAfterPost() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(303).addHeader("Location", "/moved"));
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    try (Response response = api.post("bar")) {
+      assertThat(response.status()).isEqualTo(200);
+    }
+    server.takeRequest();
+    RecordedRequest redirected = server.takeRequest();
+    assertThat(redirected.getMethod()).isEqualTo("GET");
+    assertThat(redirected.getPath()).isEqualTo("/moved");
+    assertThat(redirected.getBodySize()).isZero();
+  }
+
+  @Test
+  public void returnsRedirectsWhenNotFollowing() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(302).addHeader("Location", "/moved"));
+
+    TestInterface api = newBuilder()
+        .options(new Request.Options(1, TimeUnit.SECONDS, 1, TimeUnit.SECONDS, false))
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    try (Response response = api.post("bar")) {
+      assertThat(response.status()).isEqualTo(302);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void repeatsRequestOnTemporaryRedirectWithoutCredentialsToOtherOrigins()
+      throws Exception {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>();
+    headers.put("Authorization", Collections.singletonList("Bearer secret"));
+    headers.put("Content-Type", Collections.singletonList("text/plain"));
+    Request request = Request.create(Request.HttpMethod.PUT, "http://a.example/x", headers,
+        "body".getBytes(UTF_8), UTF_8, null);
+
+    Request sameOrigin = NettyClient.redirect(request, redirect(request, 307, "/y"));
+    assertThat(sameOrigin.httpMethod()).isEqualTo(Request.HttpMethod.PUT);
+    assertThat(sameOrigin.url()).isEqualTo("http://a.example/y");
+    assertThat(sameOrigin.body()).isEqualTo("body".getBytes(UTF_8));
+    assertThat(sameOrigin.headers()).containsKeys("Authorization", "Content-Type");
+
+    Request otherOrigin =
+        NettyClient.redirect(request, redirect(request, 308, "https://b.example/z"));
+    assertThat(otherOrigin.url()).isEqualTo("https://b.example/z");
+    assertThat(otherOrigin.headers()).containsOnlyKeys("Content-Type");
+  }
+
+  @Test
+  public void failsAfterTooManyRedirects() {
+    for (int i = 0; i <= 20; i++) {
+      server.enqueue(new MockResponse().setResponseCode(302).addHeader("Location", "/again"));
+    }
+
+    TestInterface api = newBuilder()
+        .retryer(Retryer.NEVER_RETRY)
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertThatThrownBy(() -> api.post("foo"))
+        .isInstanceOf(FeignException.class)
+        .hasCauseInstanceOf(ProtocolException.class);
+    assertThat(server.getRequestCount()).isEqualTo(21);
+  }
+
+  private static Response redirect(Request request, int status, String location) {
+    return Response.builder()
+        .status(status)
+        .request(request)
+        .headers(Collections.singletonMap("Location", Collections.singletonList(location)))
+        .build();
+  }
+
+  public interface AsyncTestInterface {
+
+    @RequestLine("POST /")
+    CompletableFuture<String> post(String body);
+  }
+}
@@ -17,12 +17,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import feign.AsyncClient;
 import feign.Client;
+import feign.ClientCache;
 import feign.Request.HttpMethod;
+import feign.Request.Options;
 import okhttp3.*;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
 
 /**
  * This module directs Feign's http requests to
@@ -32,10 +41,18 @@ import okhttp3.*;
  * <pre>
  * GitHub github = Feign.builder().client(new OkHttpClient()).target(GitHub.class,
  * "https://api.github.com");
+ * </pre>
+ *
+ * <p>
+ * With {@link feign.AsyncFeign}, calls are enqueued on the {@link Dispatcher} of OkHttp, which
+ * limits how many run concurrently, in total and per host.
  */
-public final class OkHttpClient implements Client {
+public final class OkHttpClient implements Client, AsyncClient<Object> {
 
   private final okhttp3.OkHttpClient delegate;
+  /* derived clients share the connection pool and dispatcher of the delegate */
+  private final ClientCache<OptionsKey, okhttp3.OkHttpClient> derivedClients =
+      new ClientCache<>();
 
   public OkHttpClient() {
     this(new okhttp3.OkHttpClient());
@@ -84,11 +101,43 @@ public final class OkHttpClient implements Client {
       }
     }
 
-    RequestBody body = inputBody != null ? RequestBody.create(mediaType, inputBody) : null;
+    RequestBody body;
+    if (input.requestBody().isStreaming()) {
+      body = toStreamingBody(mediaType, input.requestBody());
+    } else {
+      body = inputBody != null ? RequestBody.create(mediaType, inputBody) : null;
+    }
     requestBuilder.method(input.httpMethod().name(), body);
     return requestBuilder.build();
   }
 
+  private static RequestBody toStreamingBody(MediaType mediaType, feign.Request.Body input) {
+    return new RequestBody() {
+      @Override
+      public MediaType contentType() {
+        return mediaType;
+      }
+
+      @Override
+      public long contentLength() {
+        return input.contentLength();
+      }
+
+      @Override
+      public void writeTo(BufferedSink sink) throws IOException {
+        Path file = input.asFile();
+        if (file != null) {
+          // read straight into okio segments, instead of copying through an OutputStream
+          try (Source source = Okio.source(file)) {
+            sink.writeAll(source);
+          }
+        } else {
+          input.writeTo(sink.outputStream());
+        }
+      }
+    };
+  }
+
   private static feign.Response toFeignResponse(Response response, feign.Request request)
       throws IOException {
     return feign.Response.builder()
@@ -153,20 +202,88 @@ public final class OkHttpClient implements Client {
   @Override
   public feign.Response execute(feign.Request input, feign.Request.Options options)
       throws IOException {
-    okhttp3.OkHttpClient requestScoped;
-    if (delegate.connectTimeoutMillis() != options.connectTimeoutMillis()
-        || delegate.readTimeoutMillis() != options.readTimeoutMillis()
-        || delegate.followRedirects() != options.isFollowRedirects()) {
-      requestScoped = delegate.newBuilder()
-          .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
-          .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
-          .followRedirects(options.isFollowRedirects())
-          .build();
-    } else {
-      requestScoped = delegate;
-    }
     Request request = toOkHttpRequest(input);
-    Response response = requestScoped.newCall(request).execute();
+    Response response = requestScoped(options).newCall(request).execute();
     return toFeignResponse(response, input).toBuilder().request(input).build();
   }
+
+  /**
+   * Enqueues the call, completing the future from its callback. Cancelling the future cancels the
+   * call.
+   */
+  @Override
+  public CompletableFuture<feign.Response> execute(feign.Request input,
+                                                   Options options,
+                                                   Optional<Object> requestContext) {
+    final Call call = requestScoped(options).newCall(toOkHttpRequest(input));
+    final CompletableFuture<feign.Response> result = new CompletableFuture<>();
+    result.whenComplete((response, throwable) -> {
+      if (result.isCancelled()) {
+        call.cancel();
+      }
+    });
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(Call call, IOException e) {
+        result.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(Call call, Response response) {
+        try {
+          if (!result.complete(toFeignResponse(response, input))) {
+            // cancelled while executing
+            response.close();
+          }
+        } catch (IOException | RuntimeException e) {
+          response.close();
+          result.completeExceptionally(e);
+        }
+      }
+    });
+    return result;
+  }
+
+  private okhttp3.OkHttpClient requestScoped(Options options) {
+    if (delegate.connectTimeoutMillis() == options.connectTimeoutMillis()
+        && delegate.readTimeoutMillis() == options.readTimeoutMillis()
+        && delegate.followRedirects() == options.isFollowRedirects()) {
+      return delegate;
+    }
+    OptionsKey key = new OptionsKey(options);
+    return derivedClients.get(key, k -> delegate.newBuilder()
+        .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .followRedirects(options.isFollowRedirects())
+        .build());
+  }
+
+  private static final class OptionsKey {
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final boolean followRedirects;
+
+    OptionsKey(Options options) {
+      this.connectTimeoutMillis = options.connectTimeoutMillis();
+      this.readTimeoutMillis = options.readTimeoutMillis();
+      this.followRedirects = options.isFollowRedirects();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof OptionsKey)) {
+        return false;
+      }
+      OptionsKey that = (OptionsKey) obj;
+      return connectTimeoutMillis == that.connectTimeoutMillis
+          && readTimeoutMillis == that.readTimeoutMillis
+          && followRedirects == that.followRedirects;
+    }
+
+    @Override
+    public int hashCode() {
+      return (connectTimeoutMillis * 31 + readTimeoutMillis) * 31 + (followRedirects ? 1 : 0);
+    }
+  }
 }
@@ -13,6 +13,7 @@
  */
 package feign.okhttp;
 
+import feign.AsyncFeign;
 import feign.Feign.Builder;
 import feign.Headers;
 import feign.RequestLine;
@@ -24,11 +25,17 @@ import feign.client.AbstractClientTest;
 import feign.Feign;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.EventListener;
 import okhttp3.mockwebserver.MockResponse;
 import org.assertj.core.data.MapEntry;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /** Tests client-specific behavior, such as ensuring Content-Length is sent when specified. */
 public class OkHttpClientTest extends AbstractClientTest {
@@ -104,6 +111,46 @@ public class OkHttpClientTest extends AbstractClientTest {
   }
 
 
+  @Test
+  public void enqueuesAsyncCalls() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    AsyncTestInterface api = AsyncFeign.asyncBuilder()
+        .client(new OkHttpClient())
+        .target(AsyncTestInterface.class, "http://localhost:" + server.getPort());
+
+    assertEquals("foo", api.get().get());
+  }
+
+  @Test
+  public void cancellingFutureCancelsCall() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").setHeadersDelay(10, TimeUnit.SECONDS));
+    CountDownLatch cancelled = new CountDownLatch(1);
+    OkHttpClient client = new OkHttpClient(new okhttp3.OkHttpClient.Builder()
+        .eventListener(new EventListener() {
+          @Override
+          public void canceled(Call call) {
+            cancelled.countDown();
+          }
+        })
+        .build());
+
+    CompletableFuture<Response> result = client.execute(
+        Request.create(Request.HttpMethod.GET, "http://localhost:" + server.getPort(),
+            Collections.emptyMap(), Request.Body.empty(), null),
+        new Request.Options(), Optional.empty());
+    server.takeRequest();
+    result.cancel(true);
+
+    assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+  }
+
+  public interface AsyncTestInterface {
+
+    @RequestLine("GET /")
+    CompletableFuture<String> get();
+  }
+
   public interface OkHttpClientTestInterface {
 
     @RequestLine("GET /")
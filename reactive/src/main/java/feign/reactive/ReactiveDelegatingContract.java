@@ -76,4 +76,15 @@ public class ReactiveDelegatingContract implements Contract {
     Class<?> raw = (Class<?>) parameterizedType.getRawType();
     return Publisher.class.isAssignableFrom(raw);
   }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof ReactiveDelegatingContract
+        && delegate.equals(((ReactiveDelegatingContract) obj).delegate);
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
 }
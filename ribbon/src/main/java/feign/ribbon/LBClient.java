@@ -26,12 +26,12 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import feign.Client;
+import feign.HttpHeaders;
 import feign.Request;
 import feign.Response;
 import feign.Util;
@@ -123,11 +123,15 @@ public final class LBClient extends
       // add header "Content-Length" according to the request body
       final byte[] body = request.body();
       final int bodyLength = body != null ? body.length : 0;
-      // create a new Map to avoid side effect, not to change the old headers
-      Map<String, Collection<String>> headers = new LinkedHashMap<String, Collection<String>>();
-      headers.putAll(request.headers());
-      headers.put(Util.CONTENT_LENGTH, Collections.singletonList(String.valueOf(bodyLength)));
-      return Request.create(request.httpMethod(), getUri().toASCIIString(), headers, body,
+      // create new headers to avoid side effect, not to change the old headers
+      HttpHeaders.Builder headers = HttpHeaders.builder();
+      for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+        if (!Util.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+          headers.add(header.getKey(), header.getValue());
+        }
+      }
+      headers.add(Util.CONTENT_LENGTH, String.valueOf(bodyLength));
+      return Request.create(request.httpMethod(), getUri().toASCIIString(), headers.build(), body,
           request.charset());
     }
 